@@ -1,6 +1,7 @@
 package nl.tudelft.watchdog.core.logic.document;
 
 import java.io.Serializable;
+import java.util.function.Consumer;
 
 import nl.tudelft.watchdog.core.util.WatchDogUtilsBase;
 
@@ -39,6 +40,18 @@ public class Document implements Serializable {
 
 	private transient String content;
 
+	/** Whether the hashes, sloc and type of this document are computed. */
+	private transient boolean isPrepared;
+
+	/** The number of intervals that still need the content. */
+	private transient int references;
+
+	/** Whether the content was dropped because no interval needs it anymore. */
+	private transient boolean isContentReleased;
+
+	/** Is passed this document once it is prepared, or <code>null</code>. */
+	private transient Consumer<Document> preparedListener;
+
 	/** Constructor. */
 	public Document(String projectName, String fileName, String filePath,
 			String content) {
@@ -48,6 +61,20 @@ public class Document implements Serializable {
 		this.content = content;
 	}
 
+	/**
+	 * Constructor for a document whose statistics are already known, which is
+	 * therefore prepared.
+	 */
+	Document(String projectName, String fileName, String filePath, String content, String projectNameHash,
+			String nameHash, long sloc, DocumentType docType) {
+		this(projectName, fileName, filePath, content);
+		this.projectNameHash = projectNameHash;
+		this.nameHash = nameHash;
+		this.sloc = sloc;
+		this.docType = docType;
+		this.isPrepared = true;
+	}
+
 	/** @return the project's name */
 	public String getProjectName() {
 		return projectName;
@@ -58,23 +85,80 @@ public class Document implements Serializable {
 		return name;
 	}
 
+	/** @return the file's path */
+	public String getFilePath() {
+		return filePath;
+	}
+
+	/** @return the hash of the project's name, once prepared */
+	String getProjectNameHash() {
+		return projectNameHash;
+	}
+
+	/** @return the hash of the file's name, once prepared */
+	String getFileNameHash() {
+		return nameHash;
+	}
+
+	/** @return the file's length in SLOC, once prepared */
+	long getSloc() {
+		return sloc;
+	}
+
 	/** @return the document type */
 	public DocumentType getDocumentType() {
 		return docType;
 	}
 
-	/** @return the contents of the document. */
-	public String getContent() {
+	/**
+	 * @return the contents of the document, or <code>null</code> if they are
+	 *         unknown or were released.
+	 */
+	public synchronized String getContent() {
 		return content;
 	}
 
+	/**
+	 * Marks the content as needed by one more interval.
+	 *
+	 * @return <code>false</code> if the content was already released.
+	 */
+	public synchronized boolean retain() {
+		if (isContentReleased) {
+			return false;
+		}
+		references++;
+		return true;
+	}
+
+	/**
+	 * Marks the content as no longer needed by one interval. When no interval
+	 * needs it anymore, the content of the prepared document is released, as
+	 * only its statistics are kept.
+	 */
+	public synchronized void release() {
+		if (references > 0) {
+			references--;
+		}
+		if (references == 0 && isPrepared) {
+			content = null;
+			isContentReleased = true;
+		}
+	}
+
 	/** Sets the document type to the supplied type. */
 	public void setDocumentType(DocumentType type) {
 		this.docType = type;
 	}
 
-	/** Prepares this document to extract statistics out of it. */
-	public Document prepareDocument() {
+	/**
+	 * Prepares this document to extract statistics out of it. As the contents
+	 * of a document do not change, this is only done once.
+	 */
+	public synchronized Document prepareDocument() {
+		if (isPrepared) {
+			return this;
+		}
 		this.nameHash = WatchDogUtilsBase.createFileNameHash(name);
 		if (projectName != null) {
 			this.projectNameHash = WatchDogUtilsBase.createHash(projectName);
@@ -83,7 +167,20 @@ public class Document implements Serializable {
 			this.sloc = WatchDogUtilsBase.countSLOC(content);
 			this.docType = DocumentClassifier.classifyDocument(name, filePath,
 					content);
+			isPrepared = true;
+			if (preparedListener != null) {
+				preparedListener.accept(this);
+				preparedListener = null;
+			}
 		}
 		return this;
 	}
+
+	/**
+	 * Sets the listener that is passed this document once it is prepared,
+	 * typically on the thread of the interval closer.
+	 */
+	synchronized void setPreparedListener(Consumer<Document> preparedListener) {
+		this.preparedListener = preparedListener;
+	}
 }
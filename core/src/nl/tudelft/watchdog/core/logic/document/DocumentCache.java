@@ -0,0 +1,118 @@
+package nl.tudelft.watchdog.core.logic.document;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * A bounded least-recently-used cache of the statistics of prepared
+ * {@link Document}s, that is their hashes, SLOC and {@link DocumentType},
+ * keyed by the path of their file and the modification stamp the IDE assigns
+ * to the file's contents.
+ *
+ * Every reading and typing interval creates a document for its editor. When
+ * the developer switches between the same files, the cache prevents that
+ * unchanged files are hashed, counted and classified over and over again.
+ * Documents of files that are not cached are prepared as before, by the
+ * closer of their interval in the background, which then adds their
+ * statistics to the cache. The content of the documents is not cached.
+ */
+public class DocumentCache {
+
+	/** The default number of documents that are cached. */
+	public static final int DEFAULT_CAPACITY = 32;
+
+	private final Map<String, CachedStatistics> documents;
+
+	/** Constructor. */
+	public DocumentCache(final int capacity) {
+		this.documents = new LinkedHashMap<String, CachedStatistics>(16, 0.75f, true) {
+
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, CachedStatistics> eldest) {
+				return size() > capacity;
+			}
+		};
+	}
+
+	/**
+	 * Creates the document for the given file. If the statistics of the file
+	 * at the given modification stamp are cached, the document is prepared
+	 * with them. Otherwise, the document is returned unprepared, and its
+	 * statistics are cached once it is prepared.
+	 *
+	 * @param cacheKey
+	 *            The path that identifies the file in the IDE.
+	 */
+	public Document createDocument(String cacheKey, long modificationStamp, String projectName, String fileName,
+			String filePath, String content) {
+		CachedStatistics cached = get(cacheKey, modificationStamp, projectName, fileName, filePath);
+		if (cached != null) {
+			return new Document(projectName, fileName, filePath, content, cached.projectNameHash, cached.nameHash,
+					cached.sloc, cached.docType);
+		}
+		Document document = new Document(projectName, fileName, filePath, content);
+		if (content != null) {
+			document.setPreparedListener(prepared -> put(cacheKey, modificationStamp, prepared));
+		}
+		return document;
+	}
+
+	private synchronized CachedStatistics get(String cacheKey, long modificationStamp, String projectName,
+			String fileName, String filePath) {
+		CachedStatistics cached = documents.get(cacheKey);
+		if (cached == null || cached.modificationStamp != modificationStamp
+				|| !Objects.equals(cached.projectName, projectName) || !Objects.equals(cached.fileName, fileName)
+				|| !Objects.equals(cached.filePath, filePath)) {
+			return null;
+		}
+		return cached;
+	}
+
+	private synchronized void put(String cacheKey, long modificationStamp, Document document) {
+		documents.put(cacheKey, new CachedStatistics(modificationStamp, document));
+	}
+
+	/** Removes all cached statistics. */
+	public synchronized void clear() {
+		documents.clear();
+	}
+
+	/** @return the number of cached documents. */
+	public synchronized int size() {
+		return documents.size();
+	}
+
+	/** The statistics of a prepared document, without its content. */
+	private static class CachedStatistics {
+
+		private final long modificationStamp;
+
+		private final String projectName;
+
+		private final String fileName;
+
+		private final String filePath;
+
+		private final String projectNameHash;
+
+		private final String nameHash;
+
+		private final long sloc;
+
+		private final DocumentType docType;
+
+		private CachedStatistics(long modificationStamp, Document document) {
+			this.modificationStamp = modificationStamp;
+			this.projectName = document.getProjectName();
+			this.fileName = document.getFileName();
+			this.filePath = document.getFilePath();
+			this.projectNameHash = document.getProjectNameHash();
+			this.nameHash = document.getFileNameHash();
+			this.sloc = document.getSloc();
+			this.docType = document.getDocumentType();
+		}
+	}
+}
@@ -1,10 +1,56 @@
 package nl.tudelft.watchdog.core.logic.document;
 
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Queue;
 
 /**
  * Estimates the nature of a document into one of {@link DocumentType}.
+ *
+ * Performance optimization: the contents are scanned exactly once, by an
+ * Aho-Corasick automaton that searches for all patterns at the same time.
+ * Runs of whitespace are collapsed while scanning, without copying the
+ * contents, and the scan stops as soon as the document is known to be a test.
  */
 public class DocumentClassifier {
+
+	/** An import of JUnit 3, JUnit 4 or TestNG. */
+	private static final int JUNIT_IMPORT = 1;
+
+	/** A JUnit 4 test annotation or a JUnit 3 test case. */
+	private static final int TEST_ANNOTATION = 2;
+
+	/** An import of a mocking framework. */
+	private static final int TESTING_FRAMEWORK = 4;
+
+	private static final String[] PATTERNS = { "import org.junit", "import static org.junit",
+			"import org.testng", "import static org.testng", "import junit.framework", "@Test",
+			"extends TestCase", "import org.mockito", "import org.powermock", "import static org.powermock" };
+
+	private static final int[] PATTERN_FLAGS = { JUNIT_IMPORT, JUNIT_IMPORT, JUNIT_IMPORT, JUNIT_IMPORT,
+			JUNIT_IMPORT, TEST_ANNOTATION, TEST_ANNOTATION, TESTING_FRAMEWORK, TESTING_FRAMEWORK,
+			TESTING_FRAMEWORK };
+
+	/**
+	 * Maps ASCII characters to their column in {@link #transitions}. All other
+	 * characters, which occur in none of the patterns, share column 0.
+	 */
+	private static final int[] CHARACTER_CLASSES = new int[128];
+
+	private static int numberOfCharacterClasses;
+
+	/** The transitions of the automaton, indexed by state and column. */
+	private static int[] transitions;
+
+	/** The patterns found when reaching a state. */
+	private static int[] stateFlags;
+
+	static {
+		buildAutomaton();
+	}
+
 	/**
 	 * Classifies the document type of the given document, by analyzing its
 	 * filename and its contents.
@@ -12,15 +58,13 @@ public class DocumentClassifier {
 	public static DocumentType classifyDocument(String fileName,
 			String filePath, String fileContents) {
 		fileName = fileName.toLowerCase();
-		// Collapse multiple spaces in a row to one
-		String preparedContents = fileContents.replaceAll("\\s+", " ");
 
 		if (isJavaFile(fileName)) {
-			if (containsJUnitImports(preparedContents)
-					&& containsTestAnnotation(preparedContents)) {
+			int found = scanContents(fileContents);
+			if ((found & JUNIT_IMPORT) != 0 && (found & TEST_ANNOTATION) != 0) {
 				return DocumentType.TEST;
 			}
-			if (containsTestingFramework(preparedContents)) {
+			if ((found & TESTING_FRAMEWORK) != 0) {
 				return DocumentType.TEST_FRAMEWORK;
 			}
 			if (fileName.contains("test")) {
@@ -35,17 +79,6 @@ public class DocumentClassifier {
 		return DocumentType.UNDEFINED;
 	}
 
-	private static boolean containsTestingFramework(String preparedContents) {
-		if (preparedContents.contains("import org.mockito")) {
-			return true;
-		} else if (preparedContents.contains("import org.powermock")
-				|| preparedContents.contains("import static org.powermock")) {
-			return true;
-		} else {
-			return false;
-		}
-	}
-
 	/**
 	 * @return <code>true</code> if fileName ends in .java
 	 */
@@ -58,51 +91,112 @@ public class DocumentClassifier {
 	}
 
 	/**
-	 * @return <code>true</code> if JUnit3 or 4 is being used,
-	 *         <code>false</code> otherwise.
+	 * Scans the contents, in which multiple whitespace characters in a row
+	 * count as a single space.
+	 *
+	 * @return the flags of the patterns found in the contents.
 	 */
-	private static boolean containsJUnitImports(String fileContents) {
-		return containsJUnit4Imports(fileContents)
-				| containsJunit3Import(fileContents);
-	}
+	private static int scanContents(String contents) {
+		int state = 0;
+		int found = 0;
+		boolean previousWasWhitespace = false;
+		for (int i = 0, length = contents.length(); i < length; i++) {
+			char character = contents.charAt(i);
+			if (isWhitespace(character)) {
+				if (previousWasWhitespace) {
+					continue;
+				}
+				previousWasWhitespace = true;
+				character = ' ';
+			} else {
+				previousWasWhitespace = false;
+			}
 
-	/**
-	 * @return <code>true</code> if there's an import for org.junit or
-	 *         org.testng
-	 */
-	private static boolean containsJUnit4Imports(String fileContents) {
-		if (fileContents.contains("import org.junit")
-				|| fileContents.contains("import static org.junit")) {
-			return true;
-		} else if (fileContents.contains("import org.testng")
-				|| fileContents.contains("import static org.testng")) {
-			return true;
-		} else {
-			return false;
+			int characterClass = character < CHARACTER_CLASSES.length ? CHARACTER_CLASSES[character] : 0;
+			state = transitions[state * numberOfCharacterClasses + characterClass];
+			if (stateFlags[state] != 0) {
+				found |= stateFlags[state];
+				if ((found & JUNIT_IMPORT) != 0 && (found & TEST_ANNOTATION) != 0) {
+					break;
+				}
+			}
 		}
+		return found;
 	}
 
-	private static boolean containsJunit3Import(String fileContents) {
-		if (fileContents.contains("import junit.framework")) {
-			return true;
-		}
-		return false;
+	/** @return whether the character is matched by the regular expression \s. */
+	private static boolean isWhitespace(char character) {
+		return character == ' ' || (character >= '\t' && character <= '\r');
 	}
 
 	/**
-	 * @return <code>true</code> if the editor contains (at least one) @Test
-	 *         annotation.
+	 * Builds the deterministic automaton, in which the failure transitions of
+	 * the Aho-Corasick trie are already resolved.
 	 */
-	private static boolean containsTestAnnotation(String contents) {
-		if (contents.contains("@Test")) {
-			// Junit4
-			return true;
-		} else if (contents.contains("extends TestCase")) {
-			// Junit3
-			return true;
-		} else {
-			return false;
+	private static void buildAutomaton() {
+		numberOfCharacterClasses = 1;
+		for (String pattern : PATTERNS) {
+			for (char character : pattern.toCharArray()) {
+				if (CHARACTER_CLASSES[character] == 0) {
+					CHARACTER_CLASSES[character] = numberOfCharacterClasses++;
+				}
+			}
+		}
+
+		// The trie, in which missing children are -1.
+		List<int[]> children = new ArrayList<int[]>();
+		List<Integer> flags = new ArrayList<Integer>();
+		children.add(createState());
+		flags.add(0);
+		for (int pattern = 0; pattern < PATTERNS.length; pattern++) {
+			int state = 0;
+			for (char character : PATTERNS[pattern].toCharArray()) {
+				int characterClass = CHARACTER_CLASSES[character];
+				if (children.get(state)[characterClass] < 0) {
+					children.get(state)[characterClass] = children.size();
+					children.add(createState());
+					flags.add(0);
+				}
+				state = children.get(state)[characterClass];
+			}
+			flags.set(state, flags.get(state) | PATTERN_FLAGS[pattern]);
+		}
+
+		int numberOfStates = children.size();
+		transitions = new int[numberOfStates * numberOfCharacterClasses];
+		stateFlags = new int[numberOfStates];
+		int[] failures = new int[numberOfStates];
+
+		// Breadth-first, so that the failure state is complete before its use.
+		Queue<Integer> queue = new ArrayDeque<Integer>();
+		for (int characterClass = 0; characterClass < numberOfCharacterClasses; characterClass++) {
+			int child = children.get(0)[characterClass];
+			if (child > 0) {
+				transitions[characterClass] = child;
+				queue.add(child);
+			}
+		}
+		while (!queue.isEmpty()) {
+			int state = queue.poll();
+			int failure = failures[state];
+			stateFlags[state] = flags.get(state) | stateFlags[failure];
+			for (int characterClass = 0; characterClass < numberOfCharacterClasses; characterClass++) {
+				int child = children.get(state)[characterClass];
+				int next = transitions[failure * numberOfCharacterClasses + characterClass];
+				if (child < 0) {
+					transitions[state * numberOfCharacterClasses + characterClass] = next;
+				} else {
+					transitions[state * numberOfCharacterClasses + characterClass] = child;
+					failures[child] = next;
+					queue.add(child);
+				}
+			}
 		}
 	}
 
+	private static int[] createState() {
+		int[] state = new int[numberOfCharacterClasses];
+		Arrays.fill(state, -1);
+		return state;
+	}
 }
@@ -0,0 +1,246 @@
+package nl.tudelft.watchdog.core.logic.document;
+
+import java.util.Arrays;
+
+/**
+ * Calculates the Levenshtein distance between two versions of a document.
+ *
+ * The calculation first strips the common prefix and suffix of both versions,
+ * as typing typically only touches a small region of a file. The remaining
+ * region is compared with Myers' bit-vector algorithm (in the blocked variant
+ * of Hyyro), which processes 64 rows of the dynamic programming matrix per
+ * machine word. The computation is restricted to an Ukkonen band around the
+ * diagonal, whose width is given by an upper bound on the distance. For
+ * typing intervals, the modification count is such an upper bound.
+ *
+ * If the supplied bound turns out to be too small (e.g. because the starting
+ * document was read from disk and differs from the editor's buffer), the band
+ * is doubled until the result is exact, or until the calculation exceeds
+ * {@link #MAX_BLOCK_OPERATIONS}.
+ *
+ * @see <a href="https://doi.org/10.1145/316542.316550">Myers, A fast
+ *      bit-vector algorithm for approximate string matching based on dynamic
+ *      programming</a>
+ */
+public class EditDistanceCalculator {
+
+	/** Returned when the distance could not be calculated within budget. */
+	public static final long UNKNOWN_DISTANCE = -1;
+
+	/**
+	 * The maximum number of 64-row block updates performed for a single
+	 * calculation. Bounds the time spent on the interval closer thread for
+	 * documents whose versions have nothing in common.
+	 */
+	static final long MAX_BLOCK_OPERATIONS = 50000000;
+
+	private static final int BLOCK_SIZE = 64;
+
+	private static final int BLOCK_SHIFT = 6;
+
+	/**
+	 * @return the Levenshtein distance between the source and the target, or
+	 *         {@link #UNKNOWN_DISTANCE} if it is too expensive to calculate.
+	 *         The upperBound is a hint for the expected maximum distance; it
+	 *         does not need to be exact.
+	 */
+	public static long computeLevenshteinDistance(CharSequence source,
+			CharSequence target, long upperBound) {
+		int sourceLength = source.length();
+		int targetLength = target.length();
+
+		int prefix = 0;
+		int maxPrefix = Math.min(sourceLength, targetLength);
+		while (prefix < maxPrefix
+				&& source.charAt(prefix) == target.charAt(prefix)) {
+			prefix++;
+		}
+		int suffix = 0;
+		int maxSuffix = maxPrefix - prefix;
+		while (suffix < maxSuffix
+				&& source.charAt(sourceLength - suffix - 1) == target
+						.charAt(targetLength - suffix - 1)) {
+			suffix++;
+		}
+
+		int sourceRegion = sourceLength - prefix - suffix;
+		int targetRegion = targetLength - prefix - suffix;
+		if (sourceRegion == 0 || targetRegion == 0) {
+			return Math.max(sourceRegion, targetRegion);
+		}
+
+		// The shorter region is the pattern, the longer one the text.
+		CharSequence pattern = source;
+		CharSequence text = target;
+		int patternLength = sourceRegion;
+		int textLength = targetRegion;
+		if (sourceRegion > targetRegion) {
+			pattern = target;
+			text = source;
+			patternLength = targetRegion;
+			textLength = sourceRegion;
+		}
+
+		long band = Math.max(upperBound, textLength - patternLength);
+		band = Math.max(band, 1);
+		while (true) {
+			band = Math.min(band, textLength);
+			long blocksPerColumn = ((2 * band) >> BLOCK_SHIFT) + 2;
+			if (blocksPerColumn * textLength > MAX_BLOCK_OPERATIONS) {
+				return UNKNOWN_DISTANCE;
+			}
+			int distance = new BandedCalculation(pattern, text, prefix,
+					patternLength, textLength, (int) band).run();
+			if (distance <= band || band == textLength) {
+				return distance;
+			}
+			band *= 2;
+		}
+	}
+
+	/**
+	 * A single calculation of the distance within a fixed band. The result is
+	 * exact if it does not exceed the band, and an over-estimation otherwise.
+	 */
+	private static class BandedCalculation {
+
+		private final CharSequence pattern;
+		private final CharSequence text;
+		private final int offset;
+		private final int patternLength;
+		private final int textLength;
+		private final int band;
+
+		private final int blockCount;
+		private final int lastBlockBit;
+
+		/**
+		 * Maps characters of the pattern to their index in the peq rows. Index
+		 * 0 represents all characters that do not occur in the pattern.
+		 */
+		private final char[] alphabetIndex;
+		private final int alphabetSize;
+
+		/**
+		 * The pattern match vectors of the blocks within the band, stored in a
+		 * ring buffer of {@link #slots} entries.
+		 */
+		private final long[][] peq;
+		private final int slots;
+
+		private final long[] positiveVertical;
+		private final long[] negativeVertical;
+
+		BandedCalculation(CharSequence pattern, CharSequence text, int offset,
+				int patternLength, int textLength, int band) {
+			this.pattern = pattern;
+			this.text = text;
+			this.offset = offset;
+			this.patternLength = patternLength;
+			this.textLength = textLength;
+			this.band = band;
+
+			blockCount = ((patternLength - 1) >> BLOCK_SHIFT) + 1;
+			lastBlockBit = (patternLength - 1) & (BLOCK_SIZE - 1);
+
+			alphabetIndex = new char[Character.MAX_VALUE + 1];
+			int size = 1;
+			for (int i = 0; i < patternLength; i++) {
+				char character = pattern.charAt(offset + i);
+				if (alphabetIndex[character] == 0) {
+					alphabetIndex[character] = (char) size++;
+				}
+			}
+			alphabetSize = size;
+
+			slots = Math.min(blockCount, ((2 * band) >> BLOCK_SHIFT) + 2);
+			peq = new long[slots][];
+			positiveVertical = new long[slots];
+			negativeVertical = new long[slots];
+		}
+
+		int run() {
+			int lowBlock = 0;
+			int highBlock = -1;
+			int score = 0;
+
+			for (int column = 0; column < textLength; column++) {
+				// Blocks that left the band are dropped before new ones are
+				// activated, so that they can reuse their ring buffer slots.
+				lowBlock = Math.max(lowBlock, Math.max(0, column - band) >> BLOCK_SHIFT);
+				int newHighBlock = Math.min(patternLength - 1, column + band) >> BLOCK_SHIFT;
+				while (highBlock < newHighBlock) {
+					highBlock++;
+					activateBlock(highBlock);
+					score += lastRowOf(highBlock) - lastRowOf(highBlock - 1);
+				}
+
+				int character = alphabetIndex[text.charAt(offset + column)];
+				int horizontalIn = 1;
+				for (int block = lowBlock; block <= highBlock; block++) {
+					int slot = block % slots;
+					long matches = peq[slot][character];
+					long pv = positiveVertical[slot];
+					long mv = negativeVertical[slot];
+
+					long xv = matches | mv;
+					if (horizontalIn < 0) {
+						matches |= 1L;
+					}
+					long xh = (((matches & pv) + pv) ^ pv) | matches;
+					long ph = mv | ~(xh | pv);
+					long mh = pv & xh;
+
+					if (block == highBlock) {
+						int bit = block == blockCount - 1 ? lastBlockBit : BLOCK_SIZE - 1;
+						score += (int) ((ph >>> bit) & 1L) - (int) ((mh >>> bit) & 1L);
+					}
+					int horizontalOut = (int) (ph >>> (BLOCK_SIZE - 1)) - (int) (mh >>> (BLOCK_SIZE - 1));
+
+					ph <<= 1;
+					mh <<= 1;
+					if (horizontalIn < 0) {
+						mh |= 1L;
+					} else if (horizontalIn > 0) {
+						ph |= 1L;
+					}
+					positiveVertical[slot] = mh | ~(xv | ph);
+					negativeVertical[slot] = ph & xv;
+					horizontalIn = horizontalOut;
+				}
+			}
+			return score;
+		}
+
+		/**
+		 * Initializes the block with vertical deltas of +1, which over-estimates
+		 * the cells below the band and therefore never under-estimates the
+		 * distance.
+		 */
+		private void activateBlock(int block) {
+			int slot = block % slots;
+			long[] blockPeq = peq[slot];
+			if (blockPeq == null) {
+				blockPeq = new long[alphabetSize];
+				peq[slot] = blockPeq;
+			} else {
+				Arrays.fill(blockPeq, 0L);
+			}
+			int start = block << BLOCK_SHIFT;
+			int end = Math.min(patternLength, start + BLOCK_SIZE);
+			for (int row = start; row < end; row++) {
+				blockPeq[alphabetIndex[pattern.charAt(offset + row)]] |= 1L << (row - start);
+			}
+			positiveVertical[slot] = -1L;
+			negativeVertical[slot] = 0L;
+		}
+
+		/** @return the (1-based) last row of the block, 0 for block -1. */
+		private int lastRowOf(int block) {
+			if (block < 0) {
+				return 0;
+			}
+			return Math.min(patternLength, (block + 1) << BLOCK_SHIFT);
+		}
+	}
+}
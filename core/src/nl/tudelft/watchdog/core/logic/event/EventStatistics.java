@@ -69,8 +69,8 @@ public class EventStatistics {
 	 *         interval or in the period right before it.
 	 */
 	private boolean isWithinSelectedDebugInterval(EventBase event) {
-		Date timestamp = event.getTimestamp();
-		return startOfEventSelection.before(timestamp) && timestamp.before(selectedInterval.getEnd());
+		long timestamp = event.getTime();
+		return startOfEventSelection.getTime() < timestamp && timestamp < selectedInterval.getEndTime();
 	}
 
 	/**
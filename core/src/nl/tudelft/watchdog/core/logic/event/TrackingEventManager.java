@@ -1,14 +1,23 @@
 package nl.tudelft.watchdog.core.logic.event;
 
 import nl.tudelft.watchdog.core.logic.event.eventtypes.EventBase;
+import nl.tudelft.watchdog.core.logic.storage.AsyncSink;
 import nl.tudelft.watchdog.core.logic.storage.PersisterBase;
+import nl.tudelft.watchdog.core.logic.storage.PersisterSink;
+import nl.tudelft.watchdog.core.logic.storage.WatchDogItemPipeline;
+import nl.tudelft.watchdog.core.logic.storage.WatchDogItemSink;
 import nl.tudelft.watchdog.core.util.WatchDogLogger;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.stream.Stream;
 
 /**
  * Base class for managing events generated by the IDE. Contains functionality
- * for adding events.
+ * for adding events. Added events are passed on to a
+ * {@link WatchDogItemPipeline}, which by default saves them to the persisters
+ * for the transfer and for the statistics. The statistics persister is written
+ * on its own thread, so that its commits do not block the IDE.
  */
 public class TrackingEventManager {
 
@@ -21,14 +30,37 @@ public class TrackingEventManager {
 	 */
 	private String sessionSeed;
 
-	private PersisterBase eventsToTransferPersister;
 	private PersisterBase eventsStatisticsPersister;
 
+	/** Saves the events to the {@link #eventsStatisticsPersister}. */
+	private final AsyncSink statisticsSink;
+
+	private final WatchDogItemPipeline pipeline;
+
 	/** Constructor. */
 	public TrackingEventManager(PersisterBase eventsToTransferPersister,
                                 PersisterBase eventsStatisticsPersister) {
-		this.eventsToTransferPersister = eventsToTransferPersister;
 		this.eventsStatisticsPersister = eventsStatisticsPersister;
+		this.statisticsSink = new AsyncSink("event statistics", new PersisterSink(eventsStatisticsPersister));
+		this.pipeline = new WatchDogItemPipeline(new PersisterSink(eventsToTransferPersister), statisticsSink);
+	}
+
+	/** Additionally passes all subsequently added events to the given sink. */
+	public void addSink(WatchDogItemSink sink) {
+		pipeline.addSink(sink);
+	}
+
+	/** @return the pipeline the added events are passed to. */
+	public WatchDogItemPipeline getPipeline() {
+		return pipeline;
+	}
+
+	/**
+	 * Saves the events that are still queued for the statistics persister and
+	 * stops its thread. Must be called before that persister is closed.
+	 */
+	public void closeStatisticsSink() {
+		statisticsSink.close();
 	}
 
 	/** Sets the session seed used by this TrackingEventManager. */
@@ -43,8 +75,7 @@ public class TrackingEventManager {
 	public void addEvent(EventBase event) {
 		if (event != null) {
 			event.setSessionSeed(sessionSeed);
-			eventsToTransferPersister.save(event);
-			eventsStatisticsPersister.save(event);
+			pipeline.publish(event);
 			WatchDogLogger.getInstance().logInfo("Created event " + event + " " + event.getType());
 		}
 	}
@@ -57,18 +88,15 @@ public class TrackingEventManager {
      * @param events The collection of events you want to serialize efficiently
      */
     public void addEvents(Stream<EventBase> events) {
-	    eventsToTransferPersister.startBatch();
-	    eventsStatisticsPersister.startBatch();
+	    List<EventBase> batch = new ArrayList<>();
 	    events.forEach(event -> {
 	        if (event != null) {
 	            event.setSessionSeed(sessionSeed);
-                eventsToTransferPersister.batchedSave(event);
-                eventsStatisticsPersister.batchedSave(event);
+	            batch.add(event);
                 WatchDogLogger.getInstance().logInfo("Created event " + event + " " + event.getType());
             }
         });
-	    eventsToTransferPersister.commitBatch();
-	    eventsStatisticsPersister.commitBatch();
+	    pipeline.publishAll(batch);
     }
 
 	/**
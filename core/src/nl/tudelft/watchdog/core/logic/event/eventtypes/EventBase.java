@@ -6,19 +6,30 @@ import java.util.Date;
 import com.google.gson.annotations.SerializedName;
 
 import nl.tudelft.watchdog.core.logic.storage.WatchDogItem;
+import nl.tudelft.watchdog.core.util.WatchDogClock;
 
 public abstract class EventBase extends WatchDogItem implements Serializable, Comparable<WatchDogItem> {
 
 	/** Serial ID. */
 	private static final long serialVersionUID = 1L;
 
+	/** The value of a timestamp that is not set. */
+	public static final long NO_TIME = Long.MIN_VALUE;
+
 	/** The type of the event. */
 	@SerializedName("et")
 	protected TrackingEventType trackingEventType;
 
-	/** The timestamp of the event. */
+	/** The timestamp of the event, in milliseconds since the epoch. */
 	@SerializedName("ts")
-	private Date timestamp;
+	private long time;
+
+	/**
+	 * The timestamp as stored by WatchDog versions that kept {@link Date}s.
+	 * Only read from such a database, until
+	 * {@link #migrateLegacyFields()} moves it into {@link #time}.
+	 */
+	private transient Date timestamp;
 
 	/**
 	 * The session seed, a random string generated on each start of Eclipse to
@@ -30,19 +41,31 @@ public abstract class EventBase extends WatchDogItem implements Serializable, Co
 	/** Constructor. */
 	public EventBase(TrackingEventType type, Date timestamp) {
 		this.trackingEventType = type;
-		this.timestamp = timestamp;
+		this.time = timestamp == null ? NO_TIME : timestamp.getTime();
+	}
+
+	/** Constructor for an event that happens now, according to the {@link WatchDogClock}. */
+	public EventBase(TrackingEventType type) {
+		this(type, WatchDogClock.get().now());
 	}
 
 	/**
 	 * @return the {@link Date} the event occurred
 	 */
 	public Date getTimestamp() {
-		return timestamp;
+		return time == NO_TIME ? null : new Date(time);
+	}
+
+	/**
+	 * @return the time the event occurred, in milliseconds since the epoch.
+	 */
+	public long getTime() {
+		return time;
 	}
 
 	/** Sets the timestamp of this event. */
 	public void setTimestamp(Date ts) {
-		this.timestamp = ts;
+		this.time = ts == null ? NO_TIME : ts.getTime();
 	}
 
 	/** Sets the projectId. */
@@ -68,7 +91,7 @@ public abstract class EventBase extends WatchDogItem implements Serializable, Co
 	public int compareTo(WatchDogItem comparedItem) {
 		if (comparedItem instanceof EventBase) {
 			EventBase comparedEvent = (EventBase) comparedItem;
-			int res = getTimestamp().compareTo(comparedEvent.getTimestamp());
+			int res = Long.compare(time, comparedEvent.time);
 			if (res == 0 && !this.equals(comparedEvent)) {
 				res = getType().compareTo(comparedEvent.getType()) > 0 ? 1 : -1;
 			}
@@ -103,13 +126,15 @@ public abstract class EventBase extends WatchDogItem implements Serializable, Co
 		} else if (!sessionSeed.equals(other.sessionSeed)) {
 			return false;
 		}
-		if (timestamp == null) {
-			if (other.timestamp != null) {
-				return false;
-			}
-		} else if (!timestamp.equals(other.timestamp)) {
+		if (time != other.time) {
 			return false;
 		}
 		return true;
 	}
+
+	@Override
+	public void migrateLegacyFields() {
+		time = timestamp == null ? NO_TIME : timestamp.getTime();
+		timestamp = null;
+	}
 }
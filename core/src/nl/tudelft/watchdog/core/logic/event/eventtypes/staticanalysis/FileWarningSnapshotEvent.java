@@ -5,14 +5,20 @@ import nl.tudelft.watchdog.core.logic.document.Document;
 import nl.tudelft.watchdog.core.logic.event.eventtypes.EventBase;
 import nl.tudelft.watchdog.core.logic.event.eventtypes.TrackingEventType;
 import nl.tudelft.watchdog.core.logic.ui.listeners.staticanalysis.Warning;
-import org.joda.time.DateTime;
+import nl.tudelft.watchdog.core.logic.ui.listeners.staticanalysis.WarningSnapshotDecoder;
+import nl.tudelft.watchdog.core.logic.ui.listeners.staticanalysis.WarningSnapshotEncoder;
 
+import java.util.Date;
 import java.util.List;
 
 /**
  * Analog to a {@link StaticAnalysisWarningEvent}, but this class stores a list of {@link Warning},
  * as a snapshot of the current state of the {@link #document}. If you need to save multiple events,
  * use this event rather than {@link StaticAnalysisWarningEvent}.
+ *
+ * A snapshot is either a keyframe, which contains all {@link #warnings}, or a delta to the previous
+ * snapshot of the same {@link #fileKey}, see {@link WarningSnapshotEncoder}. The
+ * {@link WarningSnapshotDecoder} reconstructs the complete list of warnings of a delta.
  */
 public class FileWarningSnapshotEvent extends EventBase {
 
@@ -21,13 +27,83 @@ public class FileWarningSnapshotEvent extends EventBase {
     @SerializedName("doc")
     public final Document document;
 
+    /**
+     * The hash of the project and path of the file, which identifies the snapshots that deltas refer to.
+     * <code>null</code> if the encoder only creates keyframes.
+     */
+    @SerializedName("key")
+    public final String fileKey;
+
+    /**
+     * The number of snapshots of the file since its last keyframe, <code>null</code> for keyframes. Not
+     * sent for keyframes, which keeps them identical to the snapshots without deltas.
+     */
+    @SerializedName("seq")
+    public final Integer sequence;
+
+    /** All warnings of a keyframe, <code>null</code> for deltas. */
     @SerializedName("warnings")
     public final List<Warning<String>> warnings;
 
-    public FileWarningSnapshotEvent(Document document, List<Warning<String>> warnings) {
-        super(TrackingEventType.SA_WARNING_SNAPSHOT, DateTime.now().toDate());
+    /** The creation time of all warnings of a delta. */
+    @SerializedName("time")
+    public final Date warningCreationTime;
+
+    /** The number of lines of the document of all warnings of a delta, <code>null</code> for keyframes. */
+    @SerializedName("doctotal")
+    public final Integer docTotalLines;
+
+    /** The ascending indices of the warnings of the previous snapshot that were removed. */
+    @SerializedName("removedAt")
+    public final int[] removedIndices;
+
+    /** The ascending indices in this snapshot of the {@link #addedWarnings}. */
+    @SerializedName("addedAt")
+    public final int[] addedIndices;
+
+    /** The warnings added since the previous snapshot. */
+    @SerializedName("added")
+    public final List<Warning<String>> addedWarnings;
+
+    /** Creates a keyframe. */
+    public FileWarningSnapshotEvent(Document document, String fileKey, List<Warning<String>> warnings) {
+        super(TrackingEventType.SA_WARNING_SNAPSHOT);
 
         this.document = document;
+        this.fileKey = fileKey;
+        this.sequence = null;
         this.warnings = warnings;
+        this.warningCreationTime = null;
+        this.docTotalLines = null;
+        this.removedIndices = null;
+        this.addedIndices = null;
+        this.addedWarnings = null;
+    }
+
+    /** Creates a delta to the snapshot with the previous sequence number. */
+    public FileWarningSnapshotEvent(Document document, String fileKey, int sequence, Date warningCreationTime,
+                                    int docTotalLines, int[] removedIndices, int[] addedIndices,
+                                    List<Warning<String>> addedWarnings) {
+        super(TrackingEventType.SA_WARNING_SNAPSHOT);
+
+        this.document = document;
+        this.fileKey = fileKey;
+        this.sequence = sequence;
+        this.warnings = null;
+        this.warningCreationTime = warningCreationTime;
+        this.docTotalLines = docTotalLines;
+        this.removedIndices = removedIndices;
+        this.addedIndices = addedIndices;
+        this.addedWarnings = addedWarnings;
+    }
+
+    /** @return the number of snapshots of the file since its last keyframe, which is 0 for keyframes. */
+    public int getSequence() {
+        return sequence != null ? sequence : 0;
+    }
+
+    /** @return whether this snapshot contains all warnings. */
+    public boolean isKeyframe() {
+        return warnings != null;
     }
 }
@@ -1,17 +1,23 @@
 package nl.tudelft.watchdog.core.logic.interval;
 
-import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Date;
-import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
 
 import org.apache.commons.lang.RandomStringUtils;
 
 import nl.tudelft.watchdog.core.logic.interval.intervaltypes.EditorIntervalBase;
 import nl.tudelft.watchdog.core.logic.interval.intervaltypes.IntervalBase;
 import nl.tudelft.watchdog.core.logic.interval.intervaltypes.TypingInterval;
+import nl.tudelft.watchdog.core.logic.storage.AsyncSink;
 import nl.tudelft.watchdog.core.logic.storage.PersisterBase;
+import nl.tudelft.watchdog.core.logic.storage.PersisterSink;
+import nl.tudelft.watchdog.core.logic.storage.WatchDogItemPipeline;
+import nl.tudelft.watchdog.core.logic.storage.WatchDogItemSink;
+import nl.tudelft.watchdog.core.util.WatchDogClock;
 import nl.tudelft.watchdog.core.util.WatchDogLogger;
 
 /**
@@ -23,24 +29,144 @@ public abstract class IDEIntervalManagerBase extends IntervalManagerBase {
 
 	private EditorIntervalBase editorInterval;
 
+	/** The open intervals, except for the {@link #editorInterval}. */
+	private final OpenIntervalRegistry openIntervals = new OpenIntervalRegistry();
+
+	/**
+	 * An immutable copy of {@link #openIntervals}, republished after every
+	 * change, for readers on other threads.
+	 */
+	private volatile List<IntervalBase> openIntervalsSnapshot = Collections.emptyList();
+
+	/**
+	 * Executes commands on the thread owning this manager, or
+	 * <code>null</code> if the manager is not confined to a thread.
+	 */
+	private volatile Executor ownerExecutor;
+
+	/** The thread owning this manager, once it is known. */
+	private volatile Thread ownerThread;
+
+	/**
+	 * Whether commands that are handed over to the owner thread are dropped,
+	 * as the persisters are about to be closed.
+	 */
+	private volatile boolean isExecutionStopped;
+
 	/**
 	 * The session seed, a random number generated on each instantiation of the
 	 * IntervalManager to be able to tell running Eclipse instances apart.
 	 */
-	private String sessionSeed;
-
-	private PersisterBase intervalsToTransferPersister;
+	private volatile String sessionSeed;
 
 	private PersisterBase intervalsStatisticsPersister;
 
+	/**
+	 * Saves the closed intervals to the {@link #intervalsStatisticsPersister}
+	 * on its own thread, so that its commits do not block the UI thread.
+	 */
+	private final AsyncSink statisticsSink;
+
+	/**
+	 * The pipeline closed intervals are passed to, which by default saves them
+	 * to the persisters for the transfer and for the statistics.
+	 */
+	private final WatchDogItemPipeline pipeline;
+
+	/** The live statistics of the intervals in the statistics persister. */
+	private final IntervalStatisticsAggregate statisticsAggregate;
+
 	/** Constructor. */
 	protected IDEIntervalManagerBase(PersisterBase intervalsToTransferPersister,
 			PersisterBase intervalsStatisticsPersister) {
-		this.intervalsToTransferPersister = intervalsToTransferPersister;
 		this.intervalsStatisticsPersister = intervalsStatisticsPersister;
+		this.statisticsAggregate = new IntervalStatisticsAggregate(intervalsStatisticsPersister,
+				TimeUnit.MINUTES.toMillis(IntervalStatisticsBase.FILTERED_INTERVALS_IN_MINUTES),
+				this::getStatisticsDetailKey);
+		this.statisticsSink = new AsyncSink("interval statistics", new PersisterSink(intervalsStatisticsPersister));
+		this.pipeline = new WatchDogItemPipeline(new PersisterSink(intervalsToTransferPersister), statisticsSink,
+				statisticsAggregate);
 		generateAndSetSessionSeed();
 	}
 
+	/** Additionally passes all subsequently closed intervals to the given sink. */
+	public void addSink(WatchDogItemSink sink) {
+		pipeline.addSink(sink);
+	}
+
+	/**
+	 * Saves the intervals that are still queued for the statistics persister
+	 * and stops its thread. Must be called before that persister is closed.
+	 */
+	public void closeStatisticsSink() {
+		statisticsSink.close();
+	}
+
+	/** @return the pipeline the closed intervals are passed to. */
+	public WatchDogItemPipeline getPipeline() {
+		return pipeline;
+	}
+
+	/**
+	 * Confines this manager to the given thread, typically the UI thread of the
+	 * IDE, on which the given executor runs its commands. Afterwards, changes
+	 * to the intervals must only be made through {@link #execute(Runnable)},
+	 * so that they happen on that thread without locking. The owner thread is
+	 * passed in, so that calls made on it are run directly from the start.
+	 *
+	 * The executor throws a {@link RejectedExecutionException} once the owner
+	 * thread does not run commands anymore, e.g. when the IDE shuts down.
+	 */
+	public void confineTo(Thread ownerThread, Executor ownerExecutor) {
+		this.ownerThread = ownerThread;
+		this.ownerExecutor = ownerExecutor;
+	}
+
+	/**
+	 * @return whether the calling thread may change this manager directly,
+	 *         i.e. it is the owner thread or the manager is not confined.
+	 */
+	public boolean isOwnerThread() {
+		return ownerExecutor == null || Thread.currentThread() == ownerThread;
+	}
+
+	/**
+	 * Runs the command on the owner thread: immediately when called from that
+	 * thread, and otherwise asynchronously, in the order of submission. When
+	 * the owner thread is gone, the command is run immediately, one at a
+	 * time, so that closing intervals at shutdown is not lost. Once
+	 * {@link #stopExecution()} was called, commands from other threads,
+	 * including the ones that are still queued, are dropped.
+	 */
+	public void execute(Runnable command) {
+		if (isOwnerThread()) {
+			command.run();
+			return;
+		}
+		try {
+			ownerExecutor.execute(() -> {
+				if (!isExecutionStopped) {
+					command.run();
+				}
+			});
+		} catch (RejectedExecutionException exception) {
+			synchronized (this) {
+				if (!isExecutionStopped) {
+					command.run();
+				}
+			}
+		}
+	}
+
+	/**
+	 * Drops all commands that are handed over to the owner thread from now
+	 * on, or that are still queued. Must be called before the persisters are
+	 * closed, so that no command closes an interval afterwards.
+	 */
+	public synchronized void stopExecution() {
+		isExecutionStopped = true;
+	}
+
 	/** Generates and sets a new random session seed. */
 	public void generateAndSetSessionSeed() {
 		this.sessionSeed = RandomStringUtils.randomAlphabetic(40);
@@ -69,14 +195,12 @@ public abstract class IDEIntervalManagerBase extends IntervalManagerBase {
 	}
 
 	private void addRegularIntervalBase(IntervalBase interval) {
-		if (intervals.size() > 30) {
-			WatchDogLogger
-					.getInstance()
-					.logSevere(
-							"Too many open intervals. Something fishy is going on here! Cannot add more intervals.");
-			return;
-		}
-		intervals.add(interval);
+		openIntervals.add(interval);
+		publishOpenIntervals();
+	}
+
+	private void publishOpenIntervals() {
+		openIntervalsSnapshot = Collections.unmodifiableList(openIntervals.toList());
 	}
 
 	/**
@@ -99,6 +223,18 @@ public abstract class IDEIntervalManagerBase extends IntervalManagerBase {
 		closeInterval(interval);
 	}
 
+	/**
+	 * Closes the current interval at the given timestamp. Handles
+	 * <code>null</code> gracefully without allocating.
+	 */
+	public void closeInterval(IntervalBase interval, long timestamp) {
+		if (interval == null) {
+			return;
+		}
+
+		closeInterval(interval, new Date(timestamp));
+	}
+
 	private void closeInterval(IntervalBase interval) {
 		if (interval == null) {
 			return;
@@ -114,10 +250,11 @@ public abstract class IDEIntervalManagerBase extends IntervalManagerBase {
 		if (interval instanceof EditorIntervalBase) {
 			editorInterval = null;
 		} else {
-			intervals.remove(interval);
+			if (openIntervals.remove(interval)) {
+				publishOpenIntervals();
+			}
 		}
-		intervalsToTransferPersister.save(interval);
-		intervalsStatisticsPersister.save(interval);
+		pipeline.publish(interval);
 		WatchDogLogger.getInstance().logInfo(
 				"closed interval " + interval + " " + interval.getType());
 	}
@@ -130,23 +267,19 @@ public abstract class IDEIntervalManagerBase extends IntervalManagerBase {
 
 	/** Closes all currently open intervals. */
 	public void closeAllIntervals() {
-		Date closingDate = new Date();
+		Date closingDate = WatchDogClock.get().now();
 		closeAllIntervals(closingDate);
 	}
 
 	/** Closes all currently open intervals with the supplied closing date. */
 	public void closeAllIntervals(Date closingDate) {
 		closeInterval(editorInterval, closingDate);
-		ArrayList<IntervalBase> copiedIntervals = new ArrayList<IntervalBase>(intervals);
-		Iterator<IntervalBase> iterator = copiedIntervals.listIterator();
-		while (iterator.hasNext()) {
-			// we need to remove the interval first from the list in order to
-			// avoid ConcurrentListModification Exceptions.
-			IntervalBase interval = iterator.next();
-			iterator.remove();
+		List<IntervalBase> copiedIntervals = openIntervals.toList();
+		openIntervals.clear();
+		publishOpenIntervals();
+		for (IntervalBase interval : copiedIntervals) {
 			closeInterval(interval, closingDate);
 		}
-		intervals.clear();
 	}
 
 	/**
@@ -158,9 +291,22 @@ public abstract class IDEIntervalManagerBase extends IntervalManagerBase {
 		return editorInterval;
 	}
 
-	/** Returns an immutable list of recorded intervals. */
+	/**
+	 * Returns an immutable list of recorded intervals. Can be called from any
+	 * thread without locking, as it returns the last published snapshot.
+	 */
 	public List<IntervalBase> getOpenIntervals() {
-		return Collections.unmodifiableList(intervals);
+		return openIntervalsSnapshot;
+	}
+
+	@Override
+	public <T extends IntervalBase> List<T> getIntervals(Class<T> clazz) {
+		return openIntervals.getAll(clazz);
+	}
+
+	@Override
+	public <T extends IntervalBase> T getInterval(Class<T> clazz) {
+		return openIntervals.get(clazz);
 	}
 
 	/**
@@ -170,6 +316,22 @@ public abstract class IDEIntervalManagerBase extends IntervalManagerBase {
 		return intervalsStatisticsPersister;
 	}
 
+	/**
+	 * @return the live statistics of the intervals in the statistics
+	 *         persister, which are updated whenever an interval is closed.
+	 */
+	public IntervalStatisticsAggregate getStatisticsAggregate() {
+		return statisticsAggregate;
+	}
+
+	/**
+	 * @return an additional, IDE specific, key under which the statistics of
+	 *         the interval are aggregated, or <code>null</code>.
+	 */
+	protected Object getStatisticsDetailKey(IntervalBase interval) {
+		return null;
+	}
+
 	/**
 	 * @return the session seed used by this interval manager.
 	 */
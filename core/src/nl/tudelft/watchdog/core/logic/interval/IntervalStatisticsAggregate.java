@@ -0,0 +1,615 @@
+package nl.tudelft.watchdog.core.logic.interval;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+import org.joda.time.Duration;
+
+import nl.tudelft.watchdog.core.logic.document.Document;
+import nl.tudelft.watchdog.core.logic.document.DocumentType;
+import nl.tudelft.watchdog.core.logic.interval.intervaltypes.EditorIntervalBase;
+import nl.tudelft.watchdog.core.logic.interval.intervaltypes.IntervalBase;
+import nl.tudelft.watchdog.core.logic.interval.intervaltypes.PerspectiveInterval;
+import nl.tudelft.watchdog.core.logic.storage.PersisterBase;
+import nl.tudelft.watchdog.core.logic.storage.WatchDogItem;
+import nl.tudelft.watchdog.core.logic.storage.WatchDogItemSink;
+
+/**
+ * Live aggregates of the closed intervals in the statistics persister, which
+ * are updated whenever an interval is closed, so that the statistics of a
+ * time frame are calculated without reading and rescanning all intervals.
+ *
+ * Every interval is counted under several keys: its
+ * {@link nl.tudelft.watchdog.core.logic.interval.intervaltypes.IntervalType},
+ * the {@link DocumentType} of an editor interval, the
+ * {@link nl.tudelft.watchdog.core.logic.interval.intervaltypes.PerspectiveInterval.Perspective}
+ * of a perspective interval and an optional, IDE specific, detail key. Per
+ * key, the start and end times of the intervals are kept in buckets of
+ * {@link #BUCKET_MILLIS}, each with their count and sum. The total duration of
+ * the intervals that end after a threshold, clipped at the threshold, then
+ * follows from the buckets after the threshold, and only the bucket that
+ * contains the threshold is scanned.
+ *
+ * The intervals are the same as the ones in the persister: they are read from
+ * it once, when the first snapshot is created, and equal intervals are only
+ * counted once. Intervals that are older than the threshold of the database
+ * are removed from the persister, as before.
+ */
+public class IntervalStatisticsAggregate implements WatchDogItemSink {
+
+	/** The width of a bucket, in milliseconds. */
+	public static final long BUCKET_MILLIS = 60 * 1000;
+
+	/** The key under which all intervals are counted. */
+	private static final Object ALL_INTERVALS = new Object();
+
+	private final PersisterBase statisticsPersister;
+
+	private final Function<IntervalBase, Object> detailKeyFunction;
+
+	/** The intervals, in buckets of their end times. */
+	private final TreeMap<Long, List<IntervalBase>> intervalsByEnd = new TreeMap<Long, List<IntervalBase>>();
+
+	private final Map<Object, KeyStatistics> statistics = new HashMap<Object, KeyStatistics>();
+
+	private final long databasePeriodMillis;
+
+	/**
+	 * The editor intervals that are not yet counted under the type of their
+	 * document.
+	 */
+	private final List<EditorIntervalBase> intervalsWithoutDocumentType = new ArrayList<EditorIntervalBase>();
+
+	/** Whether the intervals of the persister were read. */
+	private boolean isSeeded;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param statisticsPersister
+	 *            The persister that contains the intervals of previous
+	 *            sessions.
+	 * @param databasePeriodMillis
+	 *            The time for which intervals are kept in the persister.
+	 * @param detailKeyFunction
+	 *            Returns an additional key for an interval, or
+	 *            <code>null</code>.
+	 */
+	public IntervalStatisticsAggregate(PersisterBase statisticsPersister, long databasePeriodMillis,
+			Function<IntervalBase, Object> detailKeyFunction) {
+		this.statisticsPersister = statisticsPersister;
+		this.databasePeriodMillis = databasePeriodMillis;
+		this.detailKeyFunction = detailKeyFunction;
+	}
+
+	/** Adds the interval, if it has ended and was not added before. */
+	@Override
+	public synchronized void save(WatchDogItem item) {
+		if (item instanceof IntervalBase && ((IntervalBase) item).hasEnd()) {
+			add((IntervalBase) item);
+			addDocumentTypes();
+			long maximumEnd = intervalsByEnd.lastEntry().getKey() * BUCKET_MILLIS;
+			prune(maximumEnd - databasePeriodMillis - BUCKET_MILLIS);
+		}
+	}
+
+	/**
+	 * Calculates the statistics of the time frame that ends at the end of the
+	 * most recent interval, like they were calculated from the list of all
+	 * intervals: intervals that start before the time frame are clipped, open
+	 * intervals last until now.
+	 *
+	 * @param openIntervals
+	 *            The currently open intervals, in the order in which they
+	 *            were opened.
+	 * @param periodMillis
+	 *            The length of the time frame.
+	 */
+	public synchronized Snapshot createSnapshot(List<IntervalBase> openIntervals, long periodMillis) {
+		seed();
+		addDocumentTypes();
+		if (intervalsByEnd.isEmpty() && openIntervals.isEmpty()) {
+			return new Snapshot(null, null, Long.MIN_VALUE, Collections.<IntervalBase> emptyList());
+		}
+
+		long mostRecentTime;
+		if (openIntervals.isEmpty()) {
+			mostRecentTime = getMaximumEnd();
+		} else {
+			mostRecentTime = openIntervals.get(openIntervals.size() - 1).getEndTime();
+		}
+		Date mostRecentDate = new Date(mostRecentTime);
+		prune(mostRecentTime - databasePeriodMillis);
+
+		long threshold = mostRecentTime - periodMillis;
+		List<IntervalBase> clippedOpenIntervals = new ArrayList<IntervalBase>();
+		for (IntervalBase interval : openIntervals) {
+			if (interval.getEndTime() >= threshold && interval.getEndTime() >= mostRecentTime - databasePeriodMillis) {
+				IntervalBase clippedInterval = clip(interval, threshold, mostRecentDate, false);
+				if (clippedInterval != null) {
+					clippedOpenIntervals.add(clippedInterval);
+				}
+			}
+		}
+
+		Snapshot snapshot = new Snapshot(mostRecentDate, getOldestDate(threshold, clippedOpenIntervals), threshold,
+				clippedOpenIntervals);
+		for (Map.Entry<Object, KeyStatistics> entry : statistics.entrySet()) {
+			snapshot.add(entry.getKey(), entry.getValue().count(threshold), entry.getValue().duration(threshold));
+		}
+		for (IntervalBase interval : clippedOpenIntervals) {
+			for (Object key : getKeysOfOpenInterval(interval)) {
+				snapshot.add(key, 1, interval.getDurationMillis());
+			}
+		}
+		return snapshot;
+	}
+
+	/**
+	 * @return the intervals of the given class in the snapshot, clipped at its
+	 *         threshold: the closed ones in the order of their end, followed
+	 *         by the open ones. Takes time linear in the number of intervals.
+	 */
+	@SuppressWarnings("unchecked")
+	public synchronized <T extends IntervalBase> List<T> getIntervals(Snapshot snapshot, Class<T> clazz) {
+		List<IntervalBase> intervals = new ArrayList<IntervalBase>();
+		if (snapshot.mostRecentDate == null) {
+			return (List<T>) intervals;
+		}
+		for (List<IntervalBase> bucket : intervalsByEnd.tailMap(bucketOf(snapshot.threshold), true).values()) {
+			List<IntervalBase> sortedBucket = new ArrayList<IntervalBase>(bucket);
+			Collections.sort(sortedBucket);
+			addIntervals(snapshot, sortedBucket, clazz::isInstance, intervals);
+		}
+		for (IntervalBase interval : snapshot.openIntervals) {
+			if (clazz.isInstance(interval)) {
+				intervals.add(interval);
+			}
+		}
+		return (List<T>) intervals;
+	}
+
+	/**
+	 * @return at most the given number of the latest intervals of the given
+	 *         key in the snapshot, clipped at its threshold, in descending
+	 *         order. Only the most recent buckets are scanned.
+	 */
+	public synchronized List<IntervalBase> getLatestIntervals(Snapshot snapshot, Object key, int numberOfIntervals) {
+		List<IntervalBase> intervals = new ArrayList<IntervalBase>();
+		if (snapshot.mostRecentDate == null) {
+			return intervals;
+		}
+		Predicate<IntervalBase> hasKey = interval -> getKeys(interval).contains(key)
+				|| key == getDocumentType(interval);
+		// Finish the bucket in which the limit is reached, as its intervals are not ordered
+		for (List<IntervalBase> bucket : intervalsByEnd.tailMap(bucketOf(snapshot.threshold), true).descendingMap()
+				.values()) {
+			if (intervals.size() >= numberOfIntervals) {
+				break;
+			}
+			addIntervals(snapshot, bucket, hasKey, intervals);
+		}
+		for (IntervalBase interval : snapshot.openIntervals) {
+			if (getKeysOfOpenInterval(interval).contains(key)) {
+				intervals.add(interval);
+			}
+		}
+		Collections.sort(intervals);
+		Collections.reverse(intervals);
+		if (intervals.size() > numberOfIntervals) {
+			intervals = intervals.subList(0, numberOfIntervals);
+		}
+		return intervals;
+	}
+
+	/**
+	 * Adds the accepted closed intervals that end in the time frame of the
+	 * snapshot, clipped at its threshold.
+	 */
+	private static void addIntervals(Snapshot snapshot, List<IntervalBase> candidates,
+			Predicate<IntervalBase> filter, List<IntervalBase> intervals) {
+		for (IntervalBase interval : candidates) {
+			if (interval.getEndTime() >= snapshot.threshold && filter.test(interval)) {
+				IntervalBase clippedInterval = clip(interval, snapshot.threshold, snapshot.mostRecentDate, true);
+				if (clippedInterval != null) {
+					intervals.add(clippedInterval);
+				}
+			}
+		}
+	}
+
+	/** Reads the intervals of previous sessions from the persister, once. */
+	private void seed() {
+		if (isSeeded) {
+			return;
+		}
+		isSeeded = true;
+		Set<WatchDogItem> items = statisticsPersister.readItems();
+		if (items == null) {
+			return;
+		}
+		for (WatchDogItem item : items) {
+			if (item instanceof IntervalBase) {
+				IntervalBase interval = (IntervalBase) item;
+				interval.setClosed();
+				add(interval);
+			}
+		}
+	}
+
+	private void add(IntervalBase interval) {
+		long bucket = bucketOf(interval.getEndTime());
+		List<IntervalBase> intervals = intervalsByEnd.get(bucket);
+		if (intervals == null) {
+			intervals = new ArrayList<IntervalBase>();
+			intervalsByEnd.put(bucket, intervals);
+		}
+		// Like the persister, only keep one of several equal intervals
+		if (intervals.contains(interval)) {
+			return;
+		}
+		intervals.add(interval);
+
+		for (Object key : getKeys(interval)) {
+			addToKey(key, interval);
+		}
+		if (interval instanceof EditorIntervalBase && ((EditorIntervalBase) interval).getDocument() != null) {
+			intervalsWithoutDocumentType.add((EditorIntervalBase) interval);
+		}
+	}
+
+	/**
+	 * Adds the editor intervals whose closer has run to the statistics of
+	 * their document types. The type of a document is only known once the
+	 * closer prepared it in the background, so the other intervals are left
+	 * for a later snapshot, instead of preparing their documents here.
+	 */
+	private void addDocumentTypes() {
+		Iterator<EditorIntervalBase> iterator = intervalsWithoutDocumentType.iterator();
+		while (iterator.hasNext()) {
+			EditorIntervalBase interval = iterator.next();
+			if (interval.isClosed()) {
+				addToKey(getDocumentType(interval), interval);
+				iterator.remove();
+			}
+		}
+	}
+
+	private void addToKey(Object key, IntervalBase interval) {
+		if (key == null) {
+			return;
+		}
+		KeyStatistics keyStatistics = statistics.get(key);
+		if (keyStatistics == null) {
+			keyStatistics = new KeyStatistics();
+			statistics.put(key, keyStatistics);
+		}
+		keyStatistics.add(interval);
+	}
+
+	private void removeFromKey(Object key, IntervalBase interval) {
+		KeyStatistics keyStatistics = statistics.get(key);
+		if (keyStatistics == null) {
+			return;
+		}
+		keyStatistics.remove(interval);
+		if (keyStatistics.isEmpty()) {
+			statistics.remove(key);
+		}
+	}
+
+	/**
+	 * Removes the intervals that end before the threshold, also from the
+	 * persister.
+	 */
+	private void prune(long threshold) {
+		List<WatchDogItem> intervalsToRemove = new ArrayList<WatchDogItem>();
+		Iterator<Map.Entry<Long, List<IntervalBase>>> buckets = intervalsByEnd.headMap(bucketOf(threshold), true)
+				.entrySet().iterator();
+		while (buckets.hasNext()) {
+			List<IntervalBase> intervals = buckets.next().getValue();
+			Iterator<IntervalBase> iterator = intervals.iterator();
+			while (iterator.hasNext()) {
+				IntervalBase interval = iterator.next();
+				if (interval.getEndTime() < threshold) {
+					iterator.remove();
+					intervalsToRemove.add(interval);
+					for (Object key : getKeys(interval)) {
+						removeFromKey(key, interval);
+					}
+					if (!intervalsWithoutDocumentType.remove(interval)) {
+						removeFromKey(getDocumentType(interval), interval);
+					}
+				}
+			}
+			if (intervals.isEmpty()) {
+				buckets.remove();
+			}
+		}
+		if (!intervalsToRemove.isEmpty() && isSeeded) {
+			statisticsPersister.removeItems(intervalsToRemove);
+		}
+	}
+
+	private long getMaximumEnd() {
+		long maximumEnd = Long.MIN_VALUE;
+		for (IntervalBase interval : intervalsByEnd.lastEntry().getValue()) {
+			maximumEnd = Math.max(maximumEnd, interval.getEndTime());
+		}
+		return maximumEnd;
+	}
+
+	/**
+	 * @return the start of the first interval in the time frame, that is the
+	 *         closed interval that ends first, or the first open interval.
+	 */
+	private Date getOldestDate(long threshold, List<IntervalBase> clippedOpenIntervals) {
+		for (List<IntervalBase> bucket : intervalsByEnd.tailMap(bucketOf(threshold), true).values()) {
+			IntervalBase oldestInterval = null;
+			for (IntervalBase interval : bucket) {
+				if (interval.getEndTime() >= threshold
+						&& (oldestInterval == null || interval.compareTo(oldestInterval) < 0)) {
+					oldestInterval = interval;
+				}
+			}
+			if (oldestInterval != null) {
+				return new Date(Math.max(oldestInterval.getStartTime(), threshold));
+			}
+		}
+		return clippedOpenIntervals.isEmpty() ? null : clippedOpenIntervals.get(0).getStart();
+	}
+
+	/**
+	 * @return a copy of the interval that starts no earlier than the
+	 *         threshold, and that ends at the most recent date if it is still
+	 *         open.
+	 */
+	private static IntervalBase clip(IntervalBase interval, long threshold, Date mostRecentDate, boolean isClosed) {
+		try {
+			IntervalBase clippedInterval = (IntervalBase) interval.clone();
+			if (isClosed) {
+				// The closer of an editor interval may still be running
+				clippedInterval.setClosed();
+			}
+			if (interval.getStartTime() < threshold) {
+				clippedInterval.setStartTime(threshold);
+			}
+			if (!clippedInterval.isClosed()) {
+				clippedInterval.setEndTime(mostRecentDate);
+			}
+			return clippedInterval;
+		} catch (CloneNotSupportedException exception) {
+			return null;
+		}
+	}
+
+	private Collection<Object> getKeys(IntervalBase interval) {
+		List<Object> keys = new ArrayList<Object>(4);
+		keys.add(ALL_INTERVALS);
+		keys.add(interval.getType());
+		if (interval instanceof PerspectiveInterval) {
+			keys.add(((PerspectiveInterval) interval).getPerspectiveType());
+		}
+		Object detailKey = detailKeyFunction.apply(interval);
+		if (detailKey != null) {
+			keys.add(detailKey);
+		}
+		return keys;
+	}
+
+	private Collection<Object> getKeysOfOpenInterval(IntervalBase interval) {
+		Collection<Object> keys = getKeys(interval);
+		DocumentType documentType = getDocumentType(interval);
+		if (documentType != null) {
+			keys.add(documentType);
+		}
+		return keys;
+	}
+
+	/** @return the type of the document of an editor interval, or <code>null</code>. */
+	private static DocumentType getDocumentType(IntervalBase interval) {
+		if (interval instanceof EditorIntervalBase) {
+			Document document = ((EditorIntervalBase) interval).getDocument();
+			if (document != null) {
+				return document.getDocumentType();
+			}
+		}
+		return null;
+	}
+
+	private static long bucketOf(long time) {
+		return Math.floorDiv(time, BUCKET_MILLIS);
+	}
+
+	/**
+	 * The statistics of a time frame. The durations are the sums of
+	 * {@link IntervalBase#getDurationMillis()} of the clipped intervals.
+	 */
+	public static class Snapshot {
+
+		private final Date mostRecentDate;
+
+		private final Date oldestDate;
+
+		private final long threshold;
+
+		private final List<IntervalBase> openIntervals;
+
+		private final Map<Object, long[]> countsAndDurations = new HashMap<Object, long[]>();
+
+		private Snapshot(Date mostRecentDate, Date oldestDate, long threshold, List<IntervalBase> openIntervals) {
+			this.mostRecentDate = mostRecentDate;
+			this.oldestDate = oldestDate;
+			this.threshold = threshold;
+			this.openIntervals = openIntervals;
+		}
+
+		private void add(Object key, long count, long durationMillis) {
+			long[] countAndDuration = countsAndDurations.get(key);
+			if (countAndDuration == null) {
+				countAndDuration = new long[2];
+				countsAndDurations.put(key, countAndDuration);
+			}
+			countAndDuration[0] += count;
+			countAndDuration[1] += durationMillis;
+		}
+
+		/** @return the end of the most recent interval, or <code>null</code>. */
+		public Date getMostRecentDate() {
+			return mostRecentDate;
+		}
+
+		/** @return the start of the first interval, or <code>null</code>. */
+		public Date getOldestDate() {
+			return oldestDate;
+		}
+
+		/** @return the number of intervals in the time frame. */
+		public int getNumberOfIntervals() {
+			return getCount(ALL_INTERVALS);
+		}
+
+		/** @return the number of intervals with the given key. */
+		public int getCount(Object key) {
+			long[] countAndDuration = countsAndDurations.get(key);
+			return countAndDuration == null ? 0 : (int) countAndDuration[0];
+		}
+
+		/** @return the total duration of the intervals with the given key. */
+		public Duration getDuration(Object key) {
+			long[] countAndDuration = countsAndDurations.get(key);
+			return new Duration(countAndDuration == null ? 0 : countAndDuration[1]);
+		}
+	}
+
+	/** The start and end times of the closed intervals of one key. */
+	private static class KeyStatistics {
+
+		private final TimeIndex starts = new TimeIndex();
+
+		private final TimeIndex ends = new TimeIndex();
+
+		void add(IntervalBase interval) {
+			starts.add(interval.getStartTime());
+			ends.add(interval.getEndTime());
+		}
+
+		void remove(IntervalBase interval) {
+			starts.remove(interval.getStartTime());
+			ends.remove(interval.getEndTime());
+		}
+
+		boolean isEmpty() {
+			return ends.isEmpty();
+		}
+
+		long count(long threshold) {
+			return ends.countAndSum(threshold)[0];
+		}
+
+		/**
+		 * @return the total duration of the intervals that end at or after
+		 *         the threshold, clipped at the threshold. As an interval that
+		 *         starts after the threshold also ends after it, this is the
+		 *         sum of these ends minus the sum of those starts, minus the
+		 *         threshold for every interval that starts before it.
+		 */
+		long duration(long threshold) {
+			long[] endCountAndSum = ends.countAndSum(threshold);
+			long[] startCountAndSum = starts.countAndSum(threshold);
+			return endCountAndSum[1] - startCountAndSum[1] - threshold * (endCountAndSum[0] - startCountAndSum[0]);
+		}
+	}
+
+	/** A multiset of times, in buckets with their count and sum. */
+	private static class TimeIndex {
+
+		private final TreeMap<Long, TimeBucket> buckets = new TreeMap<Long, TimeBucket>();
+
+		void add(long time) {
+			long bucketIndex = bucketOf(time);
+			TimeBucket bucket = buckets.get(bucketIndex);
+			if (bucket == null) {
+				bucket = new TimeBucket();
+				buckets.put(bucketIndex, bucket);
+			}
+			bucket.add(time);
+		}
+
+		void remove(long time) {
+			long bucketIndex = bucketOf(time);
+			TimeBucket bucket = buckets.get(bucketIndex);
+			if (bucket != null && bucket.remove(time) && bucket.size == 0) {
+				buckets.remove(bucketIndex);
+			}
+		}
+
+		boolean isEmpty() {
+			return buckets.isEmpty();
+		}
+
+		/** @return the number and the sum of the times at or after the threshold. */
+		long[] countAndSum(long threshold) {
+			long count = 0;
+			long sum = 0;
+			long thresholdBucket = bucketOf(threshold);
+			NavigableMap<Long, TimeBucket> tail = buckets.tailMap(thresholdBucket, true);
+			for (Map.Entry<Long, TimeBucket> entry : tail.entrySet()) {
+				TimeBucket bucket = entry.getValue();
+				if (entry.getKey() == thresholdBucket) {
+					for (int i = 0; i < bucket.size; i++) {
+						if (bucket.times[i] >= threshold) {
+							count++;
+							sum += bucket.times[i];
+						}
+					}
+				} else {
+					count += bucket.size;
+					sum += bucket.sum;
+				}
+			}
+			return new long[] { count, sum };
+		}
+	}
+
+	private static class TimeBucket {
+
+		private long[] times = new long[4];
+
+		private int size;
+
+		private long sum;
+
+		void add(long time) {
+			if (size == times.length) {
+				long[] newTimes = new long[size * 2];
+				System.arraycopy(times, 0, newTimes, 0, size);
+				times = newTimes;
+			}
+			times[size++] = time;
+			sum += time;
+		}
+
+		boolean remove(long time) {
+			for (int i = 0; i < size; i++) {
+				if (times[i] == time) {
+					times[i] = times[--size];
+					sum -= time;
+					return true;
+				}
+			}
+			return false;
+		}
+	}
+}
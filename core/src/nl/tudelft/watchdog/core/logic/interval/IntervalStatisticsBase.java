@@ -1,25 +1,19 @@
 package nl.tudelft.watchdog.core.logic.interval;
 
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.Date;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
-import org.joda.time.DateTime;
 import org.joda.time.Duration;
 
 import nl.tudelft.watchdog.core.logic.document.DocumentType;
 import nl.tudelft.watchdog.core.logic.interval.intervaltypes.DebugInterval;
 import nl.tudelft.watchdog.core.logic.interval.intervaltypes.EditorIntervalBase;
-import nl.tudelft.watchdog.core.logic.interval.intervaltypes.IDEOpenInterval;
 import nl.tudelft.watchdog.core.logic.interval.intervaltypes.IntervalBase;
+import nl.tudelft.watchdog.core.logic.interval.intervaltypes.IntervalType;
 import nl.tudelft.watchdog.core.logic.interval.intervaltypes.PerspectiveInterval;
 import nl.tudelft.watchdog.core.logic.interval.intervaltypes.PerspectiveInterval.Perspective;
-import nl.tudelft.watchdog.core.logic.interval.intervaltypes.ReadingInterval;
-import nl.tudelft.watchdog.core.logic.interval.intervaltypes.TypingInterval;
-import nl.tudelft.watchdog.core.logic.interval.intervaltypes.UserActiveInterval;
-import nl.tudelft.watchdog.core.logic.storage.PersisterBase;
-import nl.tudelft.watchdog.core.logic.storage.WatchDogItem;
 
 /**
  * Gathers and calculates statistics on developer behavior in a variable time
@@ -27,9 +21,12 @@ import nl.tudelft.watchdog.core.logic.storage.WatchDogItem;
  */
 public abstract class IntervalStatisticsBase extends IntervalManagerBase {
 	// Intervals are stored in the database for 10 hours (equals 600 minutes)
-	private static final int FILTERED_INTERVALS_IN_MINUTES = 600;
+	static final int FILTERED_INTERVALS_IN_MINUTES = 600;
 
-	private final PersisterBase intervalPersister;
+	private final IntervalStatisticsAggregate statisticsAggregate;
+
+	/** The statistics of the selected time frame. */
+	protected final IntervalStatisticsAggregate.Snapshot snapshot;
 
 	public Duration ideOpen;
 	public Duration userActive;
@@ -82,105 +79,39 @@ public abstract class IntervalStatisticsBase extends IntervalManagerBase {
 		}
 	}
 
-	private StatisticsTimePeriod selectedInterval;
-
-	/** Constructor. */
-	public IntervalStatisticsBase(IDEIntervalManagerBase intervalManager, StatisticsTimePeriod selectedInterval) {
-		this.intervalPersister = intervalManager.getIntervalsStatisticsPersister();
-		this.selectedInterval = selectedInterval;
-		addIntervals(intervalManager);
-		filterIntervals();
-		calculateStatistics();
-	}
-
-	private void addIntervals(IDEIntervalManagerBase intervalManager) {
-		for (WatchDogItem item : intervalPersister.readItems()) {
-			if (item instanceof IntervalBase) {
-				IntervalBase interval = (IntervalBase) item;
-				interval.setClosed();
-				intervals.add(interval);
-			}
-		}
-		intervals.addAll(intervalManager.getOpenIntervals());
-	}
-
 	/**
-	 * Filters out and removes intervals which are older than 10 hours from
-	 * Database. Filters intervals for selected time span.
+	 * Constructor. Takes the statistics of the selected time frame from the
+	 * live aggregates of the interval manager, so that the time it takes
+	 * depends on the length of the time frame rather than on the number of
+	 * intervals.
 	 */
-	private void filterIntervals() {
-		ArrayList<IntervalBase> filteredIntervals = new ArrayList<IntervalBase>();
-		ArrayList<WatchDogItem> intervalsToRemove = new ArrayList<WatchDogItem>();
-
-		if (intervals.size() == 0) {
-			return;
-		}
-
-		mostRecentDate = intervals.get(intervals.size() - 1).getEnd();
-		DateTime thresholdDateDatabase = new DateTime(mostRecentDate);
-		thresholdDateDatabase = thresholdDateDatabase.minusMinutes(FILTERED_INTERVALS_IN_MINUTES);
-
-		DateTime thresholdDateView = new DateTime(mostRecentDate);
-		thresholdDateView = thresholdDateView.minusMinutes(selectedInterval.minutes);
-
-		for (IntervalBase interval : intervals) {
-			if (intervalIsOlderThanThreshold(thresholdDateDatabase, interval)) {
-				intervalsToRemove.add(interval);
-				continue;
-			}
-
-			if (!intervalIsOlderThanThreshold(thresholdDateView, interval)) {
-				IntervalBase clonedInterval = null;
-				try {
-					clonedInterval = (IntervalBase) interval.clone();
-					adjustIntervalStartAndEndDate(thresholdDateView, interval, clonedInterval);
-					filteredIntervals.add(clonedInterval);
-				} catch (CloneNotSupportedException exception) {
-					// intentionally empty
-				}
-			}
-		}
-
-		oldestDate = filteredIntervals.get(0).getStart();
-		intervalPersister.removeItems(intervalsToRemove);
-		intervals = filteredIntervals;
-	}
-
-	private void adjustIntervalStartAndEndDate(DateTime thresholdDateView, IntervalBase interval,
-			IntervalBase clonedInterval) {
-		if (interval.getStart().before(thresholdDateView.toDate())) {
-			// Set start of the interval to threshold if the start is
-			// before the threshold.
-			clonedInterval.setStartTime(thresholdDateView.toDate());
-		}
-		if (!clonedInterval.isClosed()) {
-			clonedInterval.setEndTime(mostRecentDate);
-		}
-	}
-
-	private boolean intervalIsOlderThanThreshold(DateTime thresholdDateDatabase, IntervalBase interval) {
-		return interval.getEnd().before(thresholdDateDatabase.toDate());
+	public IntervalStatisticsBase(IDEIntervalManagerBase intervalManager, StatisticsTimePeriod selectedInterval) {
+		this.statisticsAggregate = intervalManager.getStatisticsAggregate();
+		this.snapshot = statisticsAggregate.createSnapshot(intervalManager.getOpenIntervals(),
+				TimeUnit.MINUTES.toMillis(selectedInterval.minutes));
+		this.mostRecentDate = snapshot.getMostRecentDate();
+		this.oldestDate = snapshot.getOldestDate();
+		calculateStatistics();
 	}
 
 	protected void calculateStatistics() {
-		ideOpen = aggregateDurations(getIntervals(IDEOpenInterval.class));
-		userActive = aggregateDurations(getIntervals(UserActiveInterval.class));
-		userReading = aggregateDurations(getIntervals(ReadingInterval.class));
-		userTyping = aggregateDurations(getIntervals(TypingInterval.class));
-		userTest = aggregateDurations(getEditorIntervals(DocumentType.TEST))
-				.plus(aggregateDurations(getEditorIntervals(DocumentType.TEST_FRAMEWORK)))
-				.plus(aggregateDurations(getEditorIntervals(DocumentType.FILENAME_TEST)))
-				.plus(aggregateDurations(getEditorIntervals(DocumentType.PATHNAMME_TEST)));
-		userProduction = aggregateDurations(getEditorIntervals(DocumentType.PRODUCTION));
+		ideOpen = snapshot.getDuration(IntervalType.IDE_OPEN);
+		userActive = snapshot.getDuration(IntervalType.USER_ACTIVE);
+		userReading = snapshot.getDuration(IntervalType.READING);
+		userTyping = snapshot.getDuration(IntervalType.TYPING);
+		userTest = snapshot.getDuration(DocumentType.TEST)
+				.plus(snapshot.getDuration(DocumentType.TEST_FRAMEWORK))
+				.plus(snapshot.getDuration(DocumentType.FILENAME_TEST))
+				.plus(snapshot.getDuration(DocumentType.PATHNAMME_TEST));
+		userProduction = snapshot.getDuration(DocumentType.PRODUCTION);
 		performDataSanitation();
 
-		perspectiveDebug = aggregateDurations(getPerspectiveIntervals(Perspective.DEBUG));
-		perspectiveJava = aggregateDurations(getPerspectiveIntervals(Perspective.JAVA));
-		perspectiveOther = aggregateDurations(getPerspectiveIntervals(Perspective.OTHER));
+		perspectiveDebug = snapshot.getDuration(Perspective.DEBUG);
+		perspectiveJava = snapshot.getDuration(Perspective.JAVA);
+		perspectiveOther = snapshot.getDuration(Perspective.OTHER);
 
-		List<DebugInterval> debugIntervals = getIntervals(DebugInterval.class);
-		debuggingSessionCount = debugIntervals.size();
-		totalDebuggingDuration = aggregateDurations(debugIntervals);
+		debuggingSessionCount = snapshot.getCount(IntervalType.DEBUG);
+		totalDebuggingDuration = snapshot.getDuration(IntervalType.DEBUG);
 		if (debuggingSessionCount > 0) {
 			averageDebuggingDuration = totalDebuggingDuration.dividedBy(debuggingSessionCount);
 		} else {
@@ -231,16 +162,32 @@ public abstract class IntervalStatisticsBase extends IntervalManagerBase {
 	}
 
 	protected Duration aggregateDurations(List<? extends IntervalBase> intervals) {
-		Duration aggregatedDuration = new Duration(0);
+		long aggregatedDuration = 0;
 		for (IntervalBase interval : intervals) {
-			aggregatedDuration = aggregatedDuration.plus(interval.getDuration());
+			aggregatedDuration += interval.getDurationMillis();
 		}
-		return aggregatedDuration;
+		return new Duration(aggregatedDuration);
+	}
+
+	/**
+	 * @return the intervals of the given class in the selected time frame.
+	 *         Takes time linear in the number of intervals, the statistics are
+	 *         better taken from the {@link #snapshot}.
+	 */
+	@Override
+	public <T extends IntervalBase> List<T> getIntervals(Class<T> clazz) {
+		return statisticsAggregate.getIntervals(snapshot, clazz);
+	}
+
+	@Override
+	public <T extends IntervalBase> T getInterval(Class<T> clazz) {
+		List<T> intervals = getIntervals(clazz);
+		return intervals.isEmpty() ? null : intervals.get(0);
 	}
 
 	/** @return the number of intervals. */
 	public int getNumberOfIntervals() {
-		return intervals.size();
+		return snapshot.getNumberOfIntervals();
 	}
 
 	public double getPreciseTime(Duration duration) {
@@ -253,14 +200,10 @@ public abstract class IntervalStatisticsBase extends IntervalManagerBase {
 	 *         intervals that is returned can be specified using
 	 *         numberOfIntervals.
 	 */
+	@SuppressWarnings("unchecked")
 	public List<DebugInterval> getLatestDebugIntervals(int numberOfIntervals) {
-		List<DebugInterval> latestDebugIntervals = getIntervals(DebugInterval.class);
-		Collections.sort(latestDebugIntervals);
-		Collections.reverse(latestDebugIntervals);
-		if (latestDebugIntervals.size() > numberOfIntervals) {
-			latestDebugIntervals = latestDebugIntervals.subList(0, numberOfIntervals);
-		}
-		return latestDebugIntervals;
+		return (List<DebugInterval>) (List<?>) statisticsAggregate.getLatestIntervals(snapshot, IntervalType.DEBUG,
+				numberOfIntervals);
 	}
 
 }
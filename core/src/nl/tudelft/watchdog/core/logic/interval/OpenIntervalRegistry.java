@@ -0,0 +1,205 @@
+package nl.tudelft.watchdog.core.logic.interval;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import nl.tudelft.watchdog.core.logic.interval.intervaltypes.IntervalBase;
+import nl.tudelft.watchdog.core.logic.interval.intervaltypes.IntervalType;
+
+/**
+ * The open intervals of an {@link IDEIntervalManagerBase}, stored in one slot
+ * per {@link IntervalType}. As there is normally at most one open interval per
+ * type, looking up an interval by its class does not need to scan all open
+ * intervals.
+ *
+ * The slot of a class is learned when the first interval of the class or of
+ * one of its subclasses is added. Classes whose intervals have different types
+ * (e.g. {@link nl.tudelft.watchdog.core.logic.interval.intervaltypes.EditorIntervalBase})
+ * and interfaces are looked up by scanning all slots.
+ *
+ * Further intervals of an already occupied type (e.g. an IDE open interval
+ * for every project opened in IntelliJ) are kept in an overflow list, so that
+ * no interval is lost. Every interval keeps the sequence number of its
+ * addition, so that lookups return the interval that was added first, and
+ * {@link #toList()} is in the order of addition, as with the former list.
+ */
+class OpenIntervalRegistry {
+
+	private static final IntervalType[] TYPES = IntervalType.values();
+
+	/** Marks classes whose intervals occupy different slots. */
+	private static final int MIXED_SLOTS = -1;
+
+	/**
+	 * The slot of every class that an added interval is an instance of. Shared
+	 * between all registries, as the type of an interval class never changes.
+	 */
+	private static final ConcurrentMap<Class<?>, Integer> SLOTS_BY_CLASS = new ConcurrentHashMap<Class<?>, Integer>();
+
+	private final IntervalBase[] slots = new IntervalBase[TYPES.length];
+
+	/** The sequence numbers of the intervals in the {@link #slots}. */
+	private final long[] slotSequences = new long[TYPES.length];
+
+	/** The further intervals of occupied types, in the order of addition. */
+	private final List<IntervalBase> overflow = new ArrayList<IntervalBase>();
+
+	/** The sequence numbers of the intervals in the {@link #overflow}. */
+	private final List<Long> overflowSequences = new ArrayList<Long>();
+
+	private long nextSequence;
+
+	private int size;
+
+	/** Adds the given interval. */
+	void add(IntervalBase interval) {
+		IntervalType type = interval.getType();
+		learnSlot(interval.getClass(), type.ordinal());
+		if (slots[type.ordinal()] == null) {
+			slots[type.ordinal()] = interval;
+			slotSequences[type.ordinal()] = nextSequence++;
+		} else {
+			overflow.add(interval);
+			overflowSequences.add(nextSequence++);
+		}
+		size++;
+	}
+
+	private static void learnSlot(Class<?> clazz, int slot) {
+		while (clazz != null && clazz != Object.class) {
+			Integer knownSlot = SLOTS_BY_CLASS.putIfAbsent(clazz, slot);
+			if (knownSlot != null && knownSlot != slot) {
+				SLOTS_BY_CLASS.put(clazz, MIXED_SLOTS);
+			}
+			clazz = clazz.getSuperclass();
+		}
+	}
+
+	/** @return whether the given interval was registered and is now removed. */
+	boolean remove(IntervalBase interval) {
+		int slot = interval.getType().ordinal();
+		if (slots[slot] == interval) {
+			promoteFirstOverflowOf(interval.getType());
+			size--;
+			return true;
+		}
+		for (int i = 0; i < overflow.size(); i++) {
+			if (overflow.get(i) == interval) {
+				overflow.remove(i);
+				overflowSequences.remove(i);
+				size--;
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Moves the first added interval of the given type from the overflow list
+	 * to its slot, which thus always holds the first added interval of its type.
+	 */
+	private void promoteFirstOverflowOf(IntervalType type) {
+		int slot = type.ordinal();
+		slots[slot] = null;
+		for (int i = 0; i < overflow.size(); i++) {
+			if (overflow.get(i).getType() == type) {
+				slots[slot] = overflow.remove(i);
+				slotSequences[slot] = overflowSequences.remove(i);
+				return;
+			}
+		}
+	}
+
+	/**
+	 * @return the first added open interval of the given class, or
+	 *         <code>null</code> if there is none.
+	 */
+	@SuppressWarnings("unchecked")
+	<T extends IntervalBase> T get(Class<T> clazz) {
+		Integer slot = SLOTS_BY_CLASS.get(clazz);
+		if (slot == null && !clazz.isInterface()) {
+			// No interval of this class has ever been added.
+			return null;
+		}
+		if (slot != null && slot != MIXED_SLOTS) {
+			IntervalBase interval = slots[slot];
+			if (interval == null || clazz.isInstance(interval)) {
+				return (T) interval;
+			}
+		}
+
+		// Classes that share a slot with other classes, or span several slots.
+		IntervalBase firstInterval = null;
+		long firstSequence = Long.MAX_VALUE;
+		for (int i = 0; i < slots.length; i++) {
+			if (clazz.isInstance(slots[i]) && slotSequences[i] < firstSequence) {
+				firstInterval = slots[i];
+				firstSequence = slotSequences[i];
+			}
+		}
+		for (int i = 0; i < overflow.size(); i++) {
+			if (clazz.isInstance(overflow.get(i))) {
+				// The overflow list is in the order of addition
+				if (overflowSequences.get(i) < firstSequence) {
+					firstInterval = overflow.get(i);
+				}
+				break;
+			}
+		}
+		return (T) firstInterval;
+	}
+
+	/** @return all open intervals of the given class. */
+	@SuppressWarnings("unchecked")
+	<T extends IntervalBase> List<T> getAll(Class<T> clazz) {
+		List<T> collectedIntervals = new ArrayList<T>();
+		for (IntervalBase interval : toList()) {
+			if (clazz.isInstance(interval)) {
+				collectedIntervals.add((T) interval);
+			}
+		}
+		return collectedIntervals;
+	}
+
+	/** @return a new list of all open intervals, in the order of addition. */
+	List<IntervalBase> toList() {
+		List<IntervalBase> intervals = new ArrayList<IntervalBase>(size);
+		boolean[] isAdded = new boolean[slots.length];
+		int nextOverflow = 0;
+		while (intervals.size() < size) {
+			// Merges the slots, in the order of their sequences, into the overflow list
+			int firstSlot = -1;
+			for (int i = 0; i < slots.length; i++) {
+				if (slots[i] != null && !isAdded[i]
+						&& (firstSlot < 0 || slotSequences[i] < slotSequences[firstSlot])) {
+					firstSlot = i;
+				}
+			}
+			if (firstSlot >= 0 && (nextOverflow == overflow.size()
+					|| slotSequences[firstSlot] < overflowSequences.get(nextOverflow))) {
+				intervals.add(slots[firstSlot]);
+				isAdded[firstSlot] = true;
+			} else {
+				intervals.add(overflow.get(nextOverflow++));
+			}
+		}
+		return intervals;
+	}
+
+	/** @return the number of open intervals. */
+	int size() {
+		return size;
+	}
+
+	/** Removes all intervals. */
+	void clear() {
+		for (int i = 0; i < slots.length; i++) {
+			slots[i] = null;
+		}
+		overflow.clear();
+		overflowSequences.clear();
+		size = 0;
+	}
+}
@@ -72,16 +72,36 @@ public abstract class EditorIntervalBase extends IntervalBase {
 		return document;
 	}
 
-	/** Sets the document. */
-	public void setDocument(Document document) {
+	/**
+	 * Sets the document, whose content is retained until this interval is
+	 * closed.
+	 *
+	 * @return <code>false</code> if the content of the document was already
+	 *         released.
+	 */
+	public boolean setDocument(Document document) {
 		this.document = document;
+		return document != null && document.retain();
+	}
+
+	/**
+	 * Releases the content of the documents of this interval, once the closer
+	 * has extracted all statistics from them.
+	 */
+	protected void releaseDocuments() {
+		if (document != null) {
+			document.release();
+		}
 	}
 
 	@Override
 	public void close() {
 		super.close();
 		isClosed = false;
-		new Thread(editorIntervalCloser).start();
+		new Thread(() -> {
+			editorIntervalCloser.run();
+			releaseDocuments();
+		}).start();
 	}
 
 }
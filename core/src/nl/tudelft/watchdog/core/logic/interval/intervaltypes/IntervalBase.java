@@ -10,6 +10,7 @@ import org.joda.time.format.PeriodFormat;
 import com.google.gson.annotations.SerializedName;
 
 import nl.tudelft.watchdog.core.logic.storage.WatchDogItem;
+import nl.tudelft.watchdog.core.util.WatchDogClock;
 
 /** The interval base. */
 abstract public class IntervalBase extends WatchDogItem implements Serializable, Comparable<WatchDogItem>, Cloneable {
@@ -17,17 +18,36 @@ abstract public class IntervalBase extends WatchDogItem implements Serializable,
 	/** The version id of this class. */
 	private static final long serialVersionUID = 2L;
 
+	/** The value of a start or end time that is not set. */
+	public static final long NO_TIME = Long.MIN_VALUE;
+
 	/** The Activity type. */
 	@SerializedName("it")
 	protected IntervalType intervalType;
 
-	/** The timestamp start (when this interval was started). */
+	/**
+	 * The timestamp start (when this interval was started), in milliseconds
+	 * since the epoch.
+	 */
 	@SerializedName("ts")
-	private Date start;
+	private long startTime;
 
-	/** The timestamp end (when this interval ended). */
+	/**
+	 * The timestamp end (when this interval ended), in milliseconds since the
+	 * epoch, or {@link #NO_TIME} while it is unknown.
+	 */
 	@SerializedName("te")
-	private Date end;
+	private long endTime = NO_TIME;
+
+	/**
+	 * The start as stored by WatchDog versions that kept {@link Date}s. Only
+	 * read from such a database, until
+	 * {@link #migrateLegacyFields()} moves it into {@link #startTime}.
+	 */
+	private transient Date start;
+
+	/** The end as stored by WatchDog versions that kept {@link Date}s. */
+	private transient Date end;
 
 	/**
 	 * The session seed, a random string generated on each start of Eclipse to
@@ -41,7 +61,7 @@ abstract public class IntervalBase extends WatchDogItem implements Serializable,
 
 	/** Constructor. */
 	public IntervalBase(IntervalType type, Date start) {
-		this.start = start;
+		this.startTime = toTime(start);
 		this.isClosed = false;
 		this.intervalType = type;
 	}
@@ -59,7 +79,7 @@ abstract public class IntervalBase extends WatchDogItem implements Serializable,
 		if (!isClosed()) {
 			isClosed = true;
 			if (getEnd() == null) {
-				setEndTime(new Date());
+				setEndTime(WatchDogClock.get().now());
 			}
 		}
 	}
@@ -68,17 +88,37 @@ abstract public class IntervalBase extends WatchDogItem implements Serializable,
 	 * @return the {@link Date} the interval started.
 	 */
 	public Date getStart() {
-		return start;
+		return toDate(startTime);
+	}
+
+	/**
+	 * @return the time the interval started, in milliseconds since the epoch.
+	 */
+	public long getStartTime() {
+		return startTime;
 	}
 
 	/**
 	 * @return the end of the interval as a {@link Date}.
 	 */
 	public Date getEnd() {
-		if (end != null) {
-			return end;
+		return new Date(getEndTime());
+	}
+
+	/**
+	 * @return the end of the interval in milliseconds since the epoch. If the
+	 *         end is not set, returns the current time.
+	 */
+	public long getEndTime() {
+		if (endTime != NO_TIME) {
+			return endTime;
 		}
-		return new Date();
+		return WatchDogClock.get().currentTimeMillis();
+	}
+
+	/** @return whether the end of the interval is set. */
+	public boolean hasEnd() {
+		return endTime != NO_TIME;
 	}
 
 	/**
@@ -86,10 +126,18 @@ abstract public class IntervalBase extends WatchDogItem implements Serializable,
 	 *         return the duration until now.
 	 */
 	public Duration getDuration() {
+		return new Duration(getDurationMillis());
+	}
+
+	/**
+	 * @return the duration of this interval in milliseconds. If the interval is
+	 *         not yet closed, return the duration until now.
+	 */
+	public long getDurationMillis() {
 		if (isClosed) {
-			return new Duration(start.getTime(), end.getTime());
+			return getEndTime() - startTime;
 		}
-		return new Duration(start.getTime(), new Date().getTime());
+		return WatchDogClock.get().currentTimeMillis() - startTime;
 	}
 
 	/** @return A human-readable duration. */
@@ -101,12 +149,22 @@ abstract public class IntervalBase extends WatchDogItem implements Serializable,
 
 	/** Sets the start time. */
 	public void setStartTime(Date date) {
-		this.start = date;
+		this.startTime = toTime(date);
+	}
+
+	/** Sets the start time in milliseconds since the epoch. */
+	public void setStartTime(long time) {
+		this.startTime = time;
 	}
 
 	/** Sets the end time. */
 	public void setEndTime(Date date) {
-		this.end = date;
+		this.endTime = toTime(date);
+	}
+
+	/** Sets the end time in milliseconds since the epoch. */
+	public void setEndTime(long time) {
+		this.endTime = time;
 	}
 
 	/** Sets the projectId. */
@@ -134,9 +192,9 @@ abstract public class IntervalBase extends WatchDogItem implements Serializable,
 	public int compareTo(WatchDogItem comparedItem) {
 		if (comparedItem instanceof IntervalBase) {
 			IntervalBase comparedInterval = (IntervalBase) comparedItem;
-			int res = getEnd().compareTo(comparedInterval.getEnd());
+			int res = Long.compare(getEndTime(), comparedInterval.getEndTime());
 			if (res == 0 && !this.equals(comparedInterval)) {
-				res = getStart().compareTo(comparedInterval.getStart());
+				res = Long.compare(startTime, comparedInterval.startTime);
 				if (res == 0) {
 					res = getType().compareTo(comparedInterval.getType()) > 0 ? 1 : -1;
 				}
@@ -176,11 +234,7 @@ abstract public class IntervalBase extends WatchDogItem implements Serializable,
 			return false;
 		}
 		IntervalBase other = (IntervalBase) obj;
-		if (end == null) {
-			if (other.end != null) {
-				return false;
-			}
-		} else if (!end.equals(other.end)) {
+		if (endTime != other.endTime) {
 			return false;
 		}
 		if (intervalType != other.intervalType) {
@@ -193,14 +247,26 @@ abstract public class IntervalBase extends WatchDogItem implements Serializable,
 		} else if (!sessionSeed.equals(other.sessionSeed)) {
 			return false;
 		}
-		if (start == null) {
-			if (other.start != null) {
-				return false;
-			}
-		} else if (!start.equals(other.start)) {
+		if (startTime != other.startTime) {
 			return false;
 		}
 		return true;
 	}
 
+	@Override
+	public void migrateLegacyFields() {
+		startTime = toTime(start);
+		endTime = toTime(end);
+		start = null;
+		end = null;
+	}
+
+	private static long toTime(Date date) {
+		return date == null ? NO_TIME : date.getTime();
+	}
+
+	private static Date toDate(long time) {
+		return time == NO_TIME ? null : new Date(time);
+	}
+
 }
@@ -2,11 +2,10 @@ package nl.tudelft.watchdog.core.logic.interval.intervaltypes;
 
 import java.util.Date;
 
-import org.apache.commons.lang.StringUtils;
-
 import com.google.gson.annotations.SerializedName;
 
 import nl.tudelft.watchdog.core.logic.document.Document;
+import nl.tudelft.watchdog.core.logic.document.EditDistanceCalculator;
 import nl.tudelft.watchdog.core.logic.document.EditorWrapperBase;
 import nl.tudelft.watchdog.core.logic.network.JsonifiedLong;
 
@@ -16,12 +15,6 @@ import nl.tudelft.watchdog.core.logic.network.JsonifiedLong;
  */
 public class TypingInterval extends EditorIntervalBase {
 
-	/**
-	 * The maximum product of the lengths of the starting and ending
-	 * document for which the Levenshtein distance will be calculated.
-	 */
-	private static final long LENGTH_PRODUCT_THRESHOLD = 100000000;
-
 	/** The operations that need to be carried out to close this interval. */
 	private class TypingIntervalCloserBase extends EditorIntervalCloser {
 		@Override
@@ -38,22 +31,14 @@ public class TypingInterval extends EditorIntervalBase {
 				String startingContent = getDocument().getContent();
 				String endingContent = endingDocument.getContent();
 				if (startingContent != null && endingContent != null) {
-					int startLength = startingContent.length();
-					int endLength = endingContent.length();
-					charLengthDiff = Math.abs(startLength - endLength);
-
-					long lengthProduct = startLength*endLength;
-					if(startLength == 0) {
-						lengthProduct = endLength;
-					}
-					else if (endLength == 0) {
-						lengthProduct = startLength;
-					}
-
-					// Only calculate Levenshtein when its impact on the usability is acceptable
-					if(lengthProduct <= LENGTH_PRODUCT_THRESHOLD) {
-						editDistance = new JsonifiedLong(
-							StringUtils.getLevenshteinDistance(startingContent, endingContent));
+					charLengthDiff = Math.abs(startingContent.length() - endingContent.length());
+
+					// The modification count is an upper bound on the edit
+					// distance and thus limits the band that is computed.
+					long distance = EditDistanceCalculator.computeLevenshteinDistance(
+							startingContent, endingContent, modCount);
+					if (distance != EditDistanceCalculator.UNKNOWN_DISTANCE) {
+						editDistance = new JsonifiedLong(distance);
 					}
 				}
 			}
@@ -105,6 +90,17 @@ public class TypingInterval extends EditorIntervalBase {
 	/** Updates the contents when ending the typing interval. */
 	public void setEndingDocument(Document endingDocument) {
 		this.endingDocument = endingDocument;
+		if (endingDocument != null) {
+			endingDocument.retain();
+		}
+	}
+
+	@Override
+	protected void releaseDocuments() {
+		super.releaseDocuments();
+		if (endingDocument != null) {
+			endingDocument.release();
+		}
 	}
 
 	/** Increases the number of characters modified in this interval. */
@@ -1,5 +1,6 @@
 package nl.tudelft.watchdog.core.logic.network;
 
+import java.io.IOException;
 import java.lang.reflect.Type;
 import java.util.Date;
 import java.util.List;
@@ -7,11 +8,19 @@ import java.util.List;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
 import com.google.gson.JsonPrimitive;
 import com.google.gson.JsonSerializationContext;
 import com.google.gson.JsonSerializer;
 import com.google.gson.JsonSyntaxException;
-
+import com.google.gson.TypeAdapter;
+import com.google.gson.TypeAdapterFactory;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+
+import nl.tudelft.watchdog.core.logic.event.eventtypes.EventBase;
+import nl.tudelft.watchdog.core.logic.interval.intervaltypes.IntervalBase;
 import nl.tudelft.watchdog.core.logic.network.NetworkUtils.Connection;
 import nl.tudelft.watchdog.core.logic.network.TransferManagerBase.ItemType;
 import nl.tudelft.watchdog.core.logic.storage.WatchDogItem;
@@ -35,7 +44,8 @@ public class JsonTransferer {
 	public JsonTransferer() {
 		gsonBuilder.registerTypeAdapter(Date.class, new DateSerializer())
 				.registerTypeAdapter(JsonifiedDouble.class, new JsonifiedDoubleSerializer())
-				.registerTypeAdapter(JsonifiedLong.class, new JsonifiedLongSerializer());
+				.registerTypeAdapter(JsonifiedLong.class, new JsonifiedLongSerializer())
+				.registerTypeAdapterFactory(new UnsetTimeOmittingAdapterFactory());
 		gson = gsonBuilder.create();
 	}
 
@@ -125,6 +135,11 @@ public class JsonTransferer {
 		}
 	}
 
+	/** Converts a single item to Json. */
+	public String toJson(WatchDogItem item) {
+		return gson.toJson(item);
+	}
+
 	/**
 	 * @return the POST URL to be used to send the JSON data to.
 	 */
@@ -148,6 +163,53 @@ public class JsonTransferer {
 		}
 	}
 
+	/**
+	 * Omits the timestamps of {@link IntervalBase}s and {@link EventBase}s that
+	 * are not set, as Gson does for <code>null</code> {@link Date}s.
+	 */
+	private static class UnsetTimeOmittingAdapterFactory implements TypeAdapterFactory {
+
+		@Override
+		public <T> TypeAdapter<T> create(Gson gson, TypeToken<T> type) {
+			Class<? super T> rawType = type.getRawType();
+			if (!IntervalBase.class.isAssignableFrom(rawType) && !EventBase.class.isAssignableFrom(rawType)) {
+				return null;
+			}
+			final TypeAdapter<T> delegate = gson.getDelegateAdapter(this, type);
+			final TypeAdapter<JsonElement> elementAdapter = gson.getAdapter(JsonElement.class);
+			return new TypeAdapter<T>() {
+				@Override
+				public void write(JsonWriter out, T value) throws IOException {
+					if (value instanceof IntervalBase) {
+						IntervalBase interval = (IntervalBase) value;
+						if (interval.getStartTime() == IntervalBase.NO_TIME || !interval.hasEnd()) {
+							JsonObject tree = delegate.toJsonTree(value).getAsJsonObject();
+							if (interval.getStartTime() == IntervalBase.NO_TIME) {
+								tree.remove("ts");
+							}
+							if (!interval.hasEnd()) {
+								tree.remove("te");
+							}
+							elementAdapter.write(out, tree);
+							return;
+						}
+					} else if (value instanceof EventBase && ((EventBase) value).getTime() == EventBase.NO_TIME) {
+						JsonObject tree = delegate.toJsonTree(value).getAsJsonObject();
+						tree.remove("ts");
+						elementAdapter.write(out, tree);
+						return;
+					}
+					delegate.write(out, value);
+				}
+
+				@Override
+				public T read(JsonReader in) throws IOException {
+					return delegate.read(in);
+				}
+			};
+		}
+	}
+
 	/** A JSon Serializer for {@link JsonifiedDouble}s. */
 	private static class JsonifiedDoubleSerializer implements JsonSerializer<JsonifiedDouble> {
 
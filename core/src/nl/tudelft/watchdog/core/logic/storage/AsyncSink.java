@@ -0,0 +1,146 @@
+package nl.tudelft.watchdog.core.logic.storage;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import nl.tudelft.watchdog.core.util.WatchDogLogger;
+
+/**
+ * A {@link WatchDogItemSink} with its own bounded queue and thread, which
+ * passes the items on to another sink in batches. Saving an item never
+ * blocks: if the queue is full, because the other sink cannot keep up, the
+ * item is dropped and counted.
+ */
+public class AsyncSink implements WatchDogItemSink {
+
+	/** The default number of items that can wait in the queue. */
+	public static final int DEFAULT_CAPACITY = 10000;
+
+	/** The maximum number of items passed on at once. */
+	public static final int MAX_BATCH_SIZE = 500;
+
+	/** Marks the end of the queue when the sink is closed. */
+	private static final WatchDogItem END_OF_QUEUE = new WatchDogItem() {
+	};
+
+	private final WatchDogItemSink sink;
+
+	private final BlockingQueue<WatchDogItem> queue;
+
+	private final Thread worker;
+
+	private volatile boolean isClosed;
+
+	private long queuedItems;
+
+	private long passedItems;
+
+	private long droppedItems;
+
+	/** Constructor. */
+	public AsyncSink(String name, WatchDogItemSink sink) {
+		this(name, sink, DEFAULT_CAPACITY);
+	}
+
+	/** Constructor for a queue with the given capacity. */
+	public AsyncSink(String name, WatchDogItemSink sink, int capacity) {
+		this.sink = sink;
+		this.queue = new ArrayBlockingQueue<WatchDogItem>(capacity);
+		this.worker = new Thread(this::passItems, "WatchDog sink " + name);
+		worker.setDaemon(true);
+		worker.start();
+	}
+
+	@Override
+	public void save(WatchDogItem item) {
+		if (isClosed) {
+			return;
+		}
+		boolean isQueued = queue.offer(item);
+		synchronized (this) {
+			if (isQueued) {
+				queuedItems++;
+			} else if (droppedItems++ == 0) {
+				WatchDogLogger.getInstance().logSevere("Queue of " + worker.getName() + " is full, dropping items.");
+			}
+		}
+	}
+
+	/** @return the number of items dropped because the queue was full. */
+	public synchronized long getDroppedItems() {
+		return droppedItems;
+	}
+
+	/**
+	 * Waits until all items queued so far were passed on, or the timeout
+	 * elapsed.
+	 *
+	 * @return whether all items were passed on.
+	 */
+	public synchronized boolean flush(long timeout, TimeUnit unit) throws InterruptedException {
+		long deadline = System.nanoTime() + unit.toNanos(timeout);
+		long itemsToPass = queuedItems;
+		while (passedItems < itemsToPass) {
+			long remaining = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+			if (remaining <= 0) {
+				return false;
+			}
+			wait(remaining);
+		}
+		return true;
+	}
+
+	/**
+	 * Passes on the items that are still queued, stops the thread and closes
+	 * the other sink.
+	 */
+	@Override
+	public void close() {
+		if (isClosed) {
+			return;
+		}
+		isClosed = true;
+		try {
+			queue.put(END_OF_QUEUE);
+			worker.join();
+		} catch (InterruptedException exception) {
+			Thread.currentThread().interrupt();
+		}
+		sink.close();
+	}
+
+	private void passItems() {
+		List<WatchDogItem> batch = new ArrayList<WatchDogItem>(MAX_BATCH_SIZE);
+		while (true) {
+			try {
+				batch.add(queue.take());
+			} catch (InterruptedException exception) {
+				return;
+			}
+			queue.drainTo(batch, MAX_BATCH_SIZE - 1);
+			boolean isEnd = batch.remove(END_OF_QUEUE);
+			if (!batch.isEmpty()) {
+				try {
+					if (batch.size() == 1) {
+						sink.save(batch.get(0));
+					} else {
+						sink.saveAll(batch);
+					}
+				} catch (RuntimeException exception) {
+					WatchDogLogger.getInstance().logSevere(exception);
+				}
+				synchronized (this) {
+					passedItems += batch.size();
+					notifyAll();
+				}
+				batch.clear();
+			}
+			if (isEnd) {
+				return;
+			}
+		}
+	}
+}
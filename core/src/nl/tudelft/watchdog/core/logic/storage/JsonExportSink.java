@@ -0,0 +1,104 @@
+package nl.tudelft.watchdog.core.logic.storage;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import nl.tudelft.watchdog.core.logic.network.JsonTransferer;
+import nl.tudelft.watchdog.core.util.WatchDogLogger;
+
+/**
+ * A {@link WatchDogItemSink} that appends the items to a local file, one item
+ * per line, in the Json format in which they are sent to the server.
+ *
+ * The export is enabled from the IDE by setting the system property
+ * {@value #EXPORT_PROPERTY} to the target file.
+ */
+public class JsonExportSink implements WatchDogItemSink {
+
+	/** The system property pointing to the file to export to. */
+	public static final String EXPORT_PROPERTY = "watchdogExportFile";
+
+	private static boolean exportRequestHandled;
+
+	private static WatchDogItemSink requestedSink;
+
+	private final JsonTransferer transferer = new JsonTransferer();
+
+	private final Writer writer;
+
+	/** Constructor. Appends to the given file. */
+	public JsonExportSink(File file) throws IOException {
+		writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file, true), StandardCharsets.UTF_8));
+	}
+
+	/**
+	 * @return the sink exporting to the file in the {@value #EXPORT_PROPERTY}
+	 *         system property, or <code>null</code> if it is not set. The sink
+	 *         has its own thread and is shared by all projects, until the JVM
+	 *         shuts down.
+	 */
+	public static synchronized WatchDogItemSink getRequestedSink() {
+		String exportFile = System.getProperty(EXPORT_PROPERTY);
+		if (exportFile == null || exportRequestHandled) {
+			return requestedSink;
+		}
+		exportRequestHandled = true;
+		try {
+			final WatchDogItemSink sink = new AsyncSink("export", new JsonExportSink(new File(exportFile)));
+			Runtime.getRuntime().addShutdownHook(new Thread() {
+				@Override
+				public void run() {
+					sink.close();
+				}
+			});
+			requestedSink = sink;
+			WatchDogLogger.getInstance().logInfo("Exporting items to " + exportFile);
+		} catch (IOException exception) {
+			WatchDogLogger.getInstance().logSevere(exception);
+		}
+		return requestedSink;
+	}
+
+	@Override
+	public synchronized void save(WatchDogItem item) {
+		try {
+			write(item);
+			writer.flush();
+		} catch (IOException exception) {
+			WatchDogLogger.getInstance().logSevere(exception);
+		}
+	}
+
+	/** Writes all items and flushes the file once. */
+	@Override
+	public synchronized void saveAll(List<? extends WatchDogItem> items) {
+		try {
+			for (WatchDogItem item : items) {
+				write(item);
+			}
+			writer.flush();
+		} catch (IOException exception) {
+			WatchDogLogger.getInstance().logSevere(exception);
+		}
+	}
+
+	private void write(WatchDogItem item) throws IOException {
+		writer.write(transferer.toJson(item));
+		writer.write('\n');
+	}
+
+	@Override
+	public synchronized void close() {
+		try {
+			writer.close();
+		} catch (IOException exception) {
+			WatchDogLogger.getInstance().logSevere(exception);
+		}
+	}
+}
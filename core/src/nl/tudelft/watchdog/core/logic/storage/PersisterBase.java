@@ -7,6 +7,7 @@ import org.mapdb.DBMaker;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Set;
 
@@ -23,6 +24,15 @@ public class PersisterBase {
 	/** The name of the DB collection to be used. */
 	private static final String COLLECTION = "watchdog";
 
+	/** The name of the DB record that holds the version of the stored items. */
+	private static final String STORE_VERSION = "storeVersion";
+
+	/**
+	 * The version of the stored items. Version 1 keeps the timestamps of
+	 * intervals and events in milliseconds instead of {@link java.util.Date}s.
+	 */
+	private static final int CURRENT_STORE_VERSION = 1;
+
 	protected DB database;
 
 	/** In memory representation of the store. */
@@ -30,6 +40,13 @@ public class PersisterBase {
 
 	private File databaseFile;
 
+	/**
+	 * Create a persister without a backing database. Subclasses must override
+	 * the methods they use.
+	 */
+	protected PersisterBase() {
+	}
+
 	/**
 	 * Create a new persister. If file points to an existing database, it will
 	 * be reused.
@@ -69,6 +86,7 @@ public class PersisterBase {
 		try {
 			database = createDatabase(file);
 			set = createSet();
+			migrateItems(file);
 		} catch (RuntimeException e) {
 			recreateDatabase(file);
 		}
@@ -81,6 +99,35 @@ public class PersisterBase {
 		return baseSet;
 	}
 
+	/**
+	 * Migrates the items of a database that an older version of WatchDog
+	 * wrote, so that they are not lost with a recreated database. The items
+	 * are moved into a new database, because MapDB does not store the new
+	 * fields of classes it already knows.
+	 */
+	private void migrateItems(File file) {
+		replaceClassLoader();
+		boolean isCurrentVersion = database.getAtomicInteger(STORE_VERSION).get() >= CURRENT_STORE_VERSION;
+		List<WatchDogItem> items = isCurrentVersion ? null : new ArrayList<WatchDogItem>(set);
+		resetOldClassLoader();
+		if (isCurrentVersion) {
+			return;
+		}
+
+		for (WatchDogItem item : items) {
+			item.migrateLegacyFields();
+		}
+		closeDatabase();
+		deleteDatabaseFile();
+		database = createDatabase(file);
+		set = createSet();
+		replaceClassLoader();
+		set.addAll(items);
+		database.getAtomicInteger(STORE_VERSION).set(CURRENT_STORE_VERSION);
+		database.commit();
+		resetOldClassLoader();
+	}
+
 	private DB createDatabase(final File file) {
 		replaceClassLoader();
 		DB database = DBMaker.newFileDB(file).closeOnJvmShutdown().make();
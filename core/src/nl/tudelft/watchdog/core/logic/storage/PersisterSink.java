@@ -0,0 +1,34 @@
+package nl.tudelft.watchdog.core.logic.storage;
+
+import java.util.List;
+
+/** A {@link WatchDogItemSink} that saves the items to a {@link PersisterBase}. */
+public class PersisterSink implements WatchDogItemSink {
+
+	private final PersisterBase persister;
+
+	/** Constructor. */
+	public PersisterSink(PersisterBase persister) {
+		this.persister = persister;
+	}
+
+	/** @return the persister the items are saved to. */
+	public PersisterBase getPersister() {
+		return persister;
+	}
+
+	@Override
+	public void save(WatchDogItem item) {
+		persister.save(item);
+	}
+
+	/** Saves the items in one batch, which is serialized to disk once. */
+	@Override
+	public void saveAll(List<? extends WatchDogItem> items) {
+		persister.startBatch();
+		for (WatchDogItem item : items) {
+			persister.batchedSave(item);
+		}
+		persister.commitBatch();
+	}
+}
@@ -14,4 +14,12 @@ public abstract class WatchDogItem {
 	@SerializedName("ide")
 	private final IDE watchDogIDE = WatchDogGlobals.hostIDE;
 
+	/**
+	 * Moves the values of fields that an older version of WatchDog stored into
+	 * the fields of this version. Called once on every item of a database
+	 * that was written by an older version, see {@link PersisterBase}.
+	 */
+	public void migrateLegacyFields() {
+	}
+
 }
@@ -0,0 +1,66 @@
+package nl.tudelft.watchdog.core.logic.storage;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import nl.tudelft.watchdog.core.util.WatchDogLogger;
+
+/**
+ * Fans the {@link WatchDogItem}s produced by WatchDog out to all attached
+ * {@link WatchDogItemSink}s, in the order in which they were attached. A sink
+ * that fails does not prevent the other sinks from receiving the item. Sinks
+ * that are slow should be wrapped in an {@link AsyncSink}, so that they do
+ * not delay the IDE and the other sinks.
+ */
+public class WatchDogItemPipeline {
+
+	private final List<WatchDogItemSink> sinks = new CopyOnWriteArrayList<WatchDogItemSink>();
+
+	/** Constructor. */
+	public WatchDogItemPipeline(WatchDogItemSink... sinks) {
+		for (WatchDogItemSink sink : sinks) {
+			addSink(sink);
+		}
+	}
+
+	/** Attaches the given sink. */
+	public void addSink(WatchDogItemSink sink) {
+		sinks.add(sink);
+	}
+
+	/** Detaches the given sink, without closing it. */
+	public void removeSink(WatchDogItemSink sink) {
+		sinks.remove(sink);
+	}
+
+	/** @return the attached sinks. */
+	public List<WatchDogItemSink> getSinks() {
+		return Collections.unmodifiableList(sinks);
+	}
+
+	/** Passes the given item to all sinks. */
+	public void publish(WatchDogItem item) {
+		for (WatchDogItemSink sink : sinks) {
+			try {
+				sink.save(item);
+			} catch (RuntimeException exception) {
+				WatchDogLogger.getInstance().logSevere(exception);
+			}
+		}
+	}
+
+	/** Passes the given items to all sinks, as one batch per sink. */
+	public void publishAll(List<? extends WatchDogItem> items) {
+		if (items.isEmpty()) {
+			return;
+		}
+		for (WatchDogItemSink sink : sinks) {
+			try {
+				sink.saveAll(items);
+			} catch (RuntimeException exception) {
+				WatchDogLogger.getInstance().logSevere(exception);
+			}
+		}
+	}
+}
@@ -0,0 +1,64 @@
+package nl.tudelft.watchdog.core.logic.storage;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * A destination for the {@link WatchDogItem}s that WatchDog produces, e.g. a
+ * {@link PersisterBase}, an export file or live statistics. Sinks are
+ * attached to a {@link WatchDogItemPipeline}.
+ */
+public interface WatchDogItemSink {
+
+	/** Saves the given item. */
+	void save(WatchDogItem item);
+
+	/**
+	 * Saves all given items at once. Sinks which can store a batch of items
+	 * faster than each item on its own should override this.
+	 */
+	default void saveAll(List<? extends WatchDogItem> items) {
+		for (WatchDogItem item : items) {
+			save(item);
+		}
+	}
+
+	/** Releases the resources of this sink. Does nothing by default. */
+	default void close() {
+	}
+
+	/**
+	 * @return a sink that only passes the items accepted by the given filter
+	 *         on to this sink.
+	 */
+	default WatchDogItemSink filter(final Predicate<? super WatchDogItem> filter) {
+		final WatchDogItemSink sink = this;
+		return new WatchDogItemSink() {
+			@Override
+			public void save(WatchDogItem item) {
+				if (filter.test(item)) {
+					sink.save(item);
+				}
+			}
+
+			@Override
+			public void saveAll(List<? extends WatchDogItem> items) {
+				List<WatchDogItem> acceptedItems = new ArrayList<WatchDogItem>(items.size());
+				for (WatchDogItem item : items) {
+					if (filter.test(item)) {
+						acceptedItems.add(item);
+					}
+				}
+				if (!acceptedItems.isEmpty()) {
+					sink.saveAll(acceptedItems);
+				}
+			}
+
+			@Override
+			public void close() {
+				sink.close();
+			}
+		};
+	}
+}
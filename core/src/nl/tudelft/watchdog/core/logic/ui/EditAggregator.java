@@ -0,0 +1,83 @@
+package nl.tudelft.watchdog.core.logic.ui;
+
+import nl.tudelft.watchdog.core.logic.ui.events.WatchDogEventType;
+
+/**
+ * Translates the document changes of one editor into
+ * {@link WatchDogEventType#START_EDIT} and
+ * {@link WatchDogEventType#SUBSEQUENT_EDIT} events.
+ *
+ * Refactorings, formatter runs or a "Replace All" change a document thousands
+ * of times in a row. The IDEs mark such bulk edits, e.g. with commands or
+ * rewrite sessions. Between {@link #startBulkEdit()} and the matching
+ * {@link #endBulkEdit()}, only the first change starts editing, and the
+ * modification counts of all changes are summed up into a single subsequent
+ * edit at the end of the bulk edit.
+ *
+ * Must only be used on the UI thread, which also changes the documents.
+ */
+public class EditAggregator {
+
+	private final Object editor;
+
+	private final WatchDogEventType.EditorWithModCount edit;
+
+	private int bulkEditDepth;
+
+	private boolean hasPendingChanges;
+
+	private long pendingModCount;
+
+	/** Constructor. */
+	public EditAggregator(Object editor) {
+		this.editor = editor;
+		this.edit = new WatchDogEventType.EditorWithModCount(editor, 0);
+	}
+
+	/** Called before the document of the editor is changed. */
+	public void beforeChange() {
+		if (bulkEditDepth > 0 && hasPendingChanges) {
+			return;
+		}
+		WatchDogEventType.START_EDIT.process(editor);
+	}
+
+	/**
+	 * Called after the document of the editor was changed.
+	 *
+	 * @param modCount
+	 *            the number of modified characters.
+	 */
+	public void changed(int modCount) {
+		if (bulkEditDepth > 0) {
+			hasPendingChanges = true;
+			pendingModCount += modCount;
+			return;
+		}
+		WatchDogEventType.SUBSEQUENT_EDIT.process(edit.withModCount(modCount));
+	}
+
+	/** Called when a bulk edit starts. Bulk edits can be nested. */
+	public void startBulkEdit() {
+		bulkEditDepth++;
+	}
+
+	/**
+	 * Called when a bulk edit ends. Processes the changes made during the
+	 * outermost bulk edit as a single edit.
+	 */
+	public void endBulkEdit() {
+		if (bulkEditDepth == 0 || --bulkEditDepth > 0 || !hasPendingChanges) {
+			return;
+		}
+		int modCount = (int) Math.min(pendingModCount, Integer.MAX_VALUE);
+		hasPendingChanges = false;
+		pendingModCount = 0;
+		WatchDogEventType.SUBSEQUENT_EDIT.process(edit.withModCount(modCount));
+	}
+
+	/** @return whether a bulk edit is in progress. */
+	public boolean isBulkEdit() {
+		return bulkEditDepth > 0;
+	}
+}
@@ -5,15 +5,18 @@ import java.util.Timer;
 import java.util.TimerTask;
 
 import nl.tudelft.watchdog.core.logic.ui.events.WatchDogEventTypeInterface;
+import nl.tudelft.watchdog.core.util.WatchDogClock;
 
 /**
  * A performance-optimized notifier for a timeout when its {@link #trigger()}
  * was not called for a given timeout. When an inactivity is detected, an
  * inactivityEvent is fired. The type of this event can be specified.
  *
- * Performance optimization: only update activity timer every second. This means
- * that we have 10% imprecision, ie. the user may have actually stayed inactive
- * shorter than we think he did.
+ * Performance optimization: {@link #trigger()} only records the time of the
+ * last activity, without allocating. The timer task checks this time when it
+ * runs and reschedules itself if there was activity in the meantime, so that
+ * at most one task is created per timeout period, and the timer thread of
+ * the notifier is reused.
  */
 public class InactivityNotifier {
 
@@ -25,7 +28,9 @@ public class InactivityNotifier {
 
 	private WatchDogEventTypeInterface eventType;
 
-	private boolean isRunning;
+	private volatile boolean isRunning;
+
+	private volatile long lastActivity;
 
 	/** Constructor. */
 	public InactivityNotifier(int activityTimeout,
@@ -40,29 +45,37 @@ public class InactivityNotifier {
 	 * non is running.
 	 */
 	public void trigger() {
-		if (activityTimer == null || !isRunning) {
-			createNewTimer();
-		} else if (activityTimerTask.scheduledExecutionTime()
-				- System.currentTimeMillis() < 0.9 * activityTimeout) {
-			// Performance optimization: only update activity timer every
-			// second. This means that we have 10% imprecision, ie. the user
-			// may have actually stayed inactive shorter than we think he
-			// did. Reduces the number of calls to createNewTimer().
-			activityTimer.cancel();
-			activityTimerTask.cancel();
-			createNewTimer();
+		// The activity must be visible before isRunning is read, so that a
+		// concurrently expiring task either sees it or we restart the timer.
+		lastActivity = WatchDogClock.get().currentTimeMillis();
+		if (!isRunning) {
+			synchronized (this) {
+				if (!isRunning) {
+					isRunning = true;
+					scheduleTask(activityTimeout);
+				}
+			}
 		}
 	}
 
+	/**
+	 * Triggers the timer for an activity at the given time. Subclasses can
+	 * override this to additionally process the activity.
+	 */
+	public void trigger(long timestamp) {
+		this.trigger();
+	}
+
 	public void trigger(Date forcedDate) {
-	    this.trigger();
-    }
+		this.trigger(forcedDate.getTime());
+	}
 
-	private void createNewTimer() {
-		activityTimer = new Timer(true);
+	private void scheduleTask(long delay) {
+		if (activityTimer == null) {
+			activityTimer = new Timer(true);
+		}
 		activityTimerTask = new ActivityTimerTask();
-		activityTimer.schedule(activityTimerTask, activityTimeout);
-		isRunning = true;
+		activityTimer.schedule(activityTimerTask, delay);
 	}
 
 	/**
@@ -73,25 +86,56 @@ public class InactivityNotifier {
 	 *            this event actually happened.
 	 */
 	public void cancelTimer(Date forcedDate) {
-		if (!isRunning) {
-			return;
+		if (stopTimer()) {
+			eventType.process(forcedDate, this);
 		}
-		activityTimerTask.run(forcedDate);
-		activityTimer.cancel();
-		activityTimerTask.cancel();
 	}
 
-	private class ActivityTimerTask extends TimerTask {
+	/**
+	 * Immediately cancels the timer, sending an inactivity event for the given
+	 * timestamp. Does not allocate if the timer is not running.
+	 */
+	public void cancelTimer(long timestamp) {
+		if (stopTimer()) {
+			eventType.process(timestamp, this);
+		}
+	}
 
-		protected void run(Date forcedDate) {
-		    eventType.process(forcedDate, this);
+	/** @return whether the timer was running. */
+	private boolean stopTimer() {
+		if (!isRunning) {
+			return false;
+		}
+		synchronized (this) {
+			if (!isRunning) {
+				return false;
+			}
 			isRunning = false;
+			activityTimerTask.cancel();
+			activityTimerTask = null;
+			return true;
 		}
+	}
+
+	private class ActivityTimerTask extends TimerTask {
 
 		@Override
 		public void run() {
-		    eventType.process(this);
-			isRunning = false;
+			synchronized (InactivityNotifier.this) {
+				if (activityTimerTask != this) {
+					return;
+				}
+				isRunning = false;
+				long remaining = lastActivity + activityTimeout
+						- WatchDogClock.get().currentTimeMillis();
+				if (remaining > 0) {
+					isRunning = true;
+					scheduleTask(remaining);
+					return;
+				}
+				activityTimerTask = null;
+			}
+			eventType.process(this);
 		}
 	}
 
@@ -3,8 +3,6 @@ package nl.tudelft.watchdog.core.logic.ui;
 import nl.tudelft.watchdog.core.logic.ui.events.WatchDogEventType;
 import nl.tudelft.watchdog.core.util.WatchDogGlobals;
 
-import java.util.Date;
-
 public enum InactivityNotifiers {
 
     USER_INACTIVITY(new UserInactivityNotifier(WatchDogGlobals.getUserInactivityTimeoutDuration(), WatchDogEventType.USER_INACTIVITY)),
@@ -17,18 +15,25 @@ public enum InactivityNotifiers {
         this.inactivityNotifier = inactivityNotifier;
     }
 
-    public void trigger(Date forcedDate) {
-        this.inactivityNotifier.trigger(forcedDate);
+    public void trigger(long timestamp) {
+        this.inactivityNotifier.trigger(timestamp);
     }
 
-    public void cancelTimer(Date forcedDate) {
-        this.inactivityNotifier.cancelTimer(forcedDate);
+    public void cancelTimer(long timestamp) {
+        this.inactivityNotifier.cancelTimer(timestamp);
     }
 
     public void trigger() {
         this.inactivityNotifier.trigger();
     }
 
+    /**
+     * @return The currently used notifier.
+     */
+    public InactivityNotifier getNotifier() {
+        return inactivityNotifier;
+    }
+
     /**
      * Only used for tests, as the notifiers have a different timeout there.
      * @param inactivityNotifier The new notifier.
@@ -1,74 +1,104 @@
 package nl.tudelft.watchdog.core.logic.ui;
 
 import java.util.Date;
-import java.util.Timer;
-import java.util.TimerTask;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 import nl.tudelft.watchdog.core.logic.interval.IDEIntervalManagerBase;
 import nl.tudelft.watchdog.core.logic.ui.events.WatchDogEventType;
+import nl.tudelft.watchdog.core.util.WatchDogClock;
 import nl.tudelft.watchdog.core.util.WatchDogGlobals;
 import nl.tudelft.watchdog.core.util.WatchDogLogger;
+import nl.tudelft.watchdog.core.util.WatchDogScheduler;
 
 /**
- * Checks whether the time progress according to the system's time is in
- * accordance with its schedule. If not, closes all intervals for the last
- * recorded time and starts completely fresh intervals. Used to detect a system
- * suspend.
+ * Detects a system suspend by comparing the progress of the wall clock with
+ * the progress of the monotonic clock between two regular checks. If a
+ * suspend is detected, closes all intervals at the start of the suspend and
+ * starts completely fresh intervals at its end.
+ *
+ * On most systems, the monotonic clock stands still during a suspend while
+ * the wall clock continues, so the difference between both is the duration
+ * of the suspend. Where the monotonic clock continues as well, the suspend
+ * shows as a check that ran late. Backward adjustments of the wall clock
+ * (e.g. by NTP) are ignored, as are forward adjustments below
+ * {@link #SUSPEND_THRESHOLD}. The suspend window is exact up to the
+ * {@link #CHECK_INTERVAL}.
  */
-public class TimeSynchronityChecker extends RegularCheckerBase {
+public class TimeSynchronityChecker {
 
-	private static final int UPDATE_RATE = 1 * 60 * 1000;
+	/** The interval between two checks, in milliseconds. */
+	static final long CHECK_INTERVAL = 5 * 1000;
+
+	/** The minimum duration of a detected suspend, in milliseconds. */
+	static final long SUSPEND_THRESHOLD = 5 * 1000;
 
 	private final IDEIntervalManagerBase intervalManager;
 
-	/** Constructor. */
+	private final WatchDogClock clock;
+
+	private long previousWallTime;
+
+	private long previousMonotonicTime;
+
+	/**
+	 * Constructor. Starts checking on the shared scheduler. Reads the
+	 * {@link WatchDogClock#SYSTEM} clock rather than the clock in use, so that
+	 * the regular checks do not keep a {@link nl.tudelft.watchdog.core.util.CoarseClock}
+	 * ticking while the user is idle.
+	 */
 	public TimeSynchronityChecker(IDEIntervalManagerBase intervalManager) {
-		super(UPDATE_RATE);
-		this.intervalManager = intervalManager;
-		timer = new Timer(true);
-		startTimeCheckerOnce();
+		this(intervalManager, WatchDogClock.SYSTEM);
+		start(WatchDogScheduler.getScheduler());
 	}
 
-	/** Subclasses call this method from their constructor. */
-	protected void startTimeCheckerOnce() {
-		if (task != null) {
-			task.cancel();
-		}
-		task = new TimeSynchronityTimerTask();
-		timer.schedule(task, updateRate);
+	/**
+	 * Constructor for a checker with the given clock, which only checks when
+	 * started or when {@link #checkSynchronity()} is called.
+	 */
+	public TimeSynchronityChecker(IDEIntervalManagerBase intervalManager, WatchDogClock clock) {
+		this.intervalManager = intervalManager;
+		this.clock = clock;
+		previousWallTime = clock.currentTimeMillis();
+		previousMonotonicTime = clock.nanoTime();
 	}
 
-	private class TimeSynchronityTimerTask extends TimerTask {
+	/** Regularly checks for a suspend on the given scheduler. */
+	public void start(ScheduledExecutorService scheduler) {
+		scheduler.scheduleWithFixedDelay(this::checkSynchronity, CHECK_INTERVAL, CHECK_INTERVAL,
+				TimeUnit.MILLISECONDS);
+	}
 
-		long previousExecutionDate;
+	/** Checks whether a suspend happened since the previous check. */
+	public synchronized void checkSynchronity() {
+		long wallTime = clock.currentTimeMillis();
+		long monotonicTime = clock.nanoTime();
+		long wallElapsed = wallTime - previousWallTime;
+		long monotonicElapsed = TimeUnit.NANOSECONDS.toMillis(monotonicTime - previousMonotonicTime);
 
-		private TimeSynchronityTimerTask() {
-			previousExecutionDate = System.currentTimeMillis();
+		// The monotonic clock stood still, or the check itself was delayed.
+		long suspendDuration = Math.max(wallElapsed - monotonicElapsed, monotonicElapsed - CHECK_INTERVAL);
+		if (suspendDuration >= SUSPEND_THRESHOLD && wallElapsed >= suspendDuration
+				&& WatchDogGlobals.isActive) {
+			// do not act unless WatchDog has properly booted up
+			WatchDogLogger.getInstance().logInfo("System suspend of " + suspendDuration + "ms detected!");
+			suspendDetected(previousWallTime, previousWallTime + suspendDuration);
 		}
 
-		@Override
-		public void run() {
-			if (WatchDogGlobals.isActive) {
-				// do not execute this task unless WatchDog has properly boot-up
-
-				long executionDate = System.currentTimeMillis();
-				long delta = executionDate - previousExecutionDate;
-				boolean deltaIsWithinReasonableBoundaries = delta >= UPDATE_RATE
-						&& delta <= UPDATE_RATE * 1.16;
-				if (!deltaIsWithinReasonableBoundaries) {
-					WatchDogLogger.getInstance().logInfo(
-							"System suspend detected!");
-					intervalManager.closeAllIntervals(new Date(
-							previousExecutionDate + UPDATE_RATE));
-					intervalManager.generateAndSetSessionSeed();
-                    WatchDogEventType.START_IDE.process(this);
-                    WatchDogEventType.editorSpecificImplementation.processPerspectiveInterval();
-				}
-			}
-
-			startTimeCheckerOnce();
-			previousExecutionDate = System.currentTimeMillis();
-		}
+		previousWallTime = wallTime;
+		previousMonotonicTime = monotonicTime;
 	}
 
+	/**
+	 * Closes all intervals at the start of the suspend, and restarts the IDE
+	 * interval at its end. Runs on the owner thread of the interval manager.
+	 */
+	protected void suspendDetected(final long suspendStart, final long suspendEnd) {
+		intervalManager.execute(() -> {
+			intervalManager.closeAllIntervals(new Date(suspendStart));
+			intervalManager.generateAndSetSessionSeed();
+			WatchDogEventType.START_IDE.process(suspendEnd, this);
+			WatchDogEventType.editorSpecificImplementation.processPerspectiveInterval();
+		});
+	}
 }
@@ -1,7 +1,5 @@
 package nl.tudelft.watchdog.core.logic.ui;
 
-import java.util.Date;
-
 import nl.tudelft.watchdog.core.logic.ui.events.WatchDogEventType;
 
 /**
@@ -16,8 +14,8 @@ public class UserInactivityNotifier extends InactivityNotifier {
 	}
 
 	@Override
-	public void trigger(Date forcedDate) {
+	public void trigger(long timestamp) {
 		trigger();
-		WatchDogEventType.USER_ACTIVITY.process(forcedDate,this);
+		WatchDogEventType.USER_ACTIVITY.process(timestamp, this);
 	}
 }
@@ -0,0 +1,227 @@
+package nl.tudelft.watchdog.core.logic.ui.events;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+import nl.tudelft.watchdog.core.logic.interval.intervaltypes.PerspectiveInterval.Perspective;
+import nl.tudelft.watchdog.core.util.WatchDogClock;
+import nl.tudelft.watchdog.core.util.WatchDogLogger;
+
+/**
+ * Records the sequence of {@link WatchDogEventType}s processed by WatchDog to
+ * a compact file, which can be replayed outside of the IDE with the
+ * {@link WatchDogEventReplayer}.
+ *
+ * Only events triggered by the IDE (or by the inactivity timers) are
+ * recorded. Events that are processed as a consequence of another event, e.g.
+ * a {@link WatchDogEventType#USER_ACTIVITY} caused by a
+ * {@link WatchDogEventType#START_EDIT}, are regenerated during the replay.
+ * Editors are replaced by synthetic handles, so that no file names or
+ * contents end up in the recording.
+ *
+ * Recording is started with {@link #startRecording(File)}, or from the IDE by
+ * setting the system property {@value #RECORDING_PROPERTY} to the target file.
+ */
+public class WatchDogEventRecorder {
+
+	/** The system property pointing to the file to record to. */
+	public static final String RECORDING_PROPERTY = "watchdogRecordEvents";
+
+	/** The magic number at the start of every recording. */
+	static final int MAGIC = 0x57445256;
+
+	/** The version of the recording format. */
+	static final int VERSION = 1;
+
+	/**
+	 * Payload marker for events whose source is an editor. Is followed by the
+	 * handle of the editor.
+	 */
+	static final int PAYLOAD_EDITOR = 1;
+
+	/**
+	 * Payload marker for {@link WatchDogEventType.EditorWithModCount}s. Is
+	 * followed by the handle of the editor and the modification count.
+	 */
+	static final int PAYLOAD_EDIT = 2;
+
+	/** Payload marker for perspectives. Is followed by its ordinal. */
+	static final int PAYLOAD_PERSPECTIVE = 3;
+
+	/** Payload marker for events whose source is irrelevant. */
+	static final int PAYLOAD_NONE = 0;
+
+	private final DataOutputStream output;
+
+	/**
+	 * The handles of the recorded editors. The editors of the IDEs do not
+	 * override equals, so that the weak keys are compared by identity, and
+	 * closed editors are not kept alive by the recording.
+	 */
+	private final Map<Object, Integer> editorHandles = new WeakHashMap<Object, Integer>();
+
+	private int nextEditorHandle;
+
+	private final ThreadLocal<int[]> nestingDepth = new ThreadLocal<int[]>() {
+		@Override
+		protected int[] initialValue() {
+			return new int[1];
+		}
+	};
+
+	private static boolean recordingRequestHandled;
+
+	private long previousTimestamp;
+
+	private int recordedEvents;
+
+	private WatchDogEventRecorder(File file) throws IOException {
+		output = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)));
+		previousTimestamp = WatchDogClock.get().currentTimeMillis();
+		output.writeInt(MAGIC);
+		output.writeByte(VERSION);
+		output.writeLong(previousTimestamp);
+	}
+
+	/**
+	 * Starts recording all subsequently processed events to the given file.
+	 * Stops a previously started recording.
+	 */
+	public static synchronized WatchDogEventRecorder startRecording(File file) throws IOException {
+		stopRecording();
+		WatchDogEventRecorder recorder = new WatchDogEventRecorder(file);
+		WatchDogEventType.recorder = recorder;
+		WatchDogLogger.getInstance().logInfo("Recording events to " + file);
+		return recorder;
+	}
+
+	/**
+	 * Starts recording if the {@value #RECORDING_PROPERTY} system property is
+	 * set. The recording lasts until the JVM shuts down, so only the first call
+	 * has an effect, even if several projects are opened.
+	 */
+	public static synchronized void startRecordingIfRequested() {
+		String recordingFile = System.getProperty(RECORDING_PROPERTY);
+		if (recordingFile == null || recordingRequestHandled) {
+			return;
+		}
+		recordingRequestHandled = true;
+		try {
+			startRecording(new File(recordingFile));
+			Runtime.getRuntime().addShutdownHook(new Thread() {
+				@Override
+				public void run() {
+					stopRecording();
+				}
+			});
+		} catch (IOException exception) {
+			WatchDogLogger.getInstance().logSevere(exception);
+		}
+	}
+
+	/** Stops the active recording, if any, and flushes it to disk. */
+	public static synchronized void stopRecording() {
+		WatchDogEventRecorder recorder = WatchDogEventType.recorder;
+		if (recorder == null) {
+			return;
+		}
+		WatchDogEventType.recorder = null;
+		recorder.close();
+	}
+
+	/** @return the number of events recorded so far. */
+	public synchronized int getRecordedEvents() {
+		return recordedEvents;
+	}
+
+	/**
+	 * Called when an event starts processing. Records the event if it is not
+	 * nested in the processing of another event on the same thread.
+	 */
+	void enter(WatchDogEventType type, long timestamp, Object source) {
+		int[] depth = nestingDepth.get();
+		if (depth[0]++ == 0) {
+			record(type, timestamp, source);
+		}
+	}
+
+	/** Called when an event finished processing. */
+	void exit() {
+		nestingDepth.get()[0]--;
+	}
+
+	private synchronized void record(WatchDogEventType type, long timestamp, Object source) {
+		try {
+			output.writeByte(type.ordinal());
+			writeVarLong(output, zigZag(timestamp - previousTimestamp));
+			previousTimestamp = timestamp;
+
+			if (source instanceof WatchDogEventType.EditorWithModCount) {
+				WatchDogEventType.EditorWithModCount edit = (WatchDogEventType.EditorWithModCount) source;
+				output.writeByte(PAYLOAD_EDIT);
+				writeVarLong(output, getEditorHandle(edit.getEditor()));
+				writeVarLong(output, zigZag(edit.getModCount()));
+			} else if (source instanceof Perspective) {
+				output.writeByte(PAYLOAD_PERSPECTIVE);
+				output.writeByte(((Perspective) source).ordinal());
+			} else if (isEditorEvent(type)) {
+				output.writeByte(PAYLOAD_EDITOR);
+				writeVarLong(output, getEditorHandle(source));
+			} else {
+				output.writeByte(PAYLOAD_NONE);
+			}
+			recordedEvents++;
+		} catch (IOException exception) {
+			WatchDogLogger.getInstance().logSevere(exception);
+		}
+	}
+
+	private int getEditorHandle(Object editor) {
+		Integer handle = editorHandles.get(editor);
+		if (handle == null) {
+			handle = nextEditorHandle++;
+			editorHandles.put(editor, handle);
+		}
+		return handle;
+	}
+
+	private synchronized void close() {
+		try {
+			output.close();
+		} catch (IOException exception) {
+			WatchDogLogger.getInstance().logSevere(exception);
+		}
+		editorHandles.clear();
+	}
+
+	/** @return whether the source of the given event type is an editor. */
+	static boolean isEditorEvent(WatchDogEventType type) {
+		switch (type) {
+		case ACTIVE_FOCUS:
+		case START_EDIT:
+		case SUBSEQUENT_EDIT:
+		case CARET_MOVED:
+		case PAINT:
+			return true;
+		default:
+			return false;
+		}
+	}
+
+	private static long zigZag(long value) {
+		return (value << 1) ^ (value >> 63);
+	}
+
+	private static void writeVarLong(DataOutputStream output, long value) throws IOException {
+		while ((value & ~0x7FL) != 0) {
+			output.writeByte((int) ((value & 0x7F) | 0x80));
+			value >>>= 7;
+		}
+		output.writeByte((int) value);
+	}
+}
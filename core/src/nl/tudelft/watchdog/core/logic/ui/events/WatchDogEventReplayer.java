@@ -0,0 +1,507 @@
+package nl.tudelft.watchdog.core.logic.ui.events;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+import nl.tudelft.watchdog.core.logic.document.Document;
+import nl.tudelft.watchdog.core.logic.document.EditorWrapperBase;
+import nl.tudelft.watchdog.core.logic.event.TrackingEventManager;
+import nl.tudelft.watchdog.core.logic.interval.IDEIntervalManagerBase;
+import nl.tudelft.watchdog.core.logic.interval.intervaltypes.EditorIntervalBase;
+import nl.tudelft.watchdog.core.logic.interval.intervaltypes.IntervalBase;
+import nl.tudelft.watchdog.core.logic.interval.intervaltypes.PerspectiveInterval.Perspective;
+import nl.tudelft.watchdog.core.logic.interval.intervaltypes.TypingInterval;
+import nl.tudelft.watchdog.core.logic.storage.PersisterBase;
+import nl.tudelft.watchdog.core.logic.storage.WatchDogItem;
+import nl.tudelft.watchdog.core.logic.ui.InactivityNotifier;
+import nl.tudelft.watchdog.core.logic.ui.InactivityNotifiers;
+import nl.tudelft.watchdog.core.logic.ui.listeners.staticanalysis.CoreMarkupModelListener;
+import nl.tudelft.watchdog.core.logic.ui.listeners.staticanalysis.Warning;
+import nl.tudelft.watchdog.core.util.VirtualClock;
+import nl.tudelft.watchdog.core.util.WatchDogClock;
+
+/**
+ * Replays a recording of the {@link WatchDogEventRecorder} headlessly through
+ * the {@link WatchDogEventType} state machine, an {@link IDEIntervalManagerBase}
+ * and a {@link TrackingEventManager}. The IDE is replaced by a stub
+ * {@link WatchDogEventType.WatchDogEventEditorSpecificImplementation} that
+ * creates synthetic editors and empty documents. Like the markup model
+ * listeners of the IDEs, a stub listener adds a warning snapshot of the
+ * document to the {@link TrackingEventManager} whenever an editor is edited.
+ * As the recording contains no warnings, these are synthetic and derived
+ * from the number of modified characters.
+ *
+ * The inactivity timers do not fire during a replay, as their timeouts are
+ * part of the recording. During the replay, the {@link WatchDogClock} is a
+ * {@link VirtualClock} that is set to the time of each recorded event. The
+ * replay can run at full speed, to benchmark the state machine, or in real
+ * time, to reproduce the original timing.
+ */
+public class WatchDogEventReplayer {
+
+	private final List<WatchDogEventType> types = new ArrayList<WatchDogEventType>();
+	private final List<Object> sources = new ArrayList<Object>();
+	private long[] timestamps = new long[64];
+
+	/** The maximum number of synthetic warnings, and the length of a replayed document. */
+	private static final int MAX_SYNTHETIC_WARNINGS = 4;
+
+	private final Map<Integer, ReplayEditor> editors = new HashMap<Integer, ReplayEditor>();
+
+	private long recordingStart;
+
+	/** Reads the recording from the given file. */
+	public WatchDogEventReplayer(File recording) throws IOException {
+		DataInputStream input = new DataInputStream(new BufferedInputStream(new FileInputStream(recording)));
+		try {
+			readRecording(input);
+		} finally {
+			input.close();
+		}
+	}
+
+	private void readRecording(DataInputStream input) throws IOException {
+		if (input.readInt() != WatchDogEventRecorder.MAGIC) {
+			throw new IOException("Not a WatchDog event recording.");
+		}
+		int version = input.readByte();
+		if (version != WatchDogEventRecorder.VERSION) {
+			throw new IOException("Unsupported recording version " + version);
+		}
+		recordingStart = input.readLong();
+
+		WatchDogEventType[] eventTypes = WatchDogEventType.values();
+		Perspective[] perspectives = Perspective.values();
+		long timestamp = recordingStart;
+		while (true) {
+			int ordinal = input.read();
+			if (ordinal < 0) {
+				break;
+			}
+			timestamp += unZigZag(readVarLong(input));
+
+			Object source;
+			int payload = input.readByte();
+			switch (payload) {
+			case WatchDogEventRecorder.PAYLOAD_EDIT:
+				ReplayEditor editor = getEditor((int) readVarLong(input));
+				source = new WatchDogEventType.EditorWithModCount(editor, (int) unZigZag(readVarLong(input)));
+				break;
+			case WatchDogEventRecorder.PAYLOAD_EDITOR:
+				source = getEditor((int) readVarLong(input));
+				break;
+			case WatchDogEventRecorder.PAYLOAD_PERSPECTIVE:
+				source = perspectives[input.readByte()];
+				break;
+			default:
+				source = this;
+			}
+
+			if (types.size() == timestamps.length) {
+				long[] grown = new long[timestamps.length * 2];
+				System.arraycopy(timestamps, 0, grown, 0, timestamps.length);
+				timestamps = grown;
+			}
+			timestamps[types.size()] = timestamp;
+			types.add(eventTypes[ordinal]);
+			sources.add(source);
+		}
+	}
+
+	private ReplayEditor getEditor(int handle) {
+		ReplayEditor editor = editors.get(handle);
+		if (editor == null) {
+			editor = new ReplayEditor(handle);
+			editors.put(handle, editor);
+		}
+		return editor;
+	}
+
+	/** @return the number of events in the recording. */
+	public int getNumberOfEvents() {
+		return types.size();
+	}
+
+	/**
+	 * Replays the recording on the calling thread. At the end of the
+	 * recording, all intervals that are still open are closed.
+	 *
+	 * @param realTime
+	 *            whether to wait between the events as long as in the
+	 *            recording, or replay as fast as possible.
+	 */
+	public ReplayResult replay(boolean realTime) throws InterruptedException {
+		ReplayPersister intervalPersister = new ReplayPersister();
+		ReplayPersister eventPersister = new ReplayPersister();
+		ReplayIntervalManager intervalManager = new ReplayIntervalManager(intervalPersister);
+		TrackingEventManager trackingEventManager = new TrackingEventManager(eventPersister, new ReplayPersister());
+		trackingEventManager.setSessionSeed(intervalManager.getSessionSeed());
+
+		IDEIntervalManagerBase previousIntervalManager = WatchDogEventType.intervalManager;
+		WatchDogEventType.WatchDogEventEditorSpecificImplementation previousImplementation = WatchDogEventType.editorSpecificImplementation;
+		Map<InactivityNotifiers, InactivityNotifier> previousNotifiers = new EnumMap<InactivityNotifiers, InactivityNotifier>(
+				InactivityNotifiers.class);
+		Map<WatchDogEventType, ReplayInactivityNotifier> notifiers = new EnumMap<WatchDogEventType, ReplayInactivityNotifier>(
+				WatchDogEventType.class);
+		for (InactivityNotifiers notifier : InactivityNotifiers.values()) {
+			previousNotifiers.put(notifier, notifier.getNotifier());
+		}
+
+		WatchDogEventType.intervalManager = intervalManager;
+		WatchDogEventType.editorSpecificImplementation = new ReplayEditorSpecificImplementation();
+		installNotifier(notifiers, InactivityNotifiers.USER_INACTIVITY, WatchDogEventType.USER_INACTIVITY, true);
+		installNotifier(notifiers, InactivityNotifiers.READING, WatchDogEventType.READING_INACTIVITY, false);
+		installNotifier(notifiers, InactivityNotifiers.TYPING, WatchDogEventType.TYPING_INACTIVITY, false);
+
+		VirtualClock clock = new VirtualClock(recordingStart);
+		WatchDogClock previousClock = WatchDogClock.set(clock);
+
+		int numberOfEvents = types.size();
+		long allocatedBefore = getAllocatedBytesOfCurrentThread();
+		long startTime = System.nanoTime();
+		try {
+			for (int i = 0; i < numberOfEvents; i++) {
+				if (realTime && i > 0) {
+					long delay = timestamps[i] - timestamps[i - 1];
+					if (delay > 0) {
+						Thread.sleep(delay);
+					}
+				}
+				WatchDogEventType type = types.get(i);
+				Object source = sources.get(i);
+				clock.setTime(timestamps[i]);
+				type.process(timestamps[i], source);
+				if (source instanceof WatchDogEventType.EditorWithModCount) {
+					addWarningSnapshot(trackingEventManager, (WatchDogEventType.EditorWithModCount) source);
+				}
+
+				// Recorded inactivity events were fired by their timer, which
+				// is not running anymore afterwards.
+				ReplayInactivityNotifier notifier = notifiers.get(type);
+				if (notifier != null) {
+					notifier.stop();
+				}
+			}
+			long elapsedNanos = System.nanoTime() - startTime;
+			long allocatedAfter = getAllocatedBytesOfCurrentThread();
+
+			if (numberOfEvents > 0) {
+				intervalManager.closeAllIntervals(new Date(timestamps[numberOfEvents - 1]));
+			}
+
+			long allocatedBytes = allocatedBefore < 0 || allocatedAfter < 0 ? -1 : allocatedAfter - allocatedBefore;
+			return new ReplayResult(numberOfEvents, elapsedNanos, allocatedBytes, recordingStart,
+					intervalPersister.savedItems, eventPersister.savedItems);
+		} finally {
+			intervalManager.closeStatisticsSink();
+			trackingEventManager.closeStatisticsSink();
+			WatchDogClock.set(previousClock);
+			WatchDogEventType.intervalManager = previousIntervalManager;
+			WatchDogEventType.editorSpecificImplementation = previousImplementation;
+			for (Map.Entry<InactivityNotifiers, InactivityNotifier> entry : previousNotifiers.entrySet()) {
+				entry.getKey().updateNotifier(entry.getValue());
+			}
+		}
+	}
+
+	/**
+	 * Adds a snapshot of the synthetic warnings of the edited document, as the
+	 * markup model listener of an IDE does when the warnings of a document
+	 * change.
+	 */
+	private static void addWarningSnapshot(TrackingEventManager trackingEventManager,
+			WatchDogEventType.EditorWithModCount edit) {
+		ReplayEditor editor = (ReplayEditor) edit.getEditor();
+		Date now = WatchDogClock.get().now();
+		List<Warning<String>> warnings = new ArrayList<Warning<String>>();
+		for (int line = 0; line < Math.floorMod(edit.getModCount(), MAX_SYNTHETIC_WARNINGS); line++) {
+			warnings.add(new Warning<String>(MAX_SYNTHETIC_WARNINGS, "replay.warning" + line, line, now));
+		}
+		CoreMarkupModelListener.addWarningSnapshot(trackingEventManager, editor.getDocument(), warnings);
+	}
+
+	private static void installNotifier(Map<WatchDogEventType, ReplayInactivityNotifier> notifiers,
+			InactivityNotifiers notifier, WatchDogEventType type, boolean signalsUserActivity) {
+		ReplayInactivityNotifier replayNotifier = new ReplayInactivityNotifier(type, signalsUserActivity);
+		notifiers.put(type, replayNotifier);
+		notifier.updateNotifier(replayNotifier);
+	}
+
+	/**
+	 * @return the number of bytes allocated by the current thread, or -1 if
+	 *         the JVM does not support measuring it.
+	 */
+	private static long getAllocatedBytesOfCurrentThread() {
+		try {
+			ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+			Method method = Class.forName("com.sun.management.ThreadMXBean").getMethod("getThreadAllocatedBytes",
+					long.class);
+			return (Long) method.invoke(threadBean, Thread.currentThread().getId());
+		} catch (Exception | LinkageError exception) {
+			return -1;
+		}
+	}
+
+	private static long unZigZag(long value) {
+		return (value >>> 1) ^ -(value & 1);
+	}
+
+	private static long readVarLong(DataInputStream input) throws IOException {
+		long value = 0;
+		for (int shift = 0; shift < 64; shift += 7) {
+			int read = input.read();
+			if (read < 0) {
+				throw new EOFException("Truncated event recording.");
+			}
+			value |= (long) (read & 0x7F) << shift;
+			if ((read & 0x80) == 0) {
+				return value;
+			}
+		}
+		throw new IOException("Malformed event recording.");
+	}
+
+	/** The outcome of a replay. */
+	public static class ReplayResult {
+
+		private final int numberOfEvents;
+		private final long elapsedNanos;
+		private final long allocatedBytes;
+		private final long recordingStart;
+		private final List<IntervalBase> intervals;
+		private final List<WatchDogItem> events;
+
+		ReplayResult(int numberOfEvents, long elapsedNanos, long allocatedBytes, long recordingStart,
+				List<WatchDogItem> closedItems, List<WatchDogItem> events) {
+			this.numberOfEvents = numberOfEvents;
+			this.elapsedNanos = elapsedNanos;
+			this.allocatedBytes = allocatedBytes;
+			this.recordingStart = recordingStart;
+			this.events = Collections.unmodifiableList(events);
+			List<IntervalBase> intervals = new ArrayList<IntervalBase>();
+			for (WatchDogItem item : closedItems) {
+				intervals.add((IntervalBase) item);
+			}
+			this.intervals = Collections.unmodifiableList(intervals);
+		}
+
+		/** @return the number of replayed events. */
+		public int getNumberOfEvents() {
+			return numberOfEvents;
+		}
+
+		/** @return the number of processed events per second. */
+		public double getEventsPerSecond() {
+			if (elapsedNanos == 0) {
+				return 0;
+			}
+			return numberOfEvents * 1e9 / elapsedNanos;
+		}
+
+		/**
+		 * @return the average number of bytes allocated on the replaying thread
+		 *         per event, or -1 if the JVM cannot measure allocations.
+		 */
+		public double getAllocatedBytesPerEvent() {
+			if (allocatedBytes < 0 || numberOfEvents == 0) {
+				return -1;
+			}
+			return (double) allocatedBytes / numberOfEvents;
+		}
+
+		/** @return the intervals in the order they were closed. */
+		public List<IntervalBase> getIntervals() {
+			return intervals;
+		}
+
+		/** @return the events that were added to the tracking event manager. */
+		public List<WatchDogItem> getEvents() {
+			return events;
+		}
+
+		/**
+		 * @return a textual representation of the produced intervals, with one
+		 *         line per interval and times relative to the start of the
+		 *         recording, intended to be diffed between versions.
+		 */
+		public String formatIntervals() {
+			StringBuilder builder = new StringBuilder();
+			for (IntervalBase interval : intervals) {
+				builder.append(interval.getType()).append(' ')
+						.append(interval.getStartTime() - recordingStart).append(' ')
+						.append(interval.getEndTime() - recordingStart);
+				if (interval instanceof EditorIntervalBase) {
+					builder.append(" editor-")
+							.append(((EditorIntervalBase) interval).getEditorWrapper().getEditor());
+				}
+				builder.append('\n');
+			}
+			return builder.toString();
+		}
+
+		@Override
+		public String toString() {
+			return String.format("%d events, %.0f events/s, %.1f bytes/event, %d intervals", numberOfEvents,
+					getEventsPerSecond(), getAllocatedBytesPerEvent(), intervals.size());
+		}
+	}
+
+	/** A synthetic editor, identified by its handle in the recording. */
+	private static class ReplayEditor {
+		private final int handle;
+		private Document document;
+
+		ReplayEditor(int handle) {
+			this.handle = handle;
+		}
+
+		/** @return the document of the editor, as seen by the markup model listener. */
+		Document getDocument() {
+			if (document == null) {
+				document = createReplayDocument(this);
+			}
+			return document;
+		}
+
+		@Override
+		public String toString() {
+			return String.valueOf(handle);
+		}
+	}
+
+	/** Creates synthetic editor wrappers and documents for replayed editors. */
+	private static class ReplayEditorSpecificImplementation
+			implements WatchDogEventType.WatchDogEventEditorSpecificImplementation {
+
+		@Override
+		public void addJUnitInterval(Object source) {
+			// JUnit runs are IDE specific and cannot be replayed.
+		}
+
+		@Override
+		public EditorWrapperBase createEditorWrapper(final Object editor) {
+			return new EditorWrapperBase() {
+				@Override
+				public Object getEditor() {
+					return editor;
+				}
+			};
+		}
+
+		@Override
+		public Document createDocument(Object editor) {
+			return createReplayDocument(editor);
+		}
+	}
+
+	private static Document createReplayDocument(Object editor) {
+		return new Document("replay", "Replay" + editor + ".java", "replay/", "");
+	}
+
+	/** An interval manager that creates synthetic ending documents. */
+	private static class ReplayIntervalManager extends IDEIntervalManagerBase {
+
+		ReplayIntervalManager(PersisterBase intervalPersister) {
+			super(intervalPersister, new ReplayPersister());
+		}
+
+		@Override
+		protected void setEndingDocumentOf(TypingInterval typingInterval) {
+			typingInterval.setEndingDocument(WatchDogEventType.editorSpecificImplementation
+					.createDocument(typingInterval.getEditorWrapper().getEditor()));
+		}
+	}
+
+	/** A persister that keeps the saved items in memory, in saving order. */
+	private static class ReplayPersister extends PersisterBase {
+
+		private final List<WatchDogItem> savedItems = new ArrayList<WatchDogItem>();
+
+		@Override
+		public void save(WatchDogItem item) {
+			savedItems.add(item);
+		}
+
+		@Override
+		public void startBatch() {
+		}
+
+		@Override
+		public void batchedSave(WatchDogItem item) {
+			savedItems.add(item);
+		}
+
+		@Override
+		public void commitBatch() {
+		}
+
+		@Override
+		public Set<WatchDogItem> readItems() {
+			return new TreeSet<WatchDogItem>(savedItems);
+		}
+	}
+
+	/**
+	 * An inactivity notifier that never fires by itself. It still processes
+	 * its event when it is cancelled while running.
+	 */
+	private static class ReplayInactivityNotifier extends InactivityNotifier {
+
+		private final WatchDogEventType type;
+		private final boolean signalsUserActivity;
+		private boolean isRunning;
+
+		ReplayInactivityNotifier(WatchDogEventType type, boolean signalsUserActivity) {
+			super(0, type);
+			this.type = type;
+			this.signalsUserActivity = signalsUserActivity;
+		}
+
+		@Override
+		public void trigger() {
+			isRunning = true;
+		}
+
+		@Override
+		public void trigger(long timestamp) {
+			trigger();
+			if (signalsUserActivity) {
+				WatchDogEventType.USER_ACTIVITY.process(timestamp, this);
+			}
+		}
+
+		@Override
+		public void cancelTimer(Date forcedDate) {
+			cancelTimer(forcedDate.getTime());
+		}
+
+		@Override
+		public void cancelTimer(long timestamp) {
+			if (!isRunning) {
+				return;
+			}
+			type.process(timestamp, this);
+			isRunning = false;
+		}
+
+		void stop() {
+			isRunning = false;
+		}
+	}
+}
@@ -19,65 +19,65 @@ public enum WatchDogEventType implements WatchDogEventTypeInterface {
 
     ACTIVE_WINDOW {
         @Override
-        public void process(Date forcedDate, Object source) {
+        protected void processEvent(long timestamp, Object source) {
             IDEActiveInterval interval = intervalManager.getInterval(IDEActiveInterval.class);
             if (isClosed(interval)) {
-                intervalManager.addInterval(new IDEActiveInterval(forcedDate));
+                intervalManager.addInterval(new IDEActiveInterval(new Date(timestamp)));
             }
-            InactivityNotifiers.USER_INACTIVITY.trigger(forcedDate);
+            InactivityNotifiers.USER_INACTIVITY.trigger(timestamp);
         }
     },
 
     INACTIVE_WINDOW {
         @Override
-        public void process(Date forcedDate, Object source) {
+        protected void processEvent(long timestamp, Object source) {
             IDEActiveInterval interval = intervalManager.getInterval(IDEActiveInterval.class);
-            intervalManager.closeInterval(interval, forcedDate);
+            intervalManager.closeInterval(interval, timestamp);
         }
     },
 
     START_IDE {
         @Override
-        public void process(Date forcedDate, Object source) {
-            intervalManager.addInterval(new IDEOpenInterval(forcedDate));
-            InactivityNotifiers.USER_INACTIVITY.trigger(forcedDate);
+        protected void processEvent(long timestamp, Object source) {
+            intervalManager.addInterval(new IDEOpenInterval(new Date(timestamp)));
+            InactivityNotifiers.USER_INACTIVITY.trigger(timestamp);
         }
     },
 
     END_IDE {
         @Override
-        public void process(Date forcedDate, Object source) {
-            InactivityNotifiers.USER_INACTIVITY.cancelTimer(forcedDate);
+        protected void processEvent(long timestamp, Object source) {
+            InactivityNotifiers.USER_INACTIVITY.cancelTimer(timestamp);
         }
     },
 
     ACTIVE_FOCUS {
         @Override
-        public void process(Date forcedDate, Object editor) {
-            processReadingEvent(forcedDate, editor);
+        protected void processEvent(long timestamp, Object editor) {
+            processReadingEvent(timestamp, editor);
         }
     },
 
     INACTIVE_FOCUS {
         @Override
-        public void process(Date forcedDate, Object source) {
+        protected void processEvent(long timestamp, Object source) {
             EditorIntervalBase editorInterval = intervalManager.getEditorInterval();
-            intervalManager.closeInterval(editorInterval, forcedDate);
-            InactivityNotifiers.READING.cancelTimer(forcedDate);
-            InactivityNotifiers.TYPING.cancelTimer(forcedDate);
+            intervalManager.closeInterval(editorInterval, timestamp);
+            InactivityNotifiers.READING.cancelTimer(timestamp);
+            InactivityNotifiers.TYPING.cancelTimer(timestamp);
         }
     },
 
     SUBSEQUENT_EDIT {
         @Override
-        public void process(Date forcedDate, Object source) {
+        protected void processEvent(long timestamp, Object source) {
             EditorWithModCount editorWithModCount = (EditorWithModCount) source;
             EditorIntervalBase editorInterval = intervalManager.getEditorInterval();
 
             if (isClosed(editorInterval)
                     || !intervalExistsAndIsOfType(editorInterval, IntervalType.TYPING)
                     || isDifferentEditor(editorInterval, editorWithModCount.editor)) {
-                WatchDogEventType.START_EDIT.process(new Date(), editorWithModCount.editor);
+                WatchDogEventType.START_EDIT.process(timestamp, editorWithModCount.editor);
                 return;
             }
 
@@ -86,77 +86,74 @@ public enum WatchDogEventType implements WatchDogEventTypeInterface {
             typingInt.increaseModCountWith(editorWithModCount.modCount);
 
             InactivityNotifiers.TYPING.trigger();
-            InactivityNotifiers.USER_INACTIVITY.trigger(forcedDate);
+            InactivityNotifiers.USER_INACTIVITY.trigger(timestamp);
         }
     },
 
     START_EDIT {
         @Override
-        public void process(Date forcedDate, Object editor) {
+        protected void processEvent(long timestamp, Object editor) {
             EditorIntervalBase editorInterval = intervalManager
                     .getEditorInterval();
 
-            InactivityNotifiers.READING.cancelTimer(forcedDate);
+            InactivityNotifiers.READING.cancelTimer(timestamp);
             if (intervalExistsAndIsOfType(editorInterval, IntervalType.TYPING)
                     && !isDifferentEditor(editorInterval, editor)) {
                 return;
             }
 
-            intervalManager.closeInterval(editorInterval, forcedDate);
-
+            // Takes over the document of the same editor before closing its
+            // interval releases the content, unless it was released already.
             TypingInterval typingInterval = new TypingInterval(
-                    editorSpecificImplementation.createEditorWrapper(editor), forcedDate);
-            Document document;
-            if (editorInterval != null
-                    && !isDifferentEditor(editorInterval, editor)) {
-                document = editorInterval.getDocument();
-            } else {
-                document = editorSpecificImplementation.createDocument(editor);
+                    editorSpecificImplementation.createEditorWrapper(editor), new Date(timestamp));
+            if (editorInterval == null || isDifferentEditor(editorInterval, editor)
+                    || !typingInterval.setDocument(editorInterval.getDocument())) {
+                typingInterval.setDocument(editorSpecificImplementation.createDocument(editor));
             }
-            typingInterval.setDocument(document);
+            intervalManager.closeInterval(editorInterval, timestamp);
             intervalManager.addInterval(typingInterval);
 
             InactivityNotifiers.TYPING.trigger();
-            InactivityNotifiers.USER_INACTIVITY.trigger(forcedDate);
+            InactivityNotifiers.USER_INACTIVITY.trigger(timestamp);
         }
     },
 
     CARET_MOVED {
         @Override
-        public void process(Date forcedDate, Object editor) {
-            processReadingEvent(forcedDate, editor);
+        protected void processEvent(long timestamp, Object editor) {
+            processReadingEvent(timestamp, editor);
         }
     },
 
     PAINT {
         @Override
-        public void process(Date forcedDate, Object editor) {
-            processReadingEvent(forcedDate, editor);
+        protected void processEvent(long timestamp, Object editor) {
+            processReadingEvent(timestamp, editor);
         }
     },
 
     START_PERSPECTIVE {
         @Override
-        public void process(Date forcedDate, Object source) {
+        protected void processEvent(long timestamp, Object source) {
             PerspectiveInterval.Perspective perspective = (PerspectiveInterval.Perspective) source;
-            createNewPerspectiveInterval(perspective, forcedDate);
-            InactivityNotifiers.USER_INACTIVITY.trigger(forcedDate);
+            createNewPerspectiveInterval(perspective, timestamp);
+            InactivityNotifiers.USER_INACTIVITY.trigger(timestamp);
         }
     },
 
     JUNIT {
         @Override
-        public void process(Date forcedDate, Object source) {
+        protected void processEvent(long timestamp, Object source) {
             editorSpecificImplementation.addJUnitInterval(source);
         }
     },
 
     USER_ACTIVITY {
         @Override
-        public void process(Date forcedDate, Object source) {
+        protected void processEvent(long timestamp, Object source) {
             UserActiveInterval interval = intervalManager.getInterval(UserActiveInterval.class);
             if (isClosed(interval)) {
-                intervalManager.addInterval(new UserActiveInterval(forcedDate));
+                intervalManager.addInterval(new UserActiveInterval(new Date(timestamp)));
             }
             InactivityNotifiers.USER_INACTIVITY.trigger();
         }
@@ -164,73 +161,73 @@ public enum WatchDogEventType implements WatchDogEventTypeInterface {
 
     USER_INACTIVITY {
         @Override
-        public void process(Date forcedDate, Object source) {
+        protected void processEvent(long timestamp, Object source) {
             IntervalBase interval = intervalManager.getInterval(UserActiveInterval.class);
-            intervalManager.closeInterval(interval, forcedDate);
-            InactivityNotifiers.TYPING.cancelTimer(forcedDate);
-            InactivityNotifiers.READING.cancelTimer(forcedDate);
+            intervalManager.closeInterval(interval, timestamp);
+            InactivityNotifiers.TYPING.cancelTimer(timestamp);
+            InactivityNotifiers.READING.cancelTimer(timestamp);
         }
     },
 
     TYPING_INACTIVITY {
         @Override
-        public void process(Date forcedDate, Object source) {
+        protected void processEvent(long timestamp, Object source) {
             EditorIntervalBase editorInterval = intervalManager.getEditorInterval();
             if (intervalExistsAndIsOfType(editorInterval, IntervalType.TYPING)) {
-                intervalManager.closeInterval(editorInterval, forcedDate);
+                intervalManager.closeInterval(editorInterval, timestamp);
             }
         }
     },
 
     READING_INACTIVITY {
         @Override
-        public void process(Date forcedDate, Object source) {
+        protected void processEvent(long timestamp, Object source) {
             EditorIntervalBase editorInterval = intervalManager.getEditorInterval();
             if (intervalExistsAndIsOfType(editorInterval, IntervalType.READING)) {
-                intervalManager.closeInterval(editorInterval, forcedDate);
+                intervalManager.closeInterval(editorInterval, timestamp);
             }
         }
     },
 
     START_WATCHDOGVIEW {
         @Override
-        public void process(Date forcedDate, Object source) {
+        protected void processEvent(long timestamp, Object source) {
             WatchDogViewInterval interval = intervalManager.getInterval(WatchDogViewInterval.class);
             if (!intervalExistsAndIsOfType(interval, IntervalType.WATCHDOGVIEW)) {
                 intervalManager
-                        .addInterval(new WatchDogViewInterval(forcedDate));
+                        .addInterval(new WatchDogViewInterval(new Date(timestamp)));
             }
-            InactivityNotifiers.USER_INACTIVITY.trigger(forcedDate);
+            InactivityNotifiers.USER_INACTIVITY.trigger(timestamp);
         }
     },
 
     END_WATCHDOGVIEW {
         @Override
-        public void process(Date forcedDate, Object source) {
+        protected void processEvent(long timestamp, Object source) {
             WatchDogViewInterval interval = intervalManager.getInterval(WatchDogViewInterval.class);
             if (intervalExistsAndIsOfType(interval, IntervalType.WATCHDOGVIEW)) {
-                intervalManager.closeInterval(interval, forcedDate);
+                intervalManager.closeInterval(interval, timestamp);
             }
         }
     },
 
     START_DEBUG {
         @Override
-        public void process(Date forcedDate, Object source) {
+        protected void processEvent(long timestamp, Object source) {
             DebugInterval interval = intervalManager.getInterval(DebugInterval.class);
             if(!intervalExistsAndIsOfType(interval, IntervalType.DEBUG)) {
-                intervalManager.addInterval(new DebugInterval(forcedDate));
+                intervalManager.addInterval(new DebugInterval(new Date(timestamp)));
             }
-            InactivityNotifiers.USER_INACTIVITY.trigger(forcedDate);
+            InactivityNotifiers.USER_INACTIVITY.trigger(timestamp);
         }
     },
 
     END_DEBUG {
         @Override
-        public void process(Date forcedDate, Object source) {
+        protected void processEvent(long timestamp, Object source) {
             DebugInterval interval = intervalManager.getInterval(DebugInterval.class);
             if(intervalExistsAndIsOfType(interval, IntervalType.DEBUG)) {
-                intervalManager.closeInterval(interval, forcedDate);
+                intervalManager.closeInterval(interval, timestamp);
             }
         }
     };
@@ -238,6 +235,61 @@ public enum WatchDogEventType implements WatchDogEventTypeInterface {
     public static IDEIntervalManagerBase intervalManager;
     public static WatchDogEventEditorSpecificImplementation editorSpecificImplementation;
 
+    /** The recorder of the processed events, <code>null</code> if none is recording. */
+    static volatile WatchDogEventRecorder recorder;
+
+    /**
+     * Processes this event. Events from threads other than the owner thread of
+     * the {@link #intervalManager}, e.g. from the inactivity timers, are handed
+     * over to the owner thread. If a {@link WatchDogEventRecorder} is active,
+     * the event is recorded first, unless it is a follow-up event of another
+     * event.
+     */
+    @Override
+    public final void process(long timestamp, Object source) {
+        IDEIntervalManagerBase manager = intervalManager;
+        if (manager != null && !manager.isOwnerThread()) {
+            Object retainedSource = retainableSource(source);
+            manager.execute(() -> record(timestamp, retainedSource));
+            return;
+        }
+        record(timestamp, source);
+    }
+
+    /** Processes this event, after recording it if a recorder is active. */
+    private void record(long timestamp, Object source) {
+        WatchDogEventRecorder activeRecorder = recorder;
+        if (activeRecorder == null) {
+            processEvent(timestamp, source);
+            return;
+        }
+        activeRecorder.enter(this, timestamp, source);
+        try {
+            processEvent(timestamp, source);
+        } finally {
+            activeRecorder.exit();
+        }
+    }
+
+    /**
+     * @return the source, or a copy of it if it is an {@link EditorWithModCount}, which is reused for the
+     *         next edit and can therefore not be handed over to another thread.
+     */
+    private static Object retainableSource(Object source) {
+        if (source instanceof EditorWithModCount) {
+            EditorWithModCount edit = (EditorWithModCount) source;
+            return new EditorWithModCount(edit.getEditor(), edit.getModCount());
+        }
+        return source;
+    }
+
+    /**
+     * The actual state transition performed by this event. Steady-state
+     * events, such as subsequent keystrokes in the same typing interval, must
+     * not allocate: {@link Date}s are only created when intervals are opened.
+     */
+    protected abstract void processEvent(long timestamp, Object source);
+
     private static boolean needToCreateNewReadingInterval(EditorIntervalBase editorInterval, Object editor) {
         return isClosed(editorInterval) || isDifferentEditor(editorInterval, editor);
     }
@@ -255,41 +307,62 @@ public enum WatchDogEventType implements WatchDogEventTypeInterface {
     }
 
     /** Creates a new perspective Interval of the given type. */
-    private static void createNewPerspectiveInterval(PerspectiveInterval.Perspective perspectiveType, Date forcedDate) {
+    private static void createNewPerspectiveInterval(PerspectiveInterval.Perspective perspectiveType, long timestamp) {
         PerspectiveInterval perspectiveInterval = intervalManager.getInterval(PerspectiveInterval.class);
         if (perspectiveInterval != null && perspectiveInterval.getPerspectiveType() == perspectiveType) {
             // abort if such an interval is already open.
             return;
         }
-        intervalManager.closeInterval(perspectiveInterval, forcedDate);
-        intervalManager.addInterval(new PerspectiveInterval(perspectiveType, forcedDate));
+        intervalManager.closeInterval(perspectiveInterval, timestamp);
+        intervalManager.addInterval(new PerspectiveInterval(perspectiveType, new Date(timestamp)));
     }
 
-    private static void processReadingEvent(Date forcedDate, Object editor) {
+    private static void processReadingEvent(long timestamp, Object editor) {
         EditorIntervalBase editorInterval = intervalManager.getEditorInterval();
 
         if (needToCreateNewReadingInterval(editorInterval, editor)) {
             if (!isClosed(editorInterval)) {
-                intervalManager.closeInterval(editorInterval, forcedDate);
+                intervalManager.closeInterval(editorInterval, timestamp);
             }
 
-            ReadingInterval readingInterval = new ReadingInterval(editorSpecificImplementation.createEditorWrapper(editor), forcedDate);
+            ReadingInterval readingInterval = new ReadingInterval(editorSpecificImplementation.createEditorWrapper(editor), new Date(timestamp));
             readingInterval.setDocument(editorSpecificImplementation.createDocument(editor));
             intervalManager.addInterval(readingInterval);
         }
 
         InactivityNotifiers.READING.trigger();
-        InactivityNotifiers.USER_INACTIVITY.trigger(forcedDate);
+        InactivityNotifiers.USER_INACTIVITY.trigger(timestamp);
     }
 
+    /**
+     * An edit in an editor. Listeners reuse a single instance per editor via
+     * {@link #withModCount(int)}, so it must not be retained after the event
+     * has been processed.
+     */
     public static class EditorWithModCount {
         private final Object editor;
-        private final int modCount;
+        private int modCount;
 
         public EditorWithModCount(Object editor, int modCount) {
             this.editor = editor;
             this.modCount = modCount;
         }
+
+        /** @return the editor in which the edit happened. */
+        public Object getEditor() {
+            return editor;
+        }
+
+        /** @return the number of modified characters. */
+        public int getModCount() {
+            return modCount;
+        }
+
+        /** Sets the number of modified characters of the next edit. */
+        public EditorWithModCount withModCount(int modCount) {
+            this.modCount = modCount;
+            return this;
+        }
     }
 
     public interface WatchDogEventEditorSpecificImplementation {
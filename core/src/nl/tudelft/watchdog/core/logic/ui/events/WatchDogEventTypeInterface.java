@@ -2,14 +2,20 @@ package nl.tudelft.watchdog.core.logic.ui.events;
 
 import java.util.Date;
 
+import nl.tudelft.watchdog.core.util.WatchDogClock;
+
 public interface WatchDogEventTypeInterface {
-    void process(Date forcedDate, Object source);
+    void process(long timestamp, Object source);
+
+    default void process(Date forcedDate, Object source) {
+        this.process(forcedDate.getTime(), source);
+    }
 
     default void process() {
         this.process(new Object());
     }
 
     default void process(Object source) {
-        this.process(new Date(), source);
+        this.process(WatchDogClock.get().currentTimeMillis(), source);
     }
 }
@@ -0,0 +1,158 @@
+package nl.tudelft.watchdog.core.logic.ui.listeners.staticanalysis;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.BiConsumer;
+import java.util.function.Supplier;
+
+/**
+ * Builds the CheckStyle {@link ClassificationBundle} in the background, so that loading every check class
+ * and reading its messages does not delay the start of the IDE or the opening of a project. Every new
+ * bundle is published at once to the {@link StaticAnalysisMessageClassifier} when it is complete.
+ *
+ * The bundle consists of the default messages of CheckStyle, which are loaded once per IDE process, and
+ * the custom messages of the active configuration of every owner, for example a project. When the
+ * configuration of an owner changes, only its custom messages are converted again. All loading happens on
+ * one thread, which is the only one to access the messages.
+ */
+public class CheckStyleBundleLoader {
+
+    /**
+     * The custom messages of a CheckStyle configuration.
+     */
+    @FunctionalInterface
+    public interface MessageSource {
+
+        /**
+         * Passes the name and the message pattern of every custom message to the consumer. The name is
+         * prefixed with "checkstyle." to obtain its key.
+         */
+        void addMessagesTo(BiConsumer<String, String> messages) throws Exception;
+    }
+
+    private static final ExecutorService EXECUTOR = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "WatchDog CheckStyle loader");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /** The converted default messages, or <code>null</code> if they could not be loaded yet. */
+    private static ClassificationBundle defaultMessages;
+
+    private static final Map<Object, ClassificationBundle> CUSTOM_MESSAGES = new LinkedHashMap<>();
+
+    /**
+     * Loads the default messages with the class loader, unless they were loaded before, and the custom
+     * messages of the owner, and then publishes the new bundle.
+     *
+     * @param checkStyleClassLoader The class loader that can load the CheckStyle checks and their messages.
+     * @param owner The owner of the custom messages.
+     * @param customMessages The custom messages, or <code>null</code> if there are none.
+     * @return a future that completes once the bundle is published, exceptionally if the default messages
+     *         could not be loaded. The bundle is published in either case.
+     */
+    public static CompletableFuture<Void> load(ClassLoader checkStyleClassLoader, Object owner, MessageSource customMessages) {
+        StaticAnalysisMessageClassifier.startLoadingCheckStyleBundle();
+        return submit(() -> {
+            Throwable failure = null;
+            if (defaultMessages == null) {
+                ClassificationBundle bundle = new ClassificationBundle();
+                try {
+                    CheckStyleChecksMessagesFetcher.addCheckStyleMessagesToBundle(checkStyleClassLoader, bundle);
+                    defaultMessages = bundle;
+                } catch (Exception | LinkageError exception) {
+                    // CheckStyle apparently could not be loaded
+                    failure = exception;
+                }
+            }
+            Throwable customFailure = convertCustomMessages(owner, customMessages);
+            publish();
+            return failure != null ? failure : customFailure;
+        });
+    }
+
+    /**
+     * Converts the custom messages of the owner again, for example after its configuration changed, and
+     * then publishes the new bundle. The default messages are not loaded again.
+     *
+     * @return a future that completes once the bundle is published, exceptionally if the custom messages
+     *         could not be read.
+     */
+    public static CompletableFuture<Void> reloadCustomMessages(Object owner, MessageSource customMessages) {
+        return submit(() -> {
+            Throwable failure = convertCustomMessages(owner, customMessages);
+            publish();
+            return failure;
+        });
+    }
+
+    /**
+     * Removes the custom messages of the owner, for example when its project is closed.
+     */
+    public static CompletableFuture<Void> unload(Object owner) {
+        return submit(() -> {
+            if (CUSTOM_MESSAGES.remove(owner) != null) {
+                publish();
+            }
+            return null;
+        });
+    }
+
+    private static Throwable convertCustomMessages(Object owner, MessageSource customMessages) {
+        ClassificationBundle bundle = new ClassificationBundle();
+        Throwable failure = null;
+        if (customMessages != null) {
+            try {
+                customMessages.addMessagesTo((name, message) ->
+                        CheckStyleChecksMessagesFetcher.addMessageToCheckstyleBundle(bundle, name, message));
+            } catch (Exception exception) {
+                failure = exception;
+            }
+        }
+        CUSTOM_MESSAGES.put(owner, bundle);
+        return failure;
+    }
+
+    /**
+     * Publishes the default messages together with all custom messages. Custom messages that are equal to
+     * a default one replace it, as the custom messages are added last.
+     */
+    private static void publish() {
+        ClassificationBundle bundle = new ClassificationBundle();
+        if (defaultMessages != null) {
+            bundle.addAll(defaultMessages);
+        }
+        for (ClassificationBundle customMessages : CUSTOM_MESSAGES.values()) {
+            bundle.addAll(customMessages);
+        }
+        bundle.sortList();
+        StaticAnalysisMessageClassifier.publishCheckStyleBundle(bundle);
+    }
+
+    /**
+     * Runs the task on the loader thread. The task returns the failure with which the future completes,
+     * or <code>null</code>.
+     */
+    private static CompletableFuture<Void> submit(Supplier<Throwable> task) {
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        EXECUTOR.execute(() -> {
+            Throwable failure;
+            try {
+                failure = task.get();
+            } catch (RuntimeException exception) {
+                // Never leave the classification of messages waiting for a bundle that does not come
+                StaticAnalysisMessageClassifier.publishCheckStyleBundle(StaticAnalysisMessageClassifier.getCheckStyleBundle());
+                failure = exception;
+            }
+            if (failure == null) {
+                future.complete(null);
+            } else {
+                future.completeExceptionally(failure);
+            }
+        });
+        return future;
+    }
+}
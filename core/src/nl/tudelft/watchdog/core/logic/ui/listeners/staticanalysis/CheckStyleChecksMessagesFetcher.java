@@ -35,7 +35,7 @@ import nl.tudelft.watchdog.core.util.WatchDogUtilsBase;
  *
  * Since these messages are stored in resources named "messages.properties" and based on the packagename,
  * we need to use the plugin classloader to fetch the resources from there. We process the resources in
- * {@link #addMessagesToCheckStyleBundleForLoadedChecks(Map, ClassLoader)}.
+ * {@link #addMessagesToCheckStyleBundleForLoadedChecks(Map, ClassLoader, ClassificationBundle)}.
  *
  * If you need to update this code, think carefully about which classloader can load what.
  * When we originally wrote this class, it was mostly based on
@@ -44,11 +44,15 @@ import nl.tudelft.watchdog.core.util.WatchDogUtilsBase;
  */
 public class CheckStyleChecksMessagesFetcher {
 
-    public static void addCheckStyleMessagesToBundle(ClassLoader checkStylePluginClassLoader)
+    /**
+     * Adds the messages of all CheckStyle checks to the bundle. Call {@link ClassificationBundle#sortList()}
+     * afterwards.
+     */
+    public static void addCheckStyleMessagesToBundle(ClassLoader checkStylePluginClassLoader, ClassificationBundle bundle)
                     throws ClassNotFoundException, IllegalAccessException, NoSuchFieldException, IOException {
         Map<String, String> nameToModuleName = getModuleMapFromPackageObjectFactory(checkStylePluginClassLoader);
 
-        addMessagesToCheckStyleBundleForLoadedChecks(nameToModuleName, checkStylePluginClassLoader);
+        addMessagesToCheckStyleBundleForLoadedChecks(nameToModuleName, checkStylePluginClassLoader, bundle);
     }
 
     @SuppressWarnings("unchecked")
@@ -66,7 +70,8 @@ public class CheckStyleChecksMessagesFetcher {
 
     private static void addMessagesToCheckStyleBundleForLoadedChecks(
             Map<String, String> nameToModuleName,
-            ClassLoader checkStylePluginClassLoader) throws IOException {
+            ClassLoader checkStylePluginClassLoader,
+            ClassificationBundle bundle) throws IOException {
         // Use a map to have distinct resource properties, to make sure we don't process messages double
         Map<String, String> resourceToPackage = new HashMap<>();
 
@@ -89,14 +94,14 @@ public class CheckStyleChecksMessagesFetcher {
             }
 
             for (String name : properties.stringPropertyNames()) {
-                addMessageToCheckstyleBundle(entry.getValue() + "." + name, properties.getProperty(name));
+                addMessageToCheckstyleBundle(bundle, entry.getValue() + "." + name, properties.getProperty(name));
             }
         }
     }
 
-    public static void addMessageToCheckstyleBundle(String name, String message) {
+    public static void addMessageToCheckstyleBundle(ClassificationBundle bundle, String name, String message) {
         try {
-            StaticAnalysisMessageClassifier.CHECKSTYLE_BUNDLE.addMessage(
+            bundle.addMessage(
                     "checkstyle." + name,
                     message
             );
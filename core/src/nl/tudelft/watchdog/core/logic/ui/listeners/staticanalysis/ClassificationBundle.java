@@ -1,13 +1,19 @@
 package nl.tudelft.watchdog.core.logic.ui.listeners.staticanalysis;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.ResourceBundle;
 import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
 
+import nl.tudelft.watchdog.core.util.LRUCache;
 import nl.tudelft.watchdog.core.util.WatchDogLogger;
 
 /**
@@ -19,8 +25,12 @@ import nl.tudelft.watchdog.core.util.WatchDogLogger;
  * Every message is first statically looked up in the HashMap. These will match for all messages that
  * are static and do not contain any dynamic parts.
  *
- * If there is no result, the message will be matched against all {@link PatternBasedKey} in {@link #patternBasedKeyList}.
- * This list is ordered from most-specific message (e.g. longest) to shortest.
+ * If there is no result, the message will be matched against the {@link PatternBasedKey}s in {@link #patternBasedKeyList}.
+ * This list is ordered from most-specific message (e.g. longest) to shortest. A {@link LiteralPatternIndex} over the
+ * literal parts of the patterns narrows the list down to the few patterns that can match the message.
+ * As the same warnings recur in every build, the keys found this way, including "unknown", are cached.
+ * Patterns are compiled on their first use, and a {@link ClassificationBundleCache} can store the converted
+ * messages on disk, so that creating a bundle at startup is cheap.
  */
 public class ClassificationBundle {
 
@@ -30,9 +40,20 @@ public class ClassificationBundle {
      */
     private static final Pattern BRACKETS_PATTERN = Pattern.compile("\\{.+}");
 
+    /**
+     * The number of dynamic messages whose key is cached.
+     */
+    public static final int CACHE_CAPACITY = 4096;
+
     private final Map<String, String> staticKeyMap = new HashMap<>();
     private final List<PatternBasedKey> patternBasedKeyList = new ArrayList<>();
 
+    /**
+     * The index over {@link #patternBasedKeyList} and the cache of its results, built on the first lookup
+     * after the bundle changed.
+     */
+    private volatile IndexedPatterns indexedPatterns;
+
     public void createPatternsForKeysInBundle(String bundleName) {
         final ResourceBundle bundle = ResourceBundle.getBundle(bundleName);
 
@@ -81,7 +102,8 @@ public class ClassificationBundle {
             // Note that we are matching a "regex" (it is a String) with a regex String
             // Therefore escape the dot and the plus, as these are the actual patterns we have
             if (!regex.matches("(\\.\\+)+")) {
-                patternBasedKeyList.add(new PatternBasedKey(Pattern.compile(regex), key));
+                patternBasedKeyList.add(new PatternBasedKey(regex, key));
+                indexedPatterns = null;
             }
         } else {
             staticKeyMap.put(message, key);
@@ -95,7 +117,7 @@ public class ClassificationBundle {
      * @param message The message to classify.
      * @return The unique key corresponding to this message, or "unknown".
      */
-    String getFromBundle(String message) {
+    public String getFromBundle(String message) {
         // For performance reasons, we first do a static lookup. In this case, the message
         // does not contain any dynamic parts. This lookup is O(1) and catches most of the cases.
         // If instead the message contains dynamic parts, we have to pattern match in the other list.
@@ -103,23 +125,92 @@ public class ClassificationBundle {
         String key = staticKeyMap.get(message);
 
         if (key == null) {
-            // Use the Java Stream API to allow for a vertical search path, i.e. does not filter all keyPatterns,
-            // but only as long as it found the first that matches.
-            key = patternBasedKeyList.stream()
-                    .filter(keyPattern -> keyPattern.pattern.matcher(message).matches())
-                    .map(keyPattern -> keyPattern.key)
-                    .findFirst()
-                    .orElse("unknown");
+            IndexedPatterns patterns = getIndexedPatterns();
+            key = patterns.cache.get(message, patterns::getFirstMatch);
         }
 
         return key;
     }
 
+    /**
+     * @return the cache of the keys of dynamic messages. It is replaced whenever the bundle changes,
+     * so its hit rate covers the lookups since the last change.
+     */
+    public LRUCache<String, String> getCache() {
+        return getIndexedPatterns().cache;
+    }
+
     /**
      * Sort the list on longest pattern first.
      */
     public void sortList() {
         Collections.sort(patternBasedKeyList);
+        indexedPatterns = null;
+    }
+
+    /**
+     * @return whether no message was added to this bundle yet.
+     */
+    public boolean isEmpty() {
+        return staticKeyMap.isEmpty() && patternBasedKeyList.isEmpty();
+    }
+
+    /**
+     * Adds all messages of the other bundle, without converting them again. Call {@link #sortList()}
+     * afterwards.
+     */
+    void addAll(ClassificationBundle other) {
+        staticKeyMap.putAll(other.staticKeyMap);
+        patternBasedKeyList.addAll(other.patternBasedKeyList);
+        indexedPatterns = null;
+    }
+
+    /**
+     * Writes the static messages and the ordered patterns of this bundle, so that they can be restored
+     * with {@link #readFrom(DataInput)} without converting the messages again.
+     */
+    void writeTo(DataOutput output) throws IOException {
+        output.writeInt(staticKeyMap.size());
+        for (Map.Entry<String, String> entry : staticKeyMap.entrySet()) {
+            output.writeUTF(entry.getKey());
+            output.writeUTF(entry.getValue());
+        }
+        output.writeInt(patternBasedKeyList.size());
+        for (PatternBasedKey patternBasedKey : patternBasedKeyList) {
+            output.writeUTF(patternBasedKey.regex);
+            output.writeUTF(patternBasedKey.key);
+        }
+    }
+
+    /**
+     * Adds the messages written by {@link #writeTo(DataOutput)}. Does not change the bundle if reading fails.
+     */
+    void readFrom(DataInput input) throws IOException {
+        Map<String, String> staticKeys = new HashMap<>();
+        for (int i = input.readInt(); i > 0; i--) {
+            staticKeys.put(input.readUTF(), input.readUTF());
+        }
+        List<PatternBasedKey> patternBasedKeys = new ArrayList<>();
+        for (int i = input.readInt(); i > 0; i--) {
+            patternBasedKeys.add(new PatternBasedKey(input.readUTF(), input.readUTF()));
+        }
+        staticKeyMap.putAll(staticKeys);
+        patternBasedKeyList.addAll(patternBasedKeys);
+        indexedPatterns = null;
+    }
+
+    private IndexedPatterns getIndexedPatterns() {
+        IndexedPatterns patterns = indexedPatterns;
+        if (patterns == null) {
+            synchronized (this) {
+                patterns = indexedPatterns;
+                if (patterns == null) {
+                    patterns = new IndexedPatterns(patternBasedKeyList);
+                    indexedPatterns = patterns;
+                }
+            }
+        }
+        return patterns;
     }
 
     private static boolean containsDynamicParts(String message) {
@@ -128,15 +219,71 @@ public class ClassificationBundle {
                 || BRACKETS_PATTERN.matcher(message).find();
     }
 
+    /**
+     * A snapshot of the pattern list, together with its index and the cache of its results. Results of
+     * lookups that raced with a change of the bundle therefore end up in a discarded cache.
+     */
+    private static final class IndexedPatterns {
+        private final PatternBasedKey[] keys;
+        private final LiteralPatternIndex index;
+        private final LRUCache<String, String> cache = new LRUCache<>(CACHE_CAPACITY);
+
+        IndexedPatterns(List<PatternBasedKey> patternBasedKeys) {
+            this.keys = patternBasedKeys.toArray(new PatternBasedKey[patternBasedKeys.size()]);
+            List<String> regexes = new ArrayList<>(keys.length);
+            for (PatternBasedKey key : keys) {
+                regexes.add(key.regex);
+            }
+            this.index = new LiteralPatternIndex(regexes);
+        }
+
+        /**
+         * @return the key of the first pattern in the list that matches the message, or "unknown".
+         */
+        String getFirstMatch(String message) {
+            BitSet candidates = index.getCandidates(message);
+            for (int i = candidates.nextSetBit(0); i >= 0; i = candidates.nextSetBit(i + 1)) {
+                if (keys[i].matches(message)) {
+                    return keys[i].key;
+                }
+            }
+            return "unknown";
+        }
+    }
+
     private static final class PatternBasedKey implements Comparable<PatternBasedKey> {
-        private final Pattern pattern;
+        /**
+         * Matches nothing, stands in for regular expressions that do not compile.
+         */
+        private static final Pattern INVALID_PATTERN = Pattern.compile("(?!)");
+
+        private final String regex;
         private final String key;
         private final int length;
 
-        PatternBasedKey(Pattern pattern, String key) {
-            this.pattern = pattern;
+        /**
+         * Compiled on first use, as most patterns are never needed.
+         */
+        private volatile Pattern pattern;
+
+        PatternBasedKey(String regex, String key) {
+            this.regex = regex;
             this.key = key;
-            this.length = pattern.pattern().length();
+            this.length = regex.length();
+        }
+
+        boolean matches(String message) {
+            Pattern compiledPattern = pattern;
+            if (compiledPattern == null) {
+                try {
+                    compiledPattern = Pattern.compile(regex);
+                } catch (PatternSyntaxException exception) {
+                    WatchDogLogger.getInstance().logSevere("Could not create pattern for key \"" + key + "\"");
+                    compiledPattern = INVALID_PATTERN;
+                }
+                pattern = compiledPattern;
+            }
+            return compiledPattern.matcher(message).matches();
         }
 
         @Override
@@ -0,0 +1,159 @@
+package nl.tudelft.watchdog.core.logic.ui.listeners.staticanalysis;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.ResourceBundle;
+
+import nl.tudelft.watchdog.core.util.WatchDogLogger;
+
+/**
+ * Stores the converted messages of a {@link ClassificationBundle} in a file, so that the thousands of messages
+ * of the IDE do not have to be converted into patterns at every startup.
+ *
+ * The messages are collected first. If the file was written for exactly these messages and by the same
+ * {@link #VERSION} of the conversion, the bundle is read from the file. Otherwise, the messages are added
+ * to the bundle as usual and the file is rewritten.
+ */
+public class ClassificationBundleCache {
+
+    /**
+     * The version of the file format and of the conversion in {@link ClassificationBundle#addMessage}.
+     * Must be increased whenever one of them changes.
+     */
+    static final int VERSION = 1;
+
+    private final File cacheFile;
+
+    private final List<String[]> messages = new ArrayList<>();
+
+    /**
+     * Constructor.
+     *
+     * @param cacheFile The file to store the bundle in, or <code>null</code> to not store it.
+     */
+    public ClassificationBundleCache(File cacheFile) {
+        this.cacheFile = cacheFile;
+    }
+
+    /**
+     * Collects a message to add to the bundle, see {@link ClassificationBundle#addMessage(String, String)}.
+     */
+    public void addMessage(String key, String message) {
+        messages.add(new String[] {key, message});
+    }
+
+    /**
+     * Collects all messages of the resource bundle with the given name.
+     */
+    public void addResourceBundle(String bundleName) {
+        final ResourceBundle bundle = ResourceBundle.getBundle(bundleName);
+        for (String key : bundle.keySet()) {
+            addMessage(key, bundle.getString(key));
+        }
+    }
+
+    /**
+     * Adds the collected messages to the given bundle and sorts it. Reads the bundle from the cache file if
+     * possible, otherwise writes the cache file.
+     */
+    public void loadInto(ClassificationBundle bundle) {
+        // The file only describes the collected messages, not those that were added before.
+        if (cacheFile == null || !bundle.isEmpty()) {
+            addMessagesTo(bundle);
+            return;
+        }
+
+        byte[] hash = hashMessages();
+        if (readFile(bundle, hash)) {
+            return;
+        }
+        addMessagesTo(bundle);
+        writeFile(bundle, hash);
+    }
+
+    private void addMessagesTo(ClassificationBundle bundle) {
+        for (String[] message : messages) {
+            try {
+                bundle.addMessage(message[0], message[1]);
+            } catch (Exception ignored) {
+                WatchDogLogger.getInstance().logSevere("Could not create pattern for key \"" + message[0] + "\"");
+            }
+        }
+        bundle.sortList();
+    }
+
+    private boolean readFile(ClassificationBundle bundle, byte[] hash) {
+        if (!cacheFile.isFile()) {
+            return false;
+        }
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(new FileInputStream(cacheFile)))) {
+            if (input.readInt() != VERSION) {
+                return false;
+            }
+            byte[] fileHash = new byte[hash.length];
+            input.readFully(fileHash);
+            if (!Arrays.equals(hash, fileHash)) {
+                return false;
+            }
+            bundle.readFrom(input);
+            return true;
+        } catch (IOException exception) {
+            WatchDogLogger.getInstance().logSevere(exception);
+            return false;
+        }
+    }
+
+    private void writeFile(ClassificationBundle bundle, byte[] hash) {
+        // Write to a temporary file first, so that other IDE instances never read a partial file.
+        File temporaryFile = new File(cacheFile.getPath() + ".tmp");
+        try {
+            try (DataOutputStream output = new DataOutputStream(
+                    new BufferedOutputStream(new FileOutputStream(temporaryFile)))) {
+                output.writeInt(VERSION);
+                output.write(hash);
+                bundle.writeTo(output);
+            }
+            if (!temporaryFile.renameTo(cacheFile)) {
+                cacheFile.delete();
+                if (!temporaryFile.renameTo(cacheFile)) {
+                    temporaryFile.delete();
+                }
+            }
+        } catch (IOException exception) {
+            WatchDogLogger.getInstance().logSevere(exception);
+            temporaryFile.delete();
+        }
+    }
+
+    /**
+     * @return the SHA-1 hash of the collected messages, in order.
+     */
+    private byte[] hashMessages() {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-1");
+        } catch (NoSuchAlgorithmException exception) {
+            // Every Java platform must support SHA-1.
+            throw new IllegalStateException(exception);
+        }
+        for (String[] message : messages) {
+            digest.update(message[0].getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            digest.update(message[1].getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+        }
+        return digest.digest();
+    }
+}
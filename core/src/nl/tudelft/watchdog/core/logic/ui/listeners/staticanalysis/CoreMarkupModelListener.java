@@ -2,10 +2,13 @@ package nl.tudelft.watchdog.core.logic.ui.listeners.staticanalysis;
 
 import nl.tudelft.watchdog.core.logic.document.Document;
 import nl.tudelft.watchdog.core.logic.event.TrackingEventManager;
+import nl.tudelft.watchdog.core.logic.event.eventtypes.EventBase;
 import nl.tudelft.watchdog.core.logic.event.eventtypes.TrackingEventType;
+import nl.tudelft.watchdog.core.logic.event.eventtypes.staticanalysis.FileWarningSnapshotEvent;
 import nl.tudelft.watchdog.core.logic.event.eventtypes.staticanalysis.StaticAnalysisWarningEvent;
-import org.joda.time.DateTime;
+import nl.tudelft.watchdog.core.util.WatchDogClock;
 
+import java.util.List;
 import java.util.stream.Stream;
 
 /**
@@ -15,30 +18,48 @@ import java.util.stream.Stream;
  */
 public class CoreMarkupModelListener {
 
+    private static final WarningSnapshotEncoder snapshotEncoder = WarningSnapshotEncoder.createRequestedEncoder();
+
     @SuppressWarnings("WeakerAccess")
 	public static void addCreatedWarnings(TrackingEventManager trackingEventManager, Stream<Warning<String>> createdWarnings, Document document) {
-        // Prepare the document again to update the line numbers and other statistics
-        document.prepareDocument();
-        trackingEventManager.addEvents(createdWarnings
-                .map(warning -> createEventFromWarning(TrackingEventType.SA_WARNING_CREATED, warning, document))
-        );
+        trackingEventManager.addEvents(createWarningEvents(TrackingEventType.SA_WARNING_CREATED, createdWarnings, document));
     }
 
     @SuppressWarnings("WeakerAccess")
     public static void addRemovedWarnings(TrackingEventManager trackingEventManager, Stream<Warning<String>> removedWarnings, Document document) {
+        trackingEventManager.addEvents(createWarningEvents(TrackingEventType.SA_WARNING_REMOVED, removedWarnings, document));
+    }
+
+    /**
+     * Adds a {@link FileWarningSnapshotEvent} of all warnings in the document, which is a delta to the
+     * previous snapshot of the document if deltas are requested and possible. All warnings should have
+     * the same creation time.
+     */
+    public static void addWarningSnapshot(TrackingEventManager trackingEventManager, Document document, List<Warning<String>> warnings) {
+        trackingEventManager.addEvent(createWarningSnapshot(document, warnings));
+    }
+
+    /**
+     * Creates the events of the warnings without adding them, so that the caller can add the events of
+     * several documents at once.
+     */
+    public static Stream<EventBase> createWarningEvents(TrackingEventType trackingEventType, Stream<Warning<String>> warnings, Document document) {
         // Prepare the document again to update the line numbers and other statistics
         document.prepareDocument();
-        trackingEventManager.addEvents(removedWarnings.map(warning ->
-                createEventFromWarning(TrackingEventType.SA_WARNING_REMOVED, warning, document))
-        );
+        return warnings.map(warning -> createEventFromWarning(trackingEventType, warning, document));
+    }
+
+    /** Creates the snapshot event of {@link #addWarningSnapshot} without adding it. */
+    public static FileWarningSnapshotEvent createWarningSnapshot(Document document, List<Warning<String>> warnings) {
+        return snapshotEncoder.encode(document, warnings);
     }
 
-    private static StaticAnalysisWarningEvent createEventFromWarning(TrackingEventType trackingEventType, Warning<String> warning, Document document) {
+    private static EventBase createEventFromWarning(TrackingEventType trackingEventType, Warning<String> warning, Document document) {
         return new StaticAnalysisWarningEvent(
                 warning,
                 document,
                 trackingEventType,
-                DateTime.now().toDate()
+                WatchDogClock.get().now()
         );
     }
 
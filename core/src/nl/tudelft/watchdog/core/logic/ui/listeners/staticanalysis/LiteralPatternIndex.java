@@ -0,0 +1,261 @@
+package nl.tudelft.watchdog.core.logic.ui.listeners.staticanalysis;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.TreeMap;
+
+/**
+ * An index over a list of patterns, which quickly finds the few patterns that
+ * can match a message, so that only those have to be matched.
+ *
+ * For every pattern, the longest literal fragment that every match must
+ * contain is extracted. An Aho-Corasick automaton finds all of these
+ * fragments in a message in a single pass. Patterns without such a fragment
+ * are always candidates.
+ */
+class LiteralPatternIndex {
+
+    /** The escapes of predefined character classes and boundaries. */
+    private static final String SIMPLE_ESCAPES = "dDsSwWbBAzZGRhHvVXntrfae";
+
+    /** The patterns that must be matched regardless of the message. */
+    private final BitSet alwaysCandidates = new BitSet();
+
+    /** The first outgoing edge of every state in {@link #edgeCharacters}. */
+    private final int[] firstEdge;
+
+    /** The characters of the edges, sorted per state. */
+    private final char[] edgeCharacters;
+
+    /** The target states of the edges. */
+    private final int[] edgeTargets;
+
+    /** The state reached on the longest proper suffix of a state. */
+    private final int[] failures;
+
+    /** The next state on the failure path that completes a fragment. */
+    private final int[] outputs;
+
+    /** The patterns whose fragment is completed in a state. */
+    private final int[][] patternsOfState;
+
+    /** Constructor, indexes the regular expressions in the given order. */
+    LiteralPatternIndex(List<String> patterns) {
+        List<Map<Character, Integer>> trie = new ArrayList<Map<Character, Integer>>();
+        List<List<Integer>> patternsOfTrieState = new ArrayList<List<Integer>>();
+        trie.add(new TreeMap<Character, Integer>());
+        patternsOfTrieState.add(null);
+
+        for (int index = 0; index < patterns.size(); index++) {
+            String literal = getLongestLiteral(patterns.get(index));
+            if (literal.isEmpty()) {
+                alwaysCandidates.set(index);
+                continue;
+            }
+            int state = 0;
+            for (int i = 0; i < literal.length(); i++) {
+                Integer next = trie.get(state).get(literal.charAt(i));
+                if (next == null) {
+                    next = trie.size();
+                    trie.get(state).put(literal.charAt(i), next);
+                    trie.add(new TreeMap<Character, Integer>());
+                    patternsOfTrieState.add(null);
+                }
+                state = next;
+            }
+            if (patternsOfTrieState.get(state) == null) {
+                patternsOfTrieState.set(state, new ArrayList<Integer>());
+            }
+            patternsOfTrieState.get(state).add(index);
+        }
+
+        int numberOfStates = trie.size();
+        firstEdge = new int[numberOfStates + 1];
+        edgeCharacters = new char[numberOfStates - 1];
+        edgeTargets = new int[numberOfStates - 1];
+        patternsOfState = new int[numberOfStates][];
+        int edge = 0;
+        for (int state = 0; state < numberOfStates; state++) {
+            firstEdge[state] = edge;
+            for (Map.Entry<Character, Integer> child : trie.get(state).entrySet()) {
+                edgeCharacters[edge] = child.getKey();
+                edgeTargets[edge] = child.getValue();
+                edge++;
+            }
+            List<Integer> patternIndices = patternsOfTrieState.get(state);
+            if (patternIndices != null) {
+                patternsOfState[state] = new int[patternIndices.size()];
+                for (int i = 0; i < patternIndices.size(); i++) {
+                    patternsOfState[state][i] = patternIndices.get(i);
+                }
+            }
+        }
+        firstEdge[numberOfStates] = edge;
+
+        failures = new int[numberOfStates];
+        outputs = new int[numberOfStates];
+        computeFailures();
+    }
+
+    /**
+     * @return the indices of the patterns that can match the message. Patterns
+     *         that are not returned certainly do not match.
+     */
+    BitSet getCandidates(String message) {
+        BitSet candidates = (BitSet) alwaysCandidates.clone();
+        int state = 0;
+        for (int i = 0, length = message.length(); i < length; i++) {
+            state = step(state, message.charAt(i));
+            int output = patternsOfState[state] != null ? state : outputs[state];
+            while (output > 0) {
+                for (int pattern : patternsOfState[output]) {
+                    candidates.set(pattern);
+                }
+                output = outputs[output];
+            }
+        }
+        return candidates;
+    }
+
+    /** Computes the failure and output links, breadth-first. */
+    private void computeFailures() {
+        Queue<Integer> queue = new ArrayDeque<Integer>();
+        for (int edge = firstEdge[0]; edge < firstEdge[1]; edge++) {
+            queue.add(edgeTargets[edge]);
+        }
+        while (!queue.isEmpty()) {
+            int state = queue.poll();
+            for (int edge = firstEdge[state]; edge < firstEdge[state + 1]; edge++) {
+                int child = edgeTargets[edge];
+                int failure = step(failures[state], edgeCharacters[edge]);
+                failures[child] = failure;
+                outputs[child] = patternsOfState[failure] != null ? failure : outputs[failure];
+                queue.add(child);
+            }
+        }
+    }
+
+    private int step(int state, char character) {
+        while (true) {
+            int next = getChild(state, character);
+            if (next >= 0) {
+                return next;
+            }
+            if (state == 0) {
+                return 0;
+            }
+            state = failures[state];
+        }
+    }
+
+    private int getChild(int state, char character) {
+        int low = firstEdge[state];
+        int high = firstEdge[state + 1] - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            char edgeCharacter = edgeCharacters[middle];
+            if (edgeCharacter < character) {
+                low = middle + 1;
+            } else if (edgeCharacter > character) {
+                high = middle - 1;
+            } else {
+                return edgeTargets[middle];
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @return the longest string that every match of the regular expression
+     *         contains, or the empty string if there is none or the expression
+     *         uses constructs that are not analyzed, such as groups.
+     */
+    static String getLongestLiteral(String regex) {
+        String longest = "";
+        StringBuilder literal = new StringBuilder();
+        for (int i = 0; i < regex.length(); i++) {
+            char character = regex.charAt(i);
+            switch (character) {
+            case '\\':
+                if (i + 1 == regex.length()) {
+                    return "";
+                }
+                char escaped = regex.charAt(++i);
+                if (Character.isLetterOrDigit(escaped)) {
+                    if (SIMPLE_ESCAPES.indexOf(escaped) < 0) {
+                        return "";
+                    }
+                    longest = longer(longest, literal);
+                    literal.setLength(0);
+                } else {
+                    literal.append(escaped);
+                }
+                break;
+            case '[':
+                i = skipCharacterClass(regex, i);
+                if (i < 0) {
+                    return "";
+                }
+                longest = longer(longest, literal);
+                literal.setLength(0);
+                break;
+            case '(':
+            case ')':
+            case '|':
+                return "";
+            case '?':
+            case '*':
+            case '{':
+                // The preceding character is optional.
+                if (literal.length() > 0) {
+                    literal.setLength(literal.length() - 1);
+                }
+                longest = longer(longest, literal);
+                literal.setLength(0);
+                if (character == '{') {
+                    i = regex.indexOf('}', i);
+                    if (i < 0) {
+                        return "";
+                    }
+                }
+                break;
+            case '+':
+            case '.':
+            case '^':
+            case '$':
+                longest = longer(longest, literal);
+                literal.setLength(0);
+                break;
+            default:
+                literal.append(character);
+            }
+        }
+        return longer(longest, literal);
+    }
+
+    /** @return the index of the closing bracket of the class, or -1. */
+    private static int skipCharacterClass(String regex, int start) {
+        int depth = 0;
+        // A bracket directly after the opening one (or its negation) is literal.
+        int firstCharacter = regex.startsWith("[^", start) ? start + 2 : start + 1;
+        for (int i = start; i < regex.length(); i++) {
+            char character = regex.charAt(i);
+            if (character == '\\') {
+                i++;
+            } else if (character == '[') {
+                depth++;
+            } else if (character == ']' && i != firstCharacter && --depth == 0) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static String longer(String longest, StringBuilder literal) {
+        return literal.length() > longest.length() ? literal.toString() : longest;
+    }
+}
@@ -0,0 +1,139 @@
+package nl.tudelft.watchdog.core.logic.ui.listeners.staticanalysis;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.function.Function;
+
+/**
+ * The warnings that were created and removed since the last flush, indexed by the identity of their
+ * highlighters, so that every change takes constant time.
+ *
+ * The analyzer of an IDE often replaces hundreds of highlighters at once by equal ones. Such pairs of a
+ * removed and a created highlighter with the same key, for example the same message on the same line,
+ * cancel each other out, in either order. The remaining highlighter then keeps the creation time of the
+ * one it replaced. A highlighter that is created and removed again before the flush is dropped entirely.
+ *
+ * @param <T> The type of highlighters, which must not override {@link Object#equals(Object)}.
+ */
+public class PendingWarningChanges<T> {
+
+    /** The creation times of all highlighters seen, which may be <code>null</code> if unknown. */
+    private final Map<T, Date> creationTimes = new WeakHashMap<>();
+
+    private final Map<T, PendingWarning<T>> createdWarnings = new IdentityHashMap<>();
+
+    private final Map<String, Deque<T>> createdHighlighters = new HashMap<>();
+
+    private final Map<String, Deque<PendingWarning<T>>> removedWarnings = new HashMap<>();
+
+    private int numberOfRemovedWarnings;
+
+    /** Records the creation of the highlighter, which is described by the warning. */
+    public synchronized void created(T highlighter, String key, Warning<T> warning) {
+        PendingWarning<T> replaced = poll(removedWarnings, key);
+        if (replaced != null) {
+            numberOfRemovedWarnings--;
+            creationTimes.put(highlighter, replaced.creationTime);
+            return;
+        }
+        creationTimes.put(highlighter, warning.warningCreationTime);
+        createdWarnings.put(highlighter, new PendingWarning<>(warning, key, null));
+        createdHighlighters.computeIfAbsent(key, k -> new ArrayDeque<>()).add(highlighter);
+    }
+
+    /**
+     * Records the removal of the highlighter. The warning factory is only invoked if the removal is not
+     * cancelled out, with the creation time of the highlighter, if known.
+     */
+    public synchronized void removed(T highlighter, String key, Function<Date, Warning<T>> warningFactory) {
+        Date creationTime = creationTimes.remove(highlighter);
+        PendingWarning<T> created = createdWarnings.remove(highlighter);
+        if (created != null) {
+            Deque<T> highlighters = createdHighlighters.get(created.key);
+            highlighters.remove(highlighter);
+            if (highlighters.isEmpty()) {
+                createdHighlighters.remove(created.key);
+            }
+            return;
+        }
+
+        T replacement = poll(createdHighlighters, key);
+        if (replacement != null) {
+            createdWarnings.remove(replacement);
+            creationTimes.put(replacement, creationTime);
+            return;
+        }
+        removedWarnings.computeIfAbsent(key, k -> new ArrayDeque<>())
+                .add(new PendingWarning<>(warningFactory.apply(creationTime), key, creationTime));
+        numberOfRemovedWarnings++;
+    }
+
+    /** @return the creation time of the highlighter, or <code>null</code> if it is unknown. */
+    public synchronized Date getCreationTime(T highlighter) {
+        return creationTimes.get(highlighter);
+    }
+
+    /** Sets the creation time of the highlighter, for example the time it was first seen in a previous session. */
+    public synchronized void setCreationTime(T highlighter, Date creationTime) {
+        creationTimes.put(highlighter, creationTime);
+    }
+
+    /** @return the warnings created since the last call, which are forgotten. */
+    public synchronized List<Warning<T>> drainCreatedWarnings() {
+        List<Warning<T>> warnings = new ArrayList<>(createdWarnings.size());
+        for (PendingWarning<T> pendingWarning : createdWarnings.values()) {
+            warnings.add(pendingWarning.warning);
+        }
+        createdWarnings.clear();
+        createdHighlighters.clear();
+        return warnings;
+    }
+
+    /** @return the warnings removed since the last call, which are forgotten. */
+    public synchronized List<Warning<T>> drainRemovedWarnings() {
+        List<Warning<T>> warnings = new ArrayList<>(numberOfRemovedWarnings);
+        for (Deque<PendingWarning<T>> pendingWarnings : removedWarnings.values()) {
+            for (PendingWarning<T> pendingWarning : pendingWarnings) {
+                warnings.add(pendingWarning.warning);
+            }
+        }
+        removedWarnings.clear();
+        numberOfRemovedWarnings = 0;
+        return warnings;
+    }
+
+    private static <V> V poll(Map<String, Deque<V>> map, String key) {
+        Deque<V> values = map.get(key);
+        if (values == null) {
+            return null;
+        }
+        V value = values.poll();
+        if (values.isEmpty()) {
+            map.remove(key);
+        }
+        return value;
+    }
+
+    private static class PendingWarning<T> {
+
+        private final Warning<T> warning;
+
+        private final String key;
+
+        /** The creation time of the highlighter of a removed warning. */
+        private final Date creationTime;
+
+        private PendingWarning(Warning<T> warning, String key, Date creationTime) {
+            this.warning = warning;
+            this.key = key;
+            this.creationTime = creationTime;
+        }
+    }
+}
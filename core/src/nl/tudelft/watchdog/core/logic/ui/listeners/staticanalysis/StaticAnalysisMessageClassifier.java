@@ -1,10 +1,21 @@
 package nl.tudelft.watchdog.core.logic.ui.listeners.staticanalysis;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+
+import nl.tudelft.watchdog.core.util.WatchDogLogger;
+
 /**
  * Holder for all {@link ClassificationBundle}s that can contain messages.
  * For each supported Plugin, one {@link ClassificationBundle} exists, with one bundle
  * for the messages in the default IDE. These messages are obtained and processed
  * in the respective subclass of {@link CoreMarkupModelListener}.
+ *
+ * The CheckStyle bundle is built in the background by the {@link CheckStyleBundleLoader}
+ * and replaced at once when it is done. Messages that need it should be classified once
+ * {@link #whenCheckStyleBundleReady()} completes, for example by a task passed to
+ * {@link #runWhenCheckStyleBundleReady(Runnable)}.
  */
 public class StaticAnalysisMessageClassifier {
 
@@ -14,7 +25,17 @@ public class StaticAnalysisMessageClassifier {
     public static final String START_OF_CHECKSTYLE_MESSAGE = "Checkstyle: ";
 
     public static final ClassificationBundle IDE_BUNDLE = new ClassificationBundle();
-    public static final ClassificationBundle CHECKSTYLE_BUNDLE = new ClassificationBundle();
+
+    private static volatile ClassificationBundle checkStyleBundle = new ClassificationBundle();
+
+    private static volatile CompletableFuture<Void> checkStyleBundleReady = CompletableFuture.completedFuture(null);
+
+    /** Runs the tasks that wait for the CheckStyle bundle, one after another in the order of submission. */
+    private static final Executor TASK_EXECUTOR = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "WatchDog static analysis classifier");
+        thread.setDaemon(true);
+        return thread;
+    });
 
     /**
      * Classify the passed in message to its corresponding key. The keys are fetched
@@ -26,9 +47,52 @@ public class StaticAnalysisMessageClassifier {
      */
     public static String classify(String message) {
         if (message.startsWith(START_OF_CHECKSTYLE_MESSAGE)) {
-            return CHECKSTYLE_BUNDLE.getFromBundle(message.substring(START_OF_CHECKSTYLE_MESSAGE.length()));
+            return checkStyleBundle.getFromBundle(message.substring(START_OF_CHECKSTYLE_MESSAGE.length()));
         }
         return IDE_BUNDLE.getFromBundle(message);
     }
 
+    /** @return the current CheckStyle bundle, which must not be changed anymore. */
+    public static ClassificationBundle getCheckStyleBundle() {
+        return checkStyleBundle;
+    }
+
+    /**
+     * @return a future that completes once the first CheckStyle bundle is published, or that is already
+     *         completed if no bundle is being loaded.
+     */
+    public static CompletableFuture<Void> whenCheckStyleBundleReady() {
+        return checkStyleBundleReady;
+    }
+
+    /**
+     * Runs the task on the thread of the classifier once the CheckStyle bundle is ready. All tasks run in
+     * the order in which they were passed, also the ones passed while the bundle was loading, so that the
+     * events they create keep their order. Failures of the task are logged.
+     */
+    public static void runWhenCheckStyleBundleReady(Runnable task) {
+        CompletableFuture<Void> bundleReady = checkStyleBundleReady;
+        TASK_EXECUTOR.execute(() -> {
+            try {
+                // The bundle is published even if loading it failed
+                bundleReady.handle((result, exception) -> null).join();
+                task.run();
+            } catch (RuntimeException exception) {
+                WatchDogLogger.getInstance().logSevere(exception);
+            }
+        });
+    }
+
+    /** Marks the CheckStyle bundle as loading, unless one was published before. */
+    static synchronized void startLoadingCheckStyleBundle() {
+        if (checkStyleBundleReady.isDone() && checkStyleBundle.isEmpty()) {
+            checkStyleBundleReady = new CompletableFuture<>();
+        }
+    }
+
+    /** Replaces the CheckStyle bundle by the given, complete and sorted, bundle. */
+    static synchronized void publishCheckStyleBundle(ClassificationBundle bundle) {
+        checkStyleBundle = bundle;
+        checkStyleBundleReady.complete(null);
+    }
 }
@@ -0,0 +1,245 @@
+package nl.tudelft.watchdog.core.logic.ui.listeners.staticanalysis;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+
+import nl.tudelft.watchdog.core.util.WatchDogLogger;
+import nl.tudelft.watchdog.core.util.WatchDogUtilsBase;
+
+/**
+ * Remembers when the warnings that are currently in a file were first seen, across sessions of the IDE, so
+ * that the lifetime of a warning is known when it is removed after a restart.
+ *
+ * A warning is identified by a 64-bit hash of its key, typically its message, and its rank among the
+ * warnings with the same key in the file, in the order of their lines. Unlike the line number itself, the
+ * rank does not change when lines are inserted or removed elsewhere in the file. Every file has its own
+ * small file in the index directory, named after the hash of its path, which is only read once the file
+ * is updated and rewritten only if its warnings changed. Only the {@link #MAX_LOADED_FILES} most recently
+ * updated files are kept in memory.
+ *
+ * The files are written by the write executor, if any, so that an update on the UI thread does not wait
+ * for the disk. Until a file is written, its warnings are kept as a pending write.
+ */
+public class WarningLifetimeIndex {
+
+    /**
+     * The version of the file format. Must be increased whenever it changes. Version 1 identified warnings
+     * by the 32-bit hash code of their key, whose files are ignored.
+     */
+    static final int VERSION = 2;
+
+    /** The number of files whose warnings are kept in memory. */
+    static final int MAX_LOADED_FILES = 256;
+
+    private static final String FILE_EXTENSION = ".lifetimes";
+
+    private final File directory;
+
+    private final Executor writeExecutor;
+
+    /** The warnings of the files that are still to be written, by the hash of their path. */
+    private final Map<String, Map<Long, Long>> pendingWrites = new HashMap<>();
+
+    private final Map<String, Map<Long, Long>> loadedFiles = new LinkedHashMap<String, Map<Long, Long>>(16, 0.75f, true) {
+
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Map<Long, Long>> eldest) {
+            return size() > MAX_LOADED_FILES;
+        }
+    };
+
+    /**
+     * Constructor.
+     *
+     * @param directory The directory to store the index in, or <code>null</code> to only keep it in memory.
+     */
+    public WarningLifetimeIndex(File directory) {
+        this(directory, null);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param directory The directory to store the index in, or <code>null</code> to only keep it in memory.
+     * @param writeExecutor The executor that writes the files one after another, or <code>null</code> to
+     *            write them during the update.
+     */
+    public WarningLifetimeIndex(File directory, Executor writeExecutor) {
+        this.directory = directory;
+        this.writeExecutor = writeExecutor;
+    }
+
+    /**
+     * Replaces the warnings of the file by the given ones. Warnings that were in the file before keep the
+     * time they were first seen, new ones are first seen at their creation time.
+     *
+     * @param filePath The path of the file.
+     * @param warningKeys The keys of the warnings in the file, in the order of their lines.
+     * @param creationTimes The creation times of the warnings in the same order, or <code>null</code> for
+     *            unknown ones.
+     * @param now The time at which warnings with an unknown creation time are first seen.
+     * @return the times at which the warnings were first seen, in the same order.
+     */
+    public synchronized Date[] update(String filePath, List<String> warningKeys, List<Date> creationTimes, Date now) {
+        String fileKey = WatchDogUtilsBase.createHash(filePath);
+        Map<Long, Long> previousWarnings = load(fileKey);
+
+        Map<Long, Long> warnings = new HashMap<>();
+        Map<String, Integer> ranks = new HashMap<>();
+        Date[] firstSeenTimes = new Date[warningKeys.size()];
+        for (int i = 0; i < firstSeenTimes.length; i++) {
+            String warningKey = String.valueOf(warningKeys.get(i));
+            int rank = ranks.merge(warningKey, 1, Integer::sum) - 1;
+            long warning = createWarningHash(warningKey, rank);
+
+            Long firstSeen = previousWarnings.get(warning);
+            if (firstSeen == null) {
+                Date creationTime = creationTimes.get(i);
+                firstSeen = (creationTime != null ? creationTime : now).getTime();
+            }
+            warnings.put(warning, firstSeen);
+            firstSeenTimes[i] = new Date(firstSeen);
+        }
+
+        if (!warnings.equals(previousWarnings)) {
+            loadedFiles.put(fileKey, warnings);
+            scheduleWrite(fileKey, warnings);
+        }
+        return firstSeenTimes;
+    }
+
+    /** @return the 64-bit FNV-1a hash of the key and the rank of the warning. */
+    private static long createWarningHash(String warningKey, int rank) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < warningKey.length(); i++) {
+            hash = (hash ^ warningKey.charAt(i)) * 0x100000001b3L;
+        }
+        for (int shift = 0; shift < 32; shift += 8) {
+            hash = (hash ^ ((rank >>> shift) & 0xff)) * 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    private Map<Long, Long> load(String fileKey) {
+        Map<Long, Long> warnings = loadedFiles.get(fileKey);
+        if (warnings == null) {
+            warnings = readFile(fileKey);
+            loadedFiles.put(fileKey, warnings);
+        }
+        return warnings;
+    }
+
+    private Map<Long, Long> readFile(String fileKey) {
+        if (directory == null) {
+            return Collections.emptyMap();
+        }
+        Map<Long, Long> pendingWarnings = pendingWrites.get(fileKey);
+        if (pendingWarnings != null) {
+            return pendingWarnings;
+        }
+        File file = new File(directory, fileKey + FILE_EXTENSION);
+        if (!file.isFile()) {
+            return Collections.emptyMap();
+        }
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            if (input.readInt() != VERSION) {
+                return Collections.emptyMap();
+            }
+            int size = input.readInt();
+            Map<Long, Long> warnings = new HashMap<>();
+            for (int i = 0; i < size; i++) {
+                warnings.put(input.readLong(), input.readLong());
+            }
+            return warnings;
+        } catch (IOException exception) {
+            WatchDogLogger.getInstance().logSevere(exception);
+            return Collections.emptyMap();
+        }
+    }
+
+    private void scheduleWrite(String fileKey, Map<Long, Long> warnings) {
+        if (directory == null) {
+            return;
+        }
+        if (writeExecutor == null) {
+            writeFile(fileKey, warnings);
+            return;
+        }
+        // A write that is already scheduled for the file writes its latest warnings.
+        if (pendingWrites.put(fileKey, warnings) == null) {
+            writeExecutor.execute(() -> writePendingFile(fileKey));
+        }
+    }
+
+    /**
+     * Writes the pending warnings of the file until they do not change anymore. They stay pending until
+     * they are written, so that they are not read from the outdated file meanwhile.
+     */
+    private void writePendingFile(String fileKey) {
+        Map<Long, Long> warnings;
+        synchronized (this) {
+            warnings = pendingWrites.get(fileKey);
+        }
+        while (warnings != null) {
+            writeFile(fileKey, warnings);
+            synchronized (this) {
+                Map<Long, Long> pendingWarnings = pendingWrites.get(fileKey);
+                if (pendingWarnings == warnings) {
+                    pendingWrites.remove(fileKey);
+                    pendingWarnings = null;
+                }
+                warnings = pendingWarnings;
+            }
+        }
+    }
+
+    private void writeFile(String fileKey, Map<Long, Long> warnings) {
+        if (directory == null) {
+            return;
+        }
+        File file = new File(directory, fileKey + FILE_EXTENSION);
+        if (warnings.isEmpty()) {
+            file.delete();
+            return;
+        }
+
+        // Write to a temporary file first, so that a crash never leaves a partial file.
+        File temporaryFile = new File(file.getPath() + ".tmp");
+        try {
+            directory.mkdirs();
+            try (DataOutputStream output = new DataOutputStream(
+                    new BufferedOutputStream(new FileOutputStream(temporaryFile)))) {
+                output.writeInt(VERSION);
+                output.writeInt(warnings.size());
+                for (Map.Entry<Long, Long> warning : warnings.entrySet()) {
+                    output.writeLong(warning.getKey());
+                    output.writeLong(warning.getValue());
+                }
+            }
+            if (!temporaryFile.renameTo(file)) {
+                file.delete();
+                if (!temporaryFile.renameTo(file)) {
+                    temporaryFile.delete();
+                }
+            }
+        } catch (IOException exception) {
+            WatchDogLogger.getInstance().logSevere(exception);
+            temporaryFile.delete();
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package nl.tudelft.watchdog.core.logic.ui.listeners.staticanalysis;
+
+import nl.tudelft.watchdog.core.logic.event.eventtypes.staticanalysis.FileWarningSnapshotEvent;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reconstructs the complete list of warnings of the {@link FileWarningSnapshotEvent}s that a
+ * {@link WarningSnapshotEncoder} created. The events of a file must be decoded in the order in which they
+ * were encoded, for example in the order of a local export.
+ */
+public class WarningSnapshotDecoder {
+
+    private final Map<String, Integer> lastSequences = new HashMap<>();
+
+    private final Map<String, List<Warning<String>>> lastWarnings = new HashMap<>();
+
+    /**
+     * @return all warnings of the snapshot, or <code>null</code> if it is a delta to a snapshot that was
+     *         not decoded before.
+     */
+    public List<Warning<String>> decode(FileWarningSnapshotEvent event) {
+        List<Warning<String>> warnings;
+        if (event.isKeyframe()) {
+            warnings = event.warnings;
+        } else {
+            Integer lastSequence = lastSequences.get(event.fileKey);
+            if (lastSequence == null || lastSequence != event.getSequence() - 1) {
+                return null;
+            }
+            warnings = applyDelta(lastWarnings.get(event.fileKey), event);
+        }
+        if (event.fileKey != null) {
+            lastSequences.put(event.fileKey, event.getSequence());
+            lastWarnings.put(event.fileKey, warnings);
+        }
+        return warnings;
+    }
+
+    private static List<Warning<String>> applyDelta(List<Warning<String>> previous, FileWarningSnapshotEvent event) {
+        List<Warning<String>> warnings = new ArrayList<>(previous.size() + event.addedWarnings.size());
+        int removed = 0;
+        for (int i = 0; i < previous.size(); i++) {
+            if (removed < event.removedIndices.length && event.removedIndices[removed] == i) {
+                removed++;
+                continue;
+            }
+            Warning<String> warning = previous.get(i);
+            warnings.add(new Warning<>(event.docTotalLines, warning.type, warning.lineNumber,
+                    event.warningCreationTime, warning.secondsBetween));
+        }
+        for (int i = 0; i < event.addedIndices.length; i++) {
+            warnings.add(event.addedIndices[i], event.addedWarnings.get(i));
+        }
+        return warnings;
+    }
+}
@@ -0,0 +1,197 @@
+package nl.tudelft.watchdog.core.logic.ui.listeners.staticanalysis;
+
+import nl.tudelft.watchdog.core.logic.document.Document;
+import nl.tudelft.watchdog.core.logic.event.eventtypes.staticanalysis.FileWarningSnapshotEvent;
+import nl.tudelft.watchdog.core.util.WatchDogUtilsBase;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Queue;
+
+/**
+ * Encodes the warning snapshots of files as {@link FileWarningSnapshotEvent}s. Every n-th snapshot of a
+ * file is a keyframe with all warnings, the snapshots in between only contain the warnings that were added
+ * and removed since the previous snapshot. With a keyframe interval of 1, every snapshot is a keyframe.
+ *
+ * A delta stores the creation time and document length once, so it is only used if these are the same
+ * for all warnings of the snapshot. The files are identified by the hash of their project and path, and
+ * only the last snapshot of the {@link #MAX_FILES} most recently snapshotted files is kept. The first
+ * snapshot of any other file is a keyframe.
+ *
+ * A delta cannot be decoded once the snapshot before it is lost, e.g. with a recreated database or a
+ * failed transfer, and the server stores the snapshots as they are sent. Therefore the encoder of the
+ * IDEs only creates keyframes, unless deltas are requested with {@link #KEYFRAME_INTERVAL_PROPERTY}. These
+ * keyframes do not identify their file, so that they are sent exactly like the snapshots before deltas.
+ */
+public class WarningSnapshotEncoder {
+
+    /**
+     * The system property with the keyframe interval of {@link #createRequestedEncoder()}, e.g.
+     * {@value #SUGGESTED_KEYFRAME_INTERVAL}.
+     */
+    public static final String KEYFRAME_INTERVAL_PROPERTY = "watchdogSnapshotKeyframeInterval";
+
+    /** The keyframe interval with which every snapshot is a keyframe. */
+    public static final int KEYFRAMES_ONLY = 1;
+
+    /** A keyframe interval that keeps most snapshots small, if deltas are requested. */
+    public static final int SUGGESTED_KEYFRAME_INTERVAL = 20;
+
+    /** The number of files whose last snapshot is kept. */
+    static final int MAX_FILES = 1024;
+
+    private final int keyframeInterval;
+
+    private final Map<String, Snapshot> lastSnapshots = new LinkedHashMap<String, Snapshot>(16, 0.75f, true) {
+
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Snapshot> eldest) {
+            return size() > MAX_FILES;
+        }
+    };
+
+    /** Constructor. */
+    public WarningSnapshotEncoder(int keyframeInterval) {
+        this.keyframeInterval = keyframeInterval;
+    }
+
+    /**
+     * @return an encoder with the keyframe interval in the {@value #KEYFRAME_INTERVAL_PROPERTY} system
+     *         property, which only creates keyframes if the property is not set.
+     */
+    public static WarningSnapshotEncoder createRequestedEncoder() {
+        return new WarningSnapshotEncoder(Math.max(KEYFRAMES_ONLY,
+                Integer.getInteger(KEYFRAME_INTERVAL_PROPERTY, KEYFRAMES_ONLY)));
+    }
+
+    /**
+     * @return the snapshot of the given warnings of the document, as keyframe or as delta to the previous
+     *         snapshot of the document.
+     */
+    public synchronized FileWarningSnapshotEvent encode(Document document, List<Warning<String>> warnings) {
+        if (keyframeInterval <= KEYFRAMES_ONLY) {
+            return new FileWarningSnapshotEvent(document, null, warnings);
+        }
+        String fileKey = createFileKey(document);
+        Snapshot previous = fileKey == null ? null : lastSnapshots.get(fileKey);
+        FileWarningSnapshotEvent event = null;
+        if (previous != null && previous.sequence + 1 < keyframeInterval && haveSameContext(warnings)) {
+            event = createDelta(document, fileKey, previous, warnings);
+        }
+        if (event == null) {
+            event = new FileWarningSnapshotEvent(document, fileKey, warnings);
+        }
+        if (fileKey != null) {
+            lastSnapshots.put(fileKey, new Snapshot(event.getSequence(), new ArrayList<>(warnings)));
+        }
+        return event;
+    }
+
+    /** Forgets all previous snapshots, so that the next snapshot of every file is a keyframe. */
+    public synchronized void clear() {
+        lastSnapshots.clear();
+    }
+
+    /**
+     * @return the hash of the project and path of the document. The project is part of the key, as the
+     *         path is relative to the project in Eclipse.
+     */
+    private static String createFileKey(Document document) {
+        String path = document.getFilePath() != null ? document.getFilePath() : document.getFileName();
+        if (path == null) {
+            return null;
+        }
+        String projectName = document.getProjectName() != null ? document.getProjectName() : "";
+        return WatchDogUtilsBase.createHash(projectName + '\n' + path);
+    }
+
+    /** @return whether all warnings were created at the same time, in a document of the same length. */
+    private static boolean haveSameContext(List<Warning<String>> warnings) {
+        for (int i = 1; i < warnings.size(); i++) {
+            if (warnings.get(i).docTotalLines != warnings.get(0).docTotalLines
+                    || !Objects.equals(warnings.get(i).warningCreationTime, warnings.get(0).warningCreationTime)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Matches the warnings greedily in order, which finds the unchanged warnings around a few added or
+     * removed ones in linear time.
+     *
+     * @return the delta, or <code>null</code> if it would not be smaller than a keyframe, which is always
+     *         the case for an empty snapshot.
+     */
+    private static FileWarningSnapshotEvent createDelta(Document document, String fileKey, Snapshot previous,
+                                                        List<Warning<String>> warnings) {
+        Map<String, Queue<Integer>> previousIndices = new HashMap<>();
+        for (int i = 0; i < previous.warnings.size(); i++) {
+            previousIndices.computeIfAbsent(createKey(previous.warnings.get(i)), key -> new ArrayDeque<>()).add(i);
+        }
+
+        boolean[] isKept = new boolean[previous.warnings.size()];
+        List<Integer> addedIndices = new ArrayList<>();
+        List<Warning<String>> addedWarnings = new ArrayList<>();
+        int lastKept = -1;
+        for (int i = 0; i < warnings.size(); i++) {
+            Queue<Integer> indices = previousIndices.get(createKey(warnings.get(i)));
+            while (indices != null && !indices.isEmpty() && indices.peek() < lastKept) {
+                indices.poll();
+            }
+            if (indices != null && !indices.isEmpty()) {
+                lastKept = indices.poll();
+                isKept[lastKept] = true;
+            } else {
+                addedIndices.add(i);
+                addedWarnings.add(warnings.get(i));
+            }
+        }
+
+        List<Integer> removedIndices = new ArrayList<>();
+        for (int i = 0; i < isKept.length; i++) {
+            if (!isKept[i]) {
+                removedIndices.add(i);
+            }
+        }
+        if (addedWarnings.size() + removedIndices.size() >= warnings.size()) {
+            return null;
+        }
+
+        Warning<String> first = warnings.get(0);
+        return new FileWarningSnapshotEvent(document, fileKey, previous.sequence + 1, first.warningCreationTime,
+                first.docTotalLines, toArray(removedIndices), toArray(addedIndices), addedWarnings);
+    }
+
+    /** @return the attributes of the warning that a delta does not store once for all warnings. */
+    static String createKey(Warning<String> warning) {
+        return warning.type + '\n' + warning.lineNumber + '\n' + warning.secondsBetween;
+    }
+
+    private static int[] toArray(List<Integer> list) {
+        int[] array = new int[list.size()];
+        for (int i = 0; i < array.length; i++) {
+            array[i] = list.get(i);
+        }
+        return array;
+    }
+
+    private static class Snapshot {
+
+        private final int sequence;
+
+        private final List<Warning<String>> warnings;
+
+        private Snapshot(int sequence, List<Warning<String>> warnings) {
+            this.sequence = sequence;
+            this.warnings = warnings;
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package nl.tudelft.watchdog.core.util;
+
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A wall clock for the hot path, which returns a cached time that a task on
+ * the {@link WatchDogScheduler} updates every {@link #RESOLUTION}
+ * milliseconds. Reading it is a single volatile read.
+ *
+ * To not wake up the IDE while the user is idle, the task stops updating
+ * once the clock was not read for {@link #IDLE_TIMEOUT} milliseconds. Reads
+ * at a slower cadence than the resolution, e.g. on every keystroke, thus keep
+ * the task running rather than starting a new one. The first read after the
+ * task stopped takes the time from the system and restarts the task.
+ */
+public class CoarseClock extends WatchDogClock {
+
+	/** The update interval of the cached time, in milliseconds. */
+	public static final long RESOLUTION = 10;
+
+	/** The time without reads after which the updates stop, in milliseconds. */
+	public static final long IDLE_TIMEOUT = 5 * 1000;
+
+	private static final long IDLE_TICKS = IDLE_TIMEOUT / RESOLUTION;
+
+	private volatile long cachedTime;
+
+	private volatile boolean isTicking;
+
+	/**
+	 * Whether the clock was read since the last update. Deliberately not
+	 * volatile: a missed read only stops the updates one tick early.
+	 */
+	private boolean wasRead;
+
+	/** The number of updates since the clock was last read. */
+	private long idleTicks;
+
+	private ScheduledFuture<?> tick;
+
+	@Override
+	public long currentTimeMillis() {
+		if (!isTicking) {
+			startTicking();
+			return cachedTime;
+		}
+		wasRead = true;
+		return cachedTime;
+	}
+
+	@Override
+	public long nanoTime() {
+		return System.nanoTime();
+	}
+
+	private synchronized void startTicking() {
+		cachedTime = System.currentTimeMillis();
+		if (isTicking) {
+			return;
+		}
+		idleTicks = 0;
+		isTicking = true;
+		tick = WatchDogScheduler.getScheduler().scheduleAtFixedRate(this::update, RESOLUTION, RESOLUTION,
+				TimeUnit.MILLISECONDS);
+	}
+
+	private synchronized void update() {
+		if (wasRead) {
+			wasRead = false;
+			idleTicks = 0;
+		} else if (++idleTicks >= IDLE_TICKS) {
+			isTicking = false;
+			tick.cancel(false);
+			tick = null;
+			return;
+		}
+		cachedTime = System.currentTimeMillis();
+	}
+}
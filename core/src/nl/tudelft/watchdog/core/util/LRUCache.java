@@ -0,0 +1,95 @@
+package nl.tudelft.watchdog.core.util;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * A thread-safe, bounded least-recently-used cache, which memoizes the results
+ * of a loading function and counts its hits and misses. <code>null</code>
+ * results are cached as well.
+ *
+ * Values are loaded outside of the lock, so that a slow loader does not block
+ * other threads. Two threads missing the same key at the same time can both
+ * load it, hence loaders must be side-effect free.
+ */
+public class LRUCache<K, V> {
+
+	/** Stands in for cached <code>null</code> values. */
+	private static final Object NULL = new Object();
+
+	private final Map<K, Object> entries;
+
+	private long hits;
+
+	private long misses;
+
+	/** Constructor. */
+	public LRUCache(final int capacity) {
+		this.entries = new LinkedHashMap<K, Object>(16, 0.75f, true) {
+
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<K, Object> eldest) {
+				return size() > capacity;
+			}
+		};
+	}
+
+	/**
+	 * @return the cached value for the key, or the value computed by the loader
+	 *         if the key is not cached.
+	 */
+	public V get(K key, Function<? super K, ? extends V> loader) {
+		synchronized (this) {
+			Object value = entries.get(key);
+			if (value != null) {
+				hits++;
+				return unmask(value);
+			}
+			misses++;
+		}
+		V value = loader.apply(key);
+		synchronized (this) {
+			entries.put(key, value == null ? NULL : value);
+		}
+		return value;
+	}
+
+	/** Removes the given key from the cache. */
+	public synchronized void invalidate(K key) {
+		entries.remove(key);
+	}
+
+	/** Removes all keys from the cache. Keeps the hit and miss counts. */
+	public synchronized void clear() {
+		entries.clear();
+	}
+
+	/** @return the number of cached keys. */
+	public synchronized int size() {
+		return entries.size();
+	}
+
+	/** @return how often a value was found in the cache. */
+	public synchronized long getHits() {
+		return hits;
+	}
+
+	/** @return how often a value had to be loaded. */
+	public synchronized long getMisses() {
+		return misses;
+	}
+
+	/** @return the share of lookups that were found in the cache. */
+	public synchronized double getHitRate() {
+		long lookups = hits + misses;
+		return lookups == 0 ? 0 : (double) hits / lookups;
+	}
+
+	@SuppressWarnings("unchecked")
+	private V unmask(Object value) {
+		return value == NULL ? null : (V) value;
+	}
+}
@@ -0,0 +1,38 @@
+package nl.tudelft.watchdog.core.util;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A clock that only moves when it is told to, for tests, simulations and the
+ * replay of recorded events. Its monotonic time advances together with its
+ * wall-clock time.
+ */
+public class VirtualClock extends WatchDogClock {
+
+	private volatile long time;
+
+	/** Constructor. Starts the clock at the given time. */
+	public VirtualClock(long startTime) {
+		this.time = startTime;
+	}
+
+	@Override
+	public long currentTimeMillis() {
+		return time;
+	}
+
+	@Override
+	public long nanoTime() {
+		return TimeUnit.MILLISECONDS.toNanos(time);
+	}
+
+	/** Sets the clock to the given time in milliseconds since the epoch. */
+	public synchronized void setTime(long time) {
+		this.time = time;
+	}
+
+	/** Advances the clock by the given number of milliseconds. */
+	public synchronized void advance(long millis) {
+		this.time += millis;
+	}
+}
@@ -0,0 +1,66 @@
+package nl.tudelft.watchdog.core.util;
+
+import java.util.Date;
+
+/**
+ * The source of time for WatchDog. All of WatchDog's timestamps are taken
+ * from the clock returned by {@link #get()}, so that tests, benchmarks and
+ * replays can replace the system clock with a {@link VirtualClock}.
+ *
+ * This is an abstract class rather than an interface, as it also holds the
+ * clock in use. Implementations only provide the wall-clock and the monotonic
+ * time.
+ */
+public abstract class WatchDogClock {
+
+	/** The clock of the operating system. */
+	public static final WatchDogClock SYSTEM = new WatchDogClock() {
+		@Override
+		public long currentTimeMillis() {
+			return System.currentTimeMillis();
+		}
+
+		@Override
+		public long nanoTime() {
+			return System.nanoTime();
+		}
+	};
+
+	private static volatile WatchDogClock clock = new CoarseClock();
+
+	/**
+	 * @return the clock WatchDog currently uses, by default a
+	 *         {@link CoarseClock}.
+	 */
+	public static WatchDogClock get() {
+		return clock;
+	}
+
+	/**
+	 * Replaces the clock WatchDog uses.
+	 *
+	 * @return the previously used clock, so that it can be restored.
+	 */
+	public static WatchDogClock set(WatchDogClock newClock) {
+		WatchDogClock previousClock = clock;
+		clock = newClock;
+		return previousClock;
+	}
+
+	/**
+	 * @return the wall-clock time in milliseconds since the epoch, see
+	 *         {@link System#currentTimeMillis()}.
+	 */
+	public abstract long currentTimeMillis();
+
+	/**
+	 * @return the monotonic time in nanoseconds, see {@link System#nanoTime()}.
+	 *         Only differences between two values are meaningful.
+	 */
+	public abstract long nanoTime();
+
+	/** @return the current wall-clock time as a new {@link Date}. */
+	public Date now() {
+		return new Date(currentTimeMillis());
+	}
+}
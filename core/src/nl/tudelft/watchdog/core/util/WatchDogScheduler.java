@@ -0,0 +1,32 @@
+package nl.tudelft.watchdog.core.util;
+
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+
+/**
+ * A scheduler shared by all of WatchDog's periodic background tasks, so that
+ * they do not each need their own timer thread. Tasks must be short, as they
+ * run one after another on a single daemon thread.
+ */
+public class WatchDogScheduler {
+
+	private static volatile ScheduledExecutorService scheduler;
+
+	/** @return the shared scheduler, which is created on first use. */
+	public static ScheduledExecutorService getScheduler() {
+		if (scheduler == null) {
+			synchronized (WatchDogScheduler.class) {
+				if (scheduler == null) {
+					ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1, runnable -> {
+						Thread thread = new Thread(runnable, "WatchDog scheduler");
+						thread.setDaemon(true);
+						return thread;
+					});
+					executor.setRemoveOnCancelPolicy(true);
+					scheduler = executor;
+				}
+			}
+		}
+		return scheduler;
+	}
+}
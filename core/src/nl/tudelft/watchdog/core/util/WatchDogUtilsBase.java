@@ -2,11 +2,12 @@ package nl.tudelft.watchdog.core.util;
 
 import java.io.UnsupportedEncodingException;
 import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.function.Function;
 import java.util.regex.Pattern;
 
-import org.apache.commons.codec.digest.DigestUtils;
-
 import com.google.gson.Gson;
 
 import nl.tudelft.watchdog.core.ui.preferences.PreferencesBase;
@@ -18,12 +19,69 @@ public abstract class WatchDogUtilsBase {
 	/** The maximum permissible file size (in Bytes). */
 	public static int MAX_FILE_SIZE = 200*1024;
 
+	/** The number of hashes that are memoized, per kind of hash. */
+	public static final int HASH_CACHE_CAPACITY = 1024;
+
+	/**
+	 * The same handful of file, project and test names is hashed for every
+	 * document, test run and warning, so their hashes are memoized.
+	 */
+	private static final LRUCache<String, String> HASHES = new LRUCache<String, String>(HASH_CACHE_CAPACITY);
+
+	private static final LRUCache<String, String> FILE_NAME_HASHES = new LRUCache<String, String>(
+			HASH_CACHE_CAPACITY);
+
+	private static final ThreadLocal<MessageDigest> SHA1_DIGEST = new ThreadLocal<MessageDigest>() {
+		@Override
+		protected MessageDigest initialValue() {
+			try {
+				return MessageDigest.getInstance("SHA-1");
+			} catch (NoSuchAlgorithmException exception) {
+				// Every Java platform must support SHA-1.
+				throw new IllegalStateException(exception);
+			}
+		}
+	};
+
+	/** The two lower-case hex digits of every byte value. */
+	private static final char[] HEX_TABLE = new char[512];
+
+	static {
+		char[] digits = "0123456789abcdef".toCharArray();
+		for (int value = 0; value < 256; value++) {
+			HEX_TABLE[2 * value] = digits[value >>> 4];
+			HEX_TABLE[2 * value + 1] = digits[value & 0xF];
+		}
+	}
+
 	/**
 	 * @return A hash code for the given String, so that it is completely
 	 *         anonymous.
 	 */
 	public static String createHash(String name) {
-		return DigestUtils.sha1Hex(name);
+		return HASHES.get(name, WatchDogUtilsBase::sha1Hex);
+	}
+
+	/** @return the lower-case hex SHA-1 digest of the UTF-8 bytes of the text. */
+	private static String sha1Hex(String text) {
+		byte[] digest = SHA1_DIGEST.get().digest(text.getBytes(StandardCharsets.UTF_8));
+		char[] hex = new char[2 * digest.length];
+		for (int i = 0; i < digest.length; i++) {
+			int value = digest[i] & 0xFF;
+			hex[2 * i] = HEX_TABLE[2 * value];
+			hex[2 * i + 1] = HEX_TABLE[2 * value + 1];
+		}
+		return new String(hex);
+	}
+
+	/** @return the memoized results of {@link #createHash(String)}. */
+	public static LRUCache<String, String> getHashCache() {
+		return HASHES;
+	}
+
+	/** @return the memoized results of {@link #createFileNameHash(String)}. */
+	public static LRUCache<String, String> getFileNameHashCache() {
+		return FILE_NAME_HASHES;
 	}
 
 	/**
@@ -40,10 +98,14 @@ public abstract class WatchDogUtilsBase {
 	 * @return A hash for the given filename.
 	 */
 	public static String createFileNameHash(String fileName) {
-		String hashedName = "";
 		if (isEmpty(fileName)) {
-			return hashedName;
+			return "";
 		}
+		return FILE_NAME_HASHES.get(fileName, WatchDogUtilsBase::computeFileNameHash);
+	}
+
+	private static String computeFileNameHash(String fileName) {
+		String hashedName = "";
 		String lowerCaseFileName = fileName.toLowerCase().replaceFirst(Pattern.quote(".") + "java$", "");
 
 		// Strip-away fully-qualified path from filename (necessary when project
@@ -62,19 +124,35 @@ public abstract class WatchDogUtilsBase {
 	}
 
 	/**
-	 * @return the number of source lines of code in the given string.
+	 * @return the number of source lines of code in the given text, i.e. the
+	 *         number of lines that contain other characters than whitespace.
+	 *         Does not allocate.
 	 */
-	public static long countSLOC(String text) {
-		String[] lines = text.split("\r\n|\r|\n");
+	public static long countSLOC(CharSequence text) {
 		long sloc = 0;
-		for (String line : lines) {
-			if (!isEmptyOrHasOnlyWhitespaces(line)) {
-				sloc++;
+		boolean lineHasCode = false;
+		for (int i = 0; i < text.length(); i++) {
+			char character = text.charAt(i);
+			if (isLineSeparator(character)) {
+				if (lineHasCode) {
+					sloc++;
+					lineHasCode = false;
+				}
+			} else if (character > ' ') {
+				// Same definition of whitespace as String.trim()
+				lineHasCode = true;
 			}
 		}
+		if (lineHasCode) {
+			sloc++;
+		}
 		return sloc;
 	}
 
+	private static boolean isLineSeparator(char character) {
+		return character == '\n' || character == '\r';
+	}
+
 	/**
 	 * @return Whether the string with white spaces trimmed is empty.
 	 */
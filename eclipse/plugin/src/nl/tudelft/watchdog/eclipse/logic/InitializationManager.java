@@ -1,7 +1,10 @@
 package nl.tudelft.watchdog.eclipse.logic;
 
 import java.io.File;
+import java.util.concurrent.RejectedExecutionException;
 
+import org.eclipse.swt.SWTException;
+import org.eclipse.swt.widgets.Display;
 import org.eclipse.ui.texteditor.ITextEditor;
 
 import nl.tudelft.watchdog.core.logic.document.Document;
@@ -9,8 +12,11 @@ import nl.tudelft.watchdog.core.logic.document.EditorWrapperBase;
 import nl.tudelft.watchdog.core.logic.event.TrackingEventManager;
 import nl.tudelft.watchdog.core.logic.interval.IDEIntervalManagerBase;
 import nl.tudelft.watchdog.core.logic.interval.intervaltypes.PerspectiveInterval;
+import nl.tudelft.watchdog.core.logic.storage.JsonExportSink;
 import nl.tudelft.watchdog.core.logic.storage.PersisterBase;
+import nl.tudelft.watchdog.core.logic.storage.WatchDogItemSink;
 import nl.tudelft.watchdog.core.logic.ui.TimeSynchronityChecker;
+import nl.tudelft.watchdog.core.logic.ui.events.WatchDogEventRecorder;
 import nl.tudelft.watchdog.core.logic.ui.events.WatchDogEventType;
 import nl.tudelft.watchdog.core.logic.ui.events.WatchDogEventType.WatchDogEventEditorSpecificImplementation;
 import nl.tudelft.watchdog.core.util.WatchDogGlobals;
@@ -63,9 +69,28 @@ public class InitializationManager {
 		trackingEventManager = new TrackingEventManager(toTransferPersister,
 				statisticsPersister);
 		trackingEventManager.setSessionSeed(intervalManager.getSessionSeed());
+		WatchDogItemSink exportSink = JsonExportSink.getRequestedSink();
+		if (exportSink != null) {
+			intervalManager.addSink(exportSink);
+			trackingEventManager.addSink(exportSink);
+		}
+
+		// The UI thread owns the interval manager.
+		final Display display = Display.getDefault();
+		intervalManager.confineTo(display.getThread(), command -> {
+			if (display.isDisposed()) {
+				throw new RejectedExecutionException("The display is disposed.");
+			}
+			try {
+				display.asyncExec(command);
+			} catch (SWTException exception) {
+				throw new RejectedExecutionException(exception);
+			}
+		});
 
 		WatchDogEventType.intervalManager = intervalManager;
 		WatchDogEventType.editorSpecificImplementation = new EclipseWatchDogEventSpecificImplementation(intervalManager);
+		WatchDogEventRecorder.startRecordingIfRequested();
 
 		new TimeSynchronityChecker(intervalManager);
 
@@ -102,10 +127,15 @@ public class InitializationManager {
 	}
 
 	/**
-	 * Closes the database. The database can recover even if it is not closed
-	 * properly, but it is good practice to close it anyway.
+	 * Drops the interval commands still queued for the UI thread, saves the
+	 * items still queued for the statistics and closes the database. The
+	 * database can recover even if it is not closed properly, but it is good
+	 * practice to close it anyway.
 	 */
 	public void shutdown() {
+		intervalManager.stopExecution();
+		intervalManager.closeStatisticsSink();
+		trackingEventManager.closeStatisticsSink();
 		toTransferPersister.closeDatabase();
 		statisticsPersister.closeDatabase();
 	}
@@ -1,12 +1,14 @@
 package nl.tudelft.watchdog.eclipse.logic.document;
 
 import nl.tudelft.watchdog.core.logic.document.Document;
+import nl.tudelft.watchdog.core.logic.document.DocumentCache;
 import nl.tudelft.watchdog.core.util.ContentReaderException;
 import nl.tudelft.watchdog.core.util.WatchDogLogger;
 import nl.tudelft.watchdog.eclipse.util.WatchDogUtils;
 
 import org.eclipse.core.resources.IFile;
 import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IResource;
 import org.eclipse.ui.IWorkbenchPart;
 import org.eclipse.ui.texteditor.ITextEditor;
 
@@ -14,6 +16,9 @@ import org.eclipse.ui.texteditor.ITextEditor;
  * A factory for creating {@link Document}s from a supplied {@link ITextEditor}.
  */
 public class DocumentCreator {
+
+    private static final DocumentCache CACHE = new DocumentCache(DocumentCache.DEFAULT_CAPACITY);
+
     /**
      * Factory method that creates and returns a {@link Document} from a given
      * {@link IWorkbenchPart}. For this to succeed, it is necessary that the the
@@ -32,27 +37,38 @@ public class DocumentCreator {
 
     }
 
+    /**
+     * Creates the {@link Document} for the given file. Documents of unchanged
+     * files are prepared with the statistics of the {@link DocumentCache},
+     * otherwise they are prepared later by the closer of their interval.
+     */
     public static Document createDocument(String title, IFile file) {
-        return createDocument(title, file, WatchDogUtils.getContentForFileFromDisk(file));
-    }
-
-    private static Document createDocument(String title, IFile file, String content) {
+        long modificationStamp = file.getModificationStamp();
         String activeProjectName = null;
         String filePath = "";
+        String fullPath = null;
         try {
             IProject activeProject = file.getProject();
             activeProjectName = activeProject.getName();
             filePath = file.getProjectRelativePath().toString();
+            fullPath = file.getFullPath().toString();
         } catch (IllegalArgumentException ex) {
             // Intentionally left empty
         }
 
+        String content = getContentForFile(file);
+        if (fullPath == null || modificationStamp == IResource.NULL_STAMP) {
+            return new Document(activeProjectName, title, filePath, content);
+        }
+        return CACHE.createDocument(fullPath, modificationStamp, activeProjectName, title, filePath, content);
+    }
+
+    private static String getContentForFile(IFile file) {
         try {
-            return new Document(activeProjectName, title, filePath,
-                    WatchDogUtils.getContentForFileFromDisk(file));
+            return WatchDogUtils.getContentForFileFromDisk(file);
         } catch (IllegalArgumentException exception) {
             WatchDogLogger.getInstance().logSevere(exception);
         }
-        return new Document(activeProjectName, title, filePath, null);
+        return null;
     }
 }
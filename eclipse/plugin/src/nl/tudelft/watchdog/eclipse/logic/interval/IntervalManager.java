@@ -1,10 +1,12 @@
 package nl.tudelft.watchdog.eclipse.logic.interval;
 
 import nl.tudelft.watchdog.core.logic.interval.IDEIntervalManagerBase;
+import nl.tudelft.watchdog.core.logic.interval.intervaltypes.IntervalBase;
 import nl.tudelft.watchdog.core.logic.interval.intervaltypes.TypingInterval;
 import nl.tudelft.watchdog.core.logic.storage.PersisterBase;
 import nl.tudelft.watchdog.eclipse.logic.document.DocumentCreator;
 import nl.tudelft.watchdog.eclipse.logic.document.EditorWrapper;
+import nl.tudelft.watchdog.eclipse.logic.interval.intervaltypes.JUnitInterval;
 
 /** The interval manager for the Eclipse plugin */
 public class IntervalManager extends IDEIntervalManagerBase {
@@ -21,4 +23,13 @@ public class IntervalManager extends IDEIntervalManagerBase {
 				((EditorWrapper) typingInterval.getEditorWrapper())
 						.getEditor()));
 	}
+
+	/** Aggregates the statistics of JUnit intervals per execution result. */
+	@Override
+	protected Object getStatisticsDetailKey(IntervalBase interval) {
+		if (interval instanceof JUnitInterval) {
+			return ((JUnitInterval) interval).getExecutionResult();
+		}
+		return null;
+	}
 }
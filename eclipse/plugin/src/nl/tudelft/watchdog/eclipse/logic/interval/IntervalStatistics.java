@@ -1,9 +1,8 @@
 package nl.tudelft.watchdog.eclipse.logic.interval;
 
-import java.util.List;
-
 import nl.tudelft.watchdog.core.logic.interval.IDEIntervalManagerBase;
 import nl.tudelft.watchdog.core.logic.interval.IntervalStatisticsBase;
+import nl.tudelft.watchdog.core.logic.interval.intervaltypes.IntervalType;
 import nl.tudelft.watchdog.eclipse.logic.interval.intervaltypes.JUnitInterval;
 
 /**
@@ -21,22 +20,11 @@ public class IntervalStatistics extends IntervalStatisticsBase {
 
 	@Override
 	protected void calculateJUnitStatistics() {
-		List<JUnitInterval> junitIntervals = getIntervals(JUnitInterval.class);
-		junitRunsCount = junitIntervals.size();
-		averageTestDuration = getPreciseTime(aggregateDurations(junitIntervals))
+		junitRunsCount = snapshot.getCount(IntervalType.JUNIT);
+		averageTestDuration = getPreciseTime(snapshot.getDuration(IntervalType.JUNIT))
 				/ junitRunsCount;
-		junitSuccessfulRunsCount = 0;
-		junitFailedRunsCount = 0;
-
-		for (JUnitInterval jUnitInterval : junitIntervals) {
-			switch (jUnitInterval.getExecutionResult()) {
-			case OK:
-				junitSuccessfulRunsCount++;
-				break;
-			case FAILURE:
-				junitFailedRunsCount++;
-			}
-		}
+		junitSuccessfulRunsCount = snapshot.getCount(JUnitInterval.ExecutionResult.OK);
+		junitFailedRunsCount = snapshot.getCount(JUnitInterval.ExecutionResult.FAILURE);
 	}
 
 }
@@ -1,8 +1,11 @@
 package nl.tudelft.watchdog.eclipse.logic.ui.listeners;
 
 import org.eclipse.jface.text.DocumentEvent;
+import org.eclipse.jface.text.DocumentRewriteSessionEvent;
 import org.eclipse.jface.text.IDocument;
+import org.eclipse.jface.text.IDocumentExtension4;
 import org.eclipse.jface.text.IDocumentListener;
+import org.eclipse.jface.text.IDocumentRewriteSessionListener;
 import org.eclipse.swt.custom.CaretEvent;
 import org.eclipse.swt.custom.CaretListener;
 import org.eclipse.swt.custom.StyledText;
@@ -15,14 +18,17 @@ import org.eclipse.ui.IEditorPart;
 import org.eclipse.ui.texteditor.IDocumentProvider;
 import org.eclipse.ui.texteditor.ITextEditor;
 
+import nl.tudelft.watchdog.core.logic.ui.EditAggregator;
 import nl.tudelft.watchdog.core.logic.ui.events.WatchDogEventType;
 
 /** Enriches an {@link IEditorPart} for all user-triggered events. */
 public class EditorListener {
 	private final ITextEditor editor;
+	private final EditAggregator edits;
 
 	private IDocument document;
 	private IDocumentListener documentListener;
+	private IDocumentRewriteSessionListener rewriteSessionListener;
 	private CaretListener caretListener;
 	private FocusListener focusListener;
 	private StyledText styledText;
@@ -31,6 +37,7 @@ public class EditorListener {
 	/** Enriches the supplied editor with all suitable listeners. */
 	public EditorListener(ITextEditor editor) {
 		this.editor = editor;
+		this.edits = new EditAggregator(editor);
 		listenToDocumentChanges();
 		listenToEditorScrolling();
 	}
@@ -38,6 +45,8 @@ public class EditorListener {
 	/**
 	 * Adds a document change listener to the supplied editor. Fires a
 	 * {@link StartEditingEditorEvent} when a change to a document is made.
+	 * Rewrite sessions, which e.g. refactorings and the formatter use, are
+	 * aggregated into a single edit.
 	 *
 	 * @param partEditor
 	 * @throws IllegalArgumentException
@@ -65,15 +74,29 @@ public class EditorListener {
 				}
 
 				int modCount = Math.max(event.getLength(), textLength);
-				WatchDogEventType.SUBSEQUENT_EDIT.process(new WatchDogEventType.EditorWithModCount(editor, modCount));
+				edits.changed(modCount);
 			}
 
 			@Override
 			public void documentAboutToBeChanged(DocumentEvent event) {
-				WatchDogEventType.START_EDIT.process(editor);
+				edits.beforeChange();
 			}
 		};
 		document.addDocumentListener(documentListener);
+
+		if (document instanceof IDocumentExtension4) {
+			rewriteSessionListener = new IDocumentRewriteSessionListener() {
+				@Override
+				public void documentRewriteSessionChanged(DocumentRewriteSessionEvent event) {
+					if (event.getChangeType() == DocumentRewriteSessionEvent.SESSION_START) {
+						edits.startBulkEdit();
+					} else if (event.getChangeType() == DocumentRewriteSessionEvent.SESSION_STOP) {
+						edits.endBulkEdit();
+					}
+				}
+			};
+			((IDocumentExtension4) document).addDocumentRewriteSessionListener(rewriteSessionListener);
+		}
 	}
 
 	private void listenToEditorScrolling() {
@@ -117,6 +140,9 @@ public class EditorListener {
 	/** Removes all listeners registered with this editor. */
 	public void removeListeners() {
 		document.removeDocumentListener(documentListener);
+		if (rewriteSessionListener != null) {
+			((IDocumentExtension4) document).removeDocumentRewriteSessionListener(rewriteSessionListener);
+		}
 		if (styledText == null) {
 			return;
 		}
@@ -17,6 +17,7 @@ import nl.tudelft.watchdog.eclipse.logic.event.listeners.BreakpointListener;
 import nl.tudelft.watchdog.eclipse.logic.event.listeners.DebugEventListener;
 import nl.tudelft.watchdog.eclipse.logic.network.TransferManager;
 import nl.tudelft.watchdog.eclipse.logic.ui.listeners.staticanalysis.EclipseMarkupModelListener;
+import nl.tudelft.watchdog.eclipse.logic.ui.listeners.staticanalysis.ResourceAndResourceDeltaVisitor;
 
 /**
  * Sets up the listeners for eclipse UI events and registers the shutdown
@@ -82,7 +83,9 @@ public class WorkbenchListener {
         this.markupModelListener = new EclipseMarkupModelListener(this.trackingEventManager);
         workspace.addResourceChangeListener(this.markupModelListener, IResourceChangeEvent.POST_BUILD);
         try {
-            workspace.getRoot().accept(this.markupModelListener.createVisitor(false));
+            ResourceAndResourceDeltaVisitor visitor = this.markupModelListener.createVisitor(false);
+            workspace.getRoot().accept(visitor);
+            visitor.submit();
         } catch (CoreException e) {
             e.printStackTrace();
         }
@@ -97,6 +100,7 @@ public class WorkbenchListener {
 					final boolean forced) {
 				IWorkspace workspace = ResourcesPlugin.getWorkspace();
 				workspace.removeResourceChangeListener(getMarkupModelListener());
+				getMarkupModelListener().close();
 				WatchDogEventType.END_IDE.process(workbench);
 				InitializationManager.getInstance().getIntervalManager().closeAllIntervals();
 				transferManager.sendItemsImmediately();
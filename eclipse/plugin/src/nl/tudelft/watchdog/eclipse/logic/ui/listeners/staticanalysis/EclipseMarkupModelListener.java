@@ -1,67 +1,101 @@
 package nl.tudelft.watchdog.eclipse.logic.ui.listeners.staticanalysis;
 
-import java.util.HashMap;
-import java.util.List;
+import java.io.File;
 import java.util.Locale;
-import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 import org.eclipse.core.resources.IResourceChangeEvent;
 import org.eclipse.core.resources.IResourceChangeListener;
 import org.eclipse.core.runtime.CoreException;
-import org.eclipse.core.runtime.IPath;
 import org.eclipse.jdt.internal.compiler.problem.DefaultProblemFactory;
 import org.eclipse.jdt.internal.compiler.util.HashtableOfInt;
 
 import nl.tudelft.watchdog.core.logic.event.TrackingEventManager;
-import nl.tudelft.watchdog.core.logic.ui.listeners.staticanalysis.CheckStyleChecksMessagesFetcher;
+import nl.tudelft.watchdog.core.logic.ui.listeners.staticanalysis.CheckStyleBundleLoader;
+import nl.tudelft.watchdog.core.logic.ui.listeners.staticanalysis.ClassificationBundleCache;
 import nl.tudelft.watchdog.core.logic.ui.listeners.staticanalysis.CoreMarkupModelListener;
 import nl.tudelft.watchdog.core.logic.ui.listeners.staticanalysis.StaticAnalysisMessageClassifier;
+import nl.tudelft.watchdog.core.logic.ui.listeners.staticanalysis.WarningLifetimeIndex;
 import nl.tudelft.watchdog.core.util.WatchDogLogger;
+import nl.tudelft.watchdog.eclipse.Activator;
 
 @SuppressWarnings("restriction")
 public class EclipseMarkupModelListener extends CoreMarkupModelListener implements IResourceChangeListener {
 
 	static final String CHECKSTYLE_MARKER_ID = "net.sf.eclipsecs.core.CheckstyleMarker";
 
+    private static final String BUNDLE_CACHE_FILE_NAME = "ideClassificationBundle.cache";
+
+    private static final String LIFETIME_INDEX_DIRECTORY_NAME = "warningLifetimes";
+
     static {
         HashtableOfInt hashTable = DefaultProblemFactory.loadMessageTemplates(Locale.getDefault());
+        ClassificationBundleCache bundleCache = new ClassificationBundleCache(getStateFile(BUNDLE_CACHE_FILE_NAME));
 
         for (int key : hashTable.keyTable) {
             Object value = hashTable.get(key);
             if (value != null && value instanceof String) {
-                StaticAnalysisMessageClassifier.IDE_BUNDLE.addMessage(String.valueOf(key), (String) value);
+                bundleCache.addMessage(String.valueOf(key), (String) value);
             }
         }
 
-        StaticAnalysisMessageClassifier.IDE_BUNDLE.sortList();
+        bundleCache.loadInto(StaticAnalysisMessageClassifier.IDE_BUNDLE);
 
-        try {
-            CheckStyleChecksMessagesFetcher.addCheckStyleMessagesToBundle(EclipseMarkupModelListener.class.getClassLoader());
+        // Loading all CheckStyle checks takes a while, so do it in the background. If CheckStyle is not
+        // installed, the bundle stays empty.
+        CheckStyleBundleLoader.load(EclipseMarkupModelListener.class.getClassLoader(),
+                EclipseMarkupModelListener.class, null);
+    }
+
+    /** The time to wait at shutdown for the markers of the last builds. */
+    private static final long CLOSE_TIMEOUT_SECONDS = 5;
 
-            StaticAnalysisMessageClassifier.CHECKSTYLE_BUNDLE.sortList();
-        } catch (Throwable ignored) {
-            // CheckStyle apparently was not loaded, bail out
+	private final MarkerSnapshotProcessor processor;
+
+    /**
+     * @return the file with the given name in the plugin's state location, or <code>null</code> if the
+     *         plugin is not active.
+     */
+    private static File getStateFile(String name) {
+        Activator activator = Activator.getDefault();
+        if (activator == null) {
+            return null;
         }
+        return new File(activator.getStateLocation().toFile(), name);
     }
 
-	private TrackingEventManager trackingEventManager;
-	private final Map<IPath, List<MarkerHolder>> currentFileMarkers;
-
     public EclipseMarkupModelListener(TrackingEventManager trackingEventManager) {
-        this.trackingEventManager = trackingEventManager;
-        currentFileMarkers = new HashMap<>();
+        this.processor = new MarkerSnapshotProcessor(trackingEventManager,
+                new WarningLifetimeIndex(getStateFile(LIFETIME_INDEX_DIRECTORY_NAME)));
     }
 
+    /**
+     * Captures the markers of the build and processes them in the background, so that the build does not
+     * wait for WatchDog.
+     */
     @Override
     public void resourceChanged(IResourceChangeEvent event) {
         try {
-            event.getDelta().accept(this.createVisitor(false));
+            ResourceAndResourceDeltaVisitor visitor = this.createVisitor(false);
+            event.getDelta().accept(visitor);
+            visitor.submit();
         } catch (CoreException e) {
             WatchDogLogger.getInstance().logSevere(e.getMessage());
         }
     }
 
+    /**
+     * @return a visitor whose captured markers are processed in the background once
+     *         {@link ResourceAndResourceDeltaVisitor#submit()} is called.
+     */
     public ResourceAndResourceDeltaVisitor createVisitor(boolean shouldCreateSnapshot) {
-        return new ResourceAndResourceDeltaVisitor(this.trackingEventManager, currentFileMarkers, shouldCreateSnapshot);
+        return new ResourceAndResourceDeltaVisitor(this.processor, shouldCreateSnapshot);
+    }
+
+    /** Waits until the markers of all builds so far are processed, and stops processing new ones. */
+    public void close() {
+        if (!processor.close(CLOSE_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+            WatchDogLogger.getInstance().logSevere("Markers of the last build were not processed before shutdown.");
+        }
     }
 }
@@ -0,0 +1,312 @@
+package nl.tudelft.watchdog.eclipse.logic.ui.listeners.staticanalysis;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.joda.time.DateTime;
+import org.joda.time.Seconds;
+
+import nl.tudelft.watchdog.core.logic.ui.listeners.staticanalysis.CoreMarkupModelListener;
+import nl.tudelft.watchdog.core.logic.ui.listeners.staticanalysis.Warning;
+import nl.tudelft.watchdog.core.util.WatchDogClock;
+
+/**
+ * Computes the markers that were created and removed between two lists of markers, with the
+ * difference algorithm of Myers. It takes O((n + m) * D) time, where D is the number of created and
+ * removed markers, and O(n + m) space, so that files with thousands of markers do not need a
+ * quadratic table.
+ *
+ * The result is exactly the one of the classic backtracking through a table of longest common
+ * subsequences: walking both lists from their ends, equal markers are matched whenever possible and
+ * otherwise a marker is considered created, unless that makes the difference longer. In the edit graph
+ * of the reversed lists, this walk follows the maximal snakes and, after every edit, stays on the
+ * highest diagonal on which an optimal path can be after that many edits. That diagonal is found by
+ * meeting the furthest reaching paths from the start and from the end in the middle, like the linear
+ * space refinement of Myers. The walk then continues from its own position towards the points on that
+ * diagonal, which splits it into two halves that are solved in the same way.
+ *
+ * @see "E. W. Myers, An O(ND) Difference Algorithm and Its Variations, Algorithmica 1(2), 1986"
+ */
+class MarkerDiffAlgorithm {
+
+    /** Marks a diagonal that the forward paths did not reach. */
+    private static final int UNREACHED_FORWARD = Integer.MIN_VALUE;
+
+    /** Marks a diagonal that the backward paths did not reach. */
+    private static final int UNREACHED_BACKWARD = Integer.MAX_VALUE;
+
+    private final List<MarkerHolder> oldMarkers;
+    private final List<MarkerHolder> currentMarkers;
+    private final int oldSize;
+    private final int currentSize;
+
+    /**
+     * The keys of the markers in reverse order, so that the walk runs forward. Markers are equal if
+     * their messages are equal, so every distinct message is given its own key.
+     */
+    private final int[] oldKeys;
+    private final int[] currentKeys;
+
+    /** The furthest reaching paths per diagonal, see {@link #forwardLevel(int, int, int)}. */
+    private final int[] forward;
+
+    /** The furthest reaching reversed paths per diagonal, see {@link #backwardLevel(int, int, int, int, int)}. */
+    private final int[] backward;
+
+    /** The index of diagonal 0 in {@link #forward} and {@link #backward}. */
+    private int offset;
+
+    /** The position of the walk in {@link #currentKeys}. */
+    private int x;
+
+    /** The position of the walk in {@link #oldKeys}. */
+    private int y;
+
+    List<Warning<String>> createdWarningTypes;
+    List<Warning<String>> removedWarningTypes;
+
+    MarkerDiffAlgorithm(List<MarkerHolder> oldMarkers, List<MarkerHolder> currentMarkers) {
+        this.oldMarkers = oldMarkers;
+        this.currentMarkers = currentMarkers;
+        this.oldSize = oldMarkers.size();
+        this.currentSize = currentMarkers.size();
+        Map<String, Integer> keys = new HashMap<>();
+        this.oldKeys = reversedKeys(oldMarkers, keys);
+        this.currentKeys = reversedKeys(currentMarkers, keys);
+        this.forward = new int[oldSize + currentSize + 3];
+        this.backward = new int[oldSize + currentSize + 3];
+        this.createdWarningTypes = new ArrayList<>();
+        this.removedWarningTypes = new ArrayList<>();
+    }
+
+    private static int[] reversedKeys(List<MarkerHolder> markers, Map<String, Integer> keys) {
+        int[] reversed = new int[markers.size()];
+        int index = reversed.length;
+        for (MarkerHolder marker : markers) {
+            Integer key = keys.get(marker.message);
+            if (key == null) {
+                key = keys.size();
+                keys.put(marker.message, key);
+            }
+            reversed[--index] = key;
+        }
+        return reversed;
+    }
+
+    /**
+     * Walks from the end of both lists to their start and invokes addCreatedWarning or
+     * addRemovedWarning as defined in {@link CoreMarkupModelListener} for every marker that is not
+     * matched, in the order of the walk.
+     */
+    MarkerDiffAlgorithm computeDiff() {
+        Deque<Segment> targets = new ArrayDeque<>();
+        targets.push(new Segment(currentSize - oldSize, currentSize, currentSize));
+        while (!targets.isEmpty()) {
+            Segment target = targets.pop();
+            Segment middle = walkTowards(target);
+            if (middle != null) {
+                targets.push(target);
+                targets.push(middle);
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Walks to the target if it is at most one edit away. Otherwise, computes the segment that the walk
+     * passes halfway to the target.
+     *
+     * @return the segment halfway, or <code>null</code> if the target was reached.
+     */
+    private Segment walkTowards(Segment target) {
+        // All computations are relative to the rectangle between the position and the target.
+        int width = target.end - x;
+        int height = target.end - target.diagonal - y;
+        int targetDiagonal = target.diagonal - (x - y);
+        int targetStart = Math.max(target.start - x, Math.max(0, targetDiagonal));
+        offset = height + 1;
+        Arrays.fill(forward, 0, width + height + 3, UNREACHED_FORWARD);
+        Arrays.fill(backward, 0, width + height + 3, UNREACHED_BACKWARD);
+
+        forwardLevel(0, width, height);
+        backwardLevel(0, width, height, targetDiagonal, targetStart);
+        // The first overlap, in the order of increasing total number of edits, is on a shortest path.
+        int distance = 0;
+        int diagonal = findOverlap(0, width, height);
+        for (int level = 1; diagonal == UNREACHED_FORWARD; level++) {
+            forwardLevel(level, width, height);
+            distance = 2 * level - 1;
+            diagonal = findOverlap(level, width, height);
+            if (diagonal == UNREACHED_FORWARD) {
+                backwardLevel(level, width, height, targetDiagonal, targetStart);
+                distance = 2 * level;
+                diagonal = findOverlap(level, width, height);
+            }
+        }
+
+        if (distance > 1) {
+            return new Segment(diagonal + x - y, x + backward[offset + diagonal], x + forward[offset + diagonal]);
+        }
+        slide();
+        if (distance == 1) {
+            if (target.diagonal > x - y) {
+                addCreatedWarning(currentMarkers.get(currentSize - 1 - x));
+                x++;
+            } else {
+                addRemovedWarning(oldMarkers.get(oldSize - 1 - y));
+                y++;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Computes the furthest point on every diagonal k = x - y that paths from the position with the given
+     * number of edits reach, followed by as many matches as possible. On a diagonal, exactly the points up
+     * to the furthest one are reachable with that many edits.
+     */
+    private void forwardLevel(int level, int width, int height) {
+        if (level == 0) {
+            forward[offset] = slideForward(0, 0, width, height);
+            return;
+        }
+        int low = Math.max(-level, -height);
+        if (((low + level) & 1) != 0) {
+            low++;
+        }
+        for (int k = low, high = Math.min(level, width); k <= high; k += 2) {
+            int end = Math.min(width, height + k);
+            int furthest = forward[offset + k];
+            if (k > -height && forward[offset + k - 1] != UNREACHED_FORWARD) {
+                // A created marker from the diagonal below
+                int candidate = Math.min(forward[offset + k - 1] + 1, end);
+                if (candidate >= Math.max(1, k)) {
+                    furthest = Math.max(furthest, candidate);
+                }
+            }
+            if (k < width && forward[offset + k + 1] != UNREACHED_FORWARD) {
+                // A removed marker from the diagonal above
+                int candidate = Math.min(forward[offset + k + 1], end);
+                if (candidate >= Math.max(0, k + 1)) {
+                    furthest = Math.max(furthest, candidate);
+                }
+            }
+            if (furthest != UNREACHED_FORWARD) {
+                forward[offset + k] = slideForward(furthest, k, width, height);
+            }
+        }
+    }
+
+    /**
+     * Computes the nearest point on every diagonal from which paths with the given number of edits reach a
+     * point of the target, which starts at targetStart on targetDiagonal and ends in the corner of the
+     * rectangle. On a diagonal, exactly the points from the nearest one on can reach the target with that
+     * many edits.
+     */
+    private void backwardLevel(int level, int width, int height, int targetDiagonal, int targetStart) {
+        if (level == 0) {
+            backward[offset + targetDiagonal] = slideBackward(targetStart, targetDiagonal);
+            return;
+        }
+        int low = Math.max(targetDiagonal - level, -height);
+        if (((low - targetDiagonal + level) & 1) != 0) {
+            low++;
+        }
+        for (int k = low, high = Math.min(targetDiagonal + level, width); k <= high; k += 2) {
+            int start = Math.max(0, k);
+            int nearest = backward[offset + k];
+            if (k < width && backward[offset + k + 1] != UNREACHED_BACKWARD) {
+                // A created marker onto the diagonal above
+                int candidate = Math.max(backward[offset + k + 1] - 1, start);
+                if (candidate <= Math.min(width - 1, height + k)) {
+                    nearest = Math.min(nearest, candidate);
+                }
+            }
+            if (k > -height && backward[offset + k - 1] != UNREACHED_BACKWARD) {
+                // A removed marker onto the diagonal below
+                int candidate = Math.max(backward[offset + k - 1], start);
+                if (candidate <= Math.min(width, height + k - 1)) {
+                    nearest = Math.min(nearest, candidate);
+                }
+            }
+            if (nearest != UNREACHED_BACKWARD) {
+                backward[offset + k] = slideBackward(nearest, k);
+            }
+        }
+    }
+
+    /**
+     * @return the highest diagonal on which the forward paths of the given level overlap with the backward
+     *         paths, or {@link #UNREACHED_FORWARD} if there is none.
+     */
+    private int findOverlap(int level, int width, int height) {
+        int high = Math.min(level, width);
+        if (((high + level) & 1) != 0) {
+            high--;
+        }
+        for (int k = high, low = Math.max(-level, -height); k >= low; k -= 2) {
+            int furthest = forward[offset + k];
+            int nearest = backward[offset + k];
+            if (furthest != UNREACHED_FORWARD && nearest != UNREACHED_BACKWARD && furthest >= nearest) {
+                return k;
+            }
+        }
+        return UNREACHED_FORWARD;
+    }
+
+    private int slideForward(int relativeX, int k, int width, int height) {
+        while (relativeX < width && relativeX - k < height
+                && currentKeys[x + relativeX] == oldKeys[y + relativeX - k]) {
+            relativeX++;
+        }
+        return relativeX;
+    }
+
+    private int slideBackward(int relativeX, int k) {
+        while (relativeX > 0 && relativeX - k > 0
+                && currentKeys[x + relativeX - 1] == oldKeys[y + relativeX - k - 1]) {
+            relativeX--;
+        }
+        return relativeX;
+    }
+
+    /** Moves the position past all equal markers. */
+    private void slide() {
+        while (x < currentSize && y < oldSize && currentKeys[x] == oldKeys[y]) {
+            x++;
+            y++;
+        }
+    }
+
+    private void addCreatedWarning(MarkerHolder warning) {
+        this.createdWarningTypes.add(new Warning<>(-1, warning.message, warning.lineNumber, WatchDogClock.get().now()));
+    }
+
+    private void addRemovedWarning(MarkerHolder warning) {
+        DateTime now = new DateTime(WatchDogClock.get().currentTimeMillis());
+
+        this.removedWarningTypes.add(new Warning<>(-1, warning.message, warning.lineNumber, now.toDate(), Seconds.secondsBetween(warning.warningCreationTime, now).getSeconds()));
+    }
+
+    /**
+     * The points of a diagonal from start up to and including end, in coordinates of
+     * {@link MarkerDiffAlgorithm#currentKeys}.
+     */
+    private static class Segment {
+
+        private final int diagonal;
+        private final int start;
+        private final int end;
+
+        private Segment(int diagonal, int start, int end) {
+            this.diagonal = diagonal;
+            this.start = start;
+            this.end = end;
+        }
+    }
+}
@@ -5,6 +5,7 @@ import org.eclipse.core.runtime.CoreException;
 import org.joda.time.DateTime;
 
 import nl.tudelft.watchdog.core.logic.ui.listeners.staticanalysis.StaticAnalysisMessageClassifier;
+import nl.tudelft.watchdog.core.util.WatchDogClock;
 
 /**
  * Because an {@link IMarker} throws exceptions on {@link IMarker#getAttribute(String)} once it has been trashed by Eclipse,
@@ -15,9 +16,15 @@ import nl.tudelft.watchdog.core.logic.ui.listeners.staticanalysis.StaticAnalysis
  * Make sure that you anonymize the {@link #message}, before using it for further analysis.
  */
 class MarkerHolder implements Comparable<MarkerHolder> {
-    String message;
-    int lineNumber;
-    DateTime warningCreationTime;
+    final String message;
+    final int lineNumber;
+    final DateTime warningCreationTime;
+
+    MarkerHolder(String message, int lineNumber, DateTime warningCreationTime) {
+        this.message = message;
+        this.lineNumber = lineNumber;
+        this.warningCreationTime = warningCreationTime;
+    }
 
     /**
      * Create a {@link MarkerHolder} from the Eclipse {@link IMarker}. Store all of its information
@@ -28,20 +35,18 @@ class MarkerHolder implements Comparable<MarkerHolder> {
      * @return The markerholder containing all useful information of the marker.
      */
     static MarkerHolder fromIMarker(IMarker marker) {
-        MarkerHolder holder = new MarkerHolder();
-        holder.message = marker.getAttribute(IMarker.MESSAGE, "");
-        holder.lineNumber = marker.getAttribute(IMarker.LINE_NUMBER, 0);
-        holder.warningCreationTime = DateTime.now();
+        String message = marker.getAttribute(IMarker.MESSAGE, "");
 
         try {
             if (EclipseMarkupModelListener.CHECKSTYLE_MARKER_ID.equals(marker.getType())) {
-                holder.message = StaticAnalysisMessageClassifier.START_OF_CHECKSTYLE_MESSAGE + holder.message;
+                message = StaticAnalysisMessageClassifier.START_OF_CHECKSTYLE_MESSAGE + message;
             }
         } catch (CoreException ignored) {
             // Not supposed to happen
         }
 
-        return holder;
+        return new MarkerHolder(message, marker.getAttribute(IMarker.LINE_NUMBER, 0),
+                new DateTime(WatchDogClock.get().currentTimeMillis()));
     }
 
     @Override
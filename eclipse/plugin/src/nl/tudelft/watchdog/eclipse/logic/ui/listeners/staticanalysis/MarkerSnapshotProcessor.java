@@ -0,0 +1,216 @@
+package nl.tudelft.watchdog.eclipse.logic.ui.listeners.staticanalysis;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.Collectors;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.runtime.IPath;
+import org.joda.time.DateTime;
+
+import nl.tudelft.watchdog.core.logic.document.Document;
+import nl.tudelft.watchdog.core.logic.event.TrackingEventManager;
+import nl.tudelft.watchdog.core.logic.event.eventtypes.EventBase;
+import nl.tudelft.watchdog.core.logic.event.eventtypes.TrackingEventType;
+import nl.tudelft.watchdog.core.logic.ui.listeners.staticanalysis.CoreMarkupModelListener;
+import nl.tudelft.watchdog.core.logic.ui.listeners.staticanalysis.StaticAnalysisMessageClassifier;
+import nl.tudelft.watchdog.core.logic.ui.listeners.staticanalysis.Warning;
+import nl.tudelft.watchdog.core.logic.ui.listeners.staticanalysis.WarningLifetimeIndex;
+import nl.tudelft.watchdog.core.util.WatchDogClock;
+import nl.tudelft.watchdog.core.util.WatchDogLogger;
+import nl.tudelft.watchdog.eclipse.logic.document.DocumentCreator;
+
+/**
+ * Processes the markers that a {@link ResourceAndResourceDeltaVisitor} captured, on its own thread, so
+ * that the build that notified the visitor does not wait for it. Per batch, that is per build, it diffs
+ * the markers of every file with the ones of the previous batch, classifies them, reads the documents and
+ * adds all resulting events at once. Batches are processed one after another in the order in which they
+ * were submitted, and only this thread accesses the previous markers.
+ *
+ * The creation time of a marker is the time it was first seen according to the {@link WarningLifetimeIndex},
+ * so that the lifetime of a removed warning is also known for markers from a previous session.
+ *
+ * Markers are only classified once the CheckStyle bundle is loaded, so batches wait in the queue for it.
+ */
+class MarkerSnapshotProcessor {
+
+    /** The longest time to wait for the CheckStyle bundle, after which CheckStyle markers are unknown. */
+    private static final long CHECKSTYLE_BUNDLE_TIMEOUT_SECONDS = 60;
+
+    private final TrackingEventManager trackingEventManager;
+
+    private final WarningLifetimeIndex lifetimeIndex;
+
+    private final Map<IPath, List<MarkerHolder>> currentFileMarkers = new HashMap<>();
+
+    /** Whether waiting for the CheckStyle bundle timed out once, so that later batches do not wait anymore. */
+    private boolean checkStyleBundleTimedOut;
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "WatchDog marker processor");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    MarkerSnapshotProcessor(TrackingEventManager trackingEventManager, WarningLifetimeIndex lifetimeIndex) {
+        this.trackingEventManager = trackingEventManager;
+        this.lifetimeIndex = lifetimeIndex;
+    }
+
+    /**
+     * Queues the captured markers of one build.
+     *
+     * @param shouldCreateSnapshot Whether to add a snapshot of the current warnings of every file.
+     */
+    void submit(List<FileMarkers> batch, boolean shouldCreateSnapshot) {
+        if (batch.isEmpty() || executor.isShutdown()) {
+            return;
+        }
+        executor.execute(() -> {
+            try {
+                process(batch, shouldCreateSnapshot);
+            } catch (RuntimeException exception) {
+                WatchDogLogger.getInstance().logSevere(exception);
+            }
+        });
+    }
+
+    /**
+     * Processes the batches that were submitted so far, and stops accepting new ones.
+     *
+     * @return whether all batches were processed within the timeout.
+     */
+    boolean close(long timeout, TimeUnit unit) {
+        executor.shutdown();
+        try {
+            return executor.awaitTermination(timeout, unit);
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private void process(List<FileMarkers> batch, boolean shouldCreateSnapshot) {
+        awaitCheckStyleBundle();
+
+        List<EventBase> events = new ArrayList<>();
+        for (FileMarkers fileMarkers : batch) {
+            List<MarkerHolder> currentMarkers = withFirstSeenTimes(fileMarkers.file, fileMarkers.markers);
+            List<MarkerHolder> oldMarkers = currentFileMarkers.put(fileMarkers.file.getFullPath(), currentMarkers);
+            if (fileMarkers.shouldComputeDiff && oldMarkers == null) {
+                oldMarkers = Collections.emptyList();
+            }
+            if (!shouldCreateSnapshot && oldMarkers == null) {
+                continue;
+            }
+
+            Document document = DocumentCreator.createDocument(fileMarkers.file.getName(), fileMarkers.file).prepareDocument();
+
+            if (shouldCreateSnapshot) {
+                events.add(CoreMarkupModelListener.createWarningSnapshot(document, createSnapshot(currentMarkers)));
+            }
+
+            if (oldMarkers != null) {
+                MarkerDiffAlgorithm diffingAlgorithm = new MarkerDiffAlgorithm(oldMarkers, currentMarkers).computeDiff();
+
+                CoreMarkupModelListener.createWarningEvents(TrackingEventType.SA_WARNING_CREATED,
+                        diffingAlgorithm.createdWarningTypes.stream().map(MarkerSnapshotProcessor::classify), document)
+                        .forEach(events::add);
+                CoreMarkupModelListener.createWarningEvents(TrackingEventType.SA_WARNING_REMOVED,
+                        diffingAlgorithm.removedWarningTypes.stream().map(MarkerSnapshotProcessor::classify), document)
+                        .forEach(events::add);
+            }
+        }
+        if (!events.isEmpty()) {
+            trackingEventManager.addEvents(events.stream());
+        }
+    }
+
+    private void awaitCheckStyleBundle() {
+        if (checkStyleBundleTimedOut) {
+            return;
+        }
+        try {
+            StaticAnalysisMessageClassifier.whenCheckStyleBundleReady()
+                    .get(CHECKSTYLE_BUNDLE_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | TimeoutException exception) {
+            checkStyleBundleTimedOut = true;
+            WatchDogLogger.getInstance().logSevere("CheckStyle messages were not loaded in time: " + exception);
+        }
+    }
+
+    /**
+     * @return the markers sorted by line, with the times at which they were first seen as creation times.
+     */
+    private List<MarkerHolder> withFirstSeenTimes(IFile file, List<MarkerHolder> markers) {
+        List<MarkerHolder> sortedMarkers = new ArrayList<>(markers);
+        Collections.sort(sortedMarkers);
+
+        List<String> messages = new ArrayList<>(sortedMarkers.size());
+        List<Date> creationTimes = new ArrayList<>(sortedMarkers.size());
+        for (MarkerHolder marker : sortedMarkers) {
+            messages.add(marker.message);
+            creationTimes.add(marker.warningCreationTime.toDate());
+        }
+        Date[] firstSeenTimes = lifetimeIndex.update(file.getFullPath().toString(), messages, creationTimes,
+                WatchDogClock.get().now());
+
+        List<MarkerHolder> markersWithTimes = new ArrayList<>(sortedMarkers.size());
+        for (int i = 0; i < sortedMarkers.size(); i++) {
+            MarkerHolder marker = sortedMarkers.get(i);
+            markersWithTimes.add(new MarkerHolder(marker.message, marker.lineNumber, new DateTime(firstSeenTimes[i])));
+        }
+        return markersWithTimes;
+    }
+
+    private static List<Warning<String>> createSnapshot(List<MarkerHolder> currentMarkers) {
+        // One creation time for the whole snapshot, so that it can be stored as a delta
+        Date now = WatchDogClock.get().now();
+        return currentMarkers.stream()
+                .map(holder -> new Warning<>(
+                        -1,
+                        StaticAnalysisMessageClassifier.classify(holder.message),
+                        holder.lineNumber,
+                        now
+                    ))
+                .collect(Collectors.toList());
+    }
+
+    private static Warning<String> classify(Warning<String> warning) {
+        return new Warning<>(
+                warning.docTotalLines,
+                StaticAnalysisMessageClassifier.classify(warning.type),
+                warning.lineNumber,
+                warning.warningCreationTime,
+                warning.secondsBetween
+        );
+    }
+
+    /** The markers of a file as captured during a build, which must not change afterwards. */
+    static class FileMarkers {
+
+        private final IFile file;
+
+        private final List<MarkerHolder> markers;
+
+        /** Whether the file changed, so that its markers are diffed even if it had none before. */
+        private final boolean shouldComputeDiff;
+
+        FileMarkers(IFile file, List<MarkerHolder> markers, boolean shouldComputeDiff) {
+            this.file = file;
+            this.markers = markers;
+            this.shouldComputeDiff = shouldComputeDiff;
+        }
+    }
+}
@@ -247,9 +247,9 @@ public class WatchDogView extends ViewPart {
 		CategoryPlot plot = chart.getCategoryPlot();
 		ValueAxis axis = plot.getRangeAxis();
 		axis.setRangeWithMargins(
-				selectedDebugInterval.getStart().getTime()
+				selectedDebugInterval.getStartTime()
 						- EventStatistics.PRE_SESSION_TIME_TO_INCLUDE,
-				selectedDebugInterval.getEnd().getTime());
+				selectedDebugInterval.getEndTime());
 
 		// Give each event type a different color.
 		plot.setRenderer(new WatchDogGanttRenderer());
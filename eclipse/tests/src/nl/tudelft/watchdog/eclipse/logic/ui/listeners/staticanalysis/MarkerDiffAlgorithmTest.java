@@ -0,0 +1,127 @@
+package nl.tudelft.watchdog.eclipse.logic.ui.listeners.staticanalysis;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.joda.time.DateTime;
+import org.junit.Test;
+
+import nl.tudelft.watchdog.core.logic.ui.listeners.staticanalysis.Warning;
+
+public class MarkerDiffAlgorithmTest {
+
+    @Test
+    public void finds_created_and_removed_markers() {
+        MarkerDiffAlgorithm algorithm = new MarkerDiffAlgorithm(createMarkers("a", "b", "c"),
+                createMarkers("a", "c", "d")).computeDiff();
+
+        assertEquals("d@2", describe(algorithm.createdWarningTypes));
+        assertEquals("b@1", describe(algorithm.removedWarningTypes));
+    }
+
+    @Test
+    public void matches_equal_messages_from_the_end() {
+        MarkerDiffAlgorithm algorithm = new MarkerDiffAlgorithm(createMarkers("a", "b"),
+                createMarkers("a", "b", "a", "b")).computeDiff();
+
+        assertEquals("b@1 a@0", describe(algorithm.createdWarningTypes));
+        assertEquals("", describe(algorithm.removedWarningTypes));
+    }
+
+    @Test
+    public void equals_backtracking_through_subsequence_table() {
+        Random random = new Random(42);
+        for (int i = 0; i < 2000; i++) {
+            List<MarkerHolder> oldMarkers = createRandomMarkers(random);
+            List<MarkerHolder> currentMarkers = createRandomMarkers(random);
+
+            MarkerDiffAlgorithm algorithm = new MarkerDiffAlgorithm(oldMarkers, currentMarkers).computeDiff();
+            List<String> created = new ArrayList<>();
+            List<String> removed = new ArrayList<>();
+            backtrack(oldMarkers, currentMarkers, created, removed);
+
+            assertEquals(String.join(" ", created), describe(algorithm.createdWarningTypes));
+            assertEquals(String.join(" ", removed), describe(algorithm.removedWarningTypes));
+        }
+    }
+
+    @Test
+    public void handles_thousands_of_unrelated_markers() {
+        // The worst case: every marker differs. A table would take 400 MB here.
+        String[] oldMessages = new String[10000];
+        String[] currentMessages = new String[10000];
+        for (int i = 0; i < oldMessages.length; i++) {
+            oldMessages[i] = "old " + i;
+            currentMessages[i] = "current " + i;
+        }
+
+        MarkerDiffAlgorithm algorithm = new MarkerDiffAlgorithm(createMarkers(oldMessages),
+                createMarkers(currentMessages)).computeDiff();
+
+        assertEquals(10000, algorithm.createdWarningTypes.size());
+        assertEquals(10000, algorithm.removedWarningTypes.size());
+        assertEquals("current 9999", algorithm.createdWarningTypes.get(0).type);
+        assertEquals("old 9999", algorithm.removedWarningTypes.get(0).type);
+    }
+
+    private static List<MarkerHolder> createMarkers(String... messages) {
+        List<MarkerHolder> markers = new ArrayList<>();
+        for (int i = 0; i < messages.length; i++) {
+            markers.add(new MarkerHolder(messages[i], i, new DateTime(0)));
+        }
+        return markers;
+    }
+
+    private static List<MarkerHolder> createRandomMarkers(Random random) {
+        String[] messages = new String[random.nextInt(30)];
+        int numberOfMessages = 1 + random.nextInt(5);
+        for (int i = 0; i < messages.length; i++) {
+            messages[i] = String.valueOf((char) ('a' + random.nextInt(numberOfMessages)));
+        }
+        return createMarkers(messages);
+    }
+
+    private static String describe(List<Warning<String>> warnings) {
+        List<String> descriptions = new ArrayList<>();
+        for (Warning<String> warning : warnings) {
+            descriptions.add(warning.type + "@" + warning.lineNumber);
+        }
+        return String.join(" ", descriptions);
+    }
+
+    /**
+     * The classic backtracking through a table of the lengths of the longest common subsequences of all
+     * prefixes, from the end of both lists.
+     */
+    private static void backtrack(List<MarkerHolder> oldMarkers, List<MarkerHolder> currentMarkers,
+            List<String> created, List<String> removed) {
+        int[][] lengths = new int[oldMarkers.size() + 1][currentMarkers.size() + 1];
+        for (int row = 0; row < oldMarkers.size(); row++) {
+            for (int column = 0; column < currentMarkers.size(); column++) {
+                if (oldMarkers.get(row).equals(currentMarkers.get(column))) {
+                    lengths[row + 1][column + 1] = lengths[row][column] + 1;
+                } else {
+                    lengths[row + 1][column + 1] = Math.max(lengths[row + 1][column], lengths[row][column + 1]);
+                }
+            }
+        }
+
+        int row = oldMarkers.size();
+        int column = currentMarkers.size();
+        while (row > 0 || column > 0) {
+            if (row > 0 && column > 0 && oldMarkers.get(row - 1).equals(currentMarkers.get(column - 1))) {
+                row--;
+                column--;
+            } else if (column > 0 && (row == 0 || lengths[row][column - 1] >= lengths[row - 1][column])) {
+                column--;
+                created.add(currentMarkers.get(column).message + "@" + column);
+            } else {
+                row--;
+                removed.add(oldMarkers.get(row).message + "@" + row);
+            }
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package nl.tudelft.watchdog.logic.document;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import org.junit.Test;
+
+import com.google.gson.Gson;
+
+import nl.tudelft.watchdog.core.logic.document.Document;
+import nl.tudelft.watchdog.core.logic.document.DocumentCache;
+import nl.tudelft.watchdog.core.logic.document.DocumentType;
+
+/**
+ * Tests the {@link DocumentCache}.
+ */
+public class DocumentCacheTest {
+
+	private static final String PATH = "/project/src/ATest.java";
+
+	private static final String CONTENT = "import org.junit.Test;\n\npublic class ATest {\n\t@Test\n\tpublic void a() {}\n}\n";
+
+	private final DocumentCache cache = new DocumentCache(2);
+
+	@Test
+	public void document_is_cached_once_prepared() {
+		Document document = createDocument(PATH, 1, CONTENT);
+		assertNull(document.getDocumentType());
+		assertEquals(0, cache.size());
+
+		document.prepareDocument();
+		assertEquals(1, cache.size());
+	}
+
+	@Test
+	public void cached_document_equals_prepared_document() {
+		createDocument(PATH, 1, CONTENT).prepareDocument();
+		Document cached = createDocument(PATH, 1, CONTENT);
+
+		assertEquals(DocumentType.TEST, cached.getDocumentType());
+		assertEquals(CONTENT, cached.getContent());
+		Gson gson = new Gson();
+		assertEquals(gson.toJson(new Document("project", "ATest.java", "src/ATest.java", CONTENT).prepareDocument()),
+				gson.toJson(cached));
+	}
+
+	@Test
+	public void modified_document_is_not_served() {
+		createDocument(PATH, 1, CONTENT).prepareDocument();
+
+		assertNull(createDocument(PATH, 2, CONTENT).getDocumentType());
+		assertNull(cache.createDocument(PATH, 1, "other", "ATest.java", "src/ATest.java", CONTENT)
+				.getDocumentType());
+		assertNull(cache.createDocument(PATH, 1, "project", "A.java", "src/ATest.java", CONTENT).getDocumentType());
+	}
+
+	@Test
+	public void least_recently_used_document_is_evicted() {
+		createDocument("/a", 1, CONTENT).prepareDocument();
+		createDocument("/b", 1, CONTENT).prepareDocument();
+		createDocument("/a", 1, CONTENT);
+		createDocument("/c", 1, CONTENT).prepareDocument();
+
+		assertEquals(2, cache.size());
+		assertNull(createDocument("/b", 1, CONTENT).getDocumentType());
+		assertEquals(DocumentType.TEST, createDocument("/a", 1, CONTENT).getDocumentType());
+	}
+
+	@Test
+	public void document_without_content_is_not_cached() {
+		createDocument(PATH, 1, null).prepareDocument();
+
+		assertEquals(0, cache.size());
+	}
+
+	private Document createDocument(String path, long modificationStamp, String content) {
+		return cache.createDocument(path, modificationStamp, "project", "ATest.java", "src/ATest.java", content);
+	}
+}
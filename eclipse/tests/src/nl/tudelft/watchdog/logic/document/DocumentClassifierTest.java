@@ -136,6 +136,19 @@ public class DocumentClassifierTest {
 		assertEquals(DocumentType.TEST_FRAMEWORK, type);
 	}
 
+	/**
+	 * Tests that imports and annotations are recognized when they are spread
+	 * over multiple whitespace characters and lines.
+	 */
+	@Test
+	public void whitespace_runs_are_collapsed() {
+		String contents = "import \t static\r\n  org.junit.Assert.*;\n\n"
+				+ "public class ATest {\n\t@Test\n\tpublic void a() {}\n}\n";
+		DocumentType type = DocumentClassifier.classifyDocument(
+				"A.java", "", contents);
+		assertEquals(DocumentType.TEST, type);
+	}
+
 	/**
 	 * Tests recognition of a fake junit test class, that should actually be
 	 * {@link DocumentType#PRODUCTION}.
@@ -0,0 +1,88 @@
+package nl.tudelft.watchdog.logic.document;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Date;
+
+import org.junit.Test;
+
+import nl.tudelft.watchdog.core.logic.document.Document;
+import nl.tudelft.watchdog.core.logic.document.DocumentType;
+import nl.tudelft.watchdog.core.logic.interval.intervaltypes.ReadingInterval;
+import nl.tudelft.watchdog.core.logic.interval.intervaltypes.TypingInterval;
+
+/**
+ * Tests that the content of a {@link Document} is released once no interval
+ * needs it anymore.
+ */
+public class DocumentContentTest {
+
+	private static final String CONTENT = "public class A {\n}\n";
+
+	private static final long TIMEOUT = 5000;
+
+	@Test
+	public void content_is_released_after_last_release() {
+		Document document = new Document("project", "A.java", "src", CONTENT);
+		assertTrue(document.retain());
+		assertTrue(document.retain());
+		document.prepareDocument();
+
+		document.release();
+		assertEquals(CONTENT, document.getContent());
+		document.release();
+
+		assertNull(document.getContent());
+		assertEquals(DocumentType.PRODUCTION, document.getDocumentType());
+		assertFalse(document.retain());
+	}
+
+	@Test
+	public void unprepared_content_is_not_released() {
+		Document document = new Document("project", "A.java", "src", CONTENT);
+		document.retain();
+		document.release();
+
+		assertEquals(CONTENT, document.getContent());
+	}
+
+	@Test
+	public void closed_intervals_release_content() throws InterruptedException {
+		Document document = new Document("project", "A.java", "src", CONTENT);
+		Document endingDocument = new Document("project", "A.java", "src", CONTENT + "class B {}\n");
+		ReadingInterval reading = new ReadingInterval(() -> "Editor", new Date());
+		TypingInterval typing = new TypingInterval(() -> "Editor", new Date());
+		reading.setDocument(document);
+		typing.setDocument(document);
+
+		reading.close();
+		waitUntilClosed(reading);
+		assertEquals(CONTENT, document.getContent());
+
+		typing.setEndingDocument(endingDocument);
+		typing.close();
+		waitUntilReleased(document);
+		waitUntilReleased(endingDocument);
+		assertTrue(typing.isClosed());
+	}
+
+	private static void waitUntilClosed(ReadingInterval interval) throws InterruptedException {
+		long start = System.currentTimeMillis();
+		while (!interval.isClosed() && System.currentTimeMillis() - start < TIMEOUT) {
+			Thread.sleep(10);
+		}
+		// The content is released right after the interval is closed.
+		Thread.sleep(50);
+	}
+
+	private static void waitUntilReleased(Document document) throws InterruptedException {
+		long start = System.currentTimeMillis();
+		while (document.getContent() != null && System.currentTimeMillis() - start < TIMEOUT) {
+			Thread.sleep(10);
+		}
+		assertNull(document.getContent());
+	}
+}
@@ -0,0 +1,100 @@
+package nl.tudelft.watchdog.logic.document;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Random;
+
+import org.apache.commons.lang.StringUtils;
+import org.junit.Test;
+
+import nl.tudelft.watchdog.core.logic.document.EditDistanceCalculator;
+
+/**
+ * Tests that the {@link EditDistanceCalculator} produces the same distances as
+ * the reference implementation of {@link StringUtils}.
+ */
+public class EditDistanceCalculatorTest {
+
+	private static final int RANDOM_RUNS = 2000;
+
+	@Test
+	public void identical_documents_have_no_distance() {
+		assertEquals(0, EditDistanceCalculator.computeLevenshteinDistance("", "", 0));
+		assertEquals(0, EditDistanceCalculator.computeLevenshteinDistance("class A {}", "class A {}", 0));
+	}
+
+	@Test
+	public void empty_document_distance_is_length() {
+		assertEquals(10, EditDistanceCalculator.computeLevenshteinDistance("", "class A {}", 10));
+		assertEquals(10, EditDistanceCalculator.computeLevenshteinDistance("class A {}", "", 10));
+	}
+
+	@Test
+	public void small_edits() {
+		assertEquals(3, EditDistanceCalculator.computeLevenshteinDistance("kitten", "sitting", 3));
+		assertEquals(1, EditDistanceCalculator.computeLevenshteinDistance("class A {}", "class AB {}", 1));
+		assertEquals(2, EditDistanceCalculator.computeLevenshteinDistance("int a = 1;", "int b = 2;", 5));
+	}
+
+	@Test
+	public void too_small_upper_bound_is_corrected() {
+		assertEquals(3, EditDistanceCalculator.computeLevenshteinDistance("kitten", "sitting", 0));
+		assertEquals(6, EditDistanceCalculator.computeLevenshteinDistance("abcdef", "uvwxyz", 1));
+	}
+
+	@Test
+	public void edits_spread_over_multiple_blocks() {
+		String source = createSource(200);
+		String target = "import a.B;\n" + source.substring(0, 2000) + "x++;" + source.substring(2000) + "}";
+		assertEquals(StringUtils.getLevenshteinDistance(source, target),
+				EditDistanceCalculator.computeLevenshteinDistance(source, target, 16));
+	}
+
+	@Test
+	public void equals_reference_implementation_on_random_input() {
+		Random random = new Random(42);
+		for (int run = 0; run < RANDOM_RUNS; run++) {
+			int alphabet = 1 + random.nextInt(4);
+			String source = createRandomString(random, random.nextInt(150), alphabet);
+			String target = random.nextBoolean() ? mutate(random, source, random.nextInt(20), alphabet)
+					: createRandomString(random, random.nextInt(150), alphabet);
+			int expected = StringUtils.getLevenshteinDistance(source, target);
+			long upperBound = random.nextBoolean() ? expected : random.nextInt(expected + 1);
+
+			assertEquals(source + " -> " + target, expected,
+					EditDistanceCalculator.computeLevenshteinDistance(source, target, upperBound));
+		}
+	}
+
+	private static String createSource(int lines) {
+		StringBuilder builder = new StringBuilder();
+		for (int line = 0; line < lines; line++) {
+			builder.append("\tint value").append(line).append(" = compute(").append(line).append(");\n");
+		}
+		return builder.toString();
+	}
+
+	private static String createRandomString(Random random, int length, int alphabet) {
+		StringBuilder builder = new StringBuilder();
+		for (int i = 0; i < length; i++) {
+			builder.append((char) ('a' + random.nextInt(alphabet)));
+		}
+		return builder.toString();
+	}
+
+	private static String mutate(Random random, String string, int edits, int alphabet) {
+		StringBuilder builder = new StringBuilder(string);
+		for (int edit = 0; edit < edits; edit++) {
+			int position = builder.length() == 0 ? 0 : random.nextInt(builder.length());
+			int operation = random.nextInt(3);
+			if (operation == 0 || builder.length() == 0) {
+				builder.insert(position, (char) ('a' + random.nextInt(alphabet)));
+			} else if (operation == 1) {
+				builder.deleteCharAt(position);
+			} else {
+				builder.setCharAt(position, (char) ('a' + random.nextInt(alphabet)));
+			}
+		}
+		return builder.toString();
+	}
+}
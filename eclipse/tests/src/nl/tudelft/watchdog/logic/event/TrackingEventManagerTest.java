@@ -58,7 +58,7 @@ public class TrackingEventManagerTest {
 		trackingEventManager.addEvent(event);
 		Mockito.verify(event).setSessionSeed(sessionSeed);
 		Mockito.verify(eventsToTransferPersister).save(Mockito.isA(BreakpointAddEvent.class));
-		Mockito.verify(eventsStatisticsPersister).save(Mockito.isA(BreakpointAddEvent.class));
+		Mockito.verify(eventsStatisticsPersister, Mockito.timeout(1000)).save(Mockito.isA(BreakpointAddEvent.class));
 	}
 
 	@Test
@@ -68,7 +68,7 @@ public class TrackingEventManagerTest {
 		trackingEventManager.addEvent(event);
 		Mockito.verify(event).setSessionSeed(sessionSeed);
 		Mockito.verify(eventsToTransferPersister).save(Mockito.isA(BreakpointRemoveEvent.class));
-		Mockito.verify(eventsStatisticsPersister).save(Mockito.isA(BreakpointRemoveEvent.class));
+		Mockito.verify(eventsStatisticsPersister, Mockito.timeout(1000)).save(Mockito.isA(BreakpointRemoveEvent.class));
 	}
 
 	@Test
@@ -78,7 +78,7 @@ public class TrackingEventManagerTest {
 		trackingEventManager.addEvent(event);
 		Mockito.verify(event).setSessionSeed(sessionSeed);
 		Mockito.verify(eventsToTransferPersister).save(Mockito.isA(BreakpointChangeEvent.class));
-		Mockito.verify(eventsStatisticsPersister).save(Mockito.isA(BreakpointChangeEvent.class));
+		Mockito.verify(eventsStatisticsPersister, Mockito.timeout(1000)).save(Mockito.isA(BreakpointChangeEvent.class));
 	}
 
 	@Test
@@ -88,7 +88,7 @@ public class TrackingEventManagerTest {
 		trackingEventManager.addEvent(event);
 		Mockito.verify(event).setSessionSeed(sessionSeed);
 		Mockito.verify(eventsToTransferPersister).save(Mockito.isA(DebugEventBase.class));
-		Mockito.verify(eventsStatisticsPersister).save(Mockito.isA(DebugEventBase.class));
+		Mockito.verify(eventsStatisticsPersister, Mockito.timeout(1000)).save(Mockito.isA(DebugEventBase.class));
 	}
 
 	@Test
@@ -98,7 +98,7 @@ public class TrackingEventManagerTest {
 		trackingEventManager.addEvent(event);
 		Mockito.verify(event).setSessionSeed(sessionSeed);
 		Mockito.verify(eventsToTransferPersister).save(Mockito.isA(DebugEventBase.class));
-		Mockito.verify(eventsStatisticsPersister).save(Mockito.isA(DebugEventBase.class));
+		Mockito.verify(eventsStatisticsPersister, Mockito.timeout(1000)).save(Mockito.isA(DebugEventBase.class));
 	}
 
 }
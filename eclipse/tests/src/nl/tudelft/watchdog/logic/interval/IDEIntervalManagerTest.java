@@ -0,0 +1,202 @@
+package nl.tudelft.watchdog.logic.interval;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import nl.tudelft.watchdog.core.logic.interval.IDEIntervalManagerBase;
+import nl.tudelft.watchdog.core.logic.interval.intervaltypes.DebugInterval;
+import nl.tudelft.watchdog.core.logic.interval.intervaltypes.IDEOpenInterval;
+import nl.tudelft.watchdog.core.logic.interval.intervaltypes.IntervalBase;
+import nl.tudelft.watchdog.core.logic.interval.intervaltypes.TypingInterval;
+import nl.tudelft.watchdog.core.logic.interval.intervaltypes.UserActiveInterval;
+import nl.tudelft.watchdog.core.logic.storage.PersisterBase;
+import nl.tudelft.watchdog.core.logic.storage.WatchDogItem;
+
+/**
+ * Tests the lookup of open intervals in the {@link IDEIntervalManagerBase}.
+ */
+public class IDEIntervalManagerTest {
+
+	private final List<WatchDogItem> savedIntervals = new ArrayList<WatchDogItem>();
+
+	private IDEIntervalManagerBase intervalManager;
+
+	@Before
+	public void setup() {
+		PersisterBase persister = new PersisterBase() {
+			@Override
+			public void save(WatchDogItem item) {
+				savedIntervals.add(item);
+			}
+		};
+		intervalManager = new IDEIntervalManagerBase(persister, new PersisterBase() {
+			@Override
+			public void save(WatchDogItem item) {
+			}
+
+			@Override
+			public void batchedSave(WatchDogItem item) {
+			}
+
+			@Override
+			public void commitBatch() {
+			}
+		}) {
+			@Override
+			protected void setEndingDocumentOf(TypingInterval typingInterval) {
+			}
+		};
+	}
+
+	@Test
+	public void open_interval_is_found_by_class() {
+		UserActiveInterval userActive = new UserActiveInterval(new Date());
+		DebugInterval debug = new DebugInterval(new Date());
+		intervalManager.addInterval(userActive);
+		intervalManager.addInterval(debug);
+
+		assertSame(userActive, intervalManager.getInterval(UserActiveInterval.class));
+		assertSame(debug, intervalManager.getInterval(DebugInterval.class));
+		assertNull(intervalManager.getInterval(IDEOpenInterval.class));
+		assertSame(userActive, intervalManager.getInterval(IntervalBase.class));
+		assertEquals(2, intervalManager.getIntervals(IntervalBase.class).size());
+	}
+
+	@Test
+	public void first_added_interval_is_found_by_superclass() {
+		DebugInterval debug = new DebugInterval(new Date());
+		IDEOpenInterval firstIdeOpen = new IDEOpenInterval(new Date());
+		UserActiveInterval userActive = new UserActiveInterval(new Date());
+		IDEOpenInterval secondIdeOpen = new IDEOpenInterval(new Date());
+		intervalManager.addInterval(debug);
+		intervalManager.addInterval(firstIdeOpen);
+		intervalManager.addInterval(userActive);
+		intervalManager.addInterval(secondIdeOpen);
+
+		assertSame(debug, intervalManager.getInterval(IntervalBase.class));
+		assertEquals(Arrays.asList(debug, firstIdeOpen, userActive, secondIdeOpen),
+				intervalManager.getOpenIntervals());
+
+		intervalManager.closeInterval(debug, new Date());
+		intervalManager.closeInterval(firstIdeOpen, new Date());
+		assertSame(userActive, intervalManager.getInterval(IntervalBase.class));
+		assertEquals(Arrays.asList(userActive, secondIdeOpen), intervalManager.getOpenIntervals());
+	}
+
+	@Test
+	public void closed_interval_is_not_found() {
+		UserActiveInterval userActive = new UserActiveInterval(new Date());
+		intervalManager.addInterval(userActive);
+		intervalManager.closeInterval(userActive, new Date());
+
+		assertNull(intervalManager.getInterval(UserActiveInterval.class));
+		assertEquals(0, intervalManager.getOpenIntervals().size());
+		assertEquals(1, savedIntervals.size());
+	}
+
+	@Test
+	public void intervals_of_same_type_are_found_in_order() {
+		IDEOpenInterval first = new IDEOpenInterval(new Date());
+		IDEOpenInterval second = new IDEOpenInterval(new Date());
+		intervalManager.addInterval(first);
+		intervalManager.addInterval(second);
+
+		assertSame(first, intervalManager.getInterval(IDEOpenInterval.class));
+		assertEquals(2, intervalManager.getIntervals(IDEOpenInterval.class).size());
+
+		intervalManager.closeInterval(first, new Date());
+		assertSame(second, intervalManager.getInterval(IDEOpenInterval.class));
+	}
+
+	@Test
+	public void many_open_intervals_are_all_closed() {
+		for (int i = 0; i < 50; i++) {
+			intervalManager.addInterval(new IDEOpenInterval(new Date()));
+		}
+		assertEquals(50, intervalManager.getOpenIntervals().size());
+
+		intervalManager.closeAllIntervals(new Date());
+
+		assertEquals(0, intervalManager.getOpenIntervals().size());
+		assertEquals(50, savedIntervals.size());
+	}
+
+	@Test
+	public void commands_from_other_threads_run_on_owner_thread() throws Exception {
+		ExecutorService owner = Executors.newSingleThreadExecutor();
+		try {
+			Thread ownerThread = owner.submit(Thread::currentThread).get();
+			intervalManager.confineTo(ownerThread, owner);
+			assertFalse(intervalManager.isOwnerThread());
+
+			Thread[] executingThread = new Thread[1];
+			intervalManager.execute(() -> {
+				executingThread[0] = Thread.currentThread();
+				intervalManager.addInterval(new UserActiveInterval(new Date()));
+			});
+			owner.submit(() -> {
+			}).get();
+
+			assertSame(ownerThread, executingThread[0]);
+			assertEquals(1, intervalManager.getOpenIntervals().size());
+		} finally {
+			owner.shutdown();
+		}
+	}
+
+	@Test
+	public void commands_run_directly_once_owner_is_gone() throws Exception {
+		ExecutorService owner = Executors.newSingleThreadExecutor();
+		intervalManager.confineTo(owner.submit(Thread::currentThread).get(), owner);
+		UserActiveInterval userActive = new UserActiveInterval(new Date());
+		intervalManager.execute(() -> intervalManager.addInterval(userActive));
+		owner.shutdown();
+		owner.awaitTermination(10, TimeUnit.SECONDS);
+
+		intervalManager.execute(() -> intervalManager.closeInterval(userActive, new Date()));
+
+		assertEquals(0, intervalManager.getOpenIntervals().size());
+		assertEquals(1, savedIntervals.size());
+	}
+
+	@Test
+	public void queued_commands_are_dropped_once_execution_is_stopped() throws Exception {
+		ExecutorService owner = Executors.newSingleThreadExecutor();
+		try {
+			intervalManager.confineTo(owner.submit(Thread::currentThread).get(), owner);
+			owner.submit(() -> intervalManager.addInterval(new UserActiveInterval(new Date()))).get();
+			// Blocks the owner thread, so that the next command stays queued
+			CountDownLatch stopped = new CountDownLatch(1);
+			owner.submit(() -> {
+				stopped.await();
+				return null;
+			});
+			intervalManager.execute(() -> intervalManager.closeAllIntervals(new Date()));
+
+			intervalManager.stopExecution();
+			stopped.countDown();
+			owner.submit(() -> {
+			}).get();
+			intervalManager.execute(() -> intervalManager.closeAllIntervals(new Date()));
+
+			assertEquals(1, intervalManager.getOpenIntervals().size());
+			assertEquals(0, savedIntervals.size());
+		} finally {
+			owner.shutdown();
+		}
+	}
+}
@@ -8,6 +8,8 @@ import org.junit.Test;
 
 import nl.tudelft.watchdog.core.logic.interval.intervaltypes.IDEOpenInterval;
 import nl.tudelft.watchdog.core.logic.interval.intervaltypes.UserActiveInterval;
+import nl.tudelft.watchdog.core.util.VirtualClock;
+import nl.tudelft.watchdog.core.util.WatchDogClock;
 
 /**
  * Test class for comparing intervals by testing the IntervalBase.compareTo
@@ -81,4 +83,22 @@ public class IntervalComparisonTest {
 		assertEquals(-1, interval1.compareTo(interval2));
 		assertEquals(1, interval2.compareTo(interval1));
 	}
+
+	@Test
+	public void open_interval_ends_now() {
+		WatchDogClock previousClock = WatchDogClock.set(new VirtualClock(10));
+		try {
+			UserActiveInterval closedInterval = new UserActiveInterval(new Date(1));
+			closedInterval.setEndTime(new Date(5));
+			closedInterval.close();
+			UserActiveInterval openInterval = new UserActiveInterval(new Date(1));
+
+			assertEquals(-1, closedInterval.compareTo(openInterval));
+			assertEquals(1, openInterval.compareTo(closedInterval));
+			assertEquals(10, openInterval.getEndTime());
+			assertEquals(9, openInterval.getDurationMillis());
+		} finally {
+			WatchDogClock.set(previousClock);
+		}
+	}
 }
@@ -0,0 +1,59 @@
+package nl.tudelft.watchdog.logic.interval;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import nl.tudelft.watchdog.core.logic.event.eventtypes.EventBase;
+import nl.tudelft.watchdog.core.logic.event.eventtypes.TrackingEventType;
+import nl.tudelft.watchdog.core.logic.interval.intervaltypes.IntervalBase;
+import nl.tudelft.watchdog.core.logic.interval.intervaltypes.IntervalType;
+import nl.tudelft.watchdog.core.logic.storage.PersisterBase;
+import nl.tudelft.watchdog.core.logic.storage.WatchDogItem;
+
+/**
+ * Tests that the items of a database that was written while intervals and
+ * events stored their timestamps as {@link java.util.Date}s are kept. The
+ * database holds an IDE open interval from 1000 to 5000, a user active
+ * interval from 2000 without an end and a breakpoint add event at 3000.
+ */
+public class IntervalPersisterLegacyDatesTest extends IntervalPersisterTestBase {
+
+	@BeforeClass
+	public static void setup_before_class() {
+		databaseName = "LegacyDatesTestDB";
+		setUpSuperClass();
+	}
+
+	@Test
+	public void keeps_items_and_their_timestamps() {
+		List<WatchDogItem> items = new ArrayList<>(persister.readItems());
+		assertEquals(3, items.size());
+
+		EventBase event = (EventBase) items.get(0);
+		assertEquals(TrackingEventType.BREAKPOINT_ADD, event.getType());
+		assertEquals(3000, event.getTime());
+
+		IntervalBase ideOpenInterval = (IntervalBase) items.get(1);
+		assertEquals(IntervalType.IDE_OPEN, ideOpenInterval.getType());
+		assertEquals(1000, ideOpenInterval.getStartTime());
+		assertEquals(5000, ideOpenInterval.getEndTime());
+
+		IntervalBase userActiveInterval = (IntervalBase) items.get(2);
+		assertEquals(IntervalType.USER_ACTIVE, userActiveInterval.getType());
+		assertEquals(2000, userActiveInterval.getStartTime());
+		assertFalse(userActiveInterval.hasEnd());
+
+		persister.save(IntervalPersisterTest.createRandomInterval());
+		persister.closeDatabase();
+
+		persister = new PersisterBase(copiedDatabase);
+		assertEquals(4, persister.getSize());
+	}
+
+}
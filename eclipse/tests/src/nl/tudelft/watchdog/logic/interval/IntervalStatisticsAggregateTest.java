@@ -0,0 +1,355 @@
+package nl.tudelft.watchdog.logic.interval;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import nl.tudelft.watchdog.core.logic.document.Document;
+import nl.tudelft.watchdog.core.logic.document.DocumentType;
+import nl.tudelft.watchdog.core.logic.interval.IntervalStatisticsAggregate;
+import nl.tudelft.watchdog.core.logic.interval.IntervalStatisticsAggregate.Snapshot;
+import nl.tudelft.watchdog.core.logic.interval.intervaltypes.DebugInterval;
+import nl.tudelft.watchdog.core.logic.interval.intervaltypes.EditorIntervalBase;
+import nl.tudelft.watchdog.core.logic.interval.intervaltypes.IDEOpenInterval;
+import nl.tudelft.watchdog.core.logic.interval.intervaltypes.IntervalBase;
+import nl.tudelft.watchdog.core.logic.interval.intervaltypes.IntervalType;
+import nl.tudelft.watchdog.core.logic.interval.intervaltypes.PerspectiveInterval;
+import nl.tudelft.watchdog.core.logic.interval.intervaltypes.PerspectiveInterval.Perspective;
+import nl.tudelft.watchdog.core.logic.interval.intervaltypes.ReadingInterval;
+import nl.tudelft.watchdog.core.logic.interval.intervaltypes.TypingInterval;
+import nl.tudelft.watchdog.core.logic.interval.intervaltypes.UserActiveInterval;
+import nl.tudelft.watchdog.core.logic.storage.PersisterBase;
+import nl.tudelft.watchdog.core.logic.storage.WatchDogItem;
+import nl.tudelft.watchdog.core.util.VirtualClock;
+import nl.tudelft.watchdog.core.util.WatchDogClock;
+
+/**
+ * Tests that the statistics of an {@link IntervalStatisticsAggregate} equal
+ * the ones calculated from the list of all intervals, for many random
+ * sessions. The closers of some editor intervals only finish at a later step,
+ * so that the type of their document is not known yet when they are saved.
+ */
+public class IntervalStatisticsAggregateTest {
+
+	private static final long DATABASE_PERIOD = TimeUnit.MINUTES.toMillis(600);
+
+	private static final long[] PERIODS = { TimeUnit.MINUTES.toMillis(10), TimeUnit.MINUTES.toMillis(60),
+			TimeUnit.MINUTES.toMillis(300), DATABASE_PERIOD };
+
+	private static final Object[] KEYS = { IntervalType.IDE_OPEN, IntervalType.USER_ACTIVE, IntervalType.DEBUG,
+			IntervalType.PERSPECTIVE, Perspective.DEBUG, Perspective.JAVA, Perspective.OTHER, IntervalType.READING,
+			IntervalType.TYPING, DocumentType.TEST, DocumentType.FILENAME_TEST, DocumentType.PRODUCTION,
+			DocumentType.UNDEFINED, DocumentType.TEST_FRAMEWORK, DocumentType.PATHNAMME_TEST };
+
+	private final Random random = new Random(42);
+
+	private final VirtualClock clock = new VirtualClock(TimeUnit.DAYS.toMillis(17000));
+
+	/**
+	 * The content of the statistics persister, which returns copies of the
+	 * intervals like they are read from the database.
+	 */
+	private final Set<WatchDogItem> persistedIntervals = new TreeSet<WatchDogItem>();
+
+	/** The closers of editor intervals that did not finish yet. */
+	private final List<Runnable> pendingClosers = new ArrayList<Runnable>();
+
+	private final PersisterBase persister = new PersisterBase() {
+		@Override
+		public Set<WatchDogItem> readItems() {
+			Set<WatchDogItem> items = new TreeSet<WatchDogItem>();
+			for (WatchDogItem item : persistedIntervals) {
+				try {
+					items.add((WatchDogItem) ((IntervalBase) item).clone());
+				} catch (CloneNotSupportedException exception) {
+					// intentionally empty
+				}
+			}
+			return items;
+		}
+
+		@Override
+		public void removeItems(List<WatchDogItem> itemsToRemove) {
+			persistedIntervals.removeAll(itemsToRemove);
+		}
+	};
+
+	private WatchDogClock previousClock;
+
+	@Before
+	public void setup() {
+		previousClock = WatchDogClock.set(clock);
+	}
+
+	@After
+	public void tearDown() {
+		WatchDogClock.set(previousClock);
+	}
+
+	@Test
+	public void snapshots_equal_statistics_of_all_intervals() {
+		for (int run = 0; run < 200; run++) {
+			persistedIntervals.clear();
+			pendingClosers.clear();
+			IntervalStatisticsAggregate aggregate = new IntervalStatisticsAggregate(persister, DATABASE_PERIOD,
+					interval -> null);
+
+			// Intervals of previous sessions, which are only in the persister
+			for (int i = random.nextInt(30); i > 0; i--) {
+				persistedIntervals.add(createClosedInterval());
+			}
+			pendingClosers.forEach(Runnable::run);
+			pendingClosers.clear();
+			for (int step = 0; step < 5; step++) {
+				clock.advance(random.nextInt((int) TimeUnit.HOURS.toMillis(4)));
+				for (int i = random.nextInt(30); i > 0; i--) {
+					IntervalBase interval = createClosedInterval();
+					persistedIntervals.add(interval);
+					aggregate.save(interval);
+				}
+				runSomePendingClosers();
+				List<IntervalBase> openIntervals = createOpenIntervals();
+				long period = PERIODS[random.nextInt(PERIODS.length)];
+
+				List<IntervalBase> expectedIntervals = filterIntervals(openIntervals, period);
+				Snapshot snapshot = aggregate.createSnapshot(openIntervals, period);
+				assertSnapshot(expectedIntervals, aggregate, snapshot);
+				assertOldIntervalsRemoved(snapshot);
+			}
+		}
+	}
+
+	@Test
+	public void snapshot_without_intervals_is_empty() {
+		IntervalStatisticsAggregate aggregate = new IntervalStatisticsAggregate(persister, DATABASE_PERIOD,
+				interval -> null);
+		Snapshot snapshot = aggregate.createSnapshot(new ArrayList<IntervalBase>(), DATABASE_PERIOD);
+
+		assertEquals(null, snapshot.getMostRecentDate());
+		assertEquals(0, snapshot.getNumberOfIntervals());
+		assertEquals(0, snapshot.getDuration(IntervalType.IDE_OPEN).getMillis());
+		assertEquals(0, aggregate.getLatestIntervals(snapshot, IntervalType.DEBUG, 3).size());
+	}
+
+	@Test
+	public void detail_keys_are_counted() {
+		IntervalStatisticsAggregate aggregate = new IntervalStatisticsAggregate(persister, DATABASE_PERIOD,
+				interval -> interval instanceof DebugInterval ? "detail" : null);
+		aggregate.save(createInterval(new DebugInterval(new Date(clock.now().getTime() - 3000)), 1000));
+		aggregate.save(createInterval(new IDEOpenInterval(new Date(clock.now().getTime() - 3000)), 1000));
+		Snapshot snapshot = aggregate.createSnapshot(new ArrayList<IntervalBase>(), DATABASE_PERIOD);
+
+		assertEquals(1, snapshot.getCount("detail"));
+		assertEquals(1000, snapshot.getDuration("detail").getMillis());
+		assertEquals(2, snapshot.getNumberOfIntervals());
+	}
+
+	/**
+	 * Mirrors how the statistics were calculated from the list of all
+	 * intervals: the persisted intervals followed by the open ones, filtered
+	 * and clipped at the threshold of the time frame.
+	 */
+	private List<IntervalBase> filterIntervals(List<IntervalBase> openIntervals, long period) {
+		List<IntervalBase> intervals = new ArrayList<IntervalBase>();
+		for (WatchDogItem item : persister.readItems()) {
+			IntervalBase interval = (IntervalBase) item;
+			interval.setClosed();
+			intervals.add(interval);
+		}
+		intervals.addAll(openIntervals);
+		if (intervals.isEmpty()) {
+			return intervals;
+		}
+
+		Date mostRecentDate = intervals.get(intervals.size() - 1).getEnd();
+		long threshold = mostRecentDate.getTime() - period;
+		List<IntervalBase> filteredIntervals = new ArrayList<IntervalBase>();
+		for (IntervalBase interval : intervals) {
+			if (interval.getEndTime() >= threshold) {
+				try {
+					IntervalBase clonedInterval = (IntervalBase) interval.clone();
+					if (interval.getStartTime() < threshold) {
+						clonedInterval.setStartTime(threshold);
+					}
+					if (!clonedInterval.isClosed()) {
+						clonedInterval.setEndTime(mostRecentDate);
+					}
+					filteredIntervals.add(clonedInterval);
+				} catch (CloneNotSupportedException exception) {
+					// intentionally empty
+				}
+			}
+		}
+		return filteredIntervals;
+	}
+
+	private void assertSnapshot(List<IntervalBase> expectedIntervals, IntervalStatisticsAggregate aggregate,
+			Snapshot snapshot) {
+		assertEquals(expectedIntervals.size(), snapshot.getNumberOfIntervals());
+		if (!expectedIntervals.isEmpty()) {
+			assertEquals(expectedIntervals.get(0).getStart(), snapshot.getOldestDate());
+		}
+		for (Object key : KEYS) {
+			long count = 0;
+			long duration = 0;
+			for (IntervalBase interval : expectedIntervals) {
+				if (interval.getType() == key || getDocumentType(interval) == key
+						|| (interval instanceof PerspectiveInterval
+								&& ((PerspectiveInterval) interval).getPerspectiveType() == key)) {
+					count++;
+					duration += interval.getDurationMillis();
+				}
+			}
+			assertEquals(key.toString(), count, snapshot.getCount(key));
+			assertEquals(key.toString(), duration, snapshot.getDuration(key).getMillis());
+		}
+
+		List<DebugInterval> expectedDebugIntervals = new ArrayList<DebugInterval>();
+		for (IntervalBase interval : expectedIntervals) {
+			if (interval instanceof DebugInterval) {
+				expectedDebugIntervals.add((DebugInterval) interval);
+			}
+		}
+		assertIntervals(expectedDebugIntervals, aggregate.getIntervals(snapshot, DebugInterval.class));
+
+		Collections.sort(expectedDebugIntervals);
+		Collections.reverse(expectedDebugIntervals);
+		int numberOfIntervals = 1 + random.nextInt(5);
+		if (expectedDebugIntervals.size() > numberOfIntervals) {
+			expectedDebugIntervals = expectedDebugIntervals.subList(0, numberOfIntervals);
+		}
+		assertIntervals(expectedDebugIntervals,
+				aggregate.getLatestIntervals(snapshot, IntervalType.DEBUG, numberOfIntervals));
+
+		DocumentType documentType = DocumentType.values()[random.nextInt(DocumentType.values().length)];
+		List<IntervalBase> expectedEditorIntervals = new ArrayList<IntervalBase>();
+		for (IntervalBase interval : expectedIntervals) {
+			if (getDocumentType(interval) == documentType) {
+				expectedEditorIntervals.add(interval);
+			}
+		}
+		Collections.sort(expectedEditorIntervals);
+		Collections.reverse(expectedEditorIntervals);
+		if (expectedEditorIntervals.size() > numberOfIntervals) {
+			expectedEditorIntervals = expectedEditorIntervals.subList(0, numberOfIntervals);
+		}
+		assertIntervals(expectedEditorIntervals,
+				aggregate.getLatestIntervals(snapshot, documentType, numberOfIntervals));
+	}
+
+	private static DocumentType getDocumentType(IntervalBase interval) {
+		if (interval instanceof EditorIntervalBase) {
+			return ((EditorIntervalBase) interval).getDocument().getDocumentType();
+		}
+		return null;
+	}
+
+	/** Runs about half of the closers that did not finish yet. */
+	private void runSomePendingClosers() {
+		Iterator<Runnable> iterator = pendingClosers.iterator();
+		while (iterator.hasNext()) {
+			Runnable closer = iterator.next();
+			if (random.nextBoolean()) {
+				closer.run();
+				iterator.remove();
+			}
+		}
+	}
+
+	/** Asserts that the persister only keeps the intervals of the database period. */
+	private void assertOldIntervalsRemoved(Snapshot snapshot) {
+		for (WatchDogItem item : persistedIntervals) {
+			assertTrue(((IntervalBase) item).getEndTime() >= snapshot.getMostRecentDate().getTime()
+					- DATABASE_PERIOD);
+		}
+	}
+
+	private static void assertIntervals(List<? extends IntervalBase> expected, List<? extends IntervalBase> actual) {
+		assertEquals(expected.size(), actual.size());
+		for (int i = 0; i < expected.size(); i++) {
+			assertEquals(expected.get(i).getStartTime(), actual.get(i).getStartTime());
+			assertEquals(expected.get(i).getEndTime(), actual.get(i).getEndTime());
+			assertEquals(expected.get(i).getType(), actual.get(i).getType());
+		}
+	}
+
+	private List<IntervalBase> createOpenIntervals() {
+		List<IntervalBase> openIntervals = new ArrayList<IntervalBase>();
+		for (int i = random.nextInt(4); i > 0; i--) {
+			openIntervals.add(createIntervalOfRandomType(
+					new Date(clock.now().getTime() - random.nextInt((int) TimeUnit.HOURS.toMillis(12)))));
+		}
+		return openIntervals;
+	}
+
+	/**
+	 * @return a closed interval that ended in the last twelve hours. The
+	 *         closer of an editor interval may not have finished yet, in
+	 *         which case the type of its document is not known yet.
+	 */
+	private IntervalBase createClosedInterval() {
+		long end = clock.now().getTime() - random.nextInt((int) TimeUnit.HOURS.toMillis(12));
+		long duration = random.nextInt((int) TimeUnit.HOURS.toMillis(2));
+		IntervalBase interval = createIntervalOfRandomType(new Date(end - duration));
+		if (!(interval instanceof EditorIntervalBase) || random.nextBoolean()) {
+			return createInterval(interval, duration);
+		}
+
+		EditorIntervalBase editorInterval = (EditorIntervalBase) interval;
+		DocumentType documentType = editorInterval.getDocument().getDocumentType();
+		editorInterval.getDocument().setDocumentType(null);
+		editorInterval.setEndTime(new Date(editorInterval.getStartTime() + duration));
+		pendingClosers.add(() -> {
+			editorInterval.getDocument().setDocumentType(documentType);
+			editorInterval.setClosed();
+		});
+		return editorInterval;
+	}
+
+	private static IntervalBase createInterval(IntervalBase interval, long duration) {
+		interval.setEndTime(new Date(interval.getStartTime() + duration));
+		interval.setClosed();
+		return interval;
+	}
+
+	private IntervalBase createIntervalOfRandomType(Date start) {
+		switch (random.nextInt(6)) {
+		case 0:
+			return new IDEOpenInterval(start);
+		case 1:
+			return new UserActiveInterval(start);
+		case 2:
+			return new DebugInterval(start);
+		case 3:
+			return createEditorInterval(new ReadingInterval(null, start));
+		case 4:
+			return createEditorInterval(new TypingInterval(null, start));
+		default:
+			return new PerspectiveInterval(Perspective.values()[random.nextInt(Perspective.values().length)], start);
+		}
+	}
+
+	/**
+	 * @return the interval with a document of a random type. Its content is
+	 *         unknown, so that preparing it does not change the type.
+	 */
+	private EditorIntervalBase createEditorInterval(EditorIntervalBase interval) {
+		Document document = new Document("Project", "File.java", "/Project/src/File.java", null);
+		document.setDocumentType(DocumentType.values()[random.nextInt(DocumentType.values().length)]);
+		interval.setDocument(document);
+		return interval;
+	}
+}
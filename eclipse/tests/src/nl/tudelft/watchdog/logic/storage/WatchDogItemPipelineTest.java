@@ -0,0 +1,193 @@
+package nl.tudelft.watchdog.logic.storage;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import nl.tudelft.watchdog.core.logic.event.TrackingEventManager;
+import nl.tudelft.watchdog.core.logic.event.eventtypes.EventBase;
+import nl.tudelft.watchdog.core.logic.event.eventtypes.TrackingEventType;
+import nl.tudelft.watchdog.core.logic.event.eventtypes.debugging.DebugEventBase;
+import nl.tudelft.watchdog.core.logic.interval.intervaltypes.UserActiveInterval;
+import nl.tudelft.watchdog.core.logic.storage.AsyncSink;
+import nl.tudelft.watchdog.core.logic.storage.PersisterBase;
+import nl.tudelft.watchdog.core.logic.storage.WatchDogItem;
+import nl.tudelft.watchdog.core.logic.storage.WatchDogItemPipeline;
+import nl.tudelft.watchdog.core.logic.storage.WatchDogItemSink;
+
+/**
+ * Tests the routing of items through a {@link WatchDogItemPipeline} to its
+ * sinks.
+ */
+public class WatchDogItemPipelineTest {
+
+	@Test
+	public void events_are_saved_to_both_persisters() {
+		RecordingPersister toTransfer = new RecordingPersister();
+		RecordingPersister statistics = new RecordingPersister();
+		TrackingEventManager manager = new TrackingEventManager(toTransfer, statistics);
+		EventBase event = createEvent(1);
+		EventBase secondEvent = createEvent(2);
+
+		manager.addEvent(event);
+		manager.addEvents(Arrays.<EventBase> asList(secondEvent, null).stream());
+		manager.closeStatisticsSink();
+
+		List<String> expectedCalls = Arrays.asList("save " + event.getTime(), "start", "batched " + secondEvent.getTime(),
+				"commit");
+		assertEquals(expectedCalls, toTransfer.calls);
+		assertEquals(Arrays.asList(event.getTime(), secondEvent.getTime()), statistics.savedTimes);
+	}
+
+	@Test
+	public void filtered_sink_only_receives_accepted_items() {
+		CollectingSink intervals = new CollectingSink();
+		WatchDogItemPipeline pipeline = new WatchDogItemPipeline(
+				intervals.filter(item -> item instanceof UserActiveInterval));
+		UserActiveInterval interval = new UserActiveInterval(new Date(1));
+
+		pipeline.publish(createEvent(1));
+		pipeline.publish(interval);
+		pipeline.publishAll(Arrays.asList(createEvent(2), createEvent(3)));
+
+		assertEquals(Collections.singletonList(interval), intervals.items);
+		assertEquals(0, intervals.batches);
+	}
+
+	@Test
+	public void failing_sink_does_not_affect_others() {
+		CollectingSink sink = new CollectingSink();
+		WatchDogItemPipeline pipeline = new WatchDogItemPipeline(item -> {
+			throw new IllegalStateException("Database is closed");
+		}, sink);
+
+		pipeline.publish(createEvent(1));
+
+		assertEquals(1, sink.items.size());
+	}
+
+	@Test
+	public void slow_sink_does_not_delay_others() throws InterruptedException {
+		final CountDownLatch compaction = new CountDownLatch(1);
+		CollectingSink slowSink = new CollectingSink() {
+			@Override
+			public void save(WatchDogItem item) {
+				awaitCompaction(compaction);
+				super.save(item);
+			}
+
+			@Override
+			public void saveAll(List<? extends WatchDogItem> items) {
+				awaitCompaction(compaction);
+				super.saveAll(items);
+			}
+		};
+		CollectingSink fastSink = new CollectingSink();
+		AsyncSink asyncSink = new AsyncSink("statistics", slowSink);
+		WatchDogItemPipeline pipeline = new WatchDogItemPipeline(asyncSink, fastSink);
+
+		for (int i = 0; i < 100; i++) {
+			pipeline.publish(createEvent(i));
+		}
+		assertEquals(100, fastSink.items.size());
+		assertEquals(0, slowSink.items.size());
+
+		compaction.countDown();
+		assertTrue(asyncSink.flush(10, TimeUnit.SECONDS));
+		asyncSink.close();
+		assertEquals(fastSink.items, slowSink.items);
+		assertTrue(slowSink.batches > 0);
+	}
+
+	@Test
+	public void full_queue_drops_items() throws InterruptedException {
+		final CountDownLatch compaction = new CountDownLatch(1);
+		CollectingSink slowSink = new CollectingSink() {
+			@Override
+			public void save(WatchDogItem item) {
+				awaitCompaction(compaction);
+				super.save(item);
+			}
+		};
+		AsyncSink asyncSink = new AsyncSink("statistics", slowSink, 10);
+
+		for (int i = 0; i < 100; i++) {
+			asyncSink.save(createEvent(i));
+		}
+		compaction.countDown();
+		asyncSink.close();
+
+		assertTrue(asyncSink.getDroppedItems() > 0);
+		assertEquals(100, slowSink.items.size() + asyncSink.getDroppedItems());
+	}
+
+	private static EventBase createEvent(long timestamp) {
+		return new DebugEventBase(TrackingEventType.STEP_INTO, new Date(timestamp));
+	}
+
+	private static void awaitCompaction(CountDownLatch compaction) {
+		try {
+			compaction.await();
+		} catch (InterruptedException exception) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/** A sink that collects the items in memory. */
+	private static class CollectingSink implements WatchDogItemSink {
+
+		final List<WatchDogItem> items = Collections.synchronizedList(new ArrayList<WatchDogItem>());
+
+		volatile int batches;
+
+		@Override
+		public void save(WatchDogItem item) {
+			items.add(item);
+		}
+
+		@Override
+		public void saveAll(List<? extends WatchDogItem> batch) {
+			batches++;
+			items.addAll(batch);
+		}
+	}
+
+	/** A persister that records the calls made to it. */
+	private static class RecordingPersister extends PersisterBase {
+
+		final List<String> calls = new ArrayList<String>();
+
+		final List<Long> savedTimes = new ArrayList<Long>();
+
+		@Override
+		public void save(WatchDogItem item) {
+			calls.add("save " + ((EventBase) item).getTime());
+			savedTimes.add(((EventBase) item).getTime());
+		}
+
+		@Override
+		public void startBatch() {
+			calls.add("start");
+		}
+
+		@Override
+		public void batchedSave(WatchDogItem item) {
+			calls.add("batched " + ((EventBase) item).getTime());
+			savedTimes.add(((EventBase) item).getTime());
+		}
+
+		@Override
+		public void commitBatch() {
+			calls.add("commit");
+		}
+	}
+}
@@ -0,0 +1,128 @@
+package nl.tudelft.watchdog.logic.ui;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.After;
+import org.junit.Test;
+
+import nl.tudelft.watchdog.core.logic.ui.listeners.staticanalysis.CheckStyleBundleLoader;
+import nl.tudelft.watchdog.core.logic.ui.listeners.staticanalysis.StaticAnalysisMessageClassifier;
+
+/**
+ * Tests that the {@link CheckStyleBundleLoader} publishes the custom messages
+ * of every owner, and only converts the ones of a changed configuration again.
+ */
+public class CheckStyleBundleLoaderTest {
+
+	/** Can not load CheckStyle, so that there are no default messages. */
+	private static final ClassLoader EMPTY_CLASS_LOADER = new ClassLoader(null) {
+	};
+
+	private final Object firstOwner = new Object();
+
+	private final Object secondOwner = new Object();
+
+	@After
+	public void tearDown() throws Exception {
+		CheckStyleBundleLoader.unload(firstOwner).get();
+		CheckStyleBundleLoader.unload(secondOwner).get();
+	}
+
+	@Test
+	public void custom_messages_are_classified_once_published() throws Exception {
+		CompletableFuture<Void> loaded = CheckStyleBundleLoader.load(EMPTY_CLASS_LOADER, firstOwner,
+				messages -> messages.accept("config.LineLength.maxLen", "Line is longer than {0} characters"));
+
+		awaitQuietly(loaded);
+		assertTrue(loaded.isCompletedExceptionally());
+		assertTrue(StaticAnalysisMessageClassifier.whenCheckStyleBundleReady().isDone());
+		assertEquals("checkstyle.config.LineLength.maxLen",
+				classify("Line is longer than 100 characters"));
+	}
+
+	@Test
+	public void reload_only_replaces_messages_of_owner() throws Exception {
+		awaitQuietly(CheckStyleBundleLoader.load(EMPTY_CLASS_LOADER, firstOwner,
+				messages -> messages.accept("first.old", "Old message")));
+		awaitQuietly(CheckStyleBundleLoader.load(EMPTY_CLASS_LOADER, secondOwner,
+				messages -> messages.accept("second", "Name ''{0}'' is too short")));
+
+		CheckStyleBundleLoader.reloadCustomMessages(firstOwner,
+				messages -> messages.accept("first.new", "New message")).get();
+
+		assertEquals("unknown", classify("Old message"));
+		assertEquals("checkstyle.first.new", classify("New message"));
+		assertEquals("checkstyle.second", classify("Name 'x' is too short"));
+	}
+
+	@Test
+	public void unloaded_messages_are_removed() throws Exception {
+		awaitQuietly(CheckStyleBundleLoader.load(EMPTY_CLASS_LOADER, firstOwner,
+				messages -> messages.accept("first", "Some message")));
+		assertEquals("checkstyle.first", classify("Some message"));
+
+		CheckStyleBundleLoader.unload(firstOwner).get();
+		assertEquals("unknown", classify("Some message"));
+	}
+
+	@Test
+	public void failing_custom_messages_still_publish_bundle() throws Exception {
+		CompletableFuture<Void> reloaded = CheckStyleBundleLoader.reloadCustomMessages(firstOwner, messages -> {
+			messages.accept("first", "Some message");
+			throw new IllegalStateException("Configuration could not be read");
+		});
+
+		awaitQuietly(reloaded);
+		assertTrue(reloaded.isCompletedExceptionally());
+		assertEquals("checkstyle.first", classify("Some message"));
+	}
+
+	@Test
+	public void tasks_run_in_order_once_published() throws Exception {
+		CountDownLatch loading = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		CompletableFuture<Void> loaded = CheckStyleBundleLoader.load(EMPTY_CLASS_LOADER, firstOwner, messages -> {
+			loading.countDown();
+			release.await();
+			messages.accept("first", "Some message");
+		});
+		loading.await();
+
+		List<Integer> order = Collections.synchronizedList(new ArrayList<Integer>());
+		List<String> threads = Collections.synchronizedList(new ArrayList<String>());
+		for (int i = 0; i < 5; i++) {
+			int task = i;
+			StaticAnalysisMessageClassifier.runWhenCheckStyleBundleReady(() -> {
+				order.add(task);
+				threads.add(Thread.currentThread().getName());
+				assertEquals("checkstyle.first", classify("Some message"));
+			});
+		}
+		release.countDown();
+		awaitQuietly(loaded);
+
+		CountDownLatch done = new CountDownLatch(1);
+		StaticAnalysisMessageClassifier.runWhenCheckStyleBundleReady(done::countDown);
+		done.await();
+		assertEquals(Arrays.asList(0, 1, 2, 3, 4), order);
+		assertFalse(threads.contains("WatchDog CheckStyle loader"));
+	}
+
+	private static String classify(String message) {
+		return StaticAnalysisMessageClassifier
+				.classify(StaticAnalysisMessageClassifier.START_OF_CHECKSTYLE_MESSAGE + message);
+	}
+
+	private static void awaitQuietly(CompletableFuture<Void> future) {
+		future.handle((result, exception) -> null).join();
+	}
+}
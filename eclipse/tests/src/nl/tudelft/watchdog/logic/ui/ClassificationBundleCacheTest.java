@@ -0,0 +1,113 @@
+package nl.tudelft.watchdog.logic.ui;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import nl.tudelft.watchdog.core.logic.ui.listeners.staticanalysis.ClassificationBundle;
+import nl.tudelft.watchdog.core.logic.ui.listeners.staticanalysis.ClassificationBundleCache;
+
+/**
+ * Tests that a {@link ClassificationBundle} read by a
+ * {@link ClassificationBundleCache} behaves like a freshly built one.
+ */
+public class ClassificationBundleCacheTest {
+
+	private File cacheFile;
+
+	@Before
+	public void setup() throws IOException {
+		cacheFile = File.createTempFile("classificationBundle", ".cache");
+		cacheFile.delete();
+	}
+
+	@After
+	public void tearDown() {
+		cacheFile.delete();
+	}
+
+	@Test
+	public void bundle_is_read_back_from_file() {
+		ClassificationBundle built = load(createCache());
+		assertTrue(cacheFile.isFile());
+		long modified = cacheFile.lastModified();
+		long length = cacheFile.length();
+
+		ClassificationBundle read = load(createCache());
+
+		assertEquals(modified, cacheFile.lastModified());
+		assertEquals(length, cacheFile.length());
+		assertLookupsEqual(built, read);
+		assertEquals("unused.private.method", read.getFromBundle("Private method 'foo()' is never used"));
+	}
+
+	@Test
+	public void changed_messages_rewrite_file() {
+		load(createCache());
+
+		ClassificationBundleCache cache = createCache();
+		cache.addMessage("final.field", "Field <code>#ref</code> can be final");
+		ClassificationBundle bundle = load(cache);
+
+		assertEquals("final.field", bundle.getFromBundle("Field 'x' can be final"));
+		assertEquals("final.field", load(cache).getFromBundle("Field 'x' can be final"));
+	}
+
+	@Test
+	public void corrupt_file_is_ignored() throws IOException {
+		load(createCache());
+		byte[] contents = new byte[(int) cacheFile.length() / 2];
+		try (FileOutputStream output = new FileOutputStream(cacheFile)) {
+			output.write(contents);
+		}
+
+		ClassificationBundle bundle = load(createCache());
+
+		assertEquals("unused.import", bundle.getFromBundle("The import java.util.List is never used"));
+		assertEquals("static", bundle.getFromBundle("Empty statement"));
+	}
+
+	@Test
+	public void non_empty_bundle_is_not_cached() {
+		ClassificationBundle bundle = new ClassificationBundle();
+		bundle.addMessage("other", "Some other message");
+		createCache().loadInto(bundle);
+
+		assertTrue(!cacheFile.exists());
+		assertEquals("other", bundle.getFromBundle("Some other message"));
+		assertEquals("static", bundle.getFromBundle("Empty statement"));
+	}
+
+	private ClassificationBundleCache createCache() {
+		ClassificationBundleCache cache = new ClassificationBundleCache(cacheFile);
+		cache.addMessage("unused.import", "The import {0} is never used");
+		cache.addMessage("unused.method", "Method <code>#ref()</code> is never used");
+		cache.addMessage("unused.private.method", "Private method <code>#ref()</code> is never used");
+		cache.addMessage("deprecated", "{0} ({1}) is deprecated");
+		cache.addMessage("array", "Array [{0}] of {1} elements");
+		cache.addMessage("static", "Empty statement");
+		return cache;
+	}
+
+	private ClassificationBundle load(ClassificationBundleCache cache) {
+		ClassificationBundle bundle = new ClassificationBundle();
+		cache.loadInto(bundle);
+		return bundle;
+	}
+
+	private void assertLookupsEqual(ClassificationBundle expected, ClassificationBundle actual) {
+		String[] messages = { "The import java.util.List is never used", "Method 'foo()' is never used",
+				"Thread.stop (since 1.2) is deprecated", "Array [x] of 3 elements", "Empty statement",
+				"Something completely different" };
+		for (String message : messages) {
+			assertEquals(expected.getFromBundle(message), actual.getFromBundle(message));
+		}
+	}
+}
@@ -0,0 +1,87 @@
+package nl.tudelft.watchdog.logic.ui;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import nl.tudelft.watchdog.core.logic.ui.listeners.staticanalysis.ClassificationBundle;
+import nl.tudelft.watchdog.core.util.LRUCache;
+
+/**
+ * Tests the lookup of message keys in a {@link ClassificationBundle}.
+ */
+public class ClassificationBundleTest {
+
+	private ClassificationBundle bundle;
+
+	@Before
+	public void setup() {
+		bundle = new ClassificationBundle();
+		bundle.addMessage("unused.import", "The import {0} is never used");
+		bundle.addMessage("unused.method", "Method <code>#ref()</code> is never used");
+		bundle.addMessage("unused.private.method", "Private method <code>#ref()</code> is never used");
+		bundle.addMessage("deprecated", "{0} ({1}) is deprecated");
+		bundle.addMessage("array", "Array [{0}] of {1} elements");
+		bundle.addMessage("escaped.brace", "Use of {} in {0}");
+		bundle.addMessage("any.dot", "Name {0} ends with a.b");
+		bundle.addMessage("static", "Empty statement");
+		bundle.sortList();
+	}
+
+	@Test
+	public void static_message_is_found() {
+		assertEquals("static", bundle.getFromBundle("Empty statement"));
+	}
+
+	@Test
+	public void dynamic_messages_are_found() {
+		assertEquals("unused.import", bundle.getFromBundle("The import java.util.List is never used"));
+		assertEquals("deprecated", bundle.getFromBundle("Thread.stop (since 1.2) is deprecated"));
+		assertEquals("array", bundle.getFromBundle("Array [x] of 3 elements"));
+		assertEquals("escaped.brace", bundle.getFromBundle("Use of {} in format"));
+		assertEquals("any.dot", bundle.getFromBundle("Name A ends with aXb"));
+	}
+
+	@Test
+	public void longest_pattern_takes_precedence() {
+		assertEquals("unused.private.method", bundle.getFromBundle("Private method 'foo()' is never used"));
+		assertEquals("unused.method", bundle.getFromBundle("Method 'foo()' is never used"));
+	}
+
+	@Test
+	public void unknown_message_is_not_found() {
+		assertEquals("unknown", bundle.getFromBundle("Something completely different"));
+		assertEquals("unknown", bundle.getFromBundle("is never used"));
+	}
+
+	@Test
+	public void messages_added_after_lookup_are_found() {
+		assertEquals("unknown", bundle.getFromBundle("Field 'x' can be final"));
+		bundle.addMessage("final.field", "Field <code>#ref</code> can be final");
+		bundle.sortList();
+
+		assertEquals("final.field", bundle.getFromBundle("Field 'x' can be final"));
+	}
+
+	@Test
+	public void unknown_messages_are_cached() {
+		bundle.getFromBundle("Something completely different");
+		bundle.getFromBundle("Something completely different");
+		bundle.getFromBundle("The import java.util.List is never used");
+
+		assertEquals(1, bundle.getCache().getHits());
+		assertEquals(2, bundle.getCache().getMisses());
+	}
+
+	@Test
+	public void cache_is_replaced_when_bundle_changes() {
+		bundle.getFromBundle("Field 'x' can be final");
+		LRUCache<String, String> cache = bundle.getCache();
+		bundle.addMessage("final.field", "Field <code>#ref</code> can be final");
+
+		assertNotSame(cache, bundle.getCache());
+		assertEquals(0, bundle.getCache().size());
+	}
+}
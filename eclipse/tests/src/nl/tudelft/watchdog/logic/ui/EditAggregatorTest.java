@@ -0,0 +1,165 @@
+package nl.tudelft.watchdog.logic.ui;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import nl.tudelft.watchdog.core.logic.document.Document;
+import nl.tudelft.watchdog.core.logic.document.EditorWrapperBase;
+import nl.tudelft.watchdog.core.logic.interval.IDEIntervalManagerBase;
+import nl.tudelft.watchdog.core.logic.interval.intervaltypes.TypingInterval;
+import nl.tudelft.watchdog.core.logic.network.JsonTransferer;
+import nl.tudelft.watchdog.core.logic.storage.PersisterBase;
+import nl.tudelft.watchdog.core.logic.storage.WatchDogItem;
+import nl.tudelft.watchdog.core.logic.ui.EditAggregator;
+import nl.tudelft.watchdog.core.logic.ui.InactivityNotifier;
+import nl.tudelft.watchdog.core.logic.ui.InactivityNotifiers;
+import nl.tudelft.watchdog.core.logic.ui.UserInactivityNotifier;
+import nl.tudelft.watchdog.core.logic.ui.events.WatchDogEventRecorder;
+import nl.tudelft.watchdog.core.logic.ui.events.WatchDogEventType;
+
+/**
+ * Tests that the {@link EditAggregator} collapses bulk edits into a single
+ * edit.
+ */
+public class EditAggregatorTest {
+
+	private static final int TIMEOUT = 60 * 60 * 1000;
+
+	private static final int CHANGES = 1000;
+
+	private IDEIntervalManagerBase intervalManager;
+
+	private File recording;
+
+	private WatchDogEventRecorder recorder;
+
+	private EditAggregator edits;
+
+	@Before
+	public void setup() throws IOException {
+		recording = File.createTempFile("watchdog", ".events");
+		intervalManager = new IDEIntervalManagerBase(new PersisterBase() {
+			@Override
+			public void save(WatchDogItem item) {
+			}
+		}, new PersisterBase() {
+			@Override
+			public void save(WatchDogItem item) {
+			}
+
+			@Override
+			public void batchedSave(WatchDogItem item) {
+			}
+
+			@Override
+			public void commitBatch() {
+			}
+		}) {
+			@Override
+			protected void setEndingDocumentOf(TypingInterval typingInterval) {
+				typingInterval.setEndingDocument(typingInterval.getDocument());
+			}
+		};
+		WatchDogEventType.intervalManager = intervalManager;
+		WatchDogEventType.editorSpecificImplementation = new WatchDogEventType.WatchDogEventEditorSpecificImplementation() {
+			@Override
+			public void addJUnitInterval(Object source) {
+			}
+
+			@Override
+			public EditorWrapperBase createEditorWrapper(final Object editor) {
+				return () -> editor;
+			}
+
+			@Override
+			public Document createDocument(Object editor) {
+				return new Document("project", editor + ".java", "src/", "");
+			}
+		};
+		InactivityNotifiers.USER_INACTIVITY
+				.updateNotifier(new UserInactivityNotifier(TIMEOUT, WatchDogEventType.USER_INACTIVITY));
+		InactivityNotifiers.READING
+				.updateNotifier(new InactivityNotifier(TIMEOUT, WatchDogEventType.READING_INACTIVITY));
+		InactivityNotifiers.TYPING.updateNotifier(new InactivityNotifier(TIMEOUT, WatchDogEventType.TYPING_INACTIVITY));
+
+		recorder = WatchDogEventRecorder.startRecording(recording);
+		edits = new EditAggregator("Editor");
+	}
+
+	@After
+	public void tearDown() {
+		WatchDogEventRecorder.stopRecording();
+		recording.delete();
+	}
+
+	@Test
+	public void bulk_edit_is_processed_as_single_edit() {
+		edits.startBulkEdit();
+		for (int change = 0; change < CHANGES; change++) {
+			edits.beforeChange();
+			edits.changed(2);
+		}
+		assertEquals(1, recorder.getRecordedEvents());
+		edits.endBulkEdit();
+
+		assertEquals(2, recorder.getRecordedEvents());
+		assertEquals(2 * CHANGES, getModCountOfTypingInterval());
+	}
+
+	@Test
+	public void nested_bulk_edits_end_with_outermost() {
+		edits.startBulkEdit();
+		edits.startBulkEdit();
+		edits.beforeChange();
+		edits.changed(3);
+		edits.endBulkEdit();
+		assertTrue(edits.isBulkEdit());
+		edits.beforeChange();
+		edits.changed(4);
+		edits.endBulkEdit();
+
+		assertFalse(edits.isBulkEdit());
+		assertEquals(2, recorder.getRecordedEvents());
+		assertEquals(7, getModCountOfTypingInterval());
+	}
+
+	@Test
+	public void changes_outside_of_bulk_edits_are_processed_immediately() {
+		for (int change = 0; change < 3; change++) {
+			edits.beforeChange();
+			edits.changed(1);
+		}
+		assertEquals(6, recorder.getRecordedEvents());
+		assertEquals(3, getModCountOfTypingInterval());
+	}
+
+	@Test
+	public void bulk_edit_without_changes_is_not_processed() {
+		edits.startBulkEdit();
+		edits.endBulkEdit();
+		edits.endBulkEdit();
+
+		assertFalse(edits.isBulkEdit());
+		assertEquals(0, recorder.getRecordedEvents());
+	}
+
+	private int getModCountOfTypingInterval() {
+		TypingInterval typingInterval = (TypingInterval) intervalManager.getEditorInterval();
+		String json = new JsonTransferer().toJson(typingInterval);
+		String key = "\"modCountDiff\":";
+		int start = json.indexOf(key) + key.length();
+		int end = start;
+		while (Character.isDigit(json.charAt(end))) {
+			end++;
+		}
+		return Integer.parseInt(json.substring(start, end));
+	}
+}
@@ -0,0 +1,157 @@
+package nl.tudelft.watchdog.logic.ui;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.lang.reflect.Method;
+import java.util.Date;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.gson.Gson;
+
+import nl.tudelft.watchdog.core.logic.document.Document;
+import nl.tudelft.watchdog.core.logic.document.EditorWrapperBase;
+import nl.tudelft.watchdog.core.logic.interval.IDEIntervalManagerBase;
+import nl.tudelft.watchdog.core.logic.interval.intervaltypes.TypingInterval;
+import nl.tudelft.watchdog.core.logic.storage.PersisterBase;
+import nl.tudelft.watchdog.core.logic.storage.WatchDogItem;
+import nl.tudelft.watchdog.core.logic.ui.InactivityNotifier;
+import nl.tudelft.watchdog.core.logic.ui.InactivityNotifiers;
+import nl.tudelft.watchdog.core.logic.ui.UserInactivityNotifier;
+import nl.tudelft.watchdog.core.logic.ui.events.WatchDogEventType;
+
+/**
+ * Tests that keystrokes within an open typing interval do not allocate, as
+ * they are processed on the UI thread for every key the user presses, and that
+ * the reused edits are copied when they are handed over to that thread.
+ */
+public class KeystrokeAllocationTest {
+
+	private static final int TIMEOUT = 60 * 60 * 1000;
+
+	private static final int KEYSTROKES = 100000;
+
+	private IDEIntervalManagerBase intervalManager;
+
+	@Before
+	public void setup() {
+		PersisterBase persister = new PersisterBase() {
+			@Override
+			public void save(WatchDogItem item) {
+			}
+
+			@Override
+			public void batchedSave(WatchDogItem item) {
+			}
+
+			@Override
+			public void commitBatch() {
+			}
+		};
+		intervalManager = new IDEIntervalManagerBase(persister, persister) {
+			@Override
+			protected void setEndingDocumentOf(TypingInterval typingInterval) {
+			}
+		};
+		WatchDogEventType.intervalManager = intervalManager;
+		WatchDogEventType.editorSpecificImplementation = new WatchDogEventType.WatchDogEventEditorSpecificImplementation() {
+			@Override
+			public void addJUnitInterval(Object source) {
+			}
+
+			@Override
+			public EditorWrapperBase createEditorWrapper(final Object editor) {
+				return () -> editor;
+			}
+
+			@Override
+			public Document createDocument(Object editor) {
+				return null;
+			}
+		};
+		InactivityNotifiers.USER_INACTIVITY
+				.updateNotifier(new UserInactivityNotifier(TIMEOUT, WatchDogEventType.USER_INACTIVITY));
+		InactivityNotifiers.READING
+				.updateNotifier(new InactivityNotifier(TIMEOUT, WatchDogEventType.READING_INACTIVITY));
+		InactivityNotifiers.TYPING.updateNotifier(new InactivityNotifier(TIMEOUT, WatchDogEventType.TYPING_INACTIVITY));
+	}
+
+	@After
+	public void tearDown() {
+		InactivityNotifiers.USER_INACTIVITY.cancelTimer(System.currentTimeMillis());
+		InactivityNotifiers.READING.cancelTimer(System.currentTimeMillis());
+		InactivityNotifiers.TYPING.cancelTimer(System.currentTimeMillis());
+		intervalManager.closeAllIntervals(new Date());
+	}
+
+	@Test
+	public void subsequent_edits_do_not_allocate() throws Exception {
+		Object editor = "Editor";
+		WatchDogEventType.EditorWithModCount edit = new WatchDogEventType.EditorWithModCount(editor, 0);
+		WatchDogEventType.START_EDIT.process(editor);
+		typeKeystrokes(editor, edit);
+
+		long before = getAllocatedBytes();
+		if (before < 0) {
+			// The JVM does not support measuring allocations.
+			return;
+		}
+		typeKeystrokes(editor, edit);
+		long allocated = getAllocatedBytes() - before;
+
+		assertTrue("Allocated " + allocated + " bytes", allocated < KEYSTROKES);
+	}
+
+	@Test
+	public void handed_over_edits_keep_their_mod_count() throws Exception {
+		Object editor = "Editor";
+		WatchDogEventType.EditorWithModCount edit = new WatchDogEventType.EditorWithModCount(editor, 0);
+		WatchDogEventType.START_EDIT.process(editor);
+		ExecutorService owner = Executors.newSingleThreadExecutor();
+		try {
+			intervalManager.confineTo(owner.submit(Thread::currentThread).get(), owner);
+			// Blocks the owner thread, so that both edits are queued before either is processed
+			CountDownLatch queued = new CountDownLatch(1);
+			owner.submit(() -> {
+				queued.await();
+				return null;
+			});
+			WatchDogEventType.SUBSEQUENT_EDIT.process(edit.withModCount(3));
+			WatchDogEventType.SUBSEQUENT_EDIT.process(edit.withModCount(4));
+			queued.countDown();
+			owner.submit(() -> {
+			}).get();
+		} finally {
+			owner.shutdown();
+		}
+
+		TypingInterval typingInterval = (TypingInterval) intervalManager.getEditorInterval();
+		assertEquals(7, new Gson().toJsonTree(typingInterval).getAsJsonObject().get("modCountDiff").getAsInt());
+	}
+
+	private static void typeKeystrokes(Object editor, WatchDogEventType.EditorWithModCount edit) {
+		for (int i = 0; i < KEYSTROKES; i++) {
+			WatchDogEventType.START_EDIT.process(editor);
+			WatchDogEventType.SUBSEQUENT_EDIT.process(edit.withModCount(1));
+		}
+	}
+
+	private static long getAllocatedBytes() throws Exception {
+		ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+		try {
+			Method method = Class.forName("com.sun.management.ThreadMXBean").getMethod("getThreadAllocatedBytes",
+					long.class);
+			return (Long) method.invoke(threadBean, Thread.currentThread().getId());
+		} catch (ClassNotFoundException | NoSuchMethodException exception) {
+			return -1;
+		}
+	}
+}
@@ -0,0 +1,101 @@
+package nl.tudelft.watchdog.logic.ui;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.util.Date;
+import java.util.List;
+
+import org.junit.Test;
+
+import nl.tudelft.watchdog.core.logic.ui.listeners.staticanalysis.PendingWarningChanges;
+import nl.tudelft.watchdog.core.logic.ui.listeners.staticanalysis.Warning;
+
+/**
+ * Tests that {@link PendingWarningChanges} cancels out the highlighters that
+ * are replaced by equal ones.
+ */
+public class PendingWarningChangesTest {
+
+	private final PendingWarningChanges<Object> changes = new PendingWarningChanges<>();
+
+	@Test
+	public void highlighter_created_and_removed_is_dropped() {
+		Object highlighter = new Object();
+		changes.created(highlighter, "a", createWarning(highlighter, 1000));
+		changes.removed(highlighter, "a", creationTime -> createWarning(highlighter, 2000));
+
+		assertEquals(0, changes.drainCreatedWarnings().size());
+		assertEquals(0, changes.drainRemovedWarnings().size());
+	}
+
+	@Test
+	public void unmatched_changes_are_kept() {
+		Object created = new Object();
+		Object removed = new Object();
+		changes.created(created, "a", createWarning(created, 1000));
+		changes.removed(removed, "b", creationTime -> createWarning(removed, 2000));
+
+		List<Warning<Object>> createdWarnings = changes.drainCreatedWarnings();
+		List<Warning<Object>> removedWarnings = changes.drainRemovedWarnings();
+		assertEquals(1, createdWarnings.size());
+		assertSame(created, createdWarnings.get(0).type);
+		assertEquals(1, removedWarnings.size());
+		assertSame(removed, removedWarnings.get(0).type);
+		assertEquals(0, changes.drainCreatedWarnings().size());
+		assertEquals(0, changes.drainRemovedWarnings().size());
+	}
+
+	@Test
+	public void replacement_keeps_creation_time_of_replaced_highlighter() {
+		Object original = new Object();
+		Object replacement = new Object();
+		changes.created(original, "a", createWarning(original, 1000));
+		changes.drainCreatedWarnings();
+
+		changes.removed(original, "a", creationTime -> createWarning(original, 2000));
+		changes.created(replacement, "a", createWarning(replacement, 2000));
+		assertEquals(0, changes.drainCreatedWarnings().size());
+		assertEquals(0, changes.drainRemovedWarnings().size());
+
+		Date[] removedCreationTime = new Date[1];
+		changes.removed(replacement, "a", creationTime -> {
+			removedCreationTime[0] = creationTime;
+			return createWarning(replacement, 3000);
+		});
+		assertEquals(1000, removedCreationTime[0].getTime());
+		assertEquals(1, changes.drainRemovedWarnings().size());
+	}
+
+	@Test
+	public void replacement_created_before_removal_cancels_out() {
+		Object original = new Object();
+		Object replacement = new Object();
+
+		changes.created(replacement, "a", createWarning(replacement, 2000));
+		changes.removed(original, "a", creationTime -> createWarning(original, 2000));
+
+		assertEquals(0, changes.drainCreatedWarnings().size());
+		assertEquals(0, changes.drainRemovedWarnings().size());
+	}
+
+	@Test
+	public void unknown_creation_time_is_passed_on() {
+		Object original = new Object();
+		Object replacement = new Object();
+		changes.removed(original, "a", creationTime -> createWarning(original, 2000));
+		changes.created(replacement, "a", createWarning(replacement, 2000));
+
+		Date[] removedCreationTime = { new Date() };
+		changes.removed(replacement, "b", creationTime -> {
+			removedCreationTime[0] = creationTime;
+			return createWarning(replacement, 3000);
+		});
+		assertNull(removedCreationTime[0]);
+	}
+
+	private static Warning<Object> createWarning(Object highlighter, long time) {
+		return new Warning<>(100, highlighter, 1, new Date(time));
+	}
+}
@@ -0,0 +1,121 @@
+package nl.tudelft.watchdog.logic.ui;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import nl.tudelft.watchdog.core.logic.ui.TimeSynchronityChecker;
+import nl.tudelft.watchdog.core.util.WatchDogClock;
+import nl.tudelft.watchdog.core.util.WatchDogGlobals;
+
+/**
+ * Tests the suspend detection of the {@link TimeSynchronityChecker} with a
+ * clock that is advanced by the test.
+ */
+public class TimeSynchronityCheckerTest {
+
+	private static final long START = 1000000000000L;
+
+	private static final long CHECK_INTERVAL = 5000;
+
+	private final List<long[]> suspends = new ArrayList<long[]>();
+
+	private long wallTime;
+
+	private long monotonicTime;
+
+	private boolean wasActive;
+
+	private TimeSynchronityChecker checker;
+
+	@Before
+	public void setup() {
+		wasActive = WatchDogGlobals.isActive;
+		WatchDogGlobals.isActive = true;
+		wallTime = START;
+		monotonicTime = 42;
+		WatchDogClock clock = new WatchDogClock() {
+			@Override
+			public long currentTimeMillis() {
+				return wallTime;
+			}
+
+			@Override
+			public long nanoTime() {
+				return monotonicTime;
+			}
+		};
+		checker = new TimeSynchronityChecker(null, clock) {
+			@Override
+			protected void suspendDetected(long suspendStart, long suspendEnd) {
+				suspends.add(new long[] { suspendStart, suspendEnd });
+			}
+		};
+	}
+
+	@After
+	public void tearDown() {
+		WatchDogGlobals.isActive = wasActive;
+	}
+
+	@Test
+	public void regular_checks_detect_no_suspend() {
+		for (int i = 0; i < 10; i++) {
+			advance(CHECK_INTERVAL + 3, CHECK_INTERVAL + 3);
+			checker.checkSynchronity();
+		}
+		assertEquals(0, suspends.size());
+	}
+
+	@Test
+	public void suspend_with_paused_monotonic_clock_is_detected() {
+		advance(CHECK_INTERVAL, CHECK_INTERVAL);
+		checker.checkSynchronity();
+		advance(CHECK_INTERVAL + 60000, CHECK_INTERVAL);
+		checker.checkSynchronity();
+
+		assertEquals(1, suspends.size());
+		assertEquals(START + CHECK_INTERVAL, suspends.get(0)[0]);
+		assertEquals(START + CHECK_INTERVAL + 60000, suspends.get(0)[1]);
+	}
+
+	@Test
+	public void suspend_with_running_monotonic_clock_is_detected() {
+		advance(CHECK_INTERVAL + 60000, CHECK_INTERVAL + 60000);
+		checker.checkSynchronity();
+
+		assertEquals(1, suspends.size());
+		assertEquals(START, suspends.get(0)[0]);
+		assertEquals(START + 60000, suspends.get(0)[1]);
+	}
+
+	@Test
+	public void wall_clock_adjustments_are_ignored() {
+		advance(CHECK_INTERVAL - 60000, CHECK_INTERVAL);
+		checker.checkSynchronity();
+		advance(CHECK_INTERVAL + 1000, CHECK_INTERVAL);
+		checker.checkSynchronity();
+
+		assertEquals(0, suspends.size());
+	}
+
+	@Test
+	public void suspend_is_ignored_while_watchdog_is_inactive() {
+		WatchDogGlobals.isActive = false;
+		advance(CHECK_INTERVAL + 60000, CHECK_INTERVAL);
+		checker.checkSynchronity();
+
+		assertEquals(0, suspends.size());
+	}
+
+	private void advance(long wallMillis, long monotonicMillis) {
+		wallTime += wallMillis;
+		monotonicTime += TimeUnit.MILLISECONDS.toNanos(monotonicMillis);
+	}
+}
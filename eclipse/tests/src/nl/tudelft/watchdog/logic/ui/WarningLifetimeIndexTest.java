@@ -0,0 +1,156 @@
+package nl.tudelft.watchdog.logic.ui;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import nl.tudelft.watchdog.core.logic.ui.listeners.staticanalysis.WarningLifetimeIndex;
+
+/**
+ * Tests that a {@link WarningLifetimeIndex} remembers when warnings were
+ * first seen, also across sessions.
+ */
+public class WarningLifetimeIndexTest {
+
+	private File directory;
+
+	@Before
+	public void setup() throws IOException {
+		directory = File.createTempFile("warningLifetimes", "");
+		directory.delete();
+	}
+
+	@After
+	public void tearDown() {
+		File[] files = directory.listFiles();
+		if (files != null) {
+			for (File file : files) {
+				file.delete();
+			}
+		}
+		directory.delete();
+	}
+
+	@Test
+	public void warnings_keep_first_seen_time() {
+		WarningLifetimeIndex index = new WarningLifetimeIndex(directory);
+		assertTimes(index.update("A.java", Arrays.asList("a", "b"),
+				Arrays.asList(new Date(1000), null), new Date(2000)), 1000, 2000);
+
+		assertTimes(index.update("A.java", Arrays.asList("x", "a", "b", "a"),
+				times(4, 3000), new Date(3000)), 3000, 1000, 2000, 3000);
+	}
+
+	@Test
+	public void first_seen_time_survives_restart() {
+		new WarningLifetimeIndex(directory).update("A.java", Arrays.asList("a"),
+				times(1, 1000), new Date(1000));
+
+		WarningLifetimeIndex index = new WarningLifetimeIndex(directory);
+		assertTimes(index.update("A.java", Arrays.asList("a"),
+				times(1, 5000), new Date(5000)), 1000);
+		assertTimes(index.update("B.java", Arrays.asList("a"),
+				times(1, 5000), new Date(5000)), 5000);
+	}
+
+	@Test
+	public void removed_warnings_are_forgotten() {
+		WarningLifetimeIndex index = new WarningLifetimeIndex(directory);
+		index.update("A.java", Arrays.asList("a"), times(1, 1000), new Date(1000));
+		index.update("A.java", new ArrayList<String>(), new ArrayList<Date>(),
+				new Date(2000));
+		assertFalse(directory.exists() && directory.list().length > 0);
+
+		assertTimes(index.update("A.java", Arrays.asList("a"),
+				times(1, 3000), new Date(3000)), 3000);
+		assertEquals(1, directory.list().length);
+	}
+
+	@Test
+	public void files_evicted_from_memory_are_read_again() {
+		WarningLifetimeIndex index = new WarningLifetimeIndex(directory);
+		for (int i = 0; i < 1000; i++) {
+			index.update("File" + i + ".java", Arrays.asList("a"),
+					times(1, i), new Date(i));
+		}
+		for (int i = 0; i < 1000; i += 100) {
+			assertTimes(index.update("File" + i + ".java", Arrays.asList("a"),
+					times(1, 5000), new Date(5000)), i);
+		}
+	}
+
+	@Test
+	public void index_without_directory_only_remembers_in_memory() {
+		WarningLifetimeIndex index = new WarningLifetimeIndex(null);
+		index.update("A.java", Arrays.asList("a"), times(1, 1000), new Date(1000));
+		assertTimes(index.update("A.java", Arrays.asList("a"), times(1, 2000),
+				new Date(2000)), 1000);
+	}
+
+	@Test
+	public void warnings_with_equal_hash_codes_keep_their_times() {
+		// "Aa" and "BB" have the same String.hashCode()
+		WarningLifetimeIndex index = new WarningLifetimeIndex(directory);
+		assertTimes(index.update("A.java", Arrays.asList("Aa", "BB"),
+				Arrays.asList(new Date(1000), new Date(2000)), new Date(2000)),
+				1000, 2000);
+
+		assertTimes(index.update("A.java", Arrays.asList("BB", "Aa"),
+				times(2, 3000), new Date(3000)), 2000, 1000);
+	}
+
+	@Test
+	public void files_are_written_by_write_executor() {
+		List<Runnable> writes = new ArrayList<>();
+		WarningLifetimeIndex index = new WarningLifetimeIndex(directory,
+				writes::add);
+		index.update("A.java", Arrays.asList("a"), times(1, 1000), new Date(1000));
+		index.update("A.java", Arrays.asList("a", "b"), times(2, 2000),
+				new Date(2000));
+		assertFalse(directory.exists());
+		assertEquals(1, writes.size());
+
+		writes.get(0).run();
+		assertTimes(new WarningLifetimeIndex(directory).update("A.java",
+				Arrays.asList("a", "b"), times(2, 5000), new Date(5000)), 1000,
+				2000);
+	}
+
+	@Test
+	public void pending_writes_of_evicted_files_are_read() {
+		List<Runnable> writes = new ArrayList<>();
+		WarningLifetimeIndex index = new WarningLifetimeIndex(directory,
+				writes::add);
+		for (int i = 0; i < 1000; i++) {
+			index.update("File" + i + ".java", Arrays.asList("a"),
+					times(1, i), new Date(i));
+		}
+		assertTimes(index.update("File0.java", Arrays.asList("a"),
+				times(1, 5000), new Date(5000)), 0);
+	}
+
+	private static List<Date> times(int size, long time) {
+		List<Date> times = new ArrayList<>();
+		for (int i = 0; i < size; i++) {
+			times.add(new Date(time));
+		}
+		return times;
+	}
+
+	private static void assertTimes(Date[] actual, long... expected) {
+		assertEquals(expected.length, actual.length);
+		for (int i = 0; i < expected.length; i++) {
+			assertEquals(expected[i], actual[i].getTime());
+		}
+	}
+}
@@ -0,0 +1,206 @@
+package nl.tudelft.watchdog.logic.ui;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+
+import nl.tudelft.watchdog.core.logic.document.Document;
+import nl.tudelft.watchdog.core.logic.event.eventtypes.staticanalysis.FileWarningSnapshotEvent;
+import nl.tudelft.watchdog.core.logic.ui.listeners.staticanalysis.Warning;
+import nl.tudelft.watchdog.core.logic.ui.listeners.staticanalysis.WarningSnapshotDecoder;
+import nl.tudelft.watchdog.core.logic.ui.listeners.staticanalysis.WarningSnapshotEncoder;
+
+/**
+ * Tests that the snapshots of a {@link WarningSnapshotEncoder} are decoded
+ * to the original warnings.
+ */
+public class WarningSnapshotEncoderTest {
+
+	private final Document document = new Document("Project", "Test.java",
+			"/Project/src/Test.java", "");
+
+	@Test
+	public void decoded_snapshots_equal_original_warnings() {
+		Random random = new Random(42);
+		WarningSnapshotEncoder encoder = new WarningSnapshotEncoder(5);
+		WarningSnapshotDecoder decoder = new WarningSnapshotDecoder();
+		List<Warning<String>> warnings = new ArrayList<>();
+		int deltas = 0;
+		for (int i = 0; i < 500; i++) {
+			warnings = changeRandomly(warnings, random, i);
+			FileWarningSnapshotEvent event = encoder.encode(document, warnings);
+			if (!event.isKeyframe()) {
+				deltas++;
+			}
+			assertEquals(describe(warnings), describe(decoder.decode(event)));
+		}
+		assertTrue(deltas > 250);
+	}
+
+	@Test
+	public void keyframe_follows_interval() {
+		WarningSnapshotEncoder encoder = new WarningSnapshotEncoder(3);
+		List<Warning<String>> warnings = createWarnings(new Date(0), "a", "b");
+		for (int i = 0; i < 7; i++) {
+			FileWarningSnapshotEvent event = encoder.encode(document, warnings);
+			assertEquals(i % 3 == 0, event.isKeyframe());
+			assertEquals(i % 3, event.getSequence());
+		}
+	}
+
+	@Test
+	public void interval_of_one_only_creates_keyframes() {
+		WarningSnapshotEncoder encoder = new WarningSnapshotEncoder(1);
+		List<Warning<String>> warnings = createWarnings(new Date(0), "a", "b");
+		assertTrue(encoder.encode(document, warnings).isKeyframe());
+		assertTrue(encoder.encode(document, warnings).isKeyframe());
+	}
+
+	@Test
+	public void delta_only_contains_changes() {
+		WarningSnapshotEncoder encoder = new WarningSnapshotEncoder(20);
+		encoder.encode(document, createWarnings(new Date(0), "a", "b", "c", "d"));
+		FileWarningSnapshotEvent event = encoder.encode(document,
+				createWarnings(new Date(1000), "a", "c", "d", "e"));
+
+		assertFalse(event.isKeyframe());
+		assertEquals(1, event.removedIndices.length);
+		assertEquals(1, event.removedIndices[0]);
+		assertEquals(1, event.addedWarnings.size());
+		assertEquals("e", event.addedWarnings.get(0).type);
+	}
+
+	@Test
+	public void warnings_of_different_times_are_keyframe() {
+		WarningSnapshotEncoder encoder = new WarningSnapshotEncoder(20);
+		encoder.encode(document, createWarnings(new Date(0), "a", "b"));
+		List<Warning<String>> warnings = createWarnings(new Date(0), "a");
+		warnings.addAll(createWarnings(new Date(1000), "b"));
+
+		assertTrue(encoder.encode(document, warnings).isKeyframe());
+	}
+
+	@Test
+	public void delta_without_previous_snapshot_is_not_decoded() {
+		WarningSnapshotEncoder encoder = new WarningSnapshotEncoder(20);
+		encoder.encode(document, createWarnings(new Date(0), "a", "b"));
+		FileWarningSnapshotEvent delta = encoder.encode(document,
+				createWarnings(new Date(0), "a", "b", "c"));
+
+		assertNull(new WarningSnapshotDecoder().decode(delta));
+	}
+
+	@Test
+	public void same_path_in_other_project_is_keyframe() {
+		WarningSnapshotEncoder encoder = new WarningSnapshotEncoder(20);
+		Document otherDocument = new Document("OtherProject", "Test.java",
+				"/Project/src/Test.java", "");
+		FileWarningSnapshotEvent event = encoder.encode(document,
+				createWarnings(new Date(0), "a", "b"));
+		FileWarningSnapshotEvent otherEvent = encoder.encode(otherDocument,
+				createWarnings(new Date(0), "a", "b", "c"));
+
+		assertFalse(event.fileKey.equals(otherEvent.fileKey));
+		assertTrue(otherEvent.isKeyframe());
+	}
+
+	@Test
+	public void requested_encoder_only_creates_keyframes_by_default() {
+		System.clearProperty(WarningSnapshotEncoder.KEYFRAME_INTERVAL_PROPERTY);
+		WarningSnapshotEncoder encoder = WarningSnapshotEncoder
+				.createRequestedEncoder();
+		assertTrue(encoder.encode(document,
+				createWarnings(new Date(0), "a", "b")).isKeyframe());
+		assertTrue(encoder.encode(document,
+				createWarnings(new Date(0), "a", "b", "c")).isKeyframe());
+	}
+
+	@Test
+	public void keyframes_only_snapshots_only_contain_document_and_warnings() {
+		WarningSnapshotEncoder encoder = new WarningSnapshotEncoder(
+				WarningSnapshotEncoder.KEYFRAMES_ONLY);
+		FileWarningSnapshotEvent event = encoder.encode(document,
+				createWarnings(new Date(0), "a", "b"));
+		JsonObject json = new Gson().toJsonTree(event).getAsJsonObject();
+
+		assertTrue(json.has("doc"));
+		assertTrue(json.has("warnings"));
+		assertFalse(json.has("key"));
+		assertFalse(json.has("seq"));
+		assertFalse(json.has("doctotal"));
+		assertEquals(describe(event.warnings),
+				describe(new WarningSnapshotDecoder().decode(event)));
+	}
+
+	/** @return a warning of every type, on a line that depends on its type. */
+	private static List<Warning<String>> createWarnings(Date time,
+			String... types) {
+		List<Warning<String>> warnings = new ArrayList<>();
+		for (String type : types) {
+			warnings.add(new Warning<>(100, type, type.charAt(0), time));
+		}
+		return warnings;
+	}
+
+	/**
+	 * @return the warnings with a few random ones added and removed, all
+	 *         created at the time of the build. Sometimes the length of the
+	 *         document differs per warning.
+	 */
+	private static List<Warning<String>> changeRandomly(
+			List<Warning<String>> warnings, Random random, int build) {
+		List<String> types = new ArrayList<>();
+		List<Integer> lines = new ArrayList<>();
+		List<Integer> seconds = new ArrayList<>();
+		for (Warning<String> warning : warnings) {
+			types.add(warning.type);
+			lines.add(warning.lineNumber);
+			seconds.add(warning.secondsBetween);
+		}
+		for (int i = random.nextInt(4); i > 0 && !types.isEmpty(); i--) {
+			int index = random.nextInt(types.size());
+			types.remove(index);
+			lines.remove(index);
+			seconds.remove(index);
+		}
+		for (int i = random.nextInt(4); i > 0; i--) {
+			int index = random.nextInt(types.size() + 1);
+			types.add(index, "type" + random.nextInt(5));
+			lines.add(index, random.nextInt(50));
+			seconds.add(index, random.nextInt(3) - 1);
+		}
+
+		Date time = new Date(build * 1000L);
+		boolean hasMixedLengths = random.nextInt(10) == 0;
+		List<Warning<String>> changed = new ArrayList<>();
+		for (int i = 0; i < types.size(); i++) {
+			int docTotalLines = hasMixedLengths ? i : 100;
+			changed.add(new Warning<>(docTotalLines, types.get(i),
+					lines.get(i), time, seconds.get(i)));
+		}
+		return changed;
+	}
+
+	private static String describe(List<Warning<String>> warnings) {
+		StringBuilder description = new StringBuilder();
+		for (Warning<String> warning : warnings) {
+			description.append(warning.type).append('@')
+					.append(warning.lineNumber).append('/')
+					.append(warning.docTotalLines).append('/')
+					.append(warning.warningCreationTime.getTime()).append('/')
+					.append(warning.secondsBetween).append(' ');
+		}
+		return description.toString();
+	}
+}
@@ -0,0 +1,162 @@
+package nl.tudelft.watchdog.logic.ui;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import nl.tudelft.watchdog.core.logic.document.Document;
+import nl.tudelft.watchdog.core.logic.document.EditorWrapperBase;
+import nl.tudelft.watchdog.core.logic.event.eventtypes.staticanalysis.FileWarningSnapshotEvent;
+import nl.tudelft.watchdog.core.logic.interval.IDEIntervalManagerBase;
+import nl.tudelft.watchdog.core.logic.interval.intervaltypes.IntervalBase;
+import nl.tudelft.watchdog.core.logic.interval.intervaltypes.IntervalType;
+import nl.tudelft.watchdog.core.logic.interval.intervaltypes.PerspectiveInterval.Perspective;
+import nl.tudelft.watchdog.core.logic.interval.intervaltypes.TypingInterval;
+import nl.tudelft.watchdog.core.logic.storage.PersisterBase;
+import nl.tudelft.watchdog.core.logic.storage.WatchDogItem;
+import nl.tudelft.watchdog.core.logic.ui.InactivityNotifier;
+import nl.tudelft.watchdog.core.logic.ui.InactivityNotifiers;
+import nl.tudelft.watchdog.core.logic.ui.UserInactivityNotifier;
+import nl.tudelft.watchdog.core.logic.ui.events.WatchDogEventRecorder;
+import nl.tudelft.watchdog.core.logic.ui.events.WatchDogEventReplayer;
+import nl.tudelft.watchdog.core.logic.ui.events.WatchDogEventReplayer.ReplayResult;
+import nl.tudelft.watchdog.core.logic.ui.events.WatchDogEventType;
+
+/**
+ * Tests that a recording of the {@link WatchDogEventRecorder} is replayed by
+ * the {@link WatchDogEventReplayer} into the same intervals.
+ */
+public class WatchDogEventReplayerTest {
+
+	private static final int TIMEOUT = 60 * 60 * 1000;
+
+	private final List<IntervalBase> savedIntervals = new ArrayList<IntervalBase>();
+
+	private IDEIntervalManagerBase intervalManager;
+
+	private File recording;
+
+	@Before
+	public void setup() throws IOException {
+		recording = File.createTempFile("watchdog", ".events");
+		PersisterBase persister = new PersisterBase() {
+			@Override
+			public void save(WatchDogItem item) {
+				savedIntervals.add((IntervalBase) item);
+			}
+		};
+		intervalManager = new IDEIntervalManagerBase(persister, new PersisterBase() {
+			@Override
+			public void save(WatchDogItem item) {
+			}
+
+			@Override
+			public void batchedSave(WatchDogItem item) {
+			}
+
+			@Override
+			public void commitBatch() {
+			}
+		}) {
+			@Override
+			protected void setEndingDocumentOf(TypingInterval typingInterval) {
+				typingInterval.setEndingDocument(typingInterval.getDocument());
+			}
+		};
+		WatchDogEventType.intervalManager = intervalManager;
+		WatchDogEventType.editorSpecificImplementation = new WatchDogEventType.WatchDogEventEditorSpecificImplementation() {
+			@Override
+			public void addJUnitInterval(Object source) {
+			}
+
+			@Override
+			public EditorWrapperBase createEditorWrapper(final Object editor) {
+				return () -> editor;
+			}
+
+			@Override
+			public Document createDocument(Object editor) {
+				return new Document("project", editor + ".java", "src/", "");
+			}
+		};
+		InactivityNotifiers.USER_INACTIVITY
+				.updateNotifier(new UserInactivityNotifier(TIMEOUT, WatchDogEventType.USER_INACTIVITY));
+		InactivityNotifiers.READING
+				.updateNotifier(new InactivityNotifier(TIMEOUT, WatchDogEventType.READING_INACTIVITY));
+		InactivityNotifiers.TYPING.updateNotifier(new InactivityNotifier(TIMEOUT, WatchDogEventType.TYPING_INACTIVITY));
+	}
+
+	@After
+	public void tearDown() {
+		WatchDogEventRecorder.stopRecording();
+		recording.delete();
+	}
+
+	@Test
+	public void replay_produces_recorded_intervals() throws Exception {
+		WatchDogEventRecorder recorder = WatchDogEventRecorder.startRecording(recording);
+		long start = System.currentTimeMillis();
+		Object firstEditor = "First";
+		Object secondEditor = "Second";
+
+		WatchDogEventType.START_IDE.process(new Date(start), this);
+		WatchDogEventType.ACTIVE_WINDOW.process(new Date(start + 10), this);
+		WatchDogEventType.START_PERSPECTIVE.process(new Date(start + 15), Perspective.JAVA);
+		WatchDogEventType.ACTIVE_FOCUS.process(new Date(start + 20), firstEditor);
+		WatchDogEventType.START_EDIT.process(new Date(start + 30), firstEditor);
+		WatchDogEventType.SUBSEQUENT_EDIT.process(new Date(start + 40),
+				new WatchDogEventType.EditorWithModCount(firstEditor, 3));
+		WatchDogEventType.CARET_MOVED.process(new Date(start + 50), secondEditor);
+		WatchDogEventType.USER_INACTIVITY.process(new Date(start + 60), this);
+		WatchDogEventType.PAINT.process(new Date(start + 70), firstEditor);
+		WatchDogEventType.INACTIVE_FOCUS.process(new Date(start + 80), firstEditor);
+		WatchDogEventType.END_IDE.process(new Date(start + 90), this);
+
+		assertEquals(11, recorder.getRecordedEvents());
+		WatchDogEventRecorder.stopRecording();
+		intervalManager.closeAllIntervals(new Date(start + 90));
+
+		WatchDogEventReplayer replayer = new WatchDogEventReplayer(recording);
+		assertEquals(11, replayer.getNumberOfEvents());
+		ReplayResult result = replayer.replay(false);
+
+		assertEquals(11, result.getNumberOfEvents());
+		assertEquals(describe(savedIntervals), describe(result.getIntervals()));
+		assertEquals(savedIntervals.size(), result.formatIntervals().split("\n").length);
+		assertTrue(result.formatIntervals().contains(IntervalType.TYPING + " "));
+
+		// The single edit with a modification count adds a warning snapshot
+		assertEquals(1, result.getEvents().size());
+		FileWarningSnapshotEvent snapshot = (FileWarningSnapshotEvent) result.getEvents().get(0);
+		assertEquals(3, snapshot.warnings.size());
+	}
+
+	@Test
+	public void only_top_level_events_are_recorded() throws Exception {
+		WatchDogEventRecorder recorder = WatchDogEventRecorder.startRecording(recording);
+		long start = System.currentTimeMillis();
+
+		// Triggers a nested USER_ACTIVITY.
+		WatchDogEventType.ACTIVE_FOCUS.process(new Date(start), "Editor");
+
+		assertEquals(1, recorder.getRecordedEvents());
+	}
+
+	private static String describe(List<IntervalBase> intervals) {
+		StringBuilder builder = new StringBuilder();
+		for (IntervalBase interval : intervals) {
+			builder.append(interval.getType()).append(' ').append(interval.getStart().getTime()).append(' ')
+					.append(interval.getEnd().getTime()).append('\n');
+		}
+		return builder.toString();
+	}
+}
@@ -0,0 +1,90 @@
+package nl.tudelft.watchdog.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.codec.digest.DigestUtils;
+import org.junit.Test;
+
+import nl.tudelft.watchdog.core.util.LRUCache;
+import nl.tudelft.watchdog.core.util.WatchDogUtilsBase;
+
+/**
+ * Tests the {@link LRUCache} and the memoized hashes of
+ * {@link WatchDogUtilsBase}.
+ */
+public class LRUCacheTest {
+
+	private final AtomicInteger loads = new AtomicInteger();
+
+	private final LRUCache<String, String> cache = new LRUCache<String, String>(2);
+
+	@Test
+	public void values_are_loaded_once() {
+		assertEquals("A", cache.get("a", this::load));
+		assertEquals("A", cache.get("a", this::load));
+
+		assertEquals(1, loads.get());
+		assertEquals(1, cache.getHits());
+		assertEquals(1, cache.getMisses());
+		assertEquals(0.5, cache.getHitRate(), 0);
+	}
+
+	@Test
+	public void least_recently_used_value_is_evicted() {
+		cache.get("a", this::load);
+		cache.get("b", this::load);
+		cache.get("a", this::load);
+		cache.get("c", this::load);
+		cache.get("a", this::load);
+		cache.get("b", this::load);
+
+		assertEquals(4, loads.get());
+		assertEquals(2, cache.size());
+	}
+
+	@Test
+	public void null_values_are_cached() {
+		assertNull(cache.get("a", key -> {
+			loads.incrementAndGet();
+			return null;
+		}));
+		assertNull(cache.get("a", this::load));
+
+		assertEquals(1, loads.get());
+	}
+
+	@Test
+	public void invalidated_value_is_reloaded() {
+		cache.get("a", this::load);
+		cache.invalidate("a");
+		cache.get("a", this::load);
+
+		assertEquals(2, loads.get());
+	}
+
+	@Test
+	public void hash_equals_commons_codec() {
+		for (String name : new String[] { "", "AClass", "project", "\u00e4\u00df\u20ac", "testMethod" }) {
+			assertEquals(DigestUtils.sha1Hex(name), WatchDogUtilsBase.createHash(name));
+			assertEquals(DigestUtils.sha1Hex(name), WatchDogUtilsBase.createHash(name));
+		}
+	}
+
+	@Test
+	public void file_name_hash_is_memoized() {
+		String hash = WatchDogUtilsBase.createFileNameHash("org.some.package.ATest.java");
+		long hits = WatchDogUtilsBase.getFileNameHashCache().getHits();
+
+		assertEquals(hash, WatchDogUtilsBase.createFileNameHash("org.some.package.ATest.java"));
+		assertEquals(DigestUtils.sha1Hex("a") + "Test", hash);
+		assertEquals(hits + 1, WatchDogUtilsBase.getFileNameHashCache().getHits());
+	}
+
+	private String load(String key) {
+		loads.incrementAndGet();
+		return key.toUpperCase();
+	}
+}
@@ -0,0 +1,108 @@
+package nl.tudelft.watchdog.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import nl.tudelft.watchdog.core.logic.interval.intervaltypes.IDEOpenInterval;
+import nl.tudelft.watchdog.core.logic.interval.intervaltypes.IntervalBase;
+import nl.tudelft.watchdog.core.util.CoarseClock;
+import nl.tudelft.watchdog.core.util.VirtualClock;
+import nl.tudelft.watchdog.core.util.WatchDogClock;
+
+/**
+ * Tests for the {@link WatchDogClock} implementations.
+ */
+public class WatchDogClockTest {
+
+	private static final long START = 1000000000000L;
+
+	private static final long HOUR = 60 * 60 * 1000;
+
+	private VirtualClock clock;
+
+	private WatchDogClock previousClock;
+
+	@Before
+	public void setup() {
+		clock = new VirtualClock(START);
+		previousClock = WatchDogClock.set(clock);
+	}
+
+	@After
+	public void tearDown() {
+		WatchDogClock.set(previousClock);
+	}
+
+	@Test
+	public void open_interval_ends_at_virtual_time() {
+		IntervalBase interval = new IDEOpenInterval(clock.now());
+		clock.advance(8 * HOUR);
+
+		assertEquals(START + 8 * HOUR, interval.getEnd().getTime());
+		assertEquals(8 * HOUR, interval.getDuration().getMillis());
+
+		interval.setEndTime(clock.now());
+		interval.close();
+		clock.advance(HOUR);
+		assertEquals(8 * HOUR, interval.getDuration().getMillis());
+	}
+
+	@Test
+	public void virtual_monotonic_time_advances_with_wall_time() {
+		long nanoTime = clock.nanoTime();
+		clock.advance(1500);
+
+		assertEquals(1500 * 1000 * 1000L, clock.nanoTime() - nanoTime);
+	}
+
+	@Test
+	public void coarse_clock_follows_system_time() throws InterruptedException {
+		CoarseClock coarseClock = new CoarseClock();
+		for (int i = 0; i < 20; i++) {
+			long before = System.currentTimeMillis();
+			long time = coarseClock.currentTimeMillis();
+			long after = System.currentTimeMillis();
+
+			assertTrue(time >= before - 5 * CoarseClock.RESOLUTION);
+			assertTrue(time <= after);
+			Thread.sleep(CoarseClock.RESOLUTION / 2 + i);
+		}
+	}
+
+	@Test
+	public void coarse_clock_keeps_ticking_between_slow_reads() throws Exception {
+		CoarseClock coarseClock = new CoarseClock();
+		coarseClock.currentTimeMillis();
+		Thread.sleep(6 * CoarseClock.RESOLUTION);
+		// Measuring allocates by itself
+		long measuringOverhead = -getAllocatedBytesOfCurrentThread() + getAllocatedBytesOfCurrentThread();
+		long allocatedBefore = getAllocatedBytesOfCurrentThread();
+		for (int i = 0; i < 20; i++) {
+			coarseClock.currentTimeMillis();
+			Thread.sleep(6 * CoarseClock.RESOLUTION);
+		}
+		long allocatedAfter = getAllocatedBytesOfCurrentThread();
+
+		if (allocatedBefore >= 0 && allocatedAfter >= 0) {
+			// Restarting the updates would allocate a new task on every read
+			assertTrue(allocatedAfter - allocatedBefore - measuringOverhead < 20 * 32);
+		}
+	}
+
+	/** @return the bytes allocated by the current thread, or -1 if unknown. */
+	private static long getAllocatedBytesOfCurrentThread() {
+		ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+		if (threadBean instanceof com.sun.management.ThreadMXBean) {
+			return ((com.sun.management.ThreadMXBean) threadBean)
+					.getThreadAllocatedBytes(Thread.currentThread().getId());
+		}
+		return -1;
+	}
+}
@@ -3,6 +3,8 @@ package nl.tudelft.watchdog.util;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 
+import java.util.Random;
+
 import org.junit.Test;
 
 import nl.tudelft.watchdog.eclipse.util.WatchDogUtils;
@@ -12,6 +14,8 @@ import nl.tudelft.watchdog.eclipse.util.WatchDogUtils;
  */
 public class WatchDogUtilsTest {
 
+	private static final String[] SLOC_FRAGMENTS = { "a", "int x;", " ", "\t", "\n", "\r", "\r\n", "\u000b" };
+
 	@Test
 	public void is_empty() {
 		assertEquals(true, WatchDogUtils.isEmpty(null));
@@ -63,6 +67,18 @@ public class WatchDogUtilsTest {
 		assertEquals(3, WatchDogUtils.countSLOC("Now\r\nthree\r\nlines."));
 	}
 
+	@Test
+	public void count_sloc_equals_line_split() {
+		Random random = new Random(42);
+		for (int run = 0; run < 2000; run++) {
+			StringBuilder text = new StringBuilder();
+			for (int fragment = random.nextInt(30); fragment > 0; fragment--) {
+				text.append(SLOC_FRAGMENTS[random.nextInt(SLOC_FRAGMENTS.length)]);
+			}
+			assertEquals(text.toString(), countLines(text.toString()), WatchDogUtils.countSLOC(text));
+		}
+	}
+
 	@Test
 	public void file_name_hash() {
 		String expectedHash = "";
@@ -103,4 +119,14 @@ public class WatchDogUtilsTest {
 				WatchDogUtils.createFileNameHash("AClassTest.java"));
 	}
 
+	/** Counts the source lines of code by splitting the text into lines. */
+	private static long countLines(String text) {
+		long sloc = 0;
+		for (String line : text.split("\r\n|\r|\n")) {
+			if (!line.trim().isEmpty()) {
+				sloc++;
+			}
+		}
+		return sloc;
+	}
 }
@@ -2,6 +2,9 @@ package nl.tudelft.watchdog.intellij.logic;
 
 import com.intellij.ide.plugins.IdeaPluginDescriptor;
 import com.intellij.ide.plugins.PluginManager;
+import com.intellij.openapi.application.Application;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.application.ModalityState;
 import com.intellij.openapi.editor.Editor;
 import com.intellij.openapi.extensions.PluginId;
 import com.intellij.openapi.project.Project;
@@ -10,7 +13,10 @@ import nl.tudelft.watchdog.core.logic.document.Document;
 import nl.tudelft.watchdog.core.logic.document.EditorWrapperBase;
 import nl.tudelft.watchdog.core.logic.event.TrackingEventManager;
 import nl.tudelft.watchdog.core.logic.network.TransferManagerBase;
+import nl.tudelft.watchdog.core.logic.storage.JsonExportSink;
+import nl.tudelft.watchdog.core.logic.storage.WatchDogItemSink;
 import nl.tudelft.watchdog.core.logic.ui.TimeSynchronityChecker;
+import nl.tudelft.watchdog.core.logic.ui.events.WatchDogEventRecorder;
 import nl.tudelft.watchdog.core.logic.ui.events.WatchDogEventType;
 import nl.tudelft.watchdog.intellij.logic.document.DocumentCreator;
 import nl.tudelft.watchdog.intellij.logic.document.EditorWrapper;
@@ -22,6 +28,7 @@ import nl.tudelft.watchdog.intellij.util.WatchDogUtils;
 
 import java.io.File;
 import java.util.HashMap;
+import java.util.concurrent.RejectedExecutionException;
 
 /**
  * Manages the setup process of the interval and event recording infrastructure. Is a
@@ -72,10 +79,24 @@ public class InitializationManager {
 
         // Initialize managers
         intervalManager = new IntervalManager(toTransferPersister, statisticsPersister);
+        // The event dispatch thread owns the interval manager.
+        final Application application = ApplicationManager.getApplication();
+        intervalManager.confineTo(getDispatchThread(application), command -> {
+            if (application.isDisposed()) {
+                throw new RejectedExecutionException("The application is disposed.");
+            }
+            application.invokeLater(command, ModalityState.any());
+        });
         WatchDogEventType.intervalManager = intervalManager;
         WatchDogEventType.editorSpecificImplementation = new IntelliJWatchDogEventEditorSpecificImplementation();
+        WatchDogEventRecorder.startRecordingIfRequested();
         trackingEventManager = new TrackingEventManager(toTransferPersister, statisticsPersister);
         trackingEventManager.setSessionSeed(intervalManager.getSessionSeed());
+        WatchDogItemSink exportSink = JsonExportSink.getRequestedSink();
+        if (exportSink != null) {
+            intervalManager.addSink(exportSink);
+            trackingEventManager.addSink(exportSink);
+        }
         new TimeSynchronityChecker(intervalManager);
         transferManager = new TransferManagerBase(toTransferPersister, WatchDogUtils.getProjectName());
 
@@ -104,10 +125,15 @@ public class InitializationManager {
     }
 
     /**
-     * Closes the database. The database can recover even if it is not closed
-     * properly, but it is good practice to close it anyway.
+     * Drops the interval commands still queued for the UI thread, saves the
+     * items still queued for the statistics and closes the database. The
+     * database can recover even if it is not closed properly, but it is good
+     * practice to close it anyway.
      */
     public void shutdown(String projectName) {
+        intervalManager.stopExecution();
+        intervalManager.closeStatisticsSink();
+        trackingEventManager.closeStatisticsSink();
         toTransferPersister.closeDatabase();
         statisticsPersister.closeDatabase();
         Disposer.dispose(intelliJListener);
@@ -124,6 +150,16 @@ public class InitializationManager {
         return transferManager;
     }
 
+    /** @return the event dispatch thread, waiting for it once if called from another thread. */
+    private static Thread getDispatchThread(Application application) {
+        if (application.isDispatchThread()) {
+            return Thread.currentThread();
+        }
+        Thread[] dispatchThread = new Thread[1];
+        application.invokeAndWait(() -> dispatchThread[0] = Thread.currentThread(), ModalityState.any());
+        return dispatchThread[0];
+    }
+
     private class IntelliJWatchDogEventEditorSpecificImplementation implements WatchDogEventType.WatchDogEventEditorSpecificImplementation {
         @Override
         public void addJUnitInterval(Object source) {
@@ -5,6 +5,7 @@ import com.intellij.openapi.fileEditor.FileDocumentManager;
 import com.intellij.openapi.project.Project;
 import com.intellij.openapi.vfs.VirtualFile;
 import nl.tudelft.watchdog.core.logic.document.Document;
+import nl.tudelft.watchdog.core.logic.document.DocumentCache;
 import nl.tudelft.watchdog.core.util.WatchDogLogger;
 import nl.tudelft.watchdog.intellij.util.WatchDogUtils;
 
@@ -12,10 +13,15 @@ import nl.tudelft.watchdog.intellij.util.WatchDogUtils;
  * A factory for creating {@link nl.tudelft.watchdog.core.logic.document.Document}s from a supplied {@link Editor}.
  */
 public class DocumentCreator {
+
+    private static final DocumentCache CACHE = new DocumentCache(DocumentCache.DEFAULT_CAPACITY);
+
     /**
      * Factory method that creates and returns a {@link nl.tudelft.watchdog.core.logic.document.Document} from a given
      * {@link Editor}. For this to succeed, it is necessary that the the
-     * supplied part is Project.
+     * supplied part is Project. Unchanged documents are prepared with the
+     * statistics of the {@link DocumentCache}, otherwise they are prepared
+     * later by the closer of their interval.
      */
     public static Document createDocument(Editor editor) {
         String activeProjectName = null;
@@ -32,13 +38,12 @@ public class DocumentCreator {
             // Intentionally left empty
         }
 
-        try {
-            return new Document(activeProjectName, title, filePath,
-                    getEditorOrFileContent(editor));
-        } catch (IllegalArgumentException exception) {
-            WatchDogLogger.getInstance().logSevere(exception);
+        String content = getEditorOrFileContent(editor);
+        if (filePath.isEmpty()) {
+            return new Document(activeProjectName, title, filePath, content);
         }
-        return new Document(activeProjectName, title, filePath, null);
+        long modificationStamp = editor.getDocument().getModificationStamp();
+        return CACHE.createDocument(filePath, modificationStamp, activeProjectName, title, filePath, content);
     }
 
     /**
@@ -1,10 +1,12 @@
 package nl.tudelft.watchdog.intellij.logic.interval;
 
 import nl.tudelft.watchdog.core.logic.interval.IDEIntervalManagerBase;
+import nl.tudelft.watchdog.core.logic.interval.intervaltypes.IntervalBase;
 import nl.tudelft.watchdog.core.logic.interval.intervaltypes.TypingInterval;
 import nl.tudelft.watchdog.core.logic.storage.PersisterBase;
 import nl.tudelft.watchdog.intellij.logic.document.DocumentCreator;
 import nl.tudelft.watchdog.intellij.logic.document.EditorWrapper;
+import nl.tudelft.watchdog.intellij.logic.interval.intervaltypes.JUnitInterval;
 
 /**
  * The interval manager for the IntelliJ plugin
@@ -24,4 +26,13 @@ public class IntervalManager extends IDEIntervalManagerBase {
         typingInterval.setEndingDocument(DocumentCreator
                 .createDocument(((EditorWrapper) typingInterval.getEditorWrapper()).getEditor()));
     }
+
+    /** Aggregates the statistics of JUnit intervals per execution result. */
+    @Override
+    protected Object getStatisticsDetailKey(IntervalBase interval) {
+        if (interval instanceof JUnitInterval) {
+            return ((JUnitInterval) interval).getExecutionResult();
+        }
+        return null;
+    }
 }
@@ -1,18 +1,28 @@
 package nl.tudelft.watchdog.intellij.logic.ui.listeners;
 
 import com.intellij.openapi.Disposable;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.command.CommandAdapter;
+import com.intellij.openapi.command.CommandEvent;
+import com.intellij.openapi.command.CommandProcessor;
 import com.intellij.openapi.editor.Document;
 import com.intellij.openapi.editor.Editor;
 import com.intellij.openapi.editor.event.*;
 
+import nl.tudelft.watchdog.core.logic.ui.EditAggregator;
 import nl.tudelft.watchdog.core.logic.ui.events.WatchDogEventType;
 
-import java.util.Date;
+import java.util.ArrayList;
+import java.util.List;
 
 /** Editor listener for all user-triggered events. */
 public class EditorListener implements Disposable {
     private final Editor editor;
     private final Document document;
+    private final EditAggregator edits;
+
+    /** The command in which the document was last changed, see {@link CommandTracker#command}. */
+    private long lastChangedCommand;
 
     private DocumentListener documentListener;
     private CaretListener caretListener;
@@ -22,19 +32,31 @@ public class EditorListener implements Disposable {
     EditorListener(Editor editor) {
         this.editor = editor;
         this.document = editor.getDocument();
+        this.edits = new EditAggregator(editor);
         listenToDocumentChanges();
         listenToEditorScrolling();
     }
 
     /**
-     * Adds a document change listener to the supplied editor.
+     * Adds a document change listener to the supplied editor. The changes made
+     * by one command or undo-transparent action, e.g. a refactoring or the
+     * formatter, are aggregated into a single edit. As every typed character
+     * is a command of its own, a command only becomes a bulk edit of this
+     * editor once it changes the document a second time.
      */
     private void listenToDocumentChanges() {
         documentListener = new DocumentListener() {
 
             @Override
             public void beforeDocumentChange(DocumentEvent event) {
-                WatchDogEventType.START_EDIT.process(editor);
+                CommandTracker commands = CommandTracker.getInstance();
+                if (commands.isInCommand()) {
+                    if (lastChangedCommand == commands.command && !edits.isBulkEdit()) {
+                        commands.startBulkEdit(edits);
+                    }
+                    lastChangedCommand = commands.command;
+                }
+                edits.beforeChange();
             }
 
             @Override
@@ -54,7 +76,7 @@ public class EditorListener implements Disposable {
                 int new_length = event.getNewFragment().length();
                 int old_length = event.getOldFragment().length();
                 int modCount = Math.max(old_length, new_length);
-                WatchDogEventType.SUBSEQUENT_EDIT.process(new Date(), new WatchDogEventType.EditorWithModCount(editor, modCount));
+                edits.changed(modCount);
             }
 
         };
@@ -92,6 +114,76 @@ public class EditorListener implements Disposable {
 
     }
 
+    /**
+     * Tracks the commands and undo-transparent actions of IntelliJ, which are global, with one listener for
+     * all editors. Ends the bulk edits of the editors that were changed more than once in the outermost
+     * command, once it is finished. Only used on the event dispatch thread.
+     */
+    private static class CommandTracker extends CommandAdapter {
+
+        private static CommandTracker instance;
+
+        /** Identifies the current outermost command, increased whenever one starts. */
+        private long command;
+
+        private int depth;
+
+        private final List<EditAggregator> bulkEdits = new ArrayList<>();
+
+        private static CommandTracker getInstance() {
+            if (instance == null) {
+                instance = new CommandTracker();
+                CommandProcessor.getInstance().addCommandListener(instance, ApplicationManager.getApplication());
+            }
+            return instance;
+        }
+
+        private boolean isInCommand() {
+            return depth > 0;
+        }
+
+        private void startBulkEdit(EditAggregator edits) {
+            edits.startBulkEdit();
+            bulkEdits.add(edits);
+        }
+
+        private void started() {
+            if (depth++ == 0) {
+                command++;
+            }
+        }
+
+        private void finished() {
+            if (depth == 0 || --depth > 0) {
+                return;
+            }
+            for (EditAggregator edits : bulkEdits) {
+                edits.endBulkEdit();
+            }
+            bulkEdits.clear();
+        }
+
+        @Override
+        public void commandStarted(CommandEvent event) {
+            started();
+        }
+
+        @Override
+        public void commandFinished(CommandEvent event) {
+            finished();
+        }
+
+        @Override
+        public void undoTransparentActionStarted() {
+            started();
+        }
+
+        @Override
+        public void undoTransparentActionFinished() {
+            finished();
+        }
+    }
+
     @Override
     public void dispose() {
         document.removeDocumentListener(documentListener);
@@ -3,7 +3,8 @@ package nl.tudelft.watchdog.intellij.logic.ui.listeners.staticanalysis;
 import com.intellij.openapi.components.ProjectComponent;
 import com.intellij.openapi.components.ServiceManager;
 import com.intellij.openapi.project.Project;
-import nl.tudelft.watchdog.core.logic.ui.listeners.staticanalysis.StaticAnalysisMessageClassifier;
+import nl.tudelft.watchdog.core.logic.ui.listeners.staticanalysis.CheckStyleBundleLoader;
+import nl.tudelft.watchdog.core.logic.ui.listeners.staticanalysis.CheckStyleBundleLoader.MessageSource;
 import nl.tudelft.watchdog.core.util.WatchDogLogger;
 import org.infernus.idea.checkstyle.CheckStylePlugin;
 import org.infernus.idea.checkstyle.CheckstyleClassLoader;
@@ -16,14 +17,13 @@ import org.jetbrains.annotations.NotNull;
 import java.lang.reflect.Field;
 import java.util.HashMap;
 import java.util.Map;
-
-import static nl.tudelft.watchdog.core.logic.ui.listeners.staticanalysis.CheckStyleChecksMessagesFetcher.addCheckStyleMessagesToBundle;
-import static nl.tudelft.watchdog.core.logic.ui.listeners.staticanalysis.CheckStyleChecksMessagesFetcher.addMessageToCheckstyleBundle;
+import java.util.function.BiConsumer;
 
 /**
  * Component that is lazily initiated, only if the CheckStyle-IDEA plugin is actually available in the editor.
  * It loads the default configured messages from CheckStyle (in their `messages.properties` files) and
- * traverses the currently activated configuration for any custom messages.
+ * traverses the currently activated configuration for any custom messages. Both happen in the background in the
+ * {@link CheckStyleBundleLoader}, and the custom messages are loaded again whenever the configuration changes.
  */
 public class CheckStyleStartup implements ProjectComponent {
 
@@ -39,30 +39,53 @@ public class CheckStyleStartup implements ProjectComponent {
             // Older versions of the CheckstylePlugin do not have the API and we still have to classloader magic.
             // We know they will keep on working, but for newer versions we do want to use the API, because
             // that guarantees backwards compatibility
+            MessageSource customMessages;
             try {
-                initComponentWithCheckstylePluginAPI();
+                CheckstylePluginApi pluginApi = ServiceManager.getService(this.project, CheckstylePluginApi.class);
+
+                customMessages = messages -> pluginApi.visitCurrentConfiguration(
+                        (description, module) -> addMessagesForActiveConfiguration(description, module, messages));
+                loadMessages(pluginApi.currentCheckstyleClassLoader(), customMessages);
             } catch (Exception e) {
                 CheckstyleProjectService service = ServiceManager.getService(this.project, CheckstyleProjectService.class);
 
-                addCheckStyleMessagesToBundle(getPluginCreatedClassLoaderFromService(service));
-                addMessagesForActiveConfiguration(service);
+                customMessages = messages -> addMessagesForActiveConfiguration(service, messages);
+                loadMessages(getPluginCreatedClassLoaderFromService(service), customMessages);
             }
 
-            StaticAnalysisMessageClassifier.CHECKSTYLE_BUNDLE.sortList();
+            reloadMessagesOnConfigurationChange(customMessages);
         } catch (Exception e) {
-            WatchDogLogger.getInstance().logSevere("Could not initialize the CheckStyle plugin. This is likely an issue with an outdated version of the CheckStyle plugin: " + e);
+            logInitializationFailure(e);
         }
     }
 
-    private void initComponentWithCheckstylePluginAPI() throws Exception {
-        CheckstylePluginApi pluginApi = ServiceManager.getService(this.project, CheckstylePluginApi.class);
+    @Override
+    public void disposeComponent() {
+        CheckStyleBundleLoader.unload(this.project);
+    }
+
+    private void loadMessages(ClassLoader checkStyleClassLoader, MessageSource customMessages) {
+        CheckStyleBundleLoader.load(checkStyleClassLoader, this.project, customMessages)
+                .exceptionally(CheckStyleStartup::logInitializationFailure);
+    }
+
+    private void reloadMessagesOnConfigurationChange(MessageSource customMessages) {
+        try {
+            project.getComponent(CheckStylePlugin.class).configurationManager().addConfigurationListener(() ->
+                    CheckStyleBundleLoader.reloadCustomMessages(this.project, customMessages)
+                            .exceptionally(CheckStyleStartup::logInitializationFailure));
+        } catch (Exception | LinkageError e) {
+            // Older versions of the plugin can not notify us, keep the messages of the initial configuration
+            logInitializationFailure(e);
+        }
+    }
 
-        addCheckStyleMessagesToBundle(pluginApi.currentCheckstyleClassLoader());
-        pluginApi.visitCurrentConfiguration(this::addMessagesForActiveConfiguration);
+    private static Void logInitializationFailure(Throwable e) {
+        WatchDogLogger.getInstance().logSevere("Could not initialize the CheckStyle plugin. This is likely an issue with an outdated version of the CheckStyle plugin: " + e);
+        return null;
     }
 
-    // TODO (TimvdLippe): update the messages when the configuration changes
-    private void addMessagesForActiveConfiguration(CheckstyleProjectService service) {
+    private void addMessagesForActiveConfiguration(CheckstyleProjectService service, BiConsumer<String, String> messages) {
         final CheckStylePlugin checkStylePlugin = project.getComponent(CheckStylePlugin.class);
         final ConfigurationLocation activeConfigLocation = checkStylePlugin.configurationManager().getCurrent().getActiveLocation();
 
@@ -73,15 +96,15 @@ public class CheckStyleStartup implements ProjectComponent {
         service.getCheckstyleInstance().peruseConfiguration(
                 service.getCheckstyleInstance()
                         .loadConfiguration(activeConfigLocation, true, new HashMap<>()),
-                module -> addMessagesForActiveConfiguration(activeConfigLocation.getDescription(), module)
+                module -> addMessagesForActiveConfiguration(activeConfigLocation.getDescription(), module, messages)
         );
     }
 
-    private void addMessagesForActiveConfiguration(String description, ConfigurationModule module) {
+    private static void addMessagesForActiveConfiguration(String description, ConfigurationModule module, BiConsumer<String, String> messages) {
         String moduleKey = description + "." + module.getName() + ".";
 
         for (Map.Entry<String, String> message : module.getMessages().entrySet()) {
-            addMessageToCheckstyleBundle(moduleKey + message.getKey(), message.getValue());
+            messages.accept(moduleKey + message.getKey(), message.getValue());
         }
     }
 
@@ -6,6 +6,7 @@ import com.intellij.codeInsight.daemon.DaemonCodeAnalyzer;
 import com.intellij.codeInsight.daemon.impl.DaemonCodeAnalyzerImpl;
 import com.intellij.codeInsight.daemon.impl.HighlightInfo;
 import com.intellij.openapi.Disposable;
+import com.intellij.openapi.application.PathManager;
 import com.intellij.openapi.editor.Editor;
 import com.intellij.openapi.editor.ex.RangeHighlighterEx;
 import com.intellij.openapi.editor.impl.DocumentMarkupModel;
@@ -20,16 +21,21 @@ import com.intellij.openapi.util.Disposer;
 import com.intellij.util.messages.MessageBusConnection;
 import nl.tudelft.watchdog.core.logic.document.Document;
 import nl.tudelft.watchdog.core.logic.event.TrackingEventManager;
+import nl.tudelft.watchdog.core.logic.ui.listeners.staticanalysis.ClassificationBundleCache;
 import nl.tudelft.watchdog.core.logic.ui.listeners.staticanalysis.CoreMarkupModelListener;
-import nl.tudelft.watchdog.core.logic.event.eventtypes.staticanalysis.FileWarningSnapshotEvent;
+import nl.tudelft.watchdog.core.logic.ui.listeners.staticanalysis.PendingWarningChanges;
 import nl.tudelft.watchdog.core.logic.ui.listeners.staticanalysis.StaticAnalysisMessageClassifier;
 import nl.tudelft.watchdog.core.logic.ui.listeners.staticanalysis.Warning;
+import nl.tudelft.watchdog.core.logic.ui.listeners.staticanalysis.WarningLifetimeIndex;
+import nl.tudelft.watchdog.core.util.WatchDogClock;
 import nl.tudelft.watchdog.intellij.logic.document.DocumentCreator;
 import org.jetbrains.annotations.NotNull;
 import org.joda.time.DateTime;
 import org.joda.time.Seconds;
 
+import java.io.File;
 import java.util.*;
+import java.util.concurrent.Executors;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -38,28 +44,38 @@ import static nl.tudelft.watchdog.core.logic.ui.listeners.staticanalysis.StaticA
 public class IntelliJMarkupModelListener extends CoreMarkupModelListener implements MarkupModelListener, Disposable {
 
 	static {
-		IDE_BUNDLE.createPatternsForKeysInBundle("messages.InspectionsBundle");
-		IDE_BUNDLE.createPatternsForKeysInBundle("com.siyeh.InspectionGadgetsBundle");
+		ClassificationBundleCache bundleCache = new ClassificationBundleCache(
+				new File(PathManager.getSystemPath(), "watchdogClassificationBundle.cache"));
+		bundleCache.addResourceBundle("messages.InspectionsBundle");
+		bundleCache.addResourceBundle("com.siyeh.InspectionGadgetsBundle");
 
-		IDE_BUNDLE.sortList();
+		bundleCache.loadInto(IDE_BUNDLE);
 	}
 
+	/**
+	 * The index is updated on the event dispatch thread while a document is saved, so its files are written
+	 * on their own thread.
+	 */
+	private static final WarningLifetimeIndex LIFETIME_INDEX = new WarningLifetimeIndex(
+			new File(PathManager.getSystemPath(), "watchdogWarningLifetimes"),
+			Executors.newSingleThreadExecutor(runnable -> {
+				Thread thread = new Thread(runnable, "WatchDog warning lifetimes");
+				thread.setDaemon(true);
+				return thread;
+			}));
+
 	private final Document document;
 	private final TrackingEventManager trackingEventManager;
 	private final com.intellij.openapi.editor.Document intellijDocument;
 
-	private final Set<Warning<RangeHighlighterEx>> generatedWarnings;
-	private final Set<Warning<RangeHighlighterEx>> warnings;
-	private final Map<RangeHighlighterEx, DateTime> timeMapping;
+	private final PendingWarningChanges<RangeHighlighterEx> pendingWarnings;
 
 	private IntelliJMarkupModelListener(Document document, TrackingEventManager trackingEventManager, com.intellij.openapi.editor.Document intellijDocument) {
 		this.document = document;
 		this.trackingEventManager = trackingEventManager;
 		this.intellijDocument = intellijDocument;
 
-		generatedWarnings = new HashSet<>();
-		warnings = new HashSet<>();
-		timeMapping = new WeakHashMap<>();
+		pendingWarnings = new PendingWarningChanges<>();
 	}
 
 	/**
@@ -111,13 +127,12 @@ public class IntelliJMarkupModelListener extends CoreMarkupModelListener impleme
 
 						// We batch up changes and only transfer them on every save. This is in-line with the Eclipse
 						// interface, which only exposes listeners for `POST_BUILD`. Therefore, cache all warnings in
-						// {@link IntelliJMarkupModelListener#generatedWarnings} and {@link IntelliJMarkupModelListener#warnings}
-						// and flush these warnings after the fact.
+						// {@link IntelliJMarkupModelListener#pendingWarnings} and flush these warnings after the fact.
 						documentMessageBusConnection.subscribe(AppTopics.FILE_DOCUMENT_SYNC, new FileDocumentManagerAdapter() {
 							@Override
 							public void beforeDocumentSaving(@NotNull com.intellij.openapi.editor.Document savedDocument) {
 								if (intellijDocument.equals(savedDocument)) {
-									markupModelListener.flushForDocument();
+									markupModelListener.flushForDocument(markupModel.getAllHighlighters());
 								}
 							}
 						});
@@ -131,6 +146,8 @@ public class IntelliJMarkupModelListener extends CoreMarkupModelListener impleme
 	}
 
 	private void processWarningSnapshot(RangeHighlighter[] highlighters) {
+		updateLifetimes(highlighters);
+
 		if (highlighters.length == 0) {
 			return;
 		}
@@ -143,43 +160,76 @@ public class IntelliJMarkupModelListener extends CoreMarkupModelListener impleme
 				.filter(RangeHighlighterEx.class::isInstance)
 				.map(RangeHighlighterEx.class::cast);
 
+		// One creation time for the whole snapshot, so that it can be stored as a delta
+		final DateTime now = new DateTime(WatchDogClock.get().currentTimeMillis());
 		final List<Warning<String>> warnings = rangeHighlighters
 				.filter(IntelliJMarkupModelListener::isWarningRangeHighlighter)
-				.map(rangeHighlighter -> createWarningFromRangeHighlighter(rangeHighlighter, null))
-				.map(IntelliJMarkupModelListener::classifyWarning)
+				.map(rangeHighlighter -> createWarningFromRangeHighlighter(rangeHighlighter, null, now))
+				.map(IntelliJMarkupModelListener::describeWarning)
 				.collect(Collectors.toList());
 
-		this.trackingEventManager.addEvent(new FileWarningSnapshotEvent(this.document.prepareDocument(), warnings));
+		// The highlighters are only read here, the descriptions are classified once the CheckStyle bundle is loaded
+		StaticAnalysisMessageClassifier.runWhenCheckStyleBundleReady(() -> addWarningSnapshot(this.trackingEventManager,
+				this.document.prepareDocument(), warnings.stream().map(IntelliJMarkupModelListener::classifyWarning).collect(Collectors.toList())));
 	}
 
-	private void flushForDocument() {
-		addCreatedWarnings(this.trackingEventManager, this.generatedWarnings.stream().map(IntelliJMarkupModelListener::classifyWarning), this.document);
-		this.generatedWarnings.clear();
+	private void flushForDocument(RangeHighlighter[] highlighters) {
+		final List<Warning<String>> createdWarnings = describeWarnings(this.pendingWarnings.drainCreatedWarnings());
+		final List<Warning<String>> removedWarnings = describeWarnings(this.pendingWarnings.drainRemovedWarnings());
+
+		StaticAnalysisMessageClassifier.runWhenCheckStyleBundleReady(() -> {
+			addCreatedWarnings(this.trackingEventManager, createdWarnings.stream().map(IntelliJMarkupModelListener::classifyWarning), this.document);
+			addRemovedWarnings(this.trackingEventManager, removedWarnings.stream().map(IntelliJMarkupModelListener::classifyWarning), this.document);
+		});
+		updateLifetimes(highlighters);
+	}
 
-		addRemovedWarnings(this.trackingEventManager, this.warnings.stream().map(IntelliJMarkupModelListener::classifyWarning), this.document);
-		this.warnings.clear();
+	/**
+	 * Stores the current warnings in the {@link WarningLifetimeIndex}, and remembers the times at which they
+	 * were first seen, possibly in a previous session, as their creation times.
+	 */
+	private void updateLifetimes(RangeHighlighter[] highlighters) {
+		if (this.document.getFilePath() == null) {
+			return;
+		}
+
+		final List<RangeHighlighterEx> warningHighlighters = Arrays.stream(highlighters)
+				.filter(RangeHighlighterEx.class::isInstance)
+				.map(RangeHighlighterEx.class::cast)
+				.filter(IntelliJMarkupModelListener::isWarningRangeHighlighter)
+				.sorted(Comparator.comparingInt(RangeHighlighterEx::getAffectedAreaStartOffset))
+				.collect(Collectors.toList());
+		final List<String> descriptions = warningHighlighters.stream()
+				.map(IntelliJMarkupModelListener::getDescription)
+				.collect(Collectors.toList());
+		final List<Date> creationTimes = warningHighlighters.stream()
+				.map(this.pendingWarnings::getCreationTime)
+				.collect(Collectors.toList());
+
+		final Date[] firstSeenTimes = LIFETIME_INDEX.update(this.document.getFilePath(), descriptions, creationTimes, WatchDogClock.get().now());
+		for (int i = 0; i < firstSeenTimes.length; i++) {
+			this.pendingWarnings.setCreationTime(warningHighlighters.get(i), firstSeenTimes[i]);
+		}
 	}
 
 	@Override
 	public void afterAdded(@NotNull RangeHighlighterEx rangeHighlighterEx) {
 		if (isWarningRangeHighlighter(rangeHighlighterEx)) {
-			final DateTime creationTime = DateTime.now();
+			final DateTime creationTime = new DateTime(WatchDogClock.get().currentTimeMillis());
+			final int lineNumber = getLineNumberForHighlighter(rangeHighlighterEx);
 
-			this.timeMapping.put(rangeHighlighterEx, creationTime);
-			this.generatedWarnings.add(new Warning<>(intellijDocument.getLineCount(), rangeHighlighterEx, getLineNumberForHighlighter(rangeHighlighterEx), creationTime.toDate()));
+			this.pendingWarnings.created(rangeHighlighterEx, createKey(rangeHighlighterEx, lineNumber),
+					new Warning<>(intellijDocument.getLineCount(), rangeHighlighterEx, lineNumber, creationTime.toDate()));
 		}
 	}
 
 	@Override
 	public void beforeRemoved(@NotNull RangeHighlighterEx rangeHighlighterEx) {
-		DateTime creationTime = this.timeMapping.remove(rangeHighlighterEx);
-
 		if (isWarningRangeHighlighter(rangeHighlighterEx)) {
-			// Only process a deletion if we hadn't encountered this marker in this session before.
-			// If we did encounter it, remove returns `true` and the warning is not saved as removed.
-			if (!this.generatedWarnings.removeIf(warning -> warning.type.equals(rangeHighlighterEx))) {
-				this.warnings.add(createWarningFromRangeHighlighter(rangeHighlighterEx, creationTime));
-			}
+			// A deletion of a marker that was created since the last flush, or that is replaced by an equal
+			// marker, is not saved as removed.
+			this.pendingWarnings.removed(rangeHighlighterEx, createKey(rangeHighlighterEx, getLineNumberForHighlighter(rangeHighlighterEx)),
+					creationTime -> createWarningFromRangeHighlighter(rangeHighlighterEx, creationTime == null ? null : new DateTime(creationTime)));
 		}
 	}
 
@@ -199,8 +249,11 @@ public class IntelliJMarkupModelListener extends CoreMarkupModelListener impleme
 
 	@NotNull
 	private Warning<RangeHighlighterEx> createWarningFromRangeHighlighter(@NotNull RangeHighlighterEx rangeHighlighterEx, DateTime creationTime) {
-		final DateTime now = DateTime.now();
+		return createWarningFromRangeHighlighter(rangeHighlighterEx, creationTime, new DateTime(WatchDogClock.get().currentTimeMillis()));
+	}
 
+	@NotNull
+	private Warning<RangeHighlighterEx> createWarningFromRangeHighlighter(@NotNull RangeHighlighterEx rangeHighlighterEx, DateTime creationTime, DateTime now) {
 		int seconds;
 
 		if (creationTime == null) {
@@ -229,16 +282,40 @@ public class IntelliJMarkupModelListener extends CoreMarkupModelListener impleme
 		}
 	}
 
-	private static Warning<String> classifyWarning(Warning<RangeHighlighterEx> warning) {
-		return new Warning<>(warning.docTotalLines, classifyWarningTypeFromHighlighter(warning.type), warning.lineNumber, warning.warningCreationTime, warning.secondsBetween);
+	/**
+	 * @return the key under which highlighters are considered equal, so that replacing one by another
+	 *         is not a change.
+	 */
+	private static String createKey(@NotNull RangeHighlighterEx rangeHighlighterEx, int lineNumber) {
+		return getDescription(rangeHighlighterEx) + "\n" + lineNumber;
 	}
 
-	@NotNull
-	private static String classifyWarningTypeFromHighlighter(@NotNull RangeHighlighterEx rangeHighlighterEx) {
+	private static String getDescription(@NotNull RangeHighlighterEx rangeHighlighterEx) {
 		final Object errorStripeTooltip = rangeHighlighterEx.getErrorStripeTooltip();
 
-		if (errorStripeTooltip instanceof HighlightInfo) {
-			return StaticAnalysisMessageClassifier.classify(((HighlightInfo) errorStripeTooltip).getDescription());
+		return errorStripeTooltip instanceof HighlightInfo ? ((HighlightInfo) errorStripeTooltip).getDescription() : null;
+	}
+
+	private static List<Warning<String>> describeWarnings(List<Warning<RangeHighlighterEx>> warnings) {
+		return warnings.stream().map(IntelliJMarkupModelListener::describeWarning).collect(Collectors.toList());
+	}
+
+	/**
+	 * @return the warning with the description of its highlighter as type, so that it can be classified
+	 *         without accessing the highlighter later on.
+	 */
+	private static Warning<String> describeWarning(Warning<RangeHighlighterEx> warning) {
+		return new Warning<>(warning.docTotalLines, getDescription(warning.type), warning.lineNumber, warning.warningCreationTime, warning.secondsBetween);
+	}
+
+	private static Warning<String> classifyWarning(Warning<String> warning) {
+		return new Warning<>(warning.docTotalLines, classifyDescription(warning.type), warning.lineNumber, warning.warningCreationTime, warning.secondsBetween);
+	}
+
+	@NotNull
+	private static String classifyDescription(String description) {
+		if (description != null) {
+			return StaticAnalysisMessageClassifier.classify(description);
 		}
 
 		return "unknown";
@@ -211,8 +211,8 @@ public class WatchDogView extends SimpleToolWindowPanel {
         // Scale the chart based on the selected debug interval.
         CategoryPlot plot = chart.getCategoryPlot();
         ValueAxis axis = plot.getRangeAxis();
-        axis.setRangeWithMargins(selectedDebugInterval.getStart().getTime() - EventStatistics.PRE_SESSION_TIME_TO_INCLUDE,
-                selectedDebugInterval.getEnd().getTime());
+        axis.setRangeWithMargins(selectedDebugInterval.getStartTime() - EventStatistics.PRE_SESSION_TIME_TO_INCLUDE,
+                selectedDebugInterval.getEndTime());
 
         // Give each event type a different color.
         plot.setRenderer(new WatchDogGanttRenderer());